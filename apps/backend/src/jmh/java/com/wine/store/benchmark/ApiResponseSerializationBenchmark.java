@@ -0,0 +1,72 @@
+package com.wine.store.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.wine.store.dto.ApiResponse;
+import com.wine.store.dto.WineCardDTO;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.mapper.WineMapper;
+import com.wine.store.mapper.WineMapperImpl;
+import com.wine.store.model.Dish;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * НАЗНАЧЕНИЕ: Стоимость сериализации ответа GET /api/wines — ApiResponse<Page<WineCardDTO>> из 12 вин,
+ * для сравнения — та же страница полных WineDTO (как отдавался список до карточек).
+ * ОСОБЕННОСТИ: ObjectMapper настроен как в приложении (Jackson2ObjectMapperBuilder + SNAKE_CASE из
+ * spring.jackson.property-naming-strategy).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApiResponseSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 12;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+            .build();
+    private ApiResponse<Page<WineDTO>> response;
+    private ApiResponse<Page<WineCardDTO>> cardResponse;
+
+    @Setup
+    public void setUp() {
+        SyntheticCatalog catalog = new SyntheticCatalog(5);
+        WineMapper wineMapper = new WineMapperImpl();
+        List<Dish> dishes = catalog.dishes(40);
+        List<WineDTO> wines = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            WineDTO wine = wineMapper.toDto(catalog.wine(i, dishes));
+            wine.setId((long) i + 1);
+            wines.add(wine);
+        }
+        response = ApiResponse.success(new PageImpl<>(wines, PageRequest.of(0, PAGE_SIZE), 10_000));
+        cardResponse = ApiResponse.success(new PageImpl<>(wines.stream().map(WineCardDTO::of).toList(),
+                PageRequest.of(0, PAGE_SIZE), 10_000));
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeCardPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cardResponse);
+    }
+}
@@ -0,0 +1,95 @@
+package com.wine.store.benchmark;
+
+import com.wine.store.model.Dish;
+import com.wine.store.model.Wine;
+import com.wine.store.repository.DishRepository;
+import com.wine.store.repository.WineRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * НАЗНАЧЕНИЕ: Минимальный JPA-контекст над H2 в памяти для бенчмарков, которым нужна БД.
+ * ОСОБЕННОСТИ: Поднимаются только DataSource, Hibernate и репозитории — без веба, безопасности, AI и Liquibase
+ * (схема создается Hibernate по сущностям). Каждый open() получает свою базу и заполняет ее синтетическим
+ * каталогом заданного размера.
+ */
+@Configuration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackageClasses = WineRepository.class)
+public class BenchmarkDatabase {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static final int DISHES = 40;
+    private static final int INSERT_CHUNK = 500;
+
+    /**
+     * Контекст с заполненной базой; закрывается в @TearDown бенчмарка.
+     */
+    static AnnotationConfigApplicationContext open(int wines) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(BenchmarkDatabase.class);
+        seed(context, wines);
+        return context;
+    }
+
+    @Bean
+    public DataSource dataSource() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:bench" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        return dataSource;
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan(Wine.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create",
+                "hibernate.jdbc.batch_size", INSERT_CHUNK,
+                "hibernate.order_inserts", true,
+                "hibernate.show_sql", false));
+        return factory;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    private static void seed(AnnotationConfigApplicationContext context, int wines) {
+        SyntheticCatalog catalog = new SyntheticCatalog(42);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        WineRepository wineRepository = context.getBean(WineRepository.class);
+        List<Dish> dishes = tx.execute(status -> context.getBean(DishRepository.class).saveAll(catalog.dishes(DISHES)));
+        for (int from = 0; from < wines; from += INSERT_CHUNK) {
+            int start = from;
+            int end = Math.min(wines, from + INSERT_CHUNK);
+            tx.executeWithoutResult(status -> {
+                List<Wine> chunk = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    chunk.add(catalog.wine(i, dishes));
+                }
+                wineRepository.saveAll(chunk);
+            });
+        }
+    }
+}
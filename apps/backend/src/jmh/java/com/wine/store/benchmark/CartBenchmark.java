@@ -0,0 +1,77 @@
+package com.wine.store.benchmark;
+
+import com.wine.store.config.PricingProperties;
+import com.wine.store.dto.CartCalculationRequest;
+import com.wine.store.dto.CartCalculationResponse;
+import com.wine.store.dto.CartItemDTO;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.service.CartService;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.pricing.WinePriceCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * НАЗНАЧЕНИЕ: Стоимость CartService.calculateCart.
+ * ОСОБЕННОСТИ: cached — цены уже в WinePriceCache (обычный случай), coldCache — кэш сброшен перед
+ * каждым вызовом, и все позиции догружаются одним запросом к H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartBenchmark {
+
+    @Param({ "10000" })
+    int catalogSize;
+
+    @Param({ "1", "12" })
+    int cartItems;
+
+    private AnnotationConfigApplicationContext context;
+    private WinePriceCache priceCache;
+    private CartService cartService;
+    private CartCalculationRequest request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.open(catalogSize);
+        priceCache = new WinePriceCache(context.getBean(WineRepository.class), new PricingProperties());
+        cartService = new CartService(priceCache, new SimpleMeterRegistry());
+        SyntheticCatalog catalog = new SyntheticCatalog(7);
+        List<CartItemDTO> items = new ArrayList<>(cartItems);
+        for (int i = 0; i < cartItems; i++) {
+            items.add(new CartItemDTO(1L + catalog.nextInt(catalogSize), 1 + catalog.nextInt(6)));
+        }
+        request = new CartCalculationRequest(items);
+        cartService.calculateCart(request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartCalculationResponse cached() {
+        return cartService.calculateCart(request);
+    }
+
+    @Benchmark
+    public CartCalculationResponse coldCache() {
+        priceCache.onCatalogChanged(CatalogChangedEvent.full());
+        return cartService.calculateCart(request);
+    }
+}
@@ -0,0 +1,154 @@
+package com.wine.store.benchmark;
+
+import com.wine.store.integration.woocommerce.dto.WcAttributeDTO;
+import com.wine.store.integration.woocommerce.dto.WcCategoryDTO;
+import com.wine.store.integration.woocommerce.dto.WcImageDTO;
+import com.wine.store.integration.woocommerce.dto.WcProductDTO;
+import com.wine.store.model.Dish;
+import com.wine.store.model.DishCategory;
+import com.wine.store.model.StockStatus;
+import com.wine.store.model.Wine;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import com.wine.store.service.catalog.TastingValues;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * НАЗНАЧЕНИЕ: Детерминированный синтетический каталог для бенчмарков.
+ * ОСОБЕННОСТИ: Фиксированное зерно — одинаковые данные при каждом запуске, результаты разных коммитов
+ * сравнимы. Значения похожи на реальный каталог: немецкие сорта, цены 6–60 евро, аналитика строками.
+ */
+final class SyntheticCatalog {
+
+    static final String[] GRAPES = { "Riesling", "Spätburgunder", "Trollinger", "Lemberger", "Müller-Thurgau",
+            "Kerner", "Grauburgunder", "Weißburgunder", "Dornfelder", "Cabernet Dorsa", "Muskateller", "Silvaner" };
+    static final String[] EDITIONS = { "VDP.Gutswein", "VDP.Ortswein", "Edition C", "Gold", "Classic", "Selection" };
+    static final String[] TAGS = { "BIO", "fresh", "mineral", "barrique", "vegan", "award", "limited", "fruity" };
+    static final String[] CATEGORY_SLUGS = { "rotwein", "weisswein", "rosewein", "sekt", "secco", "zubehoer" };
+    static final String[] FLAVORS = { "trocken", "halbtrocken", "feinherb", "lieblich", "mild", "fruchtig" };
+    private static final String[] WORDS = { "Frucht", "Kirsche", "Pfirsich", "Zitrus", "Mineralik", "Holz",
+            "Vanille", "Pfeffer", "Säure", "Abgang", "elegant", "kräftig", "saftig", "würzig", "lang" };
+
+    private final Random random;
+
+    SyntheticCatalog(long seed) {
+        this.random = new Random(seed);
+    }
+
+    List<Dish> dishes(int count) {
+        DishCategory[] categories = DishCategory.values();
+        List<Dish> dishes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dishes.add(Dish.builder()
+                    .name("Dish " + i)
+                    .category(categories[i % categories.length])
+                    .build());
+        }
+        return dishes;
+    }
+
+    /**
+     * @param dishes блюда для рекомендаций; у каждого вина 0–3 из них
+     */
+    Wine wine(int index, List<Dish> dishes) {
+        WineType type = WineType.values()[random.nextInt(WineType.values().length)];
+        String grape = GRAPES[random.nextInt(GRAPES.length)];
+        BigDecimal price = BigDecimal.valueOf(600 + random.nextInt(5400), 2);
+        boolean sale = random.nextInt(10) == 0;
+        List<Dish> recommended = new ArrayList<>(3);
+        for (int d = random.nextInt(4); d > 0 && !dishes.isEmpty(); d--) {
+            recommended.add(dishes.get(random.nextInt(dishes.size())));
+        }
+        Wine wine = Wine.builder()
+                .name(grape + " " + EDITIONS[random.nextInt(EDITIONS.length)] + " " + index)
+                .slug("wine-" + index)
+                .description(sentence(30))
+                .imageUrl("https://example.com/images/wine-" + index + ".jpg")
+                .price(price)
+                .salePrice(sale ? price.multiply(BigDecimal.valueOf(0.8)).setScale(2, RoundingMode.HALF_UP) : null)
+                .isSale(sale)
+                .stockStatus(random.nextInt(8) == 0 ? StockStatus.OUT_OF_STOCK : StockStatus.IN_STOCK)
+                .stockQuantity(random.nextInt(120))
+                .type(type)
+                .grapeVariety(grape)
+                .releaseYear(2015 + random.nextInt(9))
+                .alcohol((105 + random.nextInt(40)) / 10.0 + "%")
+                .acidity((40 + random.nextInt(50)) / 10.0 + " g/l")
+                .sugar((random.nextInt(600)) / 10.0 + " g/l")
+                .flavor(WineFlavor.values()[random.nextInt(WineFlavor.values().length)])
+                .edition(EDITIONS[random.nextInt(EDITIONS.length)])
+                .rating(random.nextInt(5) == 0 ? null : 3.0 + random.nextInt(21) / 10.0)
+                .recommendedDishes(recommended)
+                .tags(new ArrayList<>(List.of(TAGS[random.nextInt(TAGS.length)], TAGS[random.nextInt(TAGS.length)])))
+                .featured(random.nextInt(50) == 0)
+                .build();
+        TastingValues.apply(wine);
+        return wine;
+    }
+
+    /**
+     * Товар WooCommerce в том виде, в каком его отдает REST API.
+     */
+    WcProductDTO product(int index) {
+        WcProductDTO product = new WcProductDTO();
+        product.setId((long) index);
+        product.setName(GRAPES[random.nextInt(GRAPES.length)] + " " + index);
+        product.setSlug("product-" + index);
+        product.setType("simple");
+        product.setStatus("publish");
+        product.setDescription("<p>" + sentence(40) + "</p>");
+        product.setShortDescription(sentence(10));
+        String price = (6 + random.nextInt(50)) + "." + (10 + random.nextInt(90));
+        product.setPrice(price);
+        product.setRegularPrice(price);
+        product.setSalePrice(random.nextInt(10) == 0 ? "5.99" : "");
+        product.setStockStatus(random.nextInt(8) == 0 ? "outofstock" : "instock");
+        product.setStockQuantity(random.nextInt(120));
+        product.setDateModifiedGmt("2024-05-01T12:34:56");
+
+        WcCategoryDTO category = new WcCategoryDTO();
+        category.setSlug(CATEGORY_SLUGS[random.nextInt(CATEGORY_SLUGS.length)]);
+        product.setCategories(List.of(category));
+
+        WcImageDTO image = new WcImageDTO();
+        image.setSrc("https://example.com/images/product-" + index + ".jpg");
+        product.setImages(List.of(image));
+
+        product.setAttributes(List.of(
+                attribute("pa_jahrgang", String.valueOf(2015 + random.nextInt(9))),
+                attribute("pa_rebsorte", GRAPES[random.nextInt(GRAPES.length)]),
+                attribute("pa_geschmack", FLAVORS[random.nextInt(FLAVORS.length)]),
+                attribute("pa_qualitaetsstufe", EDITIONS[random.nextInt(EDITIONS.length)]),
+                attribute("pa_alkohol", (105 + random.nextInt(40)) / 10.0 + " % vol"),
+                attribute("pa_saeure", (40 + random.nextInt(50)) / 10.0 + " g/l"),
+                attribute("pa_restzucker", random.nextInt(600) / 10.0 + " g/l")));
+        return product;
+    }
+
+    String sentence(int words) {
+        StringBuilder text = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.append('.').toString();
+    }
+
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private static WcAttributeDTO attribute(String slug, String value) {
+        WcAttributeDTO attribute = new WcAttributeDTO();
+        attribute.setSlug(slug);
+        attribute.setOptions(List.of(value));
+        return attribute;
+    }
+}
@@ -0,0 +1,58 @@
+package com.wine.store.benchmark;
+
+import com.wine.store.dto.WineDTO;
+import com.wine.store.mapper.WineMapper;
+import com.wine.store.mapper.WineMapperImpl;
+import com.wine.store.model.Dish;
+import com.wine.store.model.Wine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * НАЗНАЧЕНИЕ: Стоимость WineMapper.toDto для страницы каталога (12 вин с блюдами и тегами).
+ * ОСОБЕННОСТИ: Сущности собраны в памяти — измеряется только сгенерированный MapStruct-код, без ленивой загрузки.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WineMapperBenchmark {
+
+    private static final int PAGE_SIZE = 12;
+
+    private final WineMapper wineMapper = new WineMapperImpl();
+    private List<Wine> page;
+
+    @Setup
+    public void setUp() {
+        SyntheticCatalog catalog = new SyntheticCatalog(11);
+        List<Dish> dishes = catalog.dishes(40);
+        long id = 1;
+        for (Dish dish : dishes) {
+            dish.setId(id++);
+        }
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Wine wine = catalog.wine(i, dishes);
+            wine.setId((long) i + 1);
+            page.add(wine);
+        }
+    }
+
+    @Benchmark
+    public List<WineDTO> toDtoPage() {
+        List<WineDTO> dtos = new ArrayList<>(PAGE_SIZE);
+        for (Wine wine : page) {
+            dtos.add(wineMapper.toDto(wine));
+        }
+        return dtos;
+    }
+}
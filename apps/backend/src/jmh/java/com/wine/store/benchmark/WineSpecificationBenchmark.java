@@ -0,0 +1,94 @@
+package com.wine.store.benchmark;
+
+import com.wine.store.dto.WineSearchRequest;
+import com.wine.store.model.Wine;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.service.spec.WineSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * НАЗНАЧЕНИЕ: Стоимость построения запроса каталога из WineSearchRequest и выполнения страницы в H2.
+ * ОСОБЕННОСТИ: buildQuery — Specification → Criteria → TypedQuery (трансляция Hibernate, без выполнения);
+ * findPage — запасной путь WineService через БД: страница из 12 вин и count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WineSpecificationBenchmark {
+
+    @Param({ "10000" })
+    int catalogSize;
+
+    @Param({ "empty", "filters", "search", "ranges" })
+    String scenario;
+
+    private AnnotationConfigApplicationContext context;
+    private EntityManager entityManager;
+    private WineRepository wineRepository;
+    private WineSearchRequest request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.open(catalogSize);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        wineRepository = context.getBean(WineRepository.class);
+        request = switch (scenario) {
+            case "empty" -> request(null, null, null, null, null, null, null);
+            case "filters" -> request(null, "WHITE", "Riesling", "TROCKEN", "BIO",
+                    new BigDecimal("10.00"), new BigDecimal("30.00"));
+            case "search" -> request("burgunder", null, null, null, null, null, null);
+            case "ranges" -> new WineSearchRequest(null, "RED", null, null, null, null, null, null, null,
+                    new BigDecimal("12.0"), new BigDecimal("14.0"), null, new BigDecimal("6.5"), null,
+                    new BigDecimal("4.0"), null);
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public TypedQuery<Wine> buildQuery() {
+        Specification<Wine> spec = WineSpecification.getSpec(request);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Wine> query = cb.createQuery(Wine.class);
+        Root<Wine> root = query.from(Wine.class);
+        query.where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query);
+    }
+
+    @Benchmark
+    public Page<Wine> findPage() {
+        return wineRepository.findAll(WineSpecification.getSpec(request), PageRequest.of(0, 12));
+    }
+
+    private static WineSearchRequest request(String search, String category, String grape, String flavor, String tag,
+                                             BigDecimal minPrice, BigDecimal maxPrice) {
+        return new WineSearchRequest(search, category, null, grape, flavor, null, tag, minPrice, maxPrice,
+                null, null, null, null, null, null, null);
+    }
+}
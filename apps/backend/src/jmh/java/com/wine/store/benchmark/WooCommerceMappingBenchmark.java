@@ -0,0 +1,71 @@
+package com.wine.store.benchmark;
+
+import com.wine.store.config.WooCommerceProperties;
+import com.wine.store.integration.woocommerce.dto.WcCategoryDTO;
+import com.wine.store.integration.woocommerce.dto.WcProductDTO;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import com.wine.store.service.sync.ImportedWine;
+import com.wine.store.service.sync.WooCommerceProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * НАЗНАЧЕНИЕ: Стоимость сопоставления товаров WooCommerce при импорте (WooCommerceProductMapper).
+ * ОСОБЕННОСТИ: Входы перебираются по кругу из заранее созданного набора, чтобы JIT не свернул вызов
+ * с постоянным аргументом. toWine — товар целиком, включая SHA-256 контент-хеш.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WooCommerceMappingBenchmark {
+
+    private static final int INPUTS = 256;
+    private static final int MASK = INPUTS - 1;
+
+    private final WooCommerceProductMapper mapper = new WooCommerceProductMapper(new WooCommerceProperties());
+    private final WcProductDTO[] products = new WcProductDTO[INPUTS];
+    private final String[] flavors = new String[INPUTS];
+    private final String[] prices = new String[INPUTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticCatalog catalog = new SyntheticCatalog(3);
+        for (int i = 0; i < INPUTS; i++) {
+            products[i] = catalog.product(i);
+            flavors[i] = SyntheticCatalog.FLAVORS[i % SyntheticCatalog.FLAVORS.length] + (i % 3 == 0 ? " (Qualitätswein)" : "");
+            prices[i] = i % 17 == 0 ? "" : products[i].getRegularPrice();
+        }
+    }
+
+    @Benchmark
+    public WineType mapWineType() {
+        List<WcCategoryDTO> categories = products[next++ & MASK].getCategories();
+        return mapper.mapWineType(categories);
+    }
+
+    @Benchmark
+    public WineFlavor mapWineFlavor() {
+        return mapper.mapWineFlavor(flavors[next++ & MASK]);
+    }
+
+    @Benchmark
+    public BigDecimal parsePrice() {
+        return WooCommerceProductMapper.parsePrice(prices[next++ & MASK], "0");
+    }
+
+    @Benchmark
+    public ImportedWine toWine() {
+        return mapper.toWine(products[next++ & MASK]);
+    }
+}
@@ -0,0 +1,24 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.booking")
+public class BookingProperties {
+    // Сколько живет резерв мест до подтверждения
+    private Duration holdTtl = Duration.ofMinutes(10);
+    // Максимум бронирований в одной транзакции записи
+    private int batchSize = 200;
+    // Сколько ждать накопления пакета после первого бронирования
+    private Duration flushInterval = Duration.ofMillis(50);
+    // Сколько раз пытаться записать бронирование, прежде чем вернуть места и отметить его FAILED
+    private int maxAttempts = 10;
+    // Пауза перед повторной записью; удваивается с каждой попыткой до retryBackoffMax
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private Duration retryBackoffMax = Duration.ofMinutes(1);
+}
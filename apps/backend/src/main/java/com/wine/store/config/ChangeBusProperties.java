@@ -0,0 +1,23 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.change-bus")
+public class ChangeBusProperties {
+    // Рассылка изменений между узлами через PostgreSQL LISTEN/NOTIFY (только PostgreSQL, не H2)
+    private boolean enabled = false;
+    // Канал NOTIFY, общий для всех узлов одной базы
+    private String channel = "wine_store_changes";
+    // Как долго ждать уведомлений до проверки соединения (SELECT 1)
+    private Duration heartbeat = Duration.ofSeconds(5);
+    // Пауза перед повторным подключением слушателя
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+    // Больше id одной сущности в транзакции — узлы получают "изменено все"
+    private int maxIds = 200;
+}
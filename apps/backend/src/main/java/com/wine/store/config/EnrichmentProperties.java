@@ -0,0 +1,24 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.enrichment")
+public class EnrichmentProperties {
+    // Запуск по расписанию (ручной запуск из API доступен всегда)
+    private boolean scheduled = true;
+    private String cron = "0 30 3 * * *";
+    // Модель обогащения: gemini или local (детерминированная заглушка для тестов и бенчмарков)
+    private String model = "gemini";
+    // Вин в одном запросе к модели
+    private int batchSize = 10;
+    // Ограничение частоты запросов к модели
+    private int requestsPerMinute = 30;
+    // Сколько подряд неудачных пакетов прерывает прогон (провайдер недоступен)
+    private int maxConsecutiveFailures = 3;
+    // Сколько символов описания вина передается модели
+    private int descriptionChars = 600;
+}
@@ -0,0 +1,20 @@
+package com.wine.store.config;
+
+import com.wine.store.service.llm.LlmLane;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LlmLaneConfig {
+
+    @Bean(destroyMethod = "close")
+    public LlmLane sommelierLlmLane(LlmProperties properties, MeterRegistry meterRegistry) {
+        return new LlmLane("sommelier", properties.lane("sommelier"), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public LlmLane enrichmentLlmLane(LlmProperties properties, MeterRegistry meterRegistry) {
+        return new LlmLane("enrichment", properties.lane("enrichment"), meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.llm")
+public class LlmProperties {
+    // Полосы выполнения вызовов LLM по имени: sommelier — запросы пользователей, enrichment — фоновое обогащение
+    private Map<String, Lane> lanes = new HashMap<>();
+
+    public Lane lane(String name) {
+        return lanes.computeIfAbsent(name, key -> new Lane());
+    }
+
+    @Data
+    public static class Lane {
+        // Лимит одновременных вызовов: стартовый, нижняя и верхняя граница адаптации
+        private int initialLimit = 4;
+        private int minLimit = 1;
+        private int maxLimit = 16;
+        // Сколько вызовов может ждать свободного слота и сколько времени; дальше — отказ
+        private int maxQueue = 16;
+        private Duration queueTimeout = Duration.ofSeconds(1);
+        // Крайний срок одного вызова LLM
+        private Duration callTimeout = Duration.ofSeconds(20);
+        // Вызовы дольше этой задержки уменьшают лимит, быстрее — понемногу увеличивают
+        private Duration latencyTarget = Duration.ofSeconds(8);
+    }
+}
@@ -0,0 +1,75 @@
+package com.wine.store.config;
+
+import com.wine.store.dto.CacheStatsDTO;
+import com.wine.store.service.cache.CacheRegion;
+import com.wine.store.service.cache.ResponseCache;
+import com.wine.store.service.llm.LlmLane;
+import com.wine.store.service.metrics.ChatModelMetricsPostProcessor;
+import com.wine.store.service.pricing.WinePriceCache;
+import com.wine.store.service.sommelier.RecommendationCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * НАЗНАЧЕНИЕ: Метрики горячих путей для Prometheus (/actuator/prometheus, только ADMIN).
+ * ОСОБЕННОСТИ: Статистику кэшей и полос LLM сервисы уже считают сами (stats() для админских эндпоинтов) —
+ * здесь она только публикуется: cache.gets с тегом result, cache.size и cache.hit.ratio по тегу cache,
+ * llm.lane.* по тегу lane. Значения читаются при каждом опросе, на горячем пути ничего не добавляется.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public static ChatModelMetricsPostProcessor chatModelMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ChatModelMetricsPostProcessor(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(RecommendationCache recommendationCache, WinePriceCache priceCache,
+            ResponseCache responseCache) {
+        return registry -> {
+            bindCache(registry, "recommendations", recommendationCache, RecommendationCache::stats);
+            bindCache(registry, "prices", priceCache, WinePriceCache::stats);
+            for (CacheRegion region : CacheRegion.values()) {
+                bindCache(registry, "responses." + region.name().toLowerCase(Locale.ROOT), responseCache,
+                        cache -> cache.stats(region));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder llmLaneMetrics(List<LlmLane> lanes) {
+        return registry -> lanes.forEach(lane -> {
+            Gauge.builder("llm.lane.limit", lane, l -> l.stats().limit())
+                    .description("Current adaptive concurrency limit").tag("lane", lane.name()).register(registry);
+            Gauge.builder("llm.lane.in.flight", lane, l -> l.stats().inFlight())
+                    .tag("lane", lane.name()).register(registry);
+            Gauge.builder("llm.lane.queued", lane, l -> l.stats().queued())
+                    .tag("lane", lane.name()).register(registry);
+            FunctionCounter.builder("llm.lane.rejected", lane, l -> l.stats().rejected())
+                    .description("Calls rejected because the lane was saturated").tag("lane", lane.name())
+                    .register(registry);
+        });
+    }
+
+    // Micrometer держит объект-источник по слабой ссылке, поэтому передается сам бин кэша, а не лямбда
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache, Function<T, CacheStatsDTO> stats) {
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).hits())
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).misses())
+                .tag("cache", name).tag("result", "miss").register(registry);
+        Gauge.builder("cache.size", cache, c -> stats.apply(c).size())
+                .tag("cache", name).register(registry);
+        Gauge.builder("cache.hit.ratio", cache, c -> stats.apply(c).hitRatio())
+                .tag("cache", name).register(registry);
+    }
+}
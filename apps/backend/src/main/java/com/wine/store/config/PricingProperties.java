@@ -0,0 +1,17 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.pricing")
+public class PricingProperties {
+    // Верхняя граница кэша цен: корзины с id несуществующих вин не раздувают его без предела
+    private int cacheMaxEntries = 5_000;
+    // Страховка от пропущенной инвалидации (правка цены в БД в обход приложения)
+    private Duration cacheTtl = Duration.ofMinutes(30);
+}
@@ -0,0 +1,23 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.query-inspector")
+public class QueryInspectorProperties {
+    // Сколько выполнений запроса одной формы за HTTP-запрос или задачу считается N+1
+    private int repeatThreshold = 5;
+    // Выполнение дольше порога пишется в лог как медленное
+    private Duration slowQuery = Duration.ofMillis(200);
+    // Сколько форм запросов хранит отчет /api/admin/queries (новые сверх лимита не добавляются)
+    private int maxFingerprints = 500;
+    // Бюджет SQL-запросов на эндпоинт: "GET /api/wines" → максимум операторов за запрос
+    private Map<String, Integer> budgets = new HashMap<>();
+}
@@ -0,0 +1,19 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    // Верхняя граница числа ответов в каждой области; сверх нее вытесняются давно не использованные
+    // (перебор slug и параметров не раздувает кэш)
+    private int maxEntries = 10_000;
+    // Занятость мест меняется с каждым бронированием — ответы по мероприятиям живут недолго
+    private Duration eventsTtl = Duration.ofSeconds(5);
+}
@@ -0,0 +1,12 @@
+package com.wine.store.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * НАЗНАЧЕНИЕ: Включение задач по расписанию (@Scheduled).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
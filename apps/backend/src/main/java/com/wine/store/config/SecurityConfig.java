@@ -40,6 +40,8 @@ public class SecurityConfig {
                         .requestMatchers("/", "/error", "/api/wines/**", "/api/events/**", "/api/ai/**", "/api/cart/**")
                         .permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/api-docs/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .httpBasic(withDefaults());
 
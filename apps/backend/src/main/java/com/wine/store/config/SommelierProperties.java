@@ -0,0 +1,31 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.sommelier")
+public class SommelierProperties {
+    // Сколько лучших кандидатов после локального отбора попадает в промпт
+    private int candidateLimit = 25;
+    // Столько же, если у лучших кандидатов есть офлайн-обогащение (профиль и теги уже посчитаны)
+    private int enrichedCandidateLimit = 8;
+    // Бюджет контекста вин в промпте, в токенах (оценка: ~4 символа на токен)
+    private int promptTokenBudget = 2500;
+    // Сколько рекомендованных блюд вина перечислять в промпте
+    private int maxDishesPerWine = 3;
+
+    // Кэш готовых рекомендаций по нормализованному запросу
+    private boolean cacheEnabled = true;
+    private int cacheMaxEntries = 1000;
+    private Duration cacheTtl = Duration.ofHours(6);
+    // Файл, в который кэш сохраняется между перезапусками (пусто — без сохранения на диск)
+    private String cacheFile = "data/sommelier-cache.json";
+
+    // Сколько держать SSE-соединение потоковой выдачи (/recommend/stream) до принудительного закрытия
+    private Duration streamTimeout = Duration.ofSeconds(90);
+}
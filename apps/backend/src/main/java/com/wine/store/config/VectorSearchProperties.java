@@ -0,0 +1,21 @@
+package com.wine.store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.vector-search")
+public class VectorSearchProperties {
+    // Размерность хешированных TF-IDF векторов (байт на вино в int8-хранилище)
+    private int dimensions = 512;
+    // Число связей узла HNSW на верхних уровнях (на нижнем — вдвое больше)
+    private int maxConnections = 16;
+    // Ширина поиска кандидатов при вставке в граф
+    private int efConstruction = 100;
+    // Ширина поиска при запросе: больше — точнее, но медленнее
+    private int efSearch = 64;
+    // Доля удаленных узлов, после которой граф пересобирается целиком
+    private double rebuildTombstoneRatio = 0.2;
+}
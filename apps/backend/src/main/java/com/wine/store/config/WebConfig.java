@@ -1,22 +1,30 @@
 package com.wine.store.config;
 
+import com.wine.store.controller.cache.ResponseCacheInterceptor;
+import com.wine.store.controller.metrics.QueryMetricsInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import java.util.Objects;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * НАЗНАЧЕНИЕ: Настройка CORS для Frontend.
+ * НАЗНАЧЕНИЕ: Настройка CORS для Frontend, кэша ответов каталога и метрик запросов к БД.
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig {
 
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
+    private final ResponseCacheInterceptor responseCacheInterceptor;
+    private final QueryMetricsInterceptor queryMetricsInterceptor;
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
@@ -28,6 +36,13 @@ public class WebConfig {
                         .allowedOrigins(origins)
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
             }
+
+            @Override
+            public void addInterceptors(@NonNull InterceptorRegistry registry) {
+                // Первым: afterCompletion вызывается и для ответов, отданных кэшем
+                registry.addInterceptor(queryMetricsInterceptor).addPathPatterns("/api/**");
+                registry.addInterceptor(responseCacheInterceptor).addPathPatterns("/api/**");
+            }
         };
     }
 }
@@ -12,4 +12,6 @@ public class WooCommerceProperties {
     private String consumerKey;
     private String consumerSecret;
     private String eventsCategorySlug;
+    private int syncPageSize = 50;
+    private int syncMaxInFlightPages = 4;
 }
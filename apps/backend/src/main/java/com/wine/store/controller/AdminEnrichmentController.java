@@ -0,0 +1,46 @@
+package com.wine.store.controller;
+
+import com.wine.store.dto.ApiResponse;
+import com.wine.store.dto.EnrichmentJobDTO;
+import com.wine.store.model.SyncTrigger;
+import com.wine.store.service.enrichment.WineEnrichmentJob;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/enrichment")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Admin Enrichment", description = "Офлайн-обогащение каталога моделью")
+public class AdminEnrichmentController {
+
+    private final WineEnrichmentJob enrichmentJob;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Запустить обогащение", description = "Запускает в фоне обогащение вин, у которых изменились " +
+            "исходные данные или модель, и сразу возвращает задачу. 409, если обогащение уже выполняется.")
+    public ResponseEntity<ApiResponse<EnrichmentJobDTO>> triggerEnrichment() {
+        log.info("POST /api/admin/enrichment triggered");
+        EnrichmentJobDTO job = enrichmentJob.start(SyncTrigger.MANUAL);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, "Обогащение каталога запущено."));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Статус обогащения", description = "Прогресс выполняющегося или итоги последнего прогона: " +
+            "просмотренные, неизменившиеся, обогащенные и ошибочные вина, число вызовов модели.")
+    public ResponseEntity<ApiResponse<EnrichmentJobDTO>> getStatus() {
+        return ResponseEntity.ok(ApiResponse.success(enrichmentJob.status()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.wine.store.controller;
+
+import com.wine.store.dto.ApiResponse;
+import com.wine.store.dto.QueryFingerprintDTO;
+import com.wine.store.service.metrics.QueryInspector;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/queries")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Admin Queries", description = "SQL-запросы Hibernate: N+1 и медленные запросы")
+public class AdminQueryController {
+
+    private final QueryInspector queryInspector;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Отчет по SQL-запросам", description = "Формы запросов (SQL без значений), накопленные с запуска " +
+            "или последнего сброса: выполнения, максимум за один HTTP-запрос или задачу, сколько раз форма " +
+            "повторялась как N+1, суммарное и максимальное время. Самые дорогие — первыми.")
+    public ResponseEntity<ApiResponse<List<QueryFingerprintDTO>>> getReport(
+            @RequestParam(defaultValue = "50") int limit) {
+        List<QueryFingerprintDTO> report = queryInspector.report();
+        return ResponseEntity.ok(ApiResponse.success(report.subList(0, Math.min(Math.max(limit, 0), report.size()))));
+    }
+
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Сбросить отчет", description = "Очищает накопленную статистику, например перед замером после изменений.")
+    public ResponseEntity<ApiResponse<Void>> resetReport() {
+        log.info("DELETE /api/admin/queries triggered");
+        queryInspector.reset();
+        return ResponseEntity.ok(ApiResponse.success(null, "Отчет по SQL-запросам сброшен."));
+    }
+}
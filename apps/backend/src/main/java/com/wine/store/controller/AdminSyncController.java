@@ -1,17 +1,26 @@
 package com.wine.store.controller;
 
 import com.wine.store.dto.ApiResponse;
-import com.wine.store.service.WooCommerceSyncService;
+import com.wine.store.dto.SyncJobDTO;
+import com.wine.store.model.SyncTrigger;
+import com.wine.store.service.SyncJobService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin/sync")
 @RequiredArgsConstructor
@@ -19,14 +28,37 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Admin Sync", description = "Управление интерациями/синхронизацией данных")
 public class AdminSyncController {
 
-    private final WooCommerceSyncService syncService;
+    private static final int MAX_HISTORY = 100;
+
+    private final SyncJobService syncJobService;
 
     @PostMapping("/woocommerce")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Запустить синхронизацию", description = "Запускает импорт товаров из WooCommerce.")
-    public ResponseEntity<ApiResponse<String>> triggerSync() {
-        log.info("POST /api/admin/sync/woocommerce triggered");
-        syncService.syncProducts();
-        return ResponseEntity.ok(ApiResponse.success("Синхронизация WooCommerce завершена."));
+    @Operation(summary = "Запустить синхронизацию", description = "Запускает в фоне импорт товаров из WooCommerce, измененных с прошлого прогона " +
+            "(full=true — полная пересинхронизация), и сразу возвращает задачу. 409, если синхронизация уже выполняется.")
+    public ResponseEntity<ApiResponse<SyncJobDTO>> triggerSync(
+            @Parameter(description = "Полная пересинхронизация без курсора и сверки хешей") @RequestParam(defaultValue = "false") boolean full) {
+        log.info("POST /api/admin/sync/woocommerce triggered (full: {})", full);
+        SyncJobDTO job = syncJobService.start(full, SyncTrigger.MANUAL);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, "Синхронизация WooCommerce запущена."));
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Статус задачи синхронизации", description = "Возвращает прогресс выполняющейся задачи " +
+            "(страницы, обработанные, пропущенные и ошибочные товары, прошедшее время) или итоги завершенной.")
+    public ResponseEntity<ApiResponse<SyncJobDTO>> getJob(
+            @Parameter(description = "Идентификатор задачи", example = "42") @PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(syncJobService.getJob(id)));
+    }
+
+    @GetMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "История синхронизаций", description = "Последние задачи синхронизации с итогами и пропускной способностью.")
+    public ResponseEntity<ApiResponse<List<SyncJobDTO>>> getHistory(
+            @Parameter(description = "Количество задач (1-100)", example = "20") @RequestParam(defaultValue = "20") int limit) {
+        int safeLimit = Math.max(1, Math.min(limit, MAX_HISTORY));
+        return ResponseEntity.ok(ApiResponse.success(syncJobService.getHistory(safeLimit)));
     }
 }
@@ -1,17 +1,32 @@
 package com.wine.store.controller;
 
+import com.wine.store.config.SommelierProperties;
 import com.wine.store.dto.ApiResponse;
+import com.wine.store.dto.CacheStatsDTO;
+import com.wine.store.dto.LlmLaneStatsDTO;
 import com.wine.store.dto.WineDTO;
+import com.wine.store.service.WineService;
+import com.wine.store.service.llm.LlmLane;
+import com.wine.store.service.sommelier.RecommendationMode;
+import com.wine.store.service.sommelier.SommelierStreamEvent;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * НАЗНАЧЕНИЕ: API для AI функций (Сомелье, Поиск).
@@ -25,20 +40,77 @@ import java.util.List;
 public class AiController {
 
     private final com.wine.store.service.AiSommelierService aiSommelierService;
+    private final WineService wineService;
+    private final SommelierProperties sommelierProperties;
+    private final List<LlmLane> llmLanes;
+
+    // Потоковая выдача ждет LLM в виртуальных потоках: поток Tomcat освобождается сразу после возврата SseEmitter
+    private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @GetMapping("/search")
-    @Operation(summary = "Векторный поиск вин (AI)", description = "Экспериментальный поиск похожих вин на основе текстового описания.")
+    @Operation(summary = "Векторный поиск вин (AI)", description = "Поиск похожих вин по текстовому описанию: локальные эмбеддинги " +
+            "(название, сорт, вкус, теги, описание, блюда) и приближенный поиск ближайших соседей, без обращения к внешним сервисам.")
     public ResponseEntity<ApiResponse<List<WineDTO>>> vectorSearch(
-            @Parameter(description = "Текстовое описание для поиска", example = "Red fruity wine with soft tannins") @RequestParam String query) {
-        log.info("GET /api/ai/search - query: {}", query);
-        return ResponseEntity.ok(ApiResponse.success(List.of()));
+            @Parameter(description = "Текстовое описание для поиска", example = "Red fruity wine with soft tannins") @RequestParam String query,
+            @Parameter(description = "Количество результатов (1-50)", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        log.info("GET /api/ai/search - query: {}, limit: {}", query, limit);
+        return ResponseEntity.ok(ApiResponse.success(wineService.searchSimilar(query, Math.min(Math.max(limit, 1), 50))));
     }
 
     @PostMapping("/recommend")
-    @Operation(summary = "Получить рекомендации сомелье", description = "Анализирует запрос (блюдо, бюджет, повод) и возвращает список вин с оценкой совместимости.")
+    @Operation(summary = "Получить рекомендации сомелье", description = "Анализирует запрос (блюдо, бюджет, повод) и возвращает список вин с оценкой совместимости. " +
+            "mode=local — мгновенный детерминированный подбор без LLM; в режиме ai он же используется, если LLM недоступна.")
     public ResponseEntity<ApiResponse<List<com.wine.store.dto.SommelierResponse>>> recommend(
-            @jakarta.validation.Valid @RequestBody com.wine.store.dto.SommelierRequest request) {
-        log.info("POST /api/ai/recommend - request: {}", request);
-        return ResponseEntity.ok(ApiResponse.success(aiSommelierService.recommendWines(request)));
+            @jakarta.validation.Valid @RequestBody com.wine.store.dto.SommelierRequest request,
+            @Parameter(description = "Режим: ai (LLM) или local (локальный движок)", example = "ai") @RequestParam(defaultValue = "ai") String mode) {
+        log.info("POST /api/ai/recommend - request: {}, mode: {}", request, mode);
+        return ResponseEntity.ok(ApiResponse.success(aiSommelierService.recommendWines(request, RecommendationMode.of(mode))));
+    }
+
+    @PostMapping(value = "/recommend/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Потоковые рекомендации сомелье (SSE)", description = "События local — мгновенный результат локального движка, " +
+            "recommendation — рекомендации LLM по мере генерации (или из кэша), done — конец потока с источником ответа (ai, cache, local).")
+    public SseEmitter recommendStream(@jakarta.validation.Valid @RequestBody com.wine.store.dto.SommelierRequest request) {
+        log.info("POST /api/ai/recommend/stream - request: {}", request);
+        SseEmitter emitter = new SseEmitter(sommelierProperties.getStreamTimeout().toMillis());
+        streamExecutor.execute(() -> {
+            try {
+                aiSommelierService.streamRecommendations(request, event -> send(emitter, event));
+                emitter.complete();
+            } catch (Exception e) {
+                // Чаще всего клиент закрыл соединение, не дождавшись конца
+                log.warn("Sommelier stream aborted: {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    @GetMapping("/recommend/cache")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Статистика кэша рекомендаций", description = "Попадания, промахи, размер и вытеснения кэша рекомендаций сомелье. Требует роли ADMIN.")
+    public ResponseEntity<ApiResponse<CacheStatsDTO>> recommendationCacheStats() {
+        log.info("GET /api/ai/recommend/cache");
+        return ResponseEntity.ok(ApiResponse.success(aiSommelierService.recommendationCacheStats()));
+    }
+
+    @GetMapping("/lanes")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Статистика полос вызовов LLM", description = "Адаптивный лимит, занятость, очередь, отказы, тайм-ауты и задержки " +
+            "по каждой полосе вызовов LLM — для подбора лимитов. Требует роли ADMIN.")
+    public ResponseEntity<ApiResponse<List<LlmLaneStatsDTO>>> llmLaneStats() {
+        log.info("GET /api/ai/lanes");
+        return ResponseEntity.ok(ApiResponse.success(llmLanes.stream().map(LlmLane::stats).toList()));
+    }
+
+    private static void send(SseEmitter emitter, SommelierStreamEvent event) {
+        SseEmitter.SseEventBuilder sse = SseEmitter.event().name(event.type().name().toLowerCase(Locale.ROOT));
+        try {
+            emitter.send(event.type() == SommelierStreamEvent.Type.DONE
+                    ? sse.data(Map.of("source", event.source()))
+                    : sse.data(event.recommendation()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -1,24 +1,33 @@
 package com.wine.store.controller;
 
+import com.wine.store.controller.cache.CachedResponse;
 import com.wine.store.dto.ApiResponse;
 import com.wine.store.dto.BookingRequest;
+import com.wine.store.dto.BookingStatusDTO;
 import com.wine.store.dto.EventDTO;
+import com.wine.store.dto.HoldConfirmationRequest;
+import com.wine.store.dto.SeatHoldDTO;
 import com.wine.store.service.EventService;
+import com.wine.store.service.cache.CacheRegion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * НАЗНАЧЕНИЕ: API для событий и бронирования.
@@ -33,6 +42,7 @@ public class EventController {
     private final EventService eventService;
 
     @GetMapping
+    @CachedResponse(CacheRegion.EVENTS)
     @Operation(summary = "Получить список предстоящих событий", description = "Возвращает список всех активных и предстоящих дегустаций и мероприятий.")
     public ResponseEntity<ApiResponse<List<EventDTO>>> getUpcomingEvents() {
         log.info("GET /api/events");
@@ -40,6 +50,7 @@ public class EventController {
     }
 
     @GetMapping("/{slug}")
+    @CachedResponse(CacheRegion.EVENTS)
     @Operation(summary = "Получить событие по slug", description = "Возвращает детальную информацию о конкретном событии.", responses = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Событие найдено"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Событие не найдено", content = @io.swagger.v3.oas.annotations.media.Content)
@@ -51,14 +62,60 @@ public class EventController {
     }
 
     @PostMapping("/bookings")
-    @Operation(summary = "Создать бронирование на событие", description = "Регистрирует пользователя на участие в событии.", responses = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Бронирование создано"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Ошибка валидации или нет мест", content = @io.swagger.v3.oas.annotations.media.Content)
+    @Operation(summary = "Создать бронирование на событие", description = "Резервирует места и ставит бронирование в очередь записи. " +
+            "Итог (CONFIRMED, CANCELLED или FAILED) проверяется по номеру бронирования: GET /api/events/bookings/{reference}.", responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Бронирование принято (PENDING)"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Ошибка валидации", content = @io.swagger.v3.oas.annotations.media.Content),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Недостаточно мест", content = @io.swagger.v3.oas.annotations.media.Content)
     })
-    public ResponseEntity<ApiResponse<Void>> createBooking(@RequestBody @Valid BookingRequest request) {
+    public ResponseEntity<ApiResponse<BookingStatusDTO>> createBooking(@RequestBody @Valid BookingRequest request) {
         log.info("POST /api/events/bookings - request: {}", request);
-        eventService.createBooking(request);
-        return ResponseEntity.ok(ApiResponse.success(null, "Booking created successfully"));
+        return accepted(eventService.createBooking(request));
+    }
+
+    @GetMapping("/bookings/{reference}")
+    @Operation(summary = "Статус бронирования", description = "PENDING, пока бронирование ждет записи; затем CONFIRMED, " +
+            "CANCELLED (мест не хватило) или FAILED (не удалось сохранить, места возвращены).", responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Бронирование найдено"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Бронирование не найдено", content = @io.swagger.v3.oas.annotations.media.Content)
+    })
+    public ResponseEntity<ApiResponse<BookingStatusDTO>> getBooking(
+            @Parameter(description = "Номер бронирования") @PathVariable UUID reference) {
+        return ResponseEntity.ok(ApiResponse.success(eventService.getBooking(reference)));
+    }
+
+    @PostMapping("/{eventId}/holds")
+    @Operation(summary = "Зарезервировать места", description = "Временно резервирует места на событие. Резерв нужно подтвердить до expiresAt, иначе места освобождаются.", responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Места зарезервированы"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Недостаточно мест", content = @io.swagger.v3.oas.annotations.media.Content)
+    })
+    public ResponseEntity<ApiResponse<SeatHoldDTO>> holdSeats(
+            @Parameter(description = "ID события", example = "1") @PathVariable Long eventId,
+            @Parameter(description = "Количество мест", example = "2") @RequestParam(defaultValue = "1") Integer seats) {
+        log.info("POST /api/events/{}/holds - seats: {}", eventId, seats);
+        return ResponseEntity.ok(ApiResponse.success(eventService.holdSeats(eventId, seats)));
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    @Operation(summary = "Подтвердить резерв", description = "Превращает резерв в бронирование и ставит его в очередь записи. " +
+            "Итог проверяется по номеру бронирования: GET /api/events/bookings/{reference}.", responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Бронирование принято (PENDING)"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Резерв не найден или истек", content = @io.swagger.v3.oas.annotations.media.Content)
+    })
+    public ResponseEntity<ApiResponse<BookingStatusDTO>> confirmHold(
+            @Parameter(description = "Идентификатор резерва") @PathVariable UUID holdId,
+            @RequestBody @Valid HoldConfirmationRequest request) {
+        log.info("POST /api/events/holds/{}/confirm", holdId);
+        return accepted(eventService.confirmHold(holdId, request));
+    }
+
+    @org.springframework.web.bind.annotation.DeleteMapping("/holds/{holdId}")
+    @Operation(summary = "Отменить резерв", description = "Досрочно освобождает зарезервированные места.")
+    public ResponseEntity<ApiResponse<Void>> releaseHold(
+            @Parameter(description = "Идентификатор резерва") @PathVariable UUID holdId) {
+        log.info("DELETE /api/events/holds/{}", holdId);
+        eventService.releaseHold(holdId);
+        return ResponseEntity.ok(ApiResponse.success(null));
     }
 
     @PostMapping
@@ -87,4 +144,10 @@ public class EventController {
         eventService.deleteEvent(slug);
         return ResponseEntity.ok(ApiResponse.success(null));
     }
+
+    private static ResponseEntity<ApiResponse<BookingStatusDTO>> accepted(BookingStatusDTO booking) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/events/bookings/" + booking.reference()))
+                .body(ApiResponse.success(booking, "Booking accepted, check its status by reference"));
+    }
 }
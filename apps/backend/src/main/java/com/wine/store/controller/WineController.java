@@ -1,9 +1,14 @@
 package com.wine.store.controller;
 
+import com.wine.store.controller.cache.CachedResponse;
 import com.wine.store.dto.ApiResponse;
+import com.wine.store.dto.CursorPage;
+import com.wine.store.dto.WineCardDTO;
 import com.wine.store.dto.WineDTO;
+import com.wine.store.dto.WineFacetsDTO;
 import com.wine.store.dto.WineSearchRequest;
 import com.wine.store.service.WineService;
+import com.wine.store.service.cache.CacheRegion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,6 +23,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -35,15 +41,28 @@ public class WineController {
     private final WineService wineService;
 
     @GetMapping
-    @Operation(summary = "Получить список вин с фильтрацией", description = "Возвращает страницу вин на основе переданных фильтров поиска.")
-    public ResponseEntity<ApiResponse<Page<WineDTO>>> getWines(
+    @Operation(summary = "Получить список вин с фильтрацией", description = "Возвращает страницу карточек вин на основе переданных фильтров поиска. Описание и аналитика вина — в GET /api/wines/{slug}.")
+    public ResponseEntity<ApiResponse<Page<WineCardDTO>>> getWines(
             @Valid WineSearchRequest filters,
             @PageableDefault(size = 12) @NonNull Pageable pageable) {
         log.info("GET /api/wines - filters: {}, pageable: {}", filters, pageable);
         return ResponseEntity.ok(ApiResponse.success(wineService.getAllWines(filters, pageable)));
     }
 
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Получить список вин с курсорной пагинацией", description = "Keyset-режим для бесконечной прокрутки и обхода всего каталога: стоимость страницы не зависит от глубины. Первая страница — пустой cursor, следующая — nextCursor из ответа. Сортировка по параметру sort (при поиске по тексту — тоже по sort, а не по релевантности).")
+    public ResponseEntity<ApiResponse<CursorPage<WineCardDTO>>> getWinesByCursor(
+            @Valid WineSearchRequest filters,
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы; пустой — первая страница") @RequestParam String cursor,
+            @Parameter(description = "Размер страницы (1-100)", example = "12") @RequestParam(defaultValue = "12") int size,
+            @Parameter(description = "Посчитать общее количество вин", example = "false") @RequestParam(defaultValue = "false") boolean withTotal) {
+        log.info("GET /api/wines - filters: {}, cursor: {}, size: {}", filters, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(
+                wineService.getWinesAfter(filters, cursor, Math.min(Math.max(size, 1), 100), withTotal)));
+    }
+
     @GetMapping("/{slug}")
+    @CachedResponse(CacheRegion.WINES)
     @Operation(summary = "Получить вино по slug", description = "Возвращает детальную информацию о вине по его уникальному текстовому идентификатору (slug).", responses = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Вино найдено"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Вино не найдено", content = @io.swagger.v3.oas.annotations.media.Content)
@@ -54,7 +73,25 @@ public class WineController {
         return ResponseEntity.ok(ApiResponse.success(wineService.getWineBySlug(slug)));
     }
 
+    @GetMapping("/facets")
+    @CachedResponse(CacheRegion.WINES)
+    @Operation(summary = "Получить счетчики фасетов", description = "Возвращает количество вин по типу, вкусу, сорту, тегу, изданию и ценовым диапазонам для текущих фильтров. Счетчик значения учитывает все фильтры, кроме фильтра своего фасета.")
+    public ResponseEntity<ApiResponse<WineFacetsDTO>> getFacets(@Valid WineSearchRequest filters) {
+        log.info("GET /api/wines/facets - filters: {}", filters);
+        return ResponseEntity.ok(ApiResponse.success(wineService.getFacets(filters)));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Подсказки для поиска (typeahead)", description = "Возвращает названия вин, наиболее релевантных началу поискового запроса.")
+    public ResponseEntity<ApiResponse<List<String>>> suggest(
+            @Parameter(description = "Начало поискового запроса", example = "spätbu") @RequestParam String q,
+            @Parameter(description = "Максимальное количество подсказок", example = "8") @RequestParam(defaultValue = "8") int limit) {
+        log.info("GET /api/wines/suggest - q: {}", q);
+        return ResponseEntity.ok(ApiResponse.success(wineService.suggest(q, Math.min(Math.max(limit, 1), 20))));
+    }
+
     @GetMapping("/filters/grapes")
+    @CachedResponse(CacheRegion.WINES)
     @Operation(summary = "Получить список всех сортов винограда", description = "Возвращает уникальный список всех сортов винограда, представленных в каталоге.")
     public ResponseEntity<ApiResponse<List<String>>> getGrapeVarieties() {
         log.info("GET /api/wines/filters/grapes");
@@ -62,15 +99,17 @@ public class WineController {
     }
 
     @GetMapping("/featured")
-    @Operation(summary = "Получить список популярных вин", description = "Возвращает список вин, отмеченных как избранные/популярные.")
-    public ResponseEntity<ApiResponse<List<WineDTO>>> getFeaturedWines() {
+    @CachedResponse(CacheRegion.WINES)
+    @Operation(summary = "Получить список популярных вин", description = "Возвращает карточки вин, отмеченных как избранные/популярные.")
+    public ResponseEntity<ApiResponse<List<WineCardDTO>>> getFeaturedWines() {
         log.info("GET /api/wines/featured");
         return ResponseEntity.ok(ApiResponse.success(wineService.getFeaturedWines()));
     }
 
     @GetMapping("/top-rated")
-    @Operation(summary = "Получить список вин с высоким рейтингом", description = "Возвращает список вин, отсортированных по рейтингу.")
-    public ResponseEntity<ApiResponse<List<WineDTO>>> getTopRatedWines() {
+    @CachedResponse(CacheRegion.WINES)
+    @Operation(summary = "Получить список вин с высоким рейтингом", description = "Возвращает карточки вин, отсортированных по рейтингу.")
+    public ResponseEntity<ApiResponse<List<WineCardDTO>>> getTopRatedWines() {
         log.info("GET /api/wines/top-rated");
         return ResponseEntity.ok(ApiResponse.success(wineService.getTopRatedWines()));
     }
@@ -0,0 +1,18 @@
+package com.wine.store.controller.cache;
+
+import com.wine.store.service.cache.CacheRegion;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * НАЗНАЧЕНИЕ: Помечает GET-эндпоинт, чей JSON-ответ кэшируется целиком (ResponseCache).
+ * ОСОБЕННОСТИ: Ключ — путь и параметры, которые читает метод (ResponseCacheInterceptor). Кэшируются только ответы 200.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponse {
+    CacheRegion value();
+}
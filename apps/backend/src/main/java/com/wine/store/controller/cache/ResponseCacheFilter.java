@@ -0,0 +1,55 @@
+package com.wine.store.controller.cache;
+
+import com.wine.store.service.cache.CachedBody;
+import com.wine.store.service.cache.ResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * НАЗНАЧЕНИЕ: Сохранение ответов эндпоинтов с @CachedResponse в ResponseCache.
+ * ОСОБЕННОСТИ: Буферизует тело только GET-запросов к /api/; в кэш попадает ответ 200,
+ * для которого ResponseCacheInterceptor зафиксировал промах. ETag выставляется и на первом ответе.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final ResponseCache responseCache;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !responseCache.isEnabled() || !HttpMethod.GET.matches(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            Object attribute = request.getAttribute(ResponseCacheInterceptor.PENDING_ENTRY);
+            if (attribute instanceof ResponseCacheInterceptor.PendingEntry pending
+                    && wrapper.getStatus() == HttpServletResponse.SC_OK && !response.isCommitted()) {
+                String contentType = wrapper.getContentType() != null ? wrapper.getContentType() : MediaType.APPLICATION_JSON_VALUE;
+                CachedBody cached = responseCache.put(pending.region(), pending.key(), pending.generation(),
+                        wrapper.getContentAsByteArray(), contentType);
+                wrapper.resetBuffer();
+                ResponseCacheInterceptor.writeCached(request, wrapper, cached);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.wine.store.controller.cache;
+
+import com.wine.store.service.cache.CacheRegion;
+import com.wine.store.service.cache.CachedBody;
+import com.wine.store.service.cache.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * НАЗНАЧЕНИЕ: Отдача закэшированных ответов для методов с @CachedResponse.
+ * ЗАВИСИМОСТИ: ResponseCache, ResponseCacheFilter (сохраняет ответ при промахе).
+ * ОСОБЕННОСТИ: При попадании контроллер не вызывается: If-None-Match с тем же ETag → 304,
+ * иначе готовые байты. При промахе в запрос кладется ключ, по которому фильтр сохранит ответ.
+ * Ключ — путь и только те параметры, которые читает метод (@RequestParam и компоненты record-параметра
+ * вроде WineSearchRequest), в алфавитном порядке; пустые отбрасываются, отсутствующие заменяются
+ * значением по умолчанию. Лишние параметры (utm_*, cache-buster) и их порядок не плодят записи.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheInterceptor implements HandlerInterceptor {
+
+    static final String PENDING_ENTRY = ResponseCacheInterceptor.class.getName() + ".PENDING";
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final ResponseCache responseCache;
+
+    // Параметр запроса -> значение по умолчанию (null — без умолчания); по методу контроллера
+    private final Map<Method, Map<String, String>> keyParams = new ConcurrentHashMap<>();
+
+    record PendingEntry(CacheRegion region, String key, long generation) {
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws Exception {
+        if (!responseCache.isEnabled() || !HttpMethod.GET.matches(request.getMethod())
+                || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        CachedResponse annotation = method.getMethodAnnotation(CachedResponse.class);
+        if (annotation == null) {
+            return true;
+        }
+
+        String key = key(request, keyParams.computeIfAbsent(method.getMethod(), m -> keyParams(method)));
+        CachedBody cached = responseCache.get(annotation.value(), key);
+        if (cached == null) {
+            request.setAttribute(PENDING_ENTRY,
+                    new PendingEntry(annotation.value(), key, responseCache.generation(annotation.value())));
+            return true;
+        }
+
+        writeCached(request, response, cached);
+        return false;
+    }
+
+    static void writeCached(HttpServletRequest request, HttpServletResponse response, CachedBody cached)
+            throws java.io.IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String key(HttpServletRequest request, Map<String, String> params) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            String[] values = request.getParameterValues(param.getKey());
+            String value = values != null ? String.join(",", values) : param.getValue();
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            key.append(separator).append(param.getKey()).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        return key.toString();
+    }
+
+    static Map<String, String> keyParams(HandlerMethod method) {
+        Map<String, String> params = new TreeMap<>();
+        for (MethodParameter parameter : method.getMethodParameters()) {
+            parameter.initParameterNameDiscovery(PARAMETER_NAMES);
+            RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+            if (requestParam != null) {
+                String name = !requestParam.name().isEmpty() ? requestParam.name() : parameter.getParameterName();
+                String defaultValue = ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())
+                        ? null : requestParam.defaultValue();
+                params.put(name, defaultValue);
+            } else if (!parameter.hasParameterAnnotations() && BeanUtils.isSimpleProperty(parameter.getParameterType())) {
+                params.put(parameter.getParameterName(), null);
+            } else if (parameter.getParameterType().isRecord()) {
+                for (RecordComponent component : parameter.getParameterType().getRecordComponents()) {
+                    params.put(component.getName(), null);
+                }
+            }
+        }
+        return params;
+    }
+}
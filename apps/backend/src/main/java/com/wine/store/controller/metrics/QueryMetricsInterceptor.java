@@ -0,0 +1,105 @@
+package com.wine.store.controller.metrics;
+
+import com.wine.store.service.metrics.QueryInspector;
+import com.wine.store.service.metrics.RequestQueryStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * НАЗНАЧЕНИЕ: Число SQL-запросов и время в БД на один HTTP-запрос, по эндпоинтам.
+ * ЗАВИСИМОСТИ: MeterRegistry, QueryInspector (поиск N+1 и медленных запросов), RequestQueryStats.
+ * ОСОБЕННОСТИ: Метрики http.server.requests.db.queries и http.server.requests.db.time с тегами
+ * method и uri (шаблон пути, как у http.server.requests) — рядом с общей задержкой эндпоинта видно,
+ * сколько из нее ушло в БД. Ответы из кэша ответов дают ноль запросов, что тоже полезно видеть.
+ * Асинхронный обработчик (SseEmitter) возвращает поток Tomcat в пул до afterCompletion — учет закрывается
+ * в afterConcurrentHandlingStarted, иначе область осталась бы в ThreadLocal потока и следующие запросы
+ * вложились бы в нее. Учитываются запросы до ухода в асинхронный режим; работа в других потоках
+ * и повторная (ASYNC) диспетчеризация не учитываются — один HTTP-запрос дает один замер.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+    // Учет открыт этим перехватчиком в текущем потоке запроса
+    private static final String SCOPE_ATTRIBUTE = QueryMetricsInterceptor.class.getName() + ".scope";
+
+    private final MeterRegistry meterRegistry;
+    private final QueryInspector queryInspector;
+
+    // Метрики регистрируются один раз на эндпоинт: шаблонов путей конечное число
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    private record EndpointMeters(DistributionSummary queries, Timer time) {
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        RequestQueryStats.begin(request.getMethod() + " " + uri(request));
+        request.setAttribute(SCOPE_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request,
+                                               @NonNull HttpServletResponse response, @NonNull Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) == null) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        RequestQueryStats stats = RequestQueryStats.end();
+        if (stats == null) {
+            return;
+        }
+        queryInspector.inspect(stats);
+        EndpointMeters endpoint = meters(request.getMethod(), uri(request));
+        endpoint.queries().record(stats.statements());
+        endpoint.time().record(stats.nanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private EndpointMeters meters(String method, String uri) {
+        return meters.computeIfAbsent(method + " " + uri, key -> new EndpointMeters(
+                DistributionSummary.builder("http.server.requests.db.queries")
+                        .description("SQL statements executed per HTTP request")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.db.time")
+                        .description("Time spent in SQL statements per HTTP request")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(meterRegistry)));
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
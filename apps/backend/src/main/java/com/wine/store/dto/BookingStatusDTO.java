@@ -0,0 +1,20 @@
+package com.wine.store.dto;
+
+import com.wine.store.model.BookingStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Schema(description = "Бронирование и его статус")
+public record BookingStatusDTO(
+        @Schema(description = "Номер бронирования", example = "7c9e6679-7425-40de-944b-e07fc1f90ae7") UUID reference,
+
+        @Schema(description = "ID события", example = "1") Long eventId,
+
+        @Schema(description = "Количество гостей", example = "2") int guests,
+
+        @Schema(description = "Итоговая стоимость", example = "90.00") BigDecimal totalPrice,
+
+        @Schema(description = "PENDING — ожидает записи, CONFIRMED — подтверждено, CANCELLED — мест не хватило, " +
+                "FAILED — не удалось сохранить", example = "PENDING") BookingStatus status) {
+}
@@ -0,0 +1,23 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Статистика кэша")
+public record CacheStatsDTO(
+        @Schema(description = "Попадания", example = "1520") long hits,
+
+        @Schema(description = "Промахи", example = "310") long misses,
+
+        @Schema(description = "Доля попаданий (0-1)", example = "0.83") double hitRatio,
+
+        @Schema(description = "Записей в кэше", example = "240") int size,
+
+        @Schema(description = "Максимум записей", example = "1000") int maxSize,
+
+        @Schema(description = "Вытеснено записей (по размеру и TTL)", example = "12") long evictions) {
+
+    public static CacheStatsDTO of(long hits, long misses, int size, int maxSize, long evictions) {
+        long lookups = hits + misses;
+        return new CacheStatsDTO(hits, misses, lookups > 0 ? (double) hits / lookups : 0.0, size, maxSize, evictions);
+    }
+}
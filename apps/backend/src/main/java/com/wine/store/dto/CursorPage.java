@@ -0,0 +1,23 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * НАЗНАЧЕНИЕ: Страница keyset-пагинации.
+ * ОСОБЕННОСТИ: Следующая страница запрашивается по nextCursor; total считается только по запросу (withTotal).
+ */
+@Schema(description = "Страница списка с курсорной пагинацией")
+public record CursorPage<T>(
+        @Schema(description = "Элементы страницы") List<T> content,
+
+        @Schema(description = "Курсор следующей страницы, null — страница последняя", example = "UFJJQ0VfQVNDOjE1Ljk5OjQy") String nextCursor,
+
+        @Schema(description = "Общее количество элементов (только при withTotal=true)", example = "580") Long total) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor, total);
+    }
+}
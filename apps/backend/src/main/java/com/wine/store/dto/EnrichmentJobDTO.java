@@ -0,0 +1,32 @@
+package com.wine.store.dto;
+
+import com.wine.store.model.SyncJobStatus;
+import com.wine.store.model.SyncTrigger;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Прогон офлайн-обогащения каталога")
+public record EnrichmentJobDTO(
+        @Schema(description = "Статус прогона", example = "RUNNING") SyncJobStatus status,
+
+        @Schema(description = "Источник запуска", example = "MANUAL") SyncTrigger trigger,
+
+        @Schema(description = "Модель обогащения", example = "gemini") String model,
+
+        @Schema(description = "Время запуска") LocalDateTime startedAt,
+
+        @Schema(description = "Время завершения (null, пока прогон выполняется)") LocalDateTime finishedAt,
+
+        @Schema(description = "Просмотрено вин", example = "1200") int scanned,
+
+        @Schema(description = "Пропущено: данные вина не менялись с прошлого обогащения", example = "1150") int unchanged,
+
+        @Schema(description = "Обогащено", example = "48") int enriched,
+
+        @Schema(description = "Не обогащено (ошибка модели или пустой ответ)", example = "2") int failed,
+
+        @Schema(description = "Запросов к модели", example = "5") int modelCalls,
+
+        @Schema(description = "Причина ошибки, если прогон прерван") String errorMessage) {
+}
@@ -0,0 +1,17 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * НАЗНАЧЕНИЕ: Данные гостя для подтверждения резерва.
+ */
+@Schema(description = "Подтверждение резерва мест")
+public record HoldConfirmationRequest(
+                @Schema(description = "Имя гостя", example = "Иван Иванов") @NotBlank String name,
+
+                @Schema(description = "Email гостя", example = "ivan@example.com") @NotBlank @Email String email,
+
+                @Schema(description = "Телефон для связи", example = "+7(900)123-44-55") String phone) {
+}
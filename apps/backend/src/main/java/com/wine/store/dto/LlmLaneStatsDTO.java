@@ -0,0 +1,28 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Статистика полосы вызовов LLM")
+public record LlmLaneStatsDTO(
+        @Schema(description = "Название полосы", example = "sommelier") String lane,
+
+        @Schema(description = "Текущий адаптивный лимит одновременных вызовов", example = "6") int limit,
+
+        @Schema(description = "Вызовов выполняется сейчас", example = "3") int inFlight,
+
+        @Schema(description = "Вызовов ждут свободного слота", example = "0") int queued,
+
+        @Schema(description = "Максимальная длина очереди", example = "16") int maxQueue,
+
+        @Schema(description = "Успешно завершено", example = "1280") long completed,
+
+        @Schema(description = "Отклонено из-за перегрузки (очередь полна или ожидание истекло)", example = "14") long rejected,
+
+        @Schema(description = "Превысили крайний срок", example = "3") long timedOut,
+
+        @Schema(description = "Завершились ошибкой", example = "2") long failed,
+
+        @Schema(description = "Скользящее среднее задержки, мс", example = "2400") long averageLatencyMs,
+
+        @Schema(description = "Максимальная задержка, мс", example = "9100") long maxLatencyMs) {
+}
@@ -0,0 +1,24 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Статистика SQL-запросов одной формы")
+public record QueryFingerprintDTO(
+        @Schema(description = "Нормализованный SQL (литералы и списки IN заменены)", example = "select t1_0.wine_id,t1_0.tag from wine_tags t1_0 where t1_0.wine_id=?") String fingerprint,
+
+        @Schema(description = "Пример SQL в том виде, в каком его подготовил Hibernate") String sampleSql,
+
+        @Schema(description = "Эндпоинт или задача, где было самое медленное выполнение", example = "GET /api/wines") String sampleSource,
+
+        @Schema(description = "Всего выполнений", example = "4800") long executions,
+
+        @Schema(description = "HTTP-запросов и задач, в которых встречался запрос", example = "400") long scopes,
+
+        @Schema(description = "Максимум выполнений за один HTTP-запрос или задачу", example = "12") int maxPerScope,
+
+        @Schema(description = "HTTP-запросов и задач, где запрос повторялся не меньше порога N+1", example = "400") long nPlusOneScopes,
+
+        @Schema(description = "Суммарное время, мс", example = "960") long totalMs,
+
+        @Schema(description = "Самое долгое выполнение, мс", example = "14") long maxMs) {
+}
@@ -0,0 +1,20 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Временный резерв мест на мероприятие")
+public record SeatHoldDTO(
+        @Schema(description = "Идентификатор резерва", example = "3f2b8c1e-6a4d-4f7e-9b1a-2c5d8e7f0a12") UUID holdId,
+
+        @Schema(description = "ID события", example = "1") Long eventId,
+
+        @Schema(description = "Зарезервировано мест", example = "2") int seats,
+
+        @Schema(description = "Итоговая стоимость", example = "90.00") BigDecimal totalPrice,
+
+        @Schema(description = "Резерв действует до (UTC)") Instant expiresAt) {
+}
@@ -0,0 +1,24 @@
+package com.wine.store.dto;
+
+import com.wine.store.model.SyncJobStatus;
+import com.wine.store.model.SyncTrigger;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Задача синхронизации с WooCommerce")
+public record SyncJobDTO(
+        @Schema(description = "Идентификатор задачи", example = "42") Long id,
+
+        @Schema(description = "Статус задачи", example = "RUNNING") SyncJobStatus status,
+
+        @Schema(description = "Источник запуска", example = "MANUAL") SyncTrigger trigger,
+
+        @Schema(description = "Время запуска") LocalDateTime startedAt,
+
+        @Schema(description = "Время завершения (null, пока задача выполняется)") LocalDateTime finishedAt,
+
+        @Schema(description = "Причина ошибки, если задача прервана") String errorMessage,
+
+        @Schema(description = "Прогресс (для выполняющейся задачи) или итоги прогона") SyncReport progress) {
+}
@@ -0,0 +1,40 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Отчет о синхронизации с WooCommerce")
+public record SyncReport(
+        @Schema(description = "Полная пересинхронизация (без курсора и сверки хешей)", example = "false") boolean fullResync,
+
+        @Schema(description = "Курсор запроса: товары, измененные после этого момента (GMT)", example = "2024-05-01T12:34:56") LocalDateTime modifiedAfter,
+
+        @Schema(description = "Загружено страниц", example = "12") int pages,
+
+        @Schema(description = "Обработано товаров", example = "580") int processed,
+
+        @Schema(description = "Записано в БД (создано + обновлено)", example = "20") int touched,
+
+        @Schema(description = "Создано записей", example = "14") int inserted,
+
+        @Schema(description = "Обновлено записей", example = "6") int updated,
+
+        @Schema(description = "Пропущено без UPDATE: содержимое не изменилось", example = "554") int skipped,
+
+        @Schema(description = "Товаров вне каталога (не вино и не мероприятие)", example = "6") int ignored,
+
+        @Schema(description = "Товаров, не записанных из-за ошибок", example = "0") int failed,
+
+        @Schema(description = "Общая длительность, мс", example = "4210") long durationMs,
+
+        @Schema(description = "Пропускная способность, товаров в секунду", example = "137.8") double productsPerSecond,
+
+        @Schema(description = "Суммарное время загрузки страниц, мс (страницы грузятся параллельно)", example = "9800") long fetchMs,
+
+        @Schema(description = "Суммарное время сопоставления DTO, мс", example = "35") long mapMs,
+
+        @Schema(description = "Время поиска существующих записей по slug, мс", example = "120") long resolveMs,
+
+        @Schema(description = "Время пакетной записи в БД, мс", example = "640") long writeMs) {
+}
@@ -0,0 +1,61 @@
+package com.wine.store.dto;
+
+import com.wine.store.model.StockStatus;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Карточка вина для списков каталога (GET /api/wines, /featured, /top-rated).
+ * ОСОБЕННОСТИ: Без описания и аналитики (кислотность, сахар) — они есть только в GET /api/wines/{slug}.
+ */
+@Schema(description = "Карточка вина для списка")
+public record WineCardDTO(
+        @Schema(description = "Уникальный идентификатор", example = "1") Long id,
+
+        @Schema(description = "Название вина", example = "Riesling Trocken 2022") String name,
+
+        @Schema(description = "URL-дружественный идентификатор", example = "riesling-trocken-2022") String slug,
+
+        @Schema(description = "URL изображения", example = "https://example.com/images/wine.jpg") String imageUrl,
+
+        @Schema(description = "Базовая цена", example = "15.99") BigDecimal price,
+
+        @Schema(description = "Акционная цена", example = "12.99") BigDecimal salePrice,
+
+        @Schema(description = "Флаг наличия скидки", example = "false") boolean isSale,
+
+        @Schema(description = "Статус наличия на складе", example = "IN_STOCK") StockStatus stockStatus,
+
+        @Schema(description = "Количество на складе", example = "50") Integer stockQuantity,
+
+        @Schema(description = "Тип вина (RED, WHITE, ROSE, SPARKLING)", example = "WHITE") WineType type,
+
+        @Schema(description = "Сорт винограда", example = "Riesling") String grapeVariety,
+
+        @Schema(description = "Год урожая", example = "2022") Integer year,
+
+        @Schema(description = "Содержание алкоголя", example = "12.5%") String alcohol,
+
+        @Schema(description = "Вкус (сладость)", example = "TROCKEN") WineFlavor flavor,
+
+        @Schema(description = "Лимитированное издание", example = "Limited Edition 2022") String edition,
+
+        @Schema(description = "Рейтинг вина", example = "4.8") Double rating,
+
+        @Schema(description = "Рекомендуемые блюда") List<DishDTO> recommendedDishes,
+
+        @Schema(description = "Теги", example = "[\"fresh\", \"mineral\"]") List<String> tags,
+
+        @Schema(description = "Флаг популярного товара", example = "true") boolean featured) {
+
+    public static WineCardDTO of(WineDTO wine) {
+        return new WineCardDTO(wine.getId(), wine.getName(), wine.getSlug(), wine.getImageUrl(), wine.getPrice(),
+                wine.getSalePrice(), wine.isSale(), wine.getStockStatus(), wine.getStockQuantity(), wine.getType(),
+                wine.getGrapeVariety(), wine.getYear(), wine.getAlcohol(), wine.getFlavor(), wine.getEdition(),
+                wine.getRating(), wine.getRecommendedDishes(), wine.getTags(), wine.isFeatured());
+    }
+}
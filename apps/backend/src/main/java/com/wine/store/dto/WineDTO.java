@@ -78,6 +78,15 @@ public class WineDTO {
     @Schema(description = "Сахар", example = "Low")
     private String sugar;
 
+    @Schema(description = "Алкоголь, % об. (вычисляется из alcohol)", example = "12.5", accessMode = Schema.AccessMode.READ_ONLY)
+    private BigDecimal alcoholPercent;
+
+    @Schema(description = "Кислотность, г/л (вычисляется из acidity)", example = "5.6", accessMode = Schema.AccessMode.READ_ONLY)
+    private BigDecimal acidityGrams;
+
+    @Schema(description = "Остаточный сахар, г/л (вычисляется из sugar)", example = "2.0", accessMode = Schema.AccessMode.READ_ONLY)
+    private BigDecimal sugarGrams;
+
     @Schema(description = "Вкус (сладость)", example = "TROCKEN")
     private WineFlavor flavor;
 
@@ -0,0 +1,44 @@
+package com.wine.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Счетчики фасетов каталога для текущих фильтров (GET /api/wines/facets).
+ * ОСОБЕННОСТИ: Счетчик значения фасета учитывает все фильтры, кроме фильтра самого фасета, —
+ * так видно, сколько вин появится при выборе другого значения.
+ */
+@Schema(description = "Счетчики фасетов каталога для текущих фильтров")
+public record WineFacetsDTO(
+        @Schema(description = "Вин, подходящих под все фильтры", example = "42") int total,
+
+        @Schema(description = "Категории (тип вина)") List<FacetValue> types,
+
+        @Schema(description = "Вкус (сладость)") List<FacetValue> flavors,
+
+        @Schema(description = "Сорта винограда") List<FacetValue> grapes,
+
+        @Schema(description = "Теги") List<FacetValue> tags,
+
+        @Schema(description = "Издания (уровень качества)") List<FacetValue> editions,
+
+        @Schema(description = "Ценовые диапазоны") List<PriceRange> priceRanges) {
+
+    @Schema(description = "Значение фасета")
+    public record FacetValue(
+            @Schema(description = "Значение фильтра", example = "Riesling") String value,
+
+            @Schema(description = "Количество вин", example = "12") int count) {
+    }
+
+    @Schema(description = "Ценовой диапазон [min, max)")
+    public record PriceRange(
+            @Schema(description = "Нижняя граница (включительно)", example = "10.00") BigDecimal min,
+
+            @Schema(description = "Верхняя граница (не включительно), null — без ограничения", example = "20.00") BigDecimal max,
+
+            @Schema(description = "Количество вин", example = "18") int count) {
+    }
+}
@@ -12,7 +12,7 @@ import java.math.BigDecimal;
  */
 @Schema(description = "Параметры поиска и фильтрации вин")
 public record WineSearchRequest(
-        @Size(max = 100) @Schema(description = "Поисковый запрос (по названию)", example = "Riesling") String search,
+        @Size(max = 100) @Schema(description = "Поисковый запрос (название, сорт, издание, теги, описание; ранжирование по релевантности)", example = "Riesling") String search,
 
         @Schema(description = "Категория вина (RED, WHITE, ROSE, SPARKLING)", example = "WHITE") String category,
 
@@ -30,5 +30,17 @@ public record WineSearchRequest(
 
         @DecimalMin("0.0") @Schema(description = "Максимальная цена", example = "100.00") BigDecimal maxPrice,
 
+        @DecimalMin("0.0") @Schema(description = "Минимальный алкоголь, % об.", example = "11.5") BigDecimal minAlcohol,
+
+        @DecimalMin("0.0") @Schema(description = "Максимальный алкоголь, % об.", example = "13.0") BigDecimal maxAlcohol,
+
+        @DecimalMin("0.0") @Schema(description = "Минимальная кислотность, г/л", example = "5.0") BigDecimal minAcidity,
+
+        @DecimalMin("0.0") @Schema(description = "Максимальная кислотность, г/л", example = "7.5") BigDecimal maxAcidity,
+
+        @DecimalMin("0.0") @Schema(description = "Минимальный остаточный сахар, г/л", example = "0") BigDecimal minSugar,
+
+        @DecimalMin("0.0") @Schema(description = "Максимальный остаточный сахар, г/л", example = "4.0") BigDecimal maxSugar,
+
         @Schema(description = "Сортировка (price_asc, price_desc, newest, rating)", example = "price_asc") String sort) {
 }
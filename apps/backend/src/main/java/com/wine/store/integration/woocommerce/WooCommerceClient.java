@@ -1,37 +1,59 @@
 package com.wine.store.integration.woocommerce;
 
 import com.wine.store.integration.woocommerce.dto.WcProductDTO;
+import com.wine.store.integration.woocommerce.dto.WcProductPage;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class WooCommerceClient {
 
     private final RestTemplate wooCommerceRestTemplate;
 
-    public List<WcProductDTO> getProducts(int page, int perPage) {
-        String url = "/products?page=" + page + "&per_page=" + perPage;
+    private static final String TOTAL_PAGES_HEADER = "X-WP-TotalPages";
+    private static final String TOTAL_HEADER = "X-WP-Total";
+    private static final DateTimeFormatter WC_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /**
+     * Загружает страницу товаров. Ошибки не подавляются — решение принимает вызывающий (конвейер импорта).
+     * totalPages = 0, если сервер не прислал заголовок X-WP-TotalPages.
+     * Порядок — по id: товар, созданный во время прогона, попадает в конец выборки и не сдвигает
+     * уже загруженные страницы (порядок по умолчанию — по дате, новые товары сдвигают все страницы).
+     *
+     * @param modifiedAfter только товары, измененные после этого момента (GMT); null — все товары
+     */
+    public WcProductPage getProductPage(int page, int perPage, LocalDateTime modifiedAfter) {
+        String url = "/products?page=" + page + "&per_page=" + perPage + "&orderby=id&order=asc";
+        if (modifiedAfter != null) {
+            url += "&modified_after=" + modifiedAfter.format(WC_DATE_FORMAT)
+                    + "&dates_are_gmt=true";
+        }
+        ResponseEntity<List<WcProductDTO>> response = wooCommerceRestTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {}
+        );
+        List<WcProductDTO> products = response.getBody() != null ? response.getBody() : Collections.emptyList();
+        return new WcProductPage(products, header(response, TOTAL_PAGES_HEADER, 0), header(response, TOTAL_HEADER, -1));
+    }
+
+    private static int header(ResponseEntity<?> response, String name, int ifMissing) {
+        String value = response.getHeaders().getFirst(name);
         try {
-            ResponseEntity<List<WcProductDTO>> response = wooCommerceRestTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<>() {}
-            );
-            return response.getBody();
-        } catch (Exception e) {
-            log.error("Error fetching products from WooCommerce API: {}", e.getMessage(), e);
-            return Collections.emptyList();
+            return value != null ? Integer.parseInt(value.trim()) : ifMissing;
+        } catch (NumberFormatException e) {
+            return ifMissing;
         }
     }
 }
@@ -29,4 +29,6 @@ public class WcProductDTO {
     private List<WcCategoryDTO> categories;
     private List<WcAttributeDTO> attributes;
     private List<WcImageDTO> images;
+    @JsonProperty("date_modified_gmt") // 2024-05-01T12:34:56
+    private String dateModifiedGmt;
 }
@@ -0,0 +1,10 @@
+package com.wine.store.integration.woocommerce.dto;
+
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Страница товаров WooCommerce вместе с общим количеством страниц (заголовок X-WP-TotalPages)
+ * и товаров в выборке (X-WP-Total, -1 — заголовка нет).
+ */
+public record WcProductPage(List<WcProductDTO> products, int totalPages, int total) {
+}
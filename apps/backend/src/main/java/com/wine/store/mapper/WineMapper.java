@@ -11,6 +11,14 @@ public interface WineMapper {
     @Mapping(source = "releaseYear", target = "year")
     WineDTO toDto(Wine wine);
 
+    /**
+     * Без ленивых коллекций recommendedDishes и tags — их подставляет WineDtoAssembler из пакетных запросов.
+     */
+    @Mapping(source = "releaseYear", target = "year")
+    @Mapping(target = "recommendedDishes", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    WineDTO toDtoWithoutCollections(Wine wine);
+
     @Mapping(source = "year", target = "releaseYear")
     Wine toEntity(WineDTO dto);
 
@@ -18,6 +18,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * НАЗНАЧЕНИЕ: Сущность бронирования мероприятия.
@@ -35,6 +36,10 @@ public class Booking {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Номер бронирования для клиента (выдается до записи в БД)
+    @Column(unique = true)
+    private UUID reference;
+
     @ManyToOne
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
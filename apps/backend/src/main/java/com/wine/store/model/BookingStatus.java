@@ -2,9 +2,12 @@ package com.wine.store.model;
 
 /**
  * НАЗНАЧЕНИЕ: Статус бронирования.
+ * ОСОБЕННОСТИ: PENDING — принято и ждет записи в БД (в таблице не хранится); CANCELLED — мест не хватило
+ * при записи; FAILED — запись не удалась после всех попыток, места возвращены.
  */
 public enum BookingStatus {
     PENDING,
     CONFIRMED,
-    CANCELLED
+    CANCELLED,
+    FAILED
 }
@@ -1,5 +1,6 @@
 package com.wine.store.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -12,6 +13,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * НАЗНАЧЕНИЕ: Сущность блюда для гастропар с вином.
@@ -20,6 +23,8 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "dishes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "dish")
 @Data
 @Builder
 @NoArgsConstructor
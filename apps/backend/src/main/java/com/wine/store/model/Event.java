@@ -1,5 +1,6 @@
 package com.wine.store.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -13,6 +14,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -20,10 +25,15 @@ import java.time.LocalDate;
 /**
  * НАЗНАЧЕНИЕ: Сущность мероприятия (дегустация, фестиваль).
  * ЗАВИСИМОСТИ: JPA, Lombok.
- * ОСОБЕННОСТИ: Отображается на таблицу "events".
+ * ОСОБЕННОСТИ: Отображается на таблицу "events". Во втором уровне кэша Hibernate: массовый UPDATE
+ * incrementBookedSpots Hibernate сбрасывает из области "event" сам, записи импорта в обход Hibernate —
+ * SecondLevelCacheInvalidator.
  */
 @Entity
 @Table(name = "events")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "event")
+@NaturalIdCache(region = "event-slug")
 @Data
 @Builder
 @NoArgsConstructor
@@ -36,6 +46,7 @@ public class Event {
     @Column(nullable = false)
     private String title;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String slug;
 
@@ -61,6 +72,9 @@ public class Event {
     @Enumerated(EnumType.STRING)
     private EventCategory category; // WEINFEST, WEINPROBE...
 
+    // SHA-256 последних импортированных из WooCommerce данных: неизмененные товары не перезаписываются
+    private String contentHash;
+
     public boolean isFull() {
         return bookedSpots >= totalSpots;
     }
@@ -0,0 +1,66 @@
+package com.wine.store.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * НАЗНАЧЕНИЕ: Запись истории синхронизации с WooCommerce.
+ * ЗАВИСИМОСТИ: JPA, Lombok.
+ * ОСОБЕННОСТИ: Отображается на таблицу "sync_jobs". Счетчики заполняются по завершении задачи;
+ * прогресс выполняющейся задачи хранится в памяти узла, который ее выполняет (SyncJobService).
+ */
+@Entity
+@Table(name = "sync_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private SyncJobStatus status; // RUNNING, SUCCEEDED, FAILED
+
+    @Enumerated(EnumType.STRING)
+    private SyncTrigger triggerType; // SCHEDULED, MANUAL
+
+    private boolean fullResync;
+    private LocalDateTime modifiedAfter;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Узел, выполняющий задачу, и его последний heartbeat: по ним другие узлы отличают
+    // прерванную задачу от выполняющейся
+    private String nodeId;
+    private LocalDateTime heartbeatAt;
+
+    // Итоги прогона (SyncReport)
+    private Integer pages;
+    private Integer processed;
+    private Integer inserted;
+    private Integer updated;
+    private Integer skipped;
+    private Integer ignored;
+    private Integer failed;
+    private Long durationMs;
+    private Double productsPerSecond;
+    private Long fetchMs;
+    private Long mapMs;
+    private Long resolveMs;
+    private Long writeMs;
+
+    private String errorMessage;
+}
@@ -0,0 +1,10 @@
+package com.wine.store.model;
+
+/**
+ * НАЗНАЧЕНИЕ: Статус задачи синхронизации.
+ */
+public enum SyncJobStatus {
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,42 @@
+package com.wine.store.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * НАЗНАЧЕНИЕ: Курсор инкрементальной синхронизации с внешним источником.
+ * ЗАВИСИМОСТИ: JPA, Lombok.
+ * ОСОБЕННОСТИ: Отображается на таблицу "sync_state". lastModifiedGmt — максимальный
+ * date_modified_gmt среди товаров последнего успешного прогона.
+ */
+@Entity
+@Table(name = "sync_state")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncState {
+    public static final String WOOCOMMERCE = "woocommerce";
+
+    @Id
+    private String source;
+
+    private LocalDateTime lastModifiedGmt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
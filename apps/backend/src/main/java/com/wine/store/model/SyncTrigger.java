@@ -0,0 +1,9 @@
+package com.wine.store.model;
+
+/**
+ * НАЗНАЧЕНИЕ: Источник запуска синхронизации (расписание или администратор).
+ */
+public enum SyncTrigger {
+    SCHEDULED,
+    MANUAL
+}
@@ -1,5 +1,6 @@
 package com.wine.store.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -18,6 +19,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -25,10 +30,14 @@ import java.util.List;
 /**
  * НАЗНАЧЕНИЕ: Сущность вина в каталоге.
  * ЗАВИСИМОСТИ: JPA, Lombok.
- * ОСОБЕННОСТИ: Отображается на таблицу "wines".
+ * ОСОБЕННОСТИ: Отображается на таблицу "wines". Сущность, ее коллекции и поиск по slug (natural id) —
+ * во втором уровне кэша Hibernate; записи импорта в обход Hibernate сбрасывает SecondLevelCacheInvalidator.
  */
 @Entity
 @Table(name = "wines")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wine")
+@NaturalIdCache(region = "wine-slug")
 @Data
 @Builder
 @NoArgsConstructor
@@ -42,6 +51,7 @@ public class Wine {
     @Column(nullable = false)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String slug; // Для SEO URL
 
@@ -77,6 +87,16 @@ public class Wine {
     private String acidity; // 5.6 g/l
     private String sugar; // 2.0 g/l
 
+    // Те же данные числами (TastingValues) — для фильтров по диапазону и сортировки
+    @Column(precision = 5, scale = 2)
+    private BigDecimal alcoholPercent; // 13.50
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal acidityGrams; // 5.60
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal sugarGrams; // 2.00
+
     @Enumerated(EnumType.STRING)
     private WineFlavor flavor; // TROCKEN, FEINHERB...
 
@@ -86,14 +106,19 @@ public class Wine {
     private Double rating;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wine-dishes")
     @JoinTable(name = "wine_dish", joinColumns = @JoinColumn(name = "wine_id"), inverseJoinColumns = @JoinColumn(name = "dish_id"))
     private List<Dish> recommendedDishes;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wine-tags")
     @CollectionTable(name = "wine_tags", joinColumns = @JoinColumn(name = "wine_id"))
     @Column(name = "tag")
     private List<String> tags;
 
     private boolean featured;
 
+    // SHA-256 последних импортированных из WooCommerce данных: неизмененные товары не перезаписываются
+    private String contentHash;
+
 }
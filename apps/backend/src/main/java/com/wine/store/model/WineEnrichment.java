@@ -0,0 +1,63 @@
+package com.wine.store.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Результат офлайн-обогащения вина моделью: вкусовой профиль, теги сочетаний, описание сомелье.
+ * ЗАВИСИМОСТИ: JPA, Lombok.
+ * ОСОБЕННОСТИ: Отображается на таблицу "wine_enrichments", ключ — id вина. sourceHash — хеш данных вина,
+ * по которым выполнено обогащение: запись пересчитывается только при его изменении.
+ * Списки (aromas, pairingTags) хранятся строкой через запятую.
+ */
+@Entity
+@Table(name = "wine_enrichments")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WineEnrichment {
+    @Id
+    private Long wineId;
+
+    private String sourceHash;
+    private String model;
+
+    // Вкусовой профиль 1-5
+    private Integer body;
+    private Integer acidity;
+    private Integer sweetness;
+    private Integer tannin;
+
+    private String aromas; // "cherry, vanilla"
+    private String pairingTags; // "steak, lamb, bbq"
+    private String blurb;
+    private LocalDateTime enrichedAt;
+
+    public List<String> pairingTagList() {
+        return split(pairingTags);
+    }
+
+    public List<String> aromaList() {
+        return split(aromas);
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .toList();
+    }
+}
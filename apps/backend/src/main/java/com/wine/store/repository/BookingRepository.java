@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * НАЗНАЧЕНИЕ: Репозиторий для работы с бронированиями.
@@ -12,4 +14,6 @@ import java.util.List;
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByCustomerEmail(String email);
+
+    Optional<Booking> findByReference(UUID reference);
 }
@@ -0,0 +1,12 @@
+package com.wine.store.repository;
+
+import com.wine.store.model.Dish;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * НАЗНАЧЕНИЕ: Репозиторий справочника блюд для гастропар.
+ */
+@Repository
+public interface DishRepository extends JpaRepository<Dish, Long> {
+}
@@ -1,12 +1,18 @@
 package com.wine.store.repository;
 
 import com.wine.store.model.Event;
+import com.wine.store.repository.projection.ContentHashView;
+import com.wine.store.repository.projection.EventSeatsView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,13 +20,19 @@ import java.util.Optional;
  * НАЗНАЧЕНИЕ: Репозиторий для работы с мероприятиями.
  */
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
-    Optional<Event> findBySlug(String slug);
-
+public interface EventRepository extends JpaRepository<Event, Long>, EventSlugLookup {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Event> findByDateAfterOrderByDateAsc(LocalDate date);
 
     @Modifying
     @Query("UPDATE Event e SET e.bookedSpots = e.bookedSpots + :requestedSpots " +
             "WHERE e.id = :eventId AND (e.bookedSpots + :requestedSpots) <= e.totalSpots")
     int incrementBookedSpots(Long eventId, int requestedSpots);
+
+    @Query("SELECT new com.wine.store.repository.projection.EventSeatsView(e.id, e.totalSpots, e.bookedSpots, " +
+            "e.pricePerPerson) FROM Event e WHERE e.id = :eventId")
+    Optional<EventSeatsView> findSeatsView(Long eventId);
+
+    @Query("SELECT e.slug AS slug, e.contentHash AS contentHash FROM Event e WHERE e.slug IN :slugs")
+    List<ContentHashView> findContentHashes(Collection<String> slugs);
 }
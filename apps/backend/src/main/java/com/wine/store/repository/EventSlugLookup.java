@@ -0,0 +1,14 @@
+package com.wine.store.repository;
+
+import com.wine.store.model.Event;
+
+import java.util.Optional;
+
+/**
+ * НАЗНАЧЕНИЕ: Поиск по slug через natural id Hibernate — с кэшем "event.slug" второго уровня.
+ * ОСОБЕННОСТИ: Фрагмент EventRepository; заменяет производный запрос findBySlug, который всегда шел в БД.
+ */
+public interface EventSlugLookup {
+
+    Optional<Event> findBySlug(String slug);
+}
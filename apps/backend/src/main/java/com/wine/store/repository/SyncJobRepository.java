@@ -0,0 +1,34 @@
+package com.wine.store.repository;
+
+import com.wine.store.model.SyncJob;
+import com.wine.store.model.SyncJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Репозиторий истории задач синхронизации.
+ */
+@Repository
+public interface SyncJobRepository extends JpaRepository<SyncJob, Long> {
+    List<SyncJob> findAllByOrderByStartedAtDesc(Pageable pageable);
+
+    List<SyncJob> findByStatusAndNodeId(SyncJobStatus status, String nodeId);
+
+    /**
+     * Задачи, чей узел перестал присылать heartbeat. Старые записи без heartbeat — по времени старта.
+     */
+    @Query("SELECT j FROM SyncJob j WHERE j.status = :status AND COALESCE(j.heartbeatAt, j.startedAt) < :staleBefore")
+    List<SyncJob> findStale(SyncJobStatus status, LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncJob j SET j.heartbeatAt = :at WHERE j.id = :id")
+    int touch(Long id, LocalDateTime at);
+}
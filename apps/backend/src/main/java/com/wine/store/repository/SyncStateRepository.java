@@ -0,0 +1,12 @@
+package com.wine.store.repository;
+
+import com.wine.store.model.SyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * НАЗНАЧЕНИЕ: Репозиторий курсоров синхронизации.
+ */
+@Repository
+public interface SyncStateRepository extends JpaRepository<SyncState, String> {
+}
@@ -0,0 +1,20 @@
+package com.wine.store.repository;
+
+import com.wine.store.model.WineEnrichment;
+import com.wine.store.repository.projection.EnrichmentHashView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Репозиторий результатов офлайн-обогащения вин.
+ */
+@Repository
+public interface WineEnrichmentRepository extends JpaRepository<WineEnrichment, Long> {
+
+    @Query("SELECT e.wineId AS wineId, e.sourceHash AS sourceHash FROM WineEnrichment e WHERE e.wineId IN :wineIds")
+    List<EnrichmentHashView> findSourceHashes(Collection<Long> wineIds);
+}
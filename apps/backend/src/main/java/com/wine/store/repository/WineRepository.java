@@ -1,28 +1,85 @@
 package com.wine.store.repository;
 
+import com.wine.store.model.StockStatus;
 import com.wine.store.model.Wine;
+import com.wine.store.repository.projection.ContentHashView;
+import com.wine.store.repository.projection.DishPairingView;
+import com.wine.store.repository.projection.SommelierCandidateView;
+import com.wine.store.repository.projection.WineDishView;
+import com.wine.store.repository.projection.WinePriceView;
+import com.wine.store.repository.projection.WineTagView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * НАЗНАЧЕНИЕ: Репозиторий для работы с винами.
  * ОСОБЕННОСТИ: Поддерживает JpaSpecificationExecutor для фильтрации.
  */
 @Repository
-public interface WineRepository extends JpaRepository<Wine, Long>, JpaSpecificationExecutor<Wine> {
-    Optional<Wine> findBySlug(String slug);
-
+public interface WineRepository extends JpaRepository<Wine, Long>, JpaSpecificationExecutor<Wine>, WineSlugLookup {
     List<Wine> findTop10ByOrderByIdDesc(); // New arrivals (mocked by ID desc)
 
+    // Кэш запросов Hibernate: результат хранится до изменения таблицы wines (или сброса после импорта)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT w.grapeVariety FROM Wine w WHERE w.grapeVariety IS NOT NULL")
     List<String> findAllGrapeVarieties();
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Wine> findByFeaturedTrue();
 
-    List<Wine> findTop10ByOrderByRatingDesc();
+    // NULLS LAST, как у idx_wines_rating_id: в PostgreSQL DESC без него ставит вина без рейтинга первыми
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT w FROM Wine w ORDER BY w.rating DESC NULLS LAST, w.id")
+    List<Wine> findTopRated(Limit limit);
+
+    @Query("SELECT new com.wine.store.repository.projection.WinePriceView(w.id, w.name, w.price, w.salePrice, " +
+            "w.isSale, w.stockStatus, w.stockQuantity, w.imageUrl) FROM Wine w WHERE w.id IN :ids")
+    List<WinePriceView> findPriceViewsByIdIn(Collection<Long> ids);
+
+    // AI-сомелье: кандидаты по бюджету (цена с учетом акции) и наличию, без загрузки сущностей
+    @Query("SELECT new com.wine.store.repository.projection.SommelierCandidateView(w.id, w.name, w.type, " +
+            "CASE WHEN w.isSale = true AND w.salePrice > 0 THEN w.salePrice ELSE w.price END, " +
+            "w.grapeVariety, w.acidity, w.sugar, w.acidityGrams, w.sugarGrams, w.flavor, w.rating) FROM Wine w " +
+            "WHERE w.stockStatus IN :statuses " +
+            "AND CASE WHEN w.isSale = true AND w.salePrice > 0 THEN w.salePrice ELSE w.price END BETWEEN :minPrice AND :maxPrice")
+    List<SommelierCandidateView> findSommelierCandidates(BigDecimal minPrice, BigDecimal maxPrice,
+                                                         Collection<StockStatus> statuses);
+
+    // Те же условия, что и у findSommelierCandidates: один запрос вместо ленивой загрузки блюд каждого вина
+    @Query("SELECT new com.wine.store.repository.projection.DishPairingView(w.id, d.name, d.category) " +
+            "FROM Wine w JOIN w.recommendedDishes d " +
+            "WHERE w.stockStatus IN :statuses " +
+            "AND CASE WHEN w.isSale = true AND w.salePrice > 0 THEN w.salePrice ELSE w.price END BETWEEN :minPrice AND :maxPrice")
+    List<DishPairingView> findSommelierDishPairings(BigDecimal minPrice, BigDecimal maxPrice,
+                                                    Collection<StockStatus> statuses);
+
+    // Коллекции набора вин — по запросу на коллекцию вместо ленивой загрузки у каждого вина (WineDtoAssembler)
+    @Query("SELECT new com.wine.store.repository.projection.WineTagView(w.id, t) FROM Wine w JOIN w.tags t " +
+            "WHERE w.id IN :ids")
+    List<WineTagView> findTagsByWineIdIn(Collection<Long> ids);
+
+    @Query("SELECT new com.wine.store.repository.projection.WineDishView(w.id, d.id, d.name, d.category) " +
+            "FROM Wine w JOIN w.recommendedDishes d WHERE w.id IN :ids")
+    List<WineDishView> findDishesByWineIdIn(Collection<Long> ids);
+
+    // Отпечаток каталога для проверки сохраненного на диск кэша рекомендаций после перезапуска
+    @Query("SELECT COUNT(w), MAX(w.id), SUM(w.price), SUM(w.salePrice), SUM(w.rating), SUM(w.stockQuantity) FROM Wine w")
+    List<Object[]> catalogFingerprint();
+
+    // Импорт WooCommerce: одна выборка на страницу вместо findBySlug на каждый товар
+    @Query("SELECT w.slug AS slug, w.contentHash AS contentHash FROM Wine w WHERE w.slug IN :slugs")
+    List<ContentHashView> findContentHashes(Collection<String> slugs);
+
+    @Query("SELECT w.id FROM Wine w WHERE w.slug IN :slugs")
+    List<Long> findIdsBySlugIn(Collection<String> slugs);
 }
@@ -0,0 +1,14 @@
+package com.wine.store.repository;
+
+import com.wine.store.model.Wine;
+
+import java.util.Optional;
+
+/**
+ * НАЗНАЧЕНИЕ: Поиск по slug через natural id Hibernate — с кэшем "wine.slug" второго уровня.
+ * ОСОБЕННОСТИ: Фрагмент WineRepository; заменяет производный запрос findBySlug, который всегда шел в БД.
+ */
+public interface WineSlugLookup {
+
+    Optional<Wine> findBySlug(String slug);
+}
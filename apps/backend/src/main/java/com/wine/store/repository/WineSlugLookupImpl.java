@@ -0,0 +1,23 @@
+package com.wine.store.repository;
+
+import com.wine.store.model.Wine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class WineSlugLookupImpl implements WineSlugLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Wine> findBySlug(String slug) {
+        // Сверка с несохраненными изменениями сессии не нужна: slug меняют только через save() в той же транзакции
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Wine.class)
+                .setSynchronizationEnabled(false)
+                .loadOptional(slug);
+    }
+}
@@ -0,0 +1,594 @@
+package com.wine.store.repository.index;
+
+import com.wine.store.dto.WineDTO;
+import com.wine.store.dto.WineFacetsDTO;
+import com.wine.store.dto.WineSearchRequest;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import com.wine.store.service.catalog.WineCursor;
+import com.wine.store.service.catalog.WineKeysetOrder;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * НАЗНАЧЕНИЕ: Неизменяемый колоночный снимок каталога вин.
+ * ОСОБЕННОСТИ: Строки упорядочены по id. Примитивные колонки лежат в массивах,
+ * значения-фильтры (тип, вкус, сорт, тег, издание) — в битовых множествах.
+ * Перестановки для сортировок считаются один раз при построении.
+ * Сорт, тег и издание дополнительно закодированы словарем (порядковый номер значения на строку) —
+ * по ним фасеты считаются одним проходом без обращения к строкам.
+ * NULL повторяет семантику SQL (PostgreSQL): при сортировке NULL больше любого значения
+ * (ASC — в конце, DESC — в начале). Цена в БД NOT NULL.
+ * patch() строит снимок из предыдущего: неизмененные строки сохраняют порядок в перестановках
+ * и разобранный текст, заново сортируются и токенизируются только измененные.
+ */
+final class CatalogSnapshot {
+
+    static final int NULL_ORDINAL = -1;
+    static final int NULL_YEAR = Integer.MIN_VALUE;
+    static final int NULL_HUNDREDTHS = Integer.MIN_VALUE;
+    private static final BitSet EMPTY = new BitSet();
+    private static final int[] NO_TAGS = new int[0];
+
+    // Границы ценовых диапазонов фасета, в центах: [0, 10), [10, 20), [20, 30), [30, 50), [50, ∞) евро
+    private static final long[] PRICE_BOUNDS_CENTS = { 1000, 2000, 3000, 5000 };
+
+    // Измерения фасетов; индекс совпадает с позицией фильтра в Criteria.dimensions
+    private static final int TYPE = 0;
+    private static final int FLAVOR = 1;
+    private static final int GRAPE = 2;
+    private static final int TAG = 3;
+    private static final int EDITION = 4;
+    private static final int PRICE = 5;
+    private static final int DIMENSIONS = 6;
+
+    final int size;
+    final long[] ids;
+    final WineDTO[] rows;
+    final int[] typeOrdinal;
+    final int[] flavorOrdinal;
+    final long[] priceCents;
+    final double[] rating;
+    final int[] releaseYear;
+    // Алкоголь (% об.), кислотность и сахар (г/л) в сотых долях; NULL_HUNDREDTHS — значения нет
+    final int[] alcoholHundredths;
+    final int[] acidityHundredths;
+    final int[] sugarHundredths;
+    final WineTextIndex text;
+
+    final BitSet[] typeBits;
+    final BitSet[] flavorBits;
+    final Map<String, BitSet> grapeBits;
+    final Map<String, BitSet> tagBits;
+    final Map<String, BitSet> editionBits;
+    final Map<Long, Integer> rowById;
+
+    final int[] grapeOrdinal;
+    final int[] editionOrdinal;
+    final int[][] tagOrdinals;
+    final int[] priceBucket;
+    final List<String> grapeValues = new ArrayList<>();
+    final List<String> editionValues = new ArrayList<>();
+    final List<String> tagValues = new ArrayList<>();
+
+    // Перестановки строк (при равном ключе — по id): цена по возрастанию, год по возрастанию (null в конце),
+    // рейтинг по возрастанию (null в конце) для Pageable и по убыванию (null в конце) для keyset
+    final int[] byPriceAsc;
+    final int[] byRatingAsc;
+    final int[] byRatingDesc;
+    final int[] byYearAsc;
+
+    /**
+     * Порядок двух строк снимка; 0 только для одной и той же строки.
+     */
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int left, int right);
+    }
+
+    private CatalogSnapshot(List<WineDTO> sortedRows, CatalogSnapshot previous) {
+        this.size = sortedRows.size();
+        this.ids = new long[size];
+        this.rows = sortedRows.toArray(new WineDTO[0]);
+        this.typeOrdinal = new int[size];
+        this.flavorOrdinal = new int[size];
+        this.priceCents = new long[size];
+        this.rating = new double[size];
+        this.releaseYear = new int[size];
+        this.alcoholHundredths = new int[size];
+        this.acidityHundredths = new int[size];
+        this.sugarHundredths = new int[size];
+        this.typeBits = newBitSets(WineType.values().length);
+        this.flavorBits = newBitSets(WineFlavor.values().length);
+        this.grapeBits = new HashMap<>();
+        this.tagBits = new HashMap<>();
+        this.editionBits = new HashMap<>();
+        this.rowById = new HashMap<>(size * 2);
+        this.grapeOrdinal = new int[size];
+        this.editionOrdinal = new int[size];
+        this.tagOrdinals = new int[size][];
+        this.priceBucket = new int[size];
+        Map<String, Integer> grapeDictionary = new HashMap<>();
+        Map<String, Integer> editionDictionary = new HashMap<>();
+        Map<String, Integer> tagDictionary = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            WineDTO wine = rows[i];
+            ids[i] = wine.getId();
+            rowById.put(wine.getId(), i);
+
+            typeOrdinal[i] = wine.getType() != null ? wine.getType().ordinal() : NULL_ORDINAL;
+            if (wine.getType() != null) {
+                typeBits[wine.getType().ordinal()].set(i);
+            }
+            flavorOrdinal[i] = wine.getFlavor() != null ? wine.getFlavor().ordinal() : NULL_ORDINAL;
+            if (wine.getFlavor() != null) {
+                flavorBits[wine.getFlavor().ordinal()].set(i);
+            }
+
+            priceCents[i] = toCents(wine.getPrice(), RoundingMode.HALF_UP);
+            priceBucket[i] = priceBucket(priceCents[i]);
+            rating[i] = wine.getRating() != null ? wine.getRating() : Double.NaN;
+            releaseYear[i] = wine.getYear() != null ? wine.getYear() : NULL_YEAR;
+            alcoholHundredths[i] = hundredths(wine.getAlcoholPercent(), RoundingMode.HALF_UP, NULL_HUNDREDTHS);
+            acidityHundredths[i] = hundredths(wine.getAcidityGrams(), RoundingMode.HALF_UP, NULL_HUNDREDTHS);
+            sugarHundredths[i] = hundredths(wine.getSugarGrams(), RoundingMode.HALF_UP, NULL_HUNDREDTHS);
+
+            grapeOrdinal[i] = NULL_ORDINAL;
+            if (wine.getGrapeVariety() != null) {
+                grapeBits.computeIfAbsent(wine.getGrapeVariety(), k -> new BitSet(size)).set(i);
+                grapeOrdinal[i] = ordinal(grapeDictionary, grapeValues, wine.getGrapeVariety());
+            }
+            editionOrdinal[i] = NULL_ORDINAL;
+            if (wine.getEdition() != null) {
+                editionBits.computeIfAbsent(wine.getEdition(), k -> new BitSet(size)).set(i);
+                editionOrdinal[i] = ordinal(editionDictionary, editionValues, wine.getEdition());
+            }
+            tagOrdinals[i] = NO_TAGS;
+            if (wine.getTags() != null) {
+                tagOrdinals[i] = wine.getTags().stream()
+                        .filter(tag -> tag != null)
+                        .distinct()
+                        .mapToInt(tag -> ordinal(tagDictionary, tagValues, tag))
+                        .toArray();
+                for (int tag : tagOrdinals[i]) {
+                    tagBits.computeIfAbsent(tagValues.get(tag), k -> new BitSet(size)).set(i);
+                }
+            }
+        }
+
+        RowComparator priceAsc = (a, b) -> {
+            int byPrice = Long.compare(priceCents[a], priceCents[b]);
+            return byPrice != 0 ? byPrice : Integer.compare(a, b);
+        };
+        RowComparator ratingAsc = (a, b) -> nullsLast(Double.isNaN(rating[a]), Double.isNaN(rating[b]),
+                Double.compare(rating[a], rating[b]), a, b);
+        RowComparator ratingDesc = (a, b) -> nullsLast(Double.isNaN(rating[a]), Double.isNaN(rating[b]),
+                Double.compare(rating[b], rating[a]), a, b);
+        RowComparator yearAsc = (a, b) -> nullsLast(releaseYear[a] == NULL_YEAR, releaseYear[b] == NULL_YEAR,
+                Integer.compare(releaseYear[a], releaseYear[b]), a, b);
+
+        // Строки, перенесенные из предыдущего снимка без изменений: старый номер -> новый (-1 — изменена или удалена)
+        int[] kept = previous != null ? keptRows(previous) : null;
+        this.byPriceAsc = kept != null ? merge(previous.byPriceAsc, kept, priceAsc) : sortedRows(priceAsc);
+        this.byRatingAsc = kept != null ? merge(previous.byRatingAsc, kept, ratingAsc) : sortedRows(ratingAsc);
+        this.byRatingDesc = kept != null ? merge(previous.byRatingDesc, kept, ratingDesc) : sortedRows(ratingDesc);
+        this.byYearAsc = kept != null ? merge(previous.byYearAsc, kept, yearAsc) : sortedRows(yearAsc);
+        this.text = WineTextIndex.build(rows, previous != null ? previous.text : null);
+    }
+
+    static CatalogSnapshot of(Collection<WineDTO> wines) {
+        List<WineDTO> sorted = wines.stream()
+                .sorted(Comparator.comparing(WineDTO::getId))
+                .toList();
+        return new CatalogSnapshot(sorted, null);
+    }
+
+    /**
+     * Новый снимок с заменой строк affectedIds: вина из changed добавляются или заменяют старые,
+     * остальные affectedIds удаляются. Строки, не вошедшие в affectedIds, переносятся как есть.
+     */
+    static CatalogSnapshot patch(CatalogSnapshot previous, Collection<Long> affectedIds, Collection<WineDTO> changed) {
+        List<WineDTO> replacements = changed.stream()
+                .sorted(Comparator.comparing(WineDTO::getId))
+                .toList();
+        List<WineDTO> merged = new ArrayList<>(previous.size + replacements.size());
+        int next = 0;
+        for (WineDTO row : previous.rows) {
+            while (next < replacements.size() && replacements.get(next).getId() < row.getId()) {
+                merged.add(replacements.get(next++));
+            }
+            if (!affectedIds.contains(row.getId())) {
+                merged.add(row);
+            }
+        }
+        while (next < replacements.size()) {
+            merged.add(replacements.get(next++));
+        }
+        return new CatalogSnapshot(merged, previous);
+    }
+
+    /**
+     * Применяет фильтры WineSearchRequest с той же семантикой, что и WineSpecification.
+     * Поиск по тексту выполняется заранее (WineTextIndex) и передается как textMatches.
+     */
+    BitSet filter(WineSearchRequest request, WineTextIndex.TextMatches textMatches) {
+        Criteria criteria = criteria(request, textMatches);
+        BitSet result = criteria.base();
+        for (BitSet dimension : criteria.dimensions()) {
+            if (dimension != null) {
+                result.and(dimension);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Считает фасеты одним проходом по строкам, прошедшим поиск по тексту.
+     * Строка, прошедшая все фильтры, учитывается во всех фасетах; не прошедшая ровно один фильтр —
+     * только в фасете этого фильтра (значения фасета считаются без его собственного фильтра).
+     */
+    WineFacetsDTO facets(WineSearchRequest request, WineTextIndex.TextMatches textMatches) {
+        Criteria criteria = criteria(request, textMatches);
+        BitSet[] dimensions = criteria.dimensions();
+        int[] typeCounts = new int[WineType.values().length];
+        int[] flavorCounts = new int[WineFlavor.values().length];
+        int[] grapeCounts = new int[grapeValues.size()];
+        int[] tagCounts = new int[tagValues.size()];
+        int[] editionCounts = new int[editionValues.size()];
+        int[] priceCounts = new int[PRICE_BOUNDS_CENTS.length + 1];
+        int total = 0;
+
+        BitSet base = criteria.base();
+        for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+            int missed = -1;
+            boolean excluded = false;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                if (dimensions[d] != null && !dimensions[d].get(i)) {
+                    if (missed >= 0) {
+                        excluded = true;
+                        break;
+                    }
+                    missed = d;
+                }
+            }
+            if (excluded) {
+                continue;
+            }
+            if (missed < 0) {
+                total++;
+            }
+            if (missed < 0 || missed == TYPE) {
+                increment(typeCounts, typeOrdinal[i]);
+            }
+            if (missed < 0 || missed == FLAVOR) {
+                increment(flavorCounts, flavorOrdinal[i]);
+            }
+            if (missed < 0 || missed == GRAPE) {
+                increment(grapeCounts, grapeOrdinal[i]);
+            }
+            if (missed < 0 || missed == TAG) {
+                for (int tag : tagOrdinals[i]) {
+                    tagCounts[tag]++;
+                }
+            }
+            if (missed < 0 || missed == EDITION) {
+                increment(editionCounts, editionOrdinal[i]);
+            }
+            if (missed < 0 || missed == PRICE) {
+                increment(priceCounts, priceBucket[i]);
+            }
+        }
+
+        WineType[] types = WineType.values();
+        WineFlavor[] flavors = WineFlavor.values();
+        return new WineFacetsDTO(total,
+                facetValues(typeCounts, ordinal -> types[ordinal].name()),
+                facetValues(flavorCounts, ordinal -> flavors[ordinal].name()),
+                facetValues(grapeCounts, grapeValues::get),
+                facetValues(tagCounts, tagValues::get),
+                facetValues(editionCounts, editionValues::get),
+                priceRanges(priceCounts));
+    }
+
+    /**
+     * Строка на позиции k в порядке keyset-пагинации. Перестановки стабильны (при равном ключе — по id),
+     * поэтому порядок совпадает с сортировкой "ключ, затем id" в WineSpecification.keyset.
+     */
+    int keysetRow(WineKeysetOrder order, int k) {
+        return switch (order) {
+            case ID_ASC -> k;
+            case ID_DESC -> size - 1 - k;
+            case PRICE_ASC -> byPriceAsc[k];
+            case PRICE_DESC -> byPriceAsc[size - 1 - k];
+            case RATING_DESC -> byRatingDesc[k];
+        };
+    }
+
+    /**
+     * Первая позиция строго после курсора — бинарный поиск по порядку keysetRow.
+     */
+    int seek(WineKeysetOrder order, WineCursor cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToCursor(order, keysetRow(order, mid), cursor) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareToCursor(WineKeysetOrder order, int row, WineCursor cursor) {
+        int byKey = switch (order) {
+            case ID_ASC, ID_DESC -> 0;
+            case PRICE_ASC -> Long.compare(priceCents[row], toCents(cursor.value(), RoundingMode.HALF_UP));
+            case PRICE_DESC -> Long.compare(toCents(cursor.value(), RoundingMode.HALF_UP), priceCents[row]);
+            case RATING_DESC -> Double.compare(cursor.value() != null ? cursor.value().doubleValue() : -1.0,
+                    ratingOrNegative(row));
+        };
+        if (byKey != 0) {
+            return byKey;
+        }
+        return order == WineKeysetOrder.ID_DESC || order == WineKeysetOrder.PRICE_DESC
+                ? Long.compare(cursor.id(), ids[row])
+                : Long.compare(ids[row], cursor.id());
+    }
+
+    /**
+     * Фильтры запроса по отдельности: base — строки, прошедшие поиск по тексту (не фасет),
+     * dimensions — строки, прошедшие фильтр измерения (null, если фильтр не задан).
+     */
+    private record Criteria(BitSet base, BitSet[] dimensions) {
+    }
+
+    private Criteria criteria(WineSearchRequest request, WineTextIndex.TextMatches textMatches) {
+        BitSet base = new BitSet(size);
+        base.set(0, size);
+        BitSet[] dimensions = new BitSet[DIMENSIONS];
+        if (request == null) {
+            return new Criteria(base, dimensions);
+        }
+
+        // 1. Поиск (Search) - полнотекстовый индекс по имени, сорту, изданию, тегам и описанию
+        if (textMatches != null) {
+            base.and(textMatches.docs());
+        }
+
+        // 2. Категория / Тип
+        String category = request.category() != null ? request.category() : request.type();
+        if (StringUtils.hasText(category)) {
+            WineType type = parseEnum(WineType.class, category);
+            if (type != null) {
+                dimensions[TYPE] = typeBits[type.ordinal()];
+            }
+        }
+
+        // 3. Сорт винограда
+        if (StringUtils.hasText(request.grape())) {
+            dimensions[GRAPE] = grapeBits.getOrDefault(request.grape(), EMPTY);
+        }
+
+        // 4. Вкус (Flavor)
+        if (StringUtils.hasText(request.flavor())) {
+            WineFlavor flavor = parseEnum(WineFlavor.class, request.flavor());
+            if (flavor != null) {
+                dimensions[FLAVOR] = flavorBits[flavor.ordinal()];
+            }
+        }
+
+        // 5. Тег (Tag)
+        if (StringUtils.hasText(request.tag())) {
+            dimensions[TAG] = tagBits.getOrDefault(request.tag(), EMPTY);
+        }
+
+        // 6. Качество (Quality) - подстрока в издании
+        if (StringUtils.hasText(request.quality())) {
+            String q = request.quality().toLowerCase();
+            BitSet editions = new BitSet(size);
+            editionBits.forEach((edition, bits) -> {
+                if (edition.toLowerCase().contains(q)) {
+                    editions.or(bits);
+                }
+            });
+            dimensions[EDITION] = editions;
+        }
+
+        // 7. Диапазон цен
+        if (request.minPrice() != null || request.maxPrice() != null) {
+            long min = request.minPrice() != null ? toCents(request.minPrice(), RoundingMode.CEILING) : Long.MIN_VALUE;
+            long max = request.maxPrice() != null ? toCents(request.maxPrice(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+            BitSet prices = new BitSet(size);
+            for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+                if (priceCents[i] >= min && priceCents[i] <= max) {
+                    prices.set(i);
+                }
+            }
+            dimensions[PRICE] = prices;
+        }
+
+        // 8. Аналитика по диапазону — не фасет, поэтому сужает base; вина без значения не проходят
+        filterRange(base, alcoholHundredths, request.minAlcohol(), request.maxAlcohol());
+        filterRange(base, acidityHundredths, request.minAcidity(), request.maxAcidity());
+        filterRange(base, sugarHundredths, request.minSugar(), request.maxSugar());
+
+        return new Criteria(base, dimensions);
+    }
+
+    private static void filterRange(BitSet base, int[] column, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return;
+        }
+        int low = min != null ? hundredths(min, RoundingMode.CEILING, Integer.MIN_VALUE) : Integer.MIN_VALUE;
+        int high = max != null ? hundredths(max, RoundingMode.FLOOR, Integer.MAX_VALUE) : Integer.MAX_VALUE;
+        for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+            if (column[i] == NULL_HUNDREDTHS || column[i] < low || column[i] > high) {
+                base.clear(i);
+            }
+        }
+    }
+
+    private static int hundredths(BigDecimal value, RoundingMode roundingMode, int ifNull) {
+        if (value == null) {
+            return ifNull;
+        }
+        long scaled = value.movePointRight(2).setScale(0, roundingMode).longValue();
+        return (int) Math.max(Integer.MIN_VALUE + 1L, Math.min(Integer.MAX_VALUE, scaled));
+    }
+
+    private static void increment(int[] counts, int ordinal) {
+        if (ordinal != NULL_ORDINAL) {
+            counts[ordinal]++;
+        }
+    }
+
+    private static List<WineFacetsDTO.FacetValue> facetValues(int[] counts, IntFunction<String> valueOf) {
+        List<WineFacetsDTO.FacetValue> values = new ArrayList<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                values.add(new WineFacetsDTO.FacetValue(valueOf.apply(ordinal), counts[ordinal]));
+            }
+        }
+        values.sort(Comparator.comparingInt(WineFacetsDTO.FacetValue::count).reversed()
+                .thenComparing(WineFacetsDTO.FacetValue::value));
+        return values;
+    }
+
+    private static List<WineFacetsDTO.PriceRange> priceRanges(int[] counts) {
+        List<WineFacetsDTO.PriceRange> ranges = new ArrayList<>(counts.length);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            BigDecimal min = bucket > 0 ? BigDecimal.valueOf(PRICE_BOUNDS_CENTS[bucket - 1], 2) : BigDecimal.ZERO.setScale(2);
+            BigDecimal max = bucket < PRICE_BOUNDS_CENTS.length ? BigDecimal.valueOf(PRICE_BOUNDS_CENTS[bucket], 2) : null;
+            ranges.add(new WineFacetsDTO.PriceRange(min, max, counts[bucket]));
+        }
+        return ranges;
+    }
+
+    private static int priceBucket(long cents) {
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDS_CENTS.length && cents >= PRICE_BOUNDS_CENTS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static int ordinal(Map<String, Integer> dictionary, List<String> values, String value) {
+        return dictionary.computeIfAbsent(value, k -> {
+            values.add(k);
+            return values.size() - 1;
+        });
+    }
+
+    private static long toCents(BigDecimal amount, RoundingMode roundingMode) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private double ratingOrNegative(int row) {
+        return Double.isNaN(rating[row]) ? -1.0 : rating[row];
+    }
+
+    private int[] sortedRows(RowComparator comparator) {
+        return IntStream.range(0, size).boxed()
+                .sorted(comparator::compare)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Для каждой строки предыдущего снимка — ее номер в этом снимке, если строка перенесена тем же объектом, иначе -1.
+     */
+    private int[] keptRows(CatalogSnapshot previous) {
+        int[] kept = new int[previous.size];
+        Arrays.fill(kept, -1);
+        for (int row = 0; row < size; row++) {
+            Integer old = previous.rowById.get(ids[row]);
+            if (old != null && previous.rows[old] == rows[row]) {
+                kept[old] = row;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Перестановка из предыдущей: перенесенные строки уже упорядочены (номера по id монотонны),
+     * новые и измененные сортируются отдельно и вливаются слиянием — O(n + k log k) вместо полной сортировки.
+     */
+    private int[] merge(int[] previousOrder, int[] kept, RowComparator comparator) {
+        boolean[] isKept = new boolean[size];
+        int[] carried = new int[size];
+        int carriedCount = 0;
+        for (int old : previousOrder) {
+            int row = kept[old];
+            if (row >= 0) {
+                carried[carriedCount++] = row;
+                isKept[row] = true;
+            }
+        }
+        int[] fresh = IntStream.range(0, size)
+                .filter(row -> !isKept[row])
+                .boxed()
+                .sorted(comparator::compare)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        int[] order = new int[size];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < carriedCount && j < fresh.length) {
+            order[k++] = comparator.compare(carried[i], fresh[j]) <= 0 ? carried[i++] : fresh[j++];
+        }
+        while (i < carriedCount) {
+            order[k++] = carried[i++];
+        }
+        while (j < fresh.length) {
+            order[k++] = fresh[j++];
+        }
+        return order;
+    }
+
+    private static int nullsLast(boolean leftNull, boolean rightNull, int byValue, int left, int right) {
+        if (leftNull != rightNull) {
+            return leftNull ? 1 : -1;
+        }
+        if (!leftNull && byValue != 0) {
+            return byValue;
+        }
+        return Integer.compare(left, right);
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        Arrays.setAll(sets, i -> new BitSet());
+        return sets;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
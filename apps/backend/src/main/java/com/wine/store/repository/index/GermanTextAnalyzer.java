@@ -0,0 +1,69 @@
+package com.wine.store.repository.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Токенизация текста каталога для полнотекстового поиска.
+ * ОСОБЕННОСТИ: Учитывает немецкую орфографию: "weiß" = "weiss", "Spätburgunder" = "Spaetburgunder",
+ * "Rosé" = "Rose". Одна и та же нормализация применяется к документам и к запросам.
+ */
+final class GermanTextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "der", "die", "das", "den", "dem", "des", "ein", "eine", "einen", "einem", "einer",
+            "und", "oder", "mit", "von", "vom", "zu", "zum", "zur", "im", "in", "am", "an", "auf",
+            "fur", "ist", "sind", "aus", "bei", "the", "and", "of", "with", "a");
+
+    private GermanTextAnalyzer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = folded.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Нижний регистр, ß → ss, снятие диакритики (ä → a, é → e) и свертка диграфов (ae → a, oe → o, ue → u).
+     */
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT).replace("ß", "ss");
+        String stripped = Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+
+        StringBuilder folded = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            folded.append(c);
+            boolean digraph = c == 'e' && i > 0 && isFoldableVowel(stripped.charAt(i - 1))
+                    && !(stripped.charAt(i - 1) == 'u' && i > 1 && stripped.charAt(i - 2) == 'q');
+            if (digraph) {
+                folded.setLength(folded.length() - 1);
+            }
+        }
+        return folded.toString();
+    }
+
+    private static boolean isFoldableVowel(char c) {
+        return c == 'a' || c == 'o' || c == 'u';
+    }
+}
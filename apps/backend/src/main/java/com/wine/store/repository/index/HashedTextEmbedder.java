@@ -0,0 +1,181 @@
+package com.wine.store.repository.index;
+
+import com.wine.store.dto.DishDTO;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.model.WineEnrichment;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Локальные эмбеддинги вин и запросов — хешированные TF-IDF признаки, без сети и без модели.
+ * ОСОБЕННОСТИ: Термины (слова и символьные триграммы слов) хешируются в вектор фиксированной размерности
+ * со знаком (feature hashing), вес — ln(1 + tf) * idf, где tf учитывает вес поля, результат нормируется по L2.
+ * Документные частоты фиксируются при полной сборке; вина, добавленные позже, используют эти же idf,
+ * а незнакомые термины получают максимальный idf. Если вино прошло офлайн-обогащение, в признаки попадают
+ * также ароматы, теги сочетаний и заметка модели — так поиск находит вина по вкусу и блюду, которых нет
+ * в исходном описании.
+ */
+final class HashedTextEmbedder {
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float GRAPE_WEIGHT = 2.0f;
+    private static final float TYPE_WEIGHT = 1.5f;
+    private static final float FLAVOR_WEIGHT = 1.5f;
+    private static final float TAG_WEIGHT = 1.5f;
+    private static final float DISH_WEIGHT = 1.5f;
+    private static final float EDITION_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float AROMA_WEIGHT = 1.5f;
+    private static final float PAIRING_TAG_WEIGHT = 1.5f;
+    private static final float BLURB_WEIGHT = 1.0f;
+    // Триграммы ловят части составных слов ("burgunder" в "Spätburgunder") и опечатки, но слабее целых слов
+    private static final float TRIGRAM_WEIGHT = 0.3f;
+    private static final int MIN_TRIGRAM_TOKEN = 5;
+
+    private final int dimensions;
+    private final Map<String, Integer> documentFrequency;
+    private final int documentCount;
+    private final float unknownIdf;
+
+    private HashedTextEmbedder(int dimensions, Map<String, Integer> documentFrequency, int documentCount) {
+        this.dimensions = dimensions;
+        this.documentFrequency = documentFrequency;
+        this.documentCount = documentCount;
+        this.unknownIdf = idf(0);
+    }
+
+    /**
+     * Считает документные частоты терминов по всему каталогу.
+     *
+     * @param enrichments результаты обогащения по id вина; необогащенных вин в карте нет
+     */
+    static HashedTextEmbedder fit(int dimensions, Collection<WineDTO> wines, Map<Long, WineEnrichment> enrichments) {
+        Map<String, Integer> df = new HashMap<>();
+        for (WineDTO wine : wines) {
+            for (String term : terms(wine, enrichments.get(wine.getId())).keySet()) {
+                df.merge(term, 1, Integer::sum);
+            }
+        }
+        return new HashedTextEmbedder(dimensions, df, wines.size());
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * @return нормированный вектор или null, если у вина нет ни одного термина
+     */
+    float[] embed(WineDTO wine, WineEnrichment enrichment) {
+        return vector(terms(wine, enrichment));
+    }
+
+    /**
+     * @return нормированный вектор или null, если в запросе нет ни одного термина
+     */
+    float[] embedQuery(String query) {
+        Map<String, Float> tf = new HashMap<>();
+        addText(tf, query, 1.0f);
+        return vector(tf);
+    }
+
+    private float[] vector(Map<String, Float> tf) {
+        if (tf.isEmpty()) {
+            return null;
+        }
+        float[] vector = new float[dimensions];
+        tf.forEach((term, frequency) -> {
+            int hash = mix(term.hashCode());
+            int slot = Math.floorMod(hash, dimensions);
+            // Знак из старших бит: коллизии хешей в среднем гасят друг друга, а не складываются
+            float sign = (hash >>> 31) == 0 ? 1.0f : -1.0f;
+            Integer df = documentFrequency.get(term);
+            float idf = df != null ? idf(df) : unknownIdf;
+            vector[slot] += sign * (float) Math.log1p(frequency) * idf;
+        });
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return null;
+        }
+        float inverse = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= inverse;
+        }
+        return vector;
+    }
+
+    private float idf(int df) {
+        return (float) Math.log((documentCount + 1.0) / (df + 1.0)) + 1.0f;
+    }
+
+    /**
+     * Взвешенные частоты терминов вина по всем полям.
+     */
+    private static Map<String, Float> terms(WineDTO wine, WineEnrichment enrichment) {
+        Map<String, Float> tf = new HashMap<>();
+        addText(tf, wine.getName(), NAME_WEIGHT);
+        addText(tf, wine.getGrapeVariety(), GRAPE_WEIGHT);
+        addText(tf, wine.getEdition(), EDITION_WEIGHT);
+        addText(tf, wine.getDescription(), DESCRIPTION_WEIGHT);
+        if (wine.getType() != null) {
+            addText(tf, wine.getType().name().replace('_', ' '), TYPE_WEIGHT);
+        }
+        if (wine.getFlavor() != null) {
+            addText(tf, wine.getFlavor().name(), FLAVOR_WEIGHT);
+        }
+        addAll(tf, wine.getTags(), TAG_WEIGHT);
+        List<DishDTO> dishes = wine.getRecommendedDishes();
+        if (dishes != null) {
+            Set<String> categories = new HashSet<>();
+            for (DishDTO dish : dishes) {
+                addText(tf, dish.name(), DISH_WEIGHT);
+                if (dish.category() != null && categories.add(dish.category().name())) {
+                    addText(tf, dish.category().name(), DISH_WEIGHT);
+                }
+            }
+        }
+        if (enrichment != null) {
+            addAll(tf, enrichment.aromaList(), AROMA_WEIGHT);
+            addAll(tf, enrichment.pairingTagList(), PAIRING_TAG_WEIGHT);
+            addText(tf, enrichment.getBlurb(), BLURB_WEIGHT);
+        }
+        return tf;
+    }
+
+    private static void addAll(Map<String, Float> tf, List<String> values, float weight) {
+        if (values != null) {
+            values.forEach(value -> addText(tf, value, weight));
+        }
+    }
+
+    private static void addText(Map<String, Float> tf, String text, float weight) {
+        for (String token : GermanTextAnalyzer.tokenize(text)) {
+            tf.merge(token, weight, Float::sum);
+            if (token.length() >= MIN_TRIGRAM_TOKEN) {
+                for (int i = 0; i + 3 <= token.length(); i++) {
+                    tf.merge("#" + token.substring(i, i + 3), TRIGRAM_WEIGHT, Float::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Финализатор MurmurHash3: String.hashCode плохо распределяет короткие строки по младшим битам.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,256 @@
+package com.wine.store.repository.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * НАЗНАЧЕНИЕ: Приближенный поиск ближайших соседей (HNSW) по векторам QuantizedVectorStore.
+ * ОСОБЕННОСТИ: Узел графа — номер вектора в хранилище. Вставка инкрементальная; удаление помечает узел,
+ * он продолжает служить для навигации, но не попадает в результаты. Соседи выбираются эвристикой
+ * из статьи HNSW (кандидат берется, только если он ближе к узлу, чем к уже выбранным соседям),
+ * поэтому граф остается связным и на кластерах похожих вин.
+ * Не потокобезопасен: вставка и удаление — под блокировкой записи, поиск — под блокировкой чтения.
+ */
+final class HnswGraph {
+
+    private static final Comparator<Scored> BEST_FIRST = Comparator.comparingDouble(Scored::score).reversed();
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score);
+
+    private final QuantizedVectorStore vectors;
+    private final int maxConnections;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    // links[node][level] = {count, neighbor1, neighbor2, ...}
+    private int[][][] links = new int[0][][];
+    private final BitSet deleted = new BitSet();
+    private int size;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * Узел и его близость к запросу.
+     */
+    record Scored(int node, float score) {
+    }
+
+    @FunctionalInterface
+    private interface Scorer {
+        float score(int node);
+    }
+
+    HnswGraph(QuantizedVectorStore vectors, int maxConnections, int efConstruction) {
+        this.vectors = vectors;
+        this.maxConnections = maxConnections;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(maxConnections);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int deletedCount() {
+        return deletedCount;
+    }
+
+    /**
+     * Добавляет в граф вектор, уже сохраненный в хранилище под номером node (номера идут подряд).
+     */
+    void insert(int node) {
+        if (node != size) {
+            throw new IllegalArgumentException("Nodes must be inserted in storage order: expected " + size + ", got " + node);
+        }
+        int level = randomLevel();
+        if (node == links.length) {
+            links = Arrays.copyOf(links, Math.max(16, links.length * 2));
+        }
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[capacity(l) + 1];
+        }
+        links[node] = nodeLinks;
+        size++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        Scorer toNode = other -> vectors.similarity(node, other);
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedy(toNode, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Scored> candidates = searchLayer(toNode, current, efConstruction, l, null);
+            List<Scored> selected = selectNeighbors(candidates, capacity(l));
+            for (Scored neighbor : selected) {
+                append(node, l, neighbor.node());
+                connect(neighbor.node(), node, l);
+            }
+            current = candidates.get(0).node();
+        }
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    void delete(int node) {
+        if (node < size && !deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * @return до k живых узлов, ближайших к запросу, лучшие первыми
+     */
+    List<Scored> search(QuantizedVectorStore.Quantized query, int k, int ef) {
+        if (entryPoint < 0 || size == deletedCount) {
+            return List.of();
+        }
+        Scorer toQuery = node -> vectors.similarity(query, node);
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedy(toQuery, current, l);
+        }
+        List<Scored> found = searchLayer(toQuery, current, Math.max(ef, k), 0, deleted);
+        return found.size() > k ? found.subList(0, k) : found;
+    }
+
+    private int greedy(Scorer scorer, int start, int level) {
+        int current = start;
+        float best = scorer.score(current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links[current][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                float score = scorer.score(neighbors[i]);
+                if (score > best) {
+                    best = score;
+                    current = neighbors[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Поиск лучшим-первым на одном уровне.
+     *
+     * @param excluded узлы, через которые можно идти, но которые нельзя возвращать (null — все допустимы)
+     * @return до ef узлов, лучшие первыми
+     */
+    private List<Scored> searchLayer(Scorer scorer, int start, int ef, int level, BitSet excluded) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(WORST_FIRST);
+
+        Scored first = new Scored(start, scorer.score(start));
+        visited.set(start);
+        candidates.add(first);
+        if (excluded == null || !excluded.get(start)) {
+            results.add(first);
+        }
+
+        while (!candidates.isEmpty()) {
+            Scored candidate = candidates.poll();
+            if (results.size() >= ef && candidate.score() < results.peek().score()) {
+                break;
+            }
+            int[] neighbors = links[candidate.node()][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = scorer.score(neighbor);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Scored scored = new Scored(neighbor, score);
+                    candidates.add(scored);
+                    if (excluded == null || !excluded.get(neighbor)) {
+                        results.add(scored);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Scored> ordered = new ArrayList<>(results);
+        ordered.sort(BEST_FIRST);
+        return ordered;
+    }
+
+    /**
+     * Эвристика выбора соседей: кандидаты по убыванию близости, кандидат отбрасывается,
+     * если он ближе к одному из уже выбранных, чем к базовому узлу.
+     */
+    private List<Scored> selectNeighbors(List<Scored> candidates, int limit) {
+        List<Scored> selected = new ArrayList<>(limit);
+        for (Scored candidate : candidates) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            boolean diverse = true;
+            for (Scored chosen : selected) {
+                if (vectors.similarity(candidate.node(), chosen.node()) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Обратная связь neighbor → node; переполненный список соседей прореживается той же эвристикой.
+     */
+    private void connect(int neighbor, int node, int level) {
+        int[] neighborLinks = links[neighbor][level];
+        int count = neighborLinks[0];
+        if (count < neighborLinks.length - 1) {
+            append(neighbor, level, node);
+            return;
+        }
+        List<Scored> candidates = new ArrayList<>(count + 1);
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new Scored(neighborLinks[i], vectors.similarity(neighbor, neighborLinks[i])));
+        }
+        candidates.add(new Scored(node, vectors.similarity(neighbor, node)));
+        candidates.sort(BEST_FIRST);
+        List<Scored> kept = selectNeighbors(candidates, count);
+        neighborLinks[0] = 0;
+        kept.forEach(scored -> append(neighbor, level, scored.node()));
+    }
+
+    private void append(int node, int level, int neighbor) {
+        int[] nodeLinks = links[node][level];
+        nodeLinks[++nodeLinks[0]] = neighbor;
+    }
+
+    private int capacity(int level) {
+        return level == 0 ? maxConnections * 2 : maxConnections;
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+}
@@ -0,0 +1,105 @@
+package com.wine.store.repository.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * НАЗНАЧЕНИЕ: Компактное хранилище векторов для WineVectorIndex.
+ * ОСОБЕННОСТИ: Компоненты квантуются в int8 с масштабом на вектор (max |x| / 127) и лежат в direct-буфере
+ * вне кучи: 100 000 вин по 512 измерений — около 50 МБ, которые не сканирует сборщик мусора.
+ * Косинусная близость нормированных векторов — целочисленное скалярное произведение на два масштаба.
+ * Запись — только под блокировкой записи индекса; чтение потокобезопасно (абсолютные get).
+ */
+final class QuantizedVectorStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int dimensions;
+    private ByteBuffer data;
+    private float[] scales;
+    private int size;
+
+    QuantizedVectorStore(int dimensions, int expectedSize) {
+        this.dimensions = dimensions;
+        int capacity = Math.max(INITIAL_CAPACITY, expectedSize);
+        this.data = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, dimensions));
+        this.scales = new float[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return номер сохраненного вектора
+     */
+    int add(float[] vector) {
+        if (size == scales.length) {
+            grow();
+        }
+        int slot = size++;
+        Quantized quantized = quantize(vector);
+        int offset = slot * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            data.put(offset + i, quantized.values[i]);
+        }
+        scales[slot] = quantized.scale;
+        return slot;
+    }
+
+    /**
+     * Близость двух сохраненных векторов.
+     */
+    float similarity(int a, int b) {
+        int offsetA = a * dimensions;
+        int offsetB = b * dimensions;
+        int dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += data.get(offsetA + i) * data.get(offsetB + i);
+        }
+        return dot * scales[a] * scales[b];
+    }
+
+    /**
+     * Близость сохраненного вектора к квантованному запросу.
+     */
+    float similarity(Quantized query, int slot) {
+        int offset = slot * dimensions;
+        byte[] values = query.values;
+        int dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += values[i] * data.get(offset + i);
+        }
+        return dot * query.scale * scales[slot];
+    }
+
+    Quantized quantize(float[] vector) {
+        float max = 0;
+        for (float value : vector) {
+            max = Math.max(max, Math.abs(value));
+        }
+        byte[] values = new byte[dimensions];
+        if (max == 0) {
+            return new Quantized(values, 0);
+        }
+        float scale = max / 127f;
+        for (int i = 0; i < dimensions; i++) {
+            values[i] = (byte) Math.round(vector[i] / scale);
+        }
+        return new Quantized(values, scale);
+    }
+
+    private void grow() {
+        int capacity = scales.length * 2;
+        ByteBuffer grown = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, dimensions));
+        grown.put(data.duplicate().clear().limit(size * dimensions));
+        data = grown;
+        scales = Arrays.copyOf(scales, capacity);
+    }
+
+    /**
+     * Квантованный вектор в куче (для запроса).
+     */
+    record Quantized(byte[] values, float scale) {
+    }
+}
@@ -0,0 +1,324 @@
+package com.wine.store.repository.index;
+
+import com.wine.store.dto.CursorPage;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.dto.WineFacetsDTO;
+import com.wine.store.dto.WineSearchRequest;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.service.cache.CacheRegion;
+import com.wine.store.service.cache.ResponseCache;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.CatalogRefreshQueue;
+import com.wine.store.service.catalog.WineDtoAssembler;
+import com.wine.store.service.catalog.WineCursor;
+import com.wine.store.service.catalog.WineKeysetOrder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * НАЗНАЧЕНИЕ: In-memory индекс каталога вин для GET /api/wines.
+ * ЗАВИСИМОСТИ: WineRepository (только для загрузки), WineDtoAssembler, ResponseCache.
+ * ОСОБЕННОСТИ: Отвечает на фильтры, сортировку и пагинацию WineSearchRequest без обращения к БД,
+ * параметр search обслуживает полнотекстовый индекс (WineTextIndex).
+ * Чтение идет без блокировок по volatile-снимку. Снимок строится и обновляется только в фоне
+ * (CatalogRefreshQueue): изменения после коммита объединяются и накладываются на предыдущий снимок
+ * (CatalogSnapshot.patch), пока снимка нет — запросы идут в БД, а не ждут сборки.
+ * Снимок публикуется позже коммита, поэтому после каждой смены снимка область WINES кэша ответов
+ * сбрасывается еще раз: ответ, посчитанный по старому снимку после первого сброса, не доживет до следующего.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WineCatalogIndex {
+
+    private final WineRepository wineRepository;
+    private final WineDtoAssembler wineDtoAssembler;
+    private final PlatformTransactionManager transactionManager;
+    private final ResponseCache responseCache;
+
+    private static final Duration COALESCE_DELAY = Duration.ofMillis(200);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final CatalogRefreshQueue refreshQueue =
+            new CatalogRefreshQueue("catalog-index", COALESCE_DELAY, RETRY_DELAY, this::apply);
+    private volatile CatalogSnapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshQueue.requestFull();
+    }
+
+    @PreDestroy
+    void stop() {
+        refreshQueue.close();
+    }
+
+    /**
+     * Возвращает страницу вин из индекса или пустой Optional, если индекс недоступен
+     * или сортировка не поддерживается (тогда вызывающий идет в БД).
+     * При поиске без явной сортировки результаты упорядочены по релевантности (BM25).
+     */
+    public Optional<Page<WineDTO>> findAll(WineSearchRequest request, Pageable pageable) {
+        CatalogSnapshot current = loadSnapshot();
+        if (current == null || !isSupported(pageable.getSort())) {
+            return Optional.empty();
+        }
+
+        WineTextIndex.TextMatches textMatches = request != null && StringUtils.hasText(request.search())
+                ? current.text.search(request.search())
+                : null;
+        BitSet matches = current.filter(request, textMatches);
+        int total = matches.cardinality();
+        int offset = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE) : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : total;
+
+        IntUnaryOperator order = textMatches != null && pageable.getSort().isUnsorted()
+                ? byRelevance(matches, textMatches.scores())
+                : RowOrder.of(current, pageable.getSort())::rowAt;
+
+        List<WineDTO> content = new ArrayList<>(Math.min(limit, total));
+        int skipped = 0;
+        for (int k = 0; k < current.size && content.size() < limit; k++) {
+            int row = order.applyAsInt(k);
+            if (row >= 0 && matches.get(row) && skipped++ >= offset) {
+                content.add(current.rows[row]);
+            }
+        }
+        return Optional.of(new PageImpl<>(content, pageable, total));
+    }
+
+    /**
+     * Keyset-страница: поиск позиции курсора бинарным поиском и обход до size совпадений,
+     * без пропуска offset строк. При поиске по тексту порядок задает сортировка, а не релевантность.
+     *
+     * @param cursor позиция после последней отданной строки, null — первая страница
+     * @return empty, если индекс недоступен
+     */
+    public Optional<CursorPage<WineDTO>> findAfter(WineSearchRequest request, WineKeysetOrder order,
+                                                   WineCursor cursor, int size, boolean withTotal) {
+        CatalogSnapshot current = loadSnapshot();
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        WineTextIndex.TextMatches textMatches = request != null && StringUtils.hasText(request.search())
+                ? current.text.search(request.search())
+                : null;
+        BitSet matches = current.filter(request, textMatches);
+
+        List<WineDTO> content = new ArrayList<>(size);
+        boolean hasMore = false;
+        for (int k = current.seek(order, cursor); k < current.size; k++) {
+            int row = current.keysetRow(order, k);
+            if (!matches.get(row)) {
+                continue;
+            }
+            if (content.size() == size) {
+                hasMore = true;
+                break;
+            }
+            content.add(current.rows[row]);
+        }
+
+        String nextCursor = hasMore ? WineCursor.after(order, content.get(content.size() - 1)).encode() : null;
+        Long total = withTotal ? (long) matches.cardinality() : null;
+        return Optional.of(new CursorPage<>(content, nextCursor, total));
+    }
+
+    /**
+     * Счетчики фасетов для фильтров запроса — один проход по снимку вместо GROUP BY на каждый фасет.
+     *
+     * @return empty, если индекс недоступен
+     */
+    public Optional<WineFacetsDTO> facets(WineSearchRequest request) {
+        CatalogSnapshot current = loadSnapshot();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(facets(current, request));
+    }
+
+    /**
+     * Фасеты по снимку, собранному из БД в вызывающем потоке, — пока опубликованного снимка нет.
+     * Этот снимок не публикуется: фоновая сборка могла уже опубликовать более свежий.
+     */
+    public WineFacetsDTO facetsFromDatabase(WineSearchRequest request) {
+        List<WineDTO> wines = inReadTransaction(() -> wineDtoAssembler.toDtos(wineRepository.findAll()));
+        return facets(CatalogSnapshot.of(wines), request);
+    }
+
+    private static WineFacetsDTO facets(CatalogSnapshot snapshot, WineSearchRequest request) {
+        WineTextIndex.TextMatches textMatches = request != null && StringUtils.hasText(request.search())
+                ? snapshot.text.search(request.search())
+                : null;
+        return snapshot.facets(request, textMatches);
+    }
+
+    /**
+     * Карточки вин по id из снимка; вин, которых в снимке нет (или индекс недоступен), в ответе не будет.
+     */
+    public Map<Long, WineDTO> findByIds(Collection<Long> ids) {
+        CatalogSnapshot current = loadSnapshot();
+        if (current == null || ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, WineDTO> wines = new HashMap<>(ids.size() * 2);
+        for (Long id : ids) {
+            Integer row = current.rowById.get(id);
+            if (row != null) {
+                wines.put(id, current.rows[row]);
+            }
+        }
+        return wines;
+    }
+
+    /**
+     * Подсказки для typeahead: названия самых релевантных вин по началу запроса.
+     */
+    public List<String> suggest(String query, int limit) {
+        CatalogSnapshot current = loadSnapshot();
+        if (current == null || !StringUtils.hasText(query)) {
+            return List.of();
+        }
+        WineTextIndex.TextMatches textMatches = current.text.search(query);
+        IntUnaryOperator order = byRelevance(textMatches.docs(), textMatches.scores());
+        List<String> names = new ArrayList<>(limit);
+        for (int k = 0; names.size() < limit; k++) {
+            int row = order.applyAsInt(k);
+            if (row < 0) {
+                break;
+            }
+            names.add(current.rows[row].getName());
+        }
+        return names;
+    }
+
+    private static IntUnaryOperator byRelevance(BitSet matches, float[] scores) {
+        int[] ranked = matches.stream().boxed()
+                .sorted(Comparator.comparingDouble((Integer row) -> scores[row]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        return k -> k < ranked.length ? ranked[k] : -1;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        refreshQueue.submit(event);
+    }
+
+    /**
+     * Снимок или null, если его еще нет (тогда вызывающий идет в БД, а сборка запускается в фоне).
+     */
+    private CatalogSnapshot loadSnapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            refreshQueue.requestFull();
+        }
+        return current;
+    }
+
+    /**
+     * Выполняется в потоке CatalogRefreshQueue, поэтому снимок меняет только один поток.
+     */
+    private void apply(boolean full, Set<Long> wineIds) {
+        try {
+            CatalogSnapshot current = snapshot;
+            if (full || current == null) {
+                rebuild();
+            } else {
+                refresh(current, wineIds);
+            }
+        } catch (RuntimeException e) {
+            // Устаревший индекс хуже, чем его отсутствие: запросы уйдут в БД до следующей сборки
+            snapshot = null;
+            throw e;
+        } finally {
+            responseCache.invalidate(CacheRegion.WINES);
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        List<WineDTO> wines = inReadTransaction(() -> wineDtoAssembler.toDtos(wineRepository.findAll()));
+        snapshot = CatalogSnapshot.of(wines);
+        log.info("Catalog index built: {} wines in {} ms", wines.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void refresh(CatalogSnapshot current, Set<Long> wineIds) {
+        long start = System.nanoTime();
+        // Удаленные вина просто не вернутся из findAllById
+        List<WineDTO> changed = inReadTransaction(() -> wineDtoAssembler.toDtos(wineRepository.findAllById(wineIds)));
+        snapshot = CatalogSnapshot.patch(current, wineIds, changed);
+        log.debug("Catalog index patched: {} wine ids in {} ms", wineIds.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private <T> T inReadTransaction(Supplier<T> action) {
+        // Слушатель работает после коммита чужой транзакции, поэтому нужна собственная
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template.execute(status -> action.get());
+    }
+
+    private static boolean isSupported(Sort sort) {
+        if (sort.isUnsorted()) {
+            return true;
+        }
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && RowOrder.SORTABLE.contains(orders.get(0).getProperty());
+    }
+
+    /**
+     * Порядок обхода строк снимка для заданной сортировки.
+     */
+    private record RowOrder(int[] permutation, boolean reversed, int size) {
+
+        static final Set<String> SORTABLE = Set.of("id", "price", "rating", "releaseYear");
+
+        static RowOrder of(CatalogSnapshot snapshot, Sort sort) {
+            if (sort.isUnsorted()) {
+                return new RowOrder(null, false, snapshot.size);
+            }
+            Sort.Order order = sort.iterator().next();
+            return switch (order.getProperty()) {
+                case "price" -> new RowOrder(snapshot.byPriceAsc, order.isDescending(), snapshot.size);
+                // Как ORDER BY rating без NULLS в PostgreSQL: DESC — вина без рейтинга первыми
+                case "rating" -> new RowOrder(snapshot.byRatingAsc, order.isDescending(), snapshot.size);
+                case "releaseYear" -> new RowOrder(snapshot.byYearAsc, order.isDescending(), snapshot.size);
+                default -> new RowOrder(null, order.isDescending(), snapshot.size);
+            };
+        }
+
+        int rowAt(int k) {
+            int position = reversed ? size - 1 - k : k;
+            return permutation != null ? permutation[position] : position;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.wine.store.repository.index;
+
+import com.wine.store.dto.WineDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Инвертированный индекс с ранжированием BM25F по тексту каталога.
+ * ОСОБЕННОСТИ: Поля name, grapeVariety, edition, tags, description с разными весами.
+ * Вклад термина в документ считается при построении, поэтому запрос — это сумма idf * impact
+ * по спискам документов. Префиксные совпадения поддерживают typeahead, инфиксные — части
+ * немецких составных слов ("burgunder" в "Spätburgunder").
+ * Токены каждой строки хранятся вместе с индексом: при сборке из предыдущего индекса строки,
+ * перенесенные тем же объектом WineDTO, повторно не токенизируются.
+ */
+final class WineTextIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.7f;
+    private static final float INFIX_WEIGHT = 0.5f;
+    private static final int MIN_INFIX_LENGTH = 4;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private enum Field {
+        NAME(3.0f), GRAPE(2.0f), EDITION(1.5f), TAGS(1.5f), DESCRIPTION(1.0f);
+
+        final float weight;
+
+        Field(float weight) {
+            this.weight = weight;
+        }
+    }
+
+    private record Postings(int[] docs, float[] impacts, float idf) {
+    }
+
+    /**
+     * Результат поиска: подходящие строки снимка и их релевантность.
+     */
+    record TextMatches(BitSet docs, float[] scores) {
+    }
+
+    private final int size;
+    private final Map<String, Postings> postings;
+    private final String[] dictionary;
+    // Токены по полям для каждой строки — ключ по идентичности объекта
+    private final Map<WineDTO, List<List<String>>> analyzed;
+
+    private WineTextIndex(int size, Map<String, Postings> postings, Map<WineDTO, List<List<String>>> analyzed) {
+        this.size = size;
+        this.postings = postings;
+        this.analyzed = analyzed;
+        this.dictionary = postings.keySet().toArray(new String[0]);
+        Arrays.sort(dictionary);
+    }
+
+    /**
+     * @param previous индекс предыдущего снимка (null — токенизировать все строки)
+     */
+    static WineTextIndex build(WineDTO[] rows, WineTextIndex previous) {
+        int size = rows.length;
+        Field[] fields = Field.values();
+        int[][] fieldLengths = new int[fields.length][size];
+        long[] totalLengths = new long[fields.length];
+        Map<String, Map<Integer, int[]>> termFrequencies = new HashMap<>();
+        Map<WineDTO, List<List<String>>> analyzed = new IdentityHashMap<>(size * 2);
+
+        for (int row = 0; row < size; row++) {
+            List<List<String>> rowTokens = previous != null ? previous.analyzed.get(rows[row]) : null;
+            if (rowTokens == null) {
+                rowTokens = analyze(rows[row]);
+            }
+            analyzed.put(rows[row], rowTokens);
+            for (Field field : fields) {
+                List<String> tokens = rowTokens.get(field.ordinal());
+                fieldLengths[field.ordinal()][row] = tokens.size();
+                totalLengths[field.ordinal()] += tokens.size();
+                for (String token : tokens) {
+                    termFrequencies.computeIfAbsent(token, k -> new HashMap<>())
+                            .computeIfAbsent(row, k -> new int[fields.length])[field.ordinal()]++;
+                }
+            }
+        }
+
+        float[] averageLengths = new float[fields.length];
+        for (Field field : fields) {
+            averageLengths[field.ordinal()] = size > 0 ? Math.max(1f, (float) totalLengths[field.ordinal()] / size) : 1f;
+        }
+
+        Map<String, Postings> postings = new HashMap<>(termFrequencies.size() * 2);
+        termFrequencies.forEach((term, byDoc) -> {
+            int[] docs = byDoc.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            float[] impacts = new float[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                int[] tf = byDoc.get(docs[i]);
+                float weightedTf = 0f;
+                for (Field field : fields) {
+                    if (tf[field.ordinal()] == 0) {
+                        continue;
+                    }
+                    float lengthNorm = 1 - B + B * fieldLengths[field.ordinal()][docs[i]] / averageLengths[field.ordinal()];
+                    weightedTf += field.weight * tf[field.ordinal()] / lengthNorm;
+                }
+                impacts[i] = weightedTf / (K1 + weightedTf);
+            }
+            float idf = (float) Math.log(1 + (size - docs.length + 0.5) / (docs.length + 0.5));
+            postings.put(term, new Postings(docs, impacts, idf));
+        });
+
+        return new WineTextIndex(size, postings, analyzed);
+    }
+
+    private static List<List<String>> analyze(WineDTO wine) {
+        List<List<String>> tokens = new ArrayList<>(Field.values().length);
+        for (Field field : Field.values()) {
+            tokens.add(GermanTextAnalyzer.tokenize(fieldText(wine, field)));
+        }
+        return tokens;
+    }
+
+    /**
+     * Все слова запроса должны совпасть (точно, по префиксу или как часть составного слова).
+     * Запрос без значимых слов не ограничивает выборку.
+     */
+    TextMatches search(String query) {
+        List<String> tokens = GermanTextAnalyzer.tokenize(query);
+        float[] scores = new float[size];
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        if (tokens.isEmpty()) {
+            return new TextMatches(result, scores);
+        }
+
+        for (String token : tokens) {
+            BitSet tokenDocs = new BitSet(size);
+            for (Expansion expansion : expand(token)) {
+                Postings list = postings.get(expansion.term());
+                for (int i = 0; i < list.docs().length; i++) {
+                    int doc = list.docs()[i];
+                    tokenDocs.set(doc);
+                    scores[doc] += expansion.weight() * list.idf() * list.impacts()[i];
+                }
+            }
+            result.and(tokenDocs);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return new TextMatches(result, scores);
+    }
+
+    private record Expansion(String term, float weight) {
+    }
+
+    private List<Expansion> expand(String token) {
+        List<Expansion> expansions = new ArrayList<>();
+        int from = Arrays.binarySearch(dictionary, token);
+        if (from >= 0) {
+            expansions.add(new Expansion(token, 1.0f));
+            from++;
+        } else {
+            from = -from - 1;
+        }
+        for (int i = from; i < dictionary.length && dictionary[i].startsWith(token)
+                && expansions.size() < MAX_EXPANSIONS; i++) {
+            expansions.add(new Expansion(dictionary[i], PREFIX_WEIGHT));
+        }
+
+        if (expansions.isEmpty() && token.length() >= MIN_INFIX_LENGTH) {
+            for (String term : dictionary) {
+                if (term.contains(token)) {
+                    expansions.add(new Expansion(term, INFIX_WEIGHT));
+                    if (expansions.size() >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private static String fieldText(WineDTO wine, Field field) {
+        return switch (field) {
+            case NAME -> wine.getName();
+            case GRAPE -> wine.getGrapeVariety();
+            case EDITION -> wine.getEdition();
+            case TAGS -> wine.getTags() != null
+                    ? wine.getTags().stream().filter(Objects::nonNull).collect(Collectors.joining(" "))
+                    : null;
+            case DESCRIPTION -> wine.getDescription();
+        };
+    }
+}
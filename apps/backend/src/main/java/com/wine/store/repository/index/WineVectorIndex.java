@@ -0,0 +1,258 @@
+package com.wine.store.repository.index;
+
+import com.wine.store.config.VectorSearchProperties;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.model.WineEnrichment;
+import com.wine.store.repository.WineEnrichmentRepository;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.CatalogRefreshQueue;
+import com.wine.store.service.catalog.WineDtoAssembler;
+import com.wine.store.service.catalog.WineEnrichedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Векторный поиск похожих вин по текстовому описанию (GET /api/ai/search) — локально, без сети.
+ * ЗАВИСИМОСТИ: WineRepository (загрузка), WineEnrichmentRepository (офлайн-обогащение), WineDtoAssembler,
+ * WineCatalogIndex (карточки вин), VectorSearchProperties.
+ * ОСОБЕННОСТИ: Эмбеддинги — хешированные TF-IDF признаки (HashedTextEmbedder) по названию, сорту, вкусу,
+ * тегам, описанию, рекомендованным блюдам и результатам обогащения; хранятся в int8 вне кучи (QuantizedVectorStore), поиск — HNSW.
+ * Индекс собирается и обновляется только в фоне (CatalogRefreshQueue): измененные вина переиндексируются
+ * точечно — старый узел помечается удаленным, новый вставляется в граф. Когда удаленных узлов становится
+ * много, граф и idf пересобираются целиком. Пока индекса нет, поиск отвечает empty, а не ждет сборки.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WineVectorIndex {
+
+    private final WineRepository wineRepository;
+    private final WineEnrichmentRepository enrichmentRepository;
+    private final WineDtoAssembler wineDtoAssembler;
+    private final WineCatalogIndex catalogIndex;
+    private final PlatformTransactionManager transactionManager;
+    private final VectorSearchProperties properties;
+
+    private static final Duration COALESCE_DELAY = Duration.ofMillis(500);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final CatalogRefreshQueue refreshQueue =
+            new CatalogRefreshQueue("vector-index", COALESCE_DELAY, RETRY_DELAY, this::apply);
+    // Граф меняется на месте: поиск идет под блокировкой чтения, вставка — под блокировкой записи
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile VectorState state;
+
+    /**
+     * Векторы, граф и соответствие узлов винам одной сборки.
+     */
+    private static final class VectorState {
+        final HashedTextEmbedder embedder;
+        final QuantizedVectorStore vectors;
+        final HnswGraph graph;
+        final Map<Long, Integer> nodeByWine = new HashMap<>();
+        long[] wineByNode = new long[0];
+
+        VectorState(HashedTextEmbedder embedder, int expectedSize, VectorSearchProperties properties) {
+            this.embedder = embedder;
+            this.vectors = new QuantizedVectorStore(embedder.dimensions(), expectedSize);
+            this.graph = new HnswGraph(vectors, properties.getMaxConnections(), properties.getEfConstruction());
+        }
+
+        void put(long wineId, float[] vector) {
+            remove(wineId);
+            if (vector == null) {
+                return;
+            }
+            int node = vectors.add(vector);
+            graph.insert(node);
+            if (node == wineByNode.length) {
+                wineByNode = Arrays.copyOf(wineByNode, Math.max(16, wineByNode.length * 2));
+            }
+            wineByNode[node] = wineId;
+            nodeByWine.put(wineId, node);
+        }
+
+        void remove(long wineId) {
+            Integer node = nodeByWine.remove(wineId);
+            if (node != null) {
+                graph.delete(node);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshQueue.requestFull();
+    }
+
+    @PreDestroy
+    void stop() {
+        refreshQueue.close();
+    }
+
+    /**
+     * Вина, ближайшие к описанию, самые похожие первыми.
+     *
+     * @return пустой Optional, если индекс недоступен
+     */
+    public Optional<List<WineDTO>> search(String query, int limit) {
+        VectorState current = loadState();
+        if (current == null) {
+            return Optional.empty();
+        }
+        if (!StringUtils.hasText(query)) {
+            return Optional.of(List.of());
+        }
+        long start = System.nanoTime();
+        float[] vector = current.embedder.embedQuery(query);
+        if (vector == null) {
+            return Optional.of(List.of());
+        }
+        QuantizedVectorStore.Quantized quantized = current.vectors.quantize(vector);
+
+        List<Long> ids = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            for (HnswGraph.Scored match : current.graph.search(quantized, limit, properties.getEfSearch())) {
+                ids.add(current.wineByNode[match.node()]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        log.debug("Vector search over {} wines took {} µs", current.nodeByWine.size(), (System.nanoTime() - start) / 1_000);
+        return Optional.of(wines(ids));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        refreshQueue.submit(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWineEnriched(WineEnrichedEvent event) {
+        refreshQueue.submit(CatalogChangedEvent.wines(event.wineIds()));
+    }
+
+    /**
+     * Состояние или null, если его еще нет (тогда поиск недоступен, а сборка запускается в фоне).
+     */
+    private VectorState loadState() {
+        VectorState current = state;
+        if (current == null) {
+            refreshQueue.requestFull();
+        }
+        return current;
+    }
+
+    /**
+     * Выполняется в потоке CatalogRefreshQueue, поэтому граф меняет только один поток.
+     */
+    private void apply(boolean full, Set<Long> wineIds) {
+        try {
+            VectorState current = state;
+            if (full || current == null) {
+                rebuild();
+            } else {
+                refresh(current, wineIds);
+            }
+        } catch (RuntimeException e) {
+            // Граф с частью изменений расходится с каталогом: поиск недоступен до следующей сборки
+            state = null;
+            throw e;
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        List<WineDTO> wines = inReadTransaction(() -> wineDtoAssembler.toDtos(wineRepository.findAll()));
+        Map<Long, WineEnrichment> enrichments = byWineId(inReadTransaction(enrichmentRepository::findAll));
+        HashedTextEmbedder embedder = HashedTextEmbedder.fit(properties.getDimensions(), wines, enrichments);
+        VectorState built = new VectorState(embedder, wines.size(), properties);
+        for (WineDTO wine : wines) {
+            built.put(wine.getId(), embedder.embed(wine, enrichments.get(wine.getId())));
+        }
+        state = built;
+        log.info("Vector index built: {} wines in {} ms", built.nodeByWine.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void refresh(VectorState current, Set<Long> wineIds) {
+        List<WineDTO> changed = inReadTransaction(() -> wineDtoAssembler.toDtos(wineRepository.findAllById(wineIds)));
+        Map<Long, WineEnrichment> enrichments = byWineId(inReadTransaction(() ->
+                enrichmentRepository.findAllById(wineIds)));
+        Map<Long, float[]> vectors = new HashMap<>();
+        changed.forEach(wine -> vectors.put(wine.getId(),
+                current.embedder.embed(wine, enrichments.get(wine.getId()))));
+
+        lock.writeLock().lock();
+        try {
+            // Удаленные вина просто не вернутся из findAllById
+            wineIds.forEach(id -> {
+                if (vectors.containsKey(id)) {
+                    current.put(id, vectors.get(id));
+                } else {
+                    current.remove(id);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        HnswGraph graph = current.graph;
+        if (graph.deletedCount() > graph.size() * properties.getRebuildTombstoneRatio()) {
+            log.info("Vector index has {} of {} nodes deleted, rebuilding", graph.deletedCount(), graph.size());
+            rebuild();
+        } else {
+            log.debug("Vector index refreshed for wine ids: {}", wineIds);
+        }
+    }
+
+    private List<WineDTO> wines(List<Long> ids) {
+        Map<Long, WineDTO> wines = new HashMap<>(catalogIndex.findByIds(ids));
+        if (wines.size() < ids.size()) {
+            // Индекс каталога недоступен или еще не видит новые вина
+            List<Long> missing = ids.stream().filter(id -> !wines.containsKey(id)).toList();
+            inReadTransaction(() -> wineDtoAssembler.toDtos(wineRepository.findAllById(missing)))
+                    .forEach(wine -> wines.put(wine.getId(), wine));
+        }
+        return ids.stream().map(wines::get).filter(Objects::nonNull).toList();
+    }
+
+    private static Map<Long, WineEnrichment> byWineId(List<WineEnrichment> enrichments) {
+        return enrichments.stream().collect(Collectors.toMap(WineEnrichment::getWineId, Function.identity()));
+    }
+
+    private <T> T inReadTransaction(Supplier<T> action) {
+        // Слушатель работает после коммита чужой транзакции, поэтому нужна собственная
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template.execute(status -> action.get());
+    }
+}
@@ -0,0 +1,10 @@
+package com.wine.store.repository.projection;
+
+/**
+ * НАЗНАЧЕНИЕ: Проекция slug + хеш содержимого для сверки импорта без загрузки сущностей.
+ */
+public interface ContentHashView {
+    String getSlug();
+
+    String getContentHash();
+}
@@ -0,0 +1,9 @@
+package com.wine.store.repository.projection;
+
+import com.wine.store.model.DishCategory;
+
+/**
+ * НАЗНАЧЕНИЕ: Рекомендованное блюдо вина (строка связи wine_dish) для AI-сомелье.
+ */
+public record DishPairingView(Long wineId, String dishName, DishCategory dishCategory) {
+}
@@ -0,0 +1,10 @@
+package com.wine.store.repository.projection;
+
+/**
+ * НАЗНАЧЕНИЕ: Проекция id вина + хеш обогащенных данных для отбора измененных вин без загрузки сущностей.
+ */
+public interface EnrichmentHashView {
+    Long getWineId();
+
+    String getSourceHash();
+}
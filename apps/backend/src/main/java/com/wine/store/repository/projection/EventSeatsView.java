@@ -0,0 +1,11 @@
+package com.wine.store.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * НАЗНАЧЕНИЕ: Места и цена мероприятия для счетчика мест (EventSeatInventory).
+ * ОСОБЕННОСТИ: Читается запросом мимо кэша второго уровня: bookedSpots, записанный другим узлом,
+ * в кэше этого узла может быть еще старым.
+ */
+public record EventSeatsView(Long id, Integer totalSpots, Integer bookedSpots, BigDecimal pricePerPerson) {
+}
@@ -0,0 +1,25 @@
+package com.wine.store.repository.projection;
+
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+
+import java.math.BigDecimal;
+
+/**
+ * НАЗНАЧЕНИЕ: Атрибуты вина, нужные AI-сомелье для отбора кандидатов и контекста промпта.
+ * ОСОБЕННОСТИ: Заполняется JPQL constructor expression — без загрузки сущности Wine, описания и коллекций.
+ * Строковые acidity/sugar идут в промпт как есть, числовые acidityGrams/sugarGrams — в локальную оценку.
+ */
+public record SommelierCandidateView(
+        Long id,
+        String name,
+        WineType type,
+        BigDecimal price,
+        String grapeVariety,
+        String acidity,
+        String sugar,
+        BigDecimal acidityGrams,
+        BigDecimal sugarGrams,
+        WineFlavor flavor,
+        Double rating) {
+}
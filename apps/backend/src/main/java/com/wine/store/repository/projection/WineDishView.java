@@ -0,0 +1,9 @@
+package com.wine.store.repository.projection;
+
+import com.wine.store.model.DishCategory;
+
+/**
+ * НАЗНАЧЕНИЕ: Рекомендованное блюдо вина (строка связи wine_dish) для пакетной загрузки блюд страницы вин.
+ */
+public record WineDishView(Long wineId, Long dishId, String dishName, DishCategory dishCategory) {
+}
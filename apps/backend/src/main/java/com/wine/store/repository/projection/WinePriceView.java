@@ -0,0 +1,35 @@
+package com.wine.store.repository.projection;
+
+import com.wine.store.model.StockStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * НАЗНАЧЕНИЕ: Цена и наличие вина для расчета корзины.
+ * ОСОБЕННОСТИ: Заполняется JPQL constructor expression — без загрузки сущности Wine и ее коллекций.
+ * effectivePrice учитывает акцию и вычисляется один раз при создании.
+ */
+public record WinePriceView(
+        Long id,
+        String name,
+        BigDecimal effectivePrice,
+        StockStatus stockStatus,
+        Integer stockQuantity,
+        String imageUrl) {
+
+    public WinePriceView(Long id, String name, BigDecimal price, BigDecimal salePrice, boolean sale,
+                         StockStatus stockStatus, Integer stockQuantity, String imageUrl) {
+        this(id, name, effectivePrice(price, salePrice, sale), stockStatus, stockQuantity, imageUrl);
+    }
+
+    public boolean isAvailable(int quantity) {
+        return stockStatus == StockStatus.IN_STOCK && stockQuantity != null && stockQuantity >= quantity;
+    }
+
+    private static BigDecimal effectivePrice(BigDecimal price, BigDecimal salePrice, boolean sale) {
+        if (sale && salePrice != null && salePrice.compareTo(BigDecimal.ZERO) > 0) {
+            return salePrice;
+        }
+        return price != null ? price : BigDecimal.ZERO;
+    }
+}
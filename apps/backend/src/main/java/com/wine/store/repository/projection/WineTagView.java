@@ -0,0 +1,7 @@
+package com.wine.store.repository.projection;
+
+/**
+ * НАЗНАЧЕНИЕ: Тег вина (строка wine_tags) для пакетной загрузки тегов страницы вин.
+ */
+public record WineTagView(Long wineId, String tag) {
+}
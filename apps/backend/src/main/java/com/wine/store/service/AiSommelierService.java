@@ -1,106 +1,183 @@
 package com.wine.store.service;
 
+import com.wine.store.dto.CacheStatsDTO;
 import com.wine.store.dto.SommelierRequest;
 import com.wine.store.dto.SommelierResponse;
-import com.wine.store.mapper.WineMapper;
-import com.wine.store.model.Dish;
-import com.wine.store.model.Wine;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.exception.AppException;
 import com.wine.store.repository.WineRepository;
+import com.wine.store.service.catalog.WineDtoAssembler;
+import com.wine.store.service.llm.LlmLane;
+import com.wine.store.service.sommelier.PairingEngine;
+import com.wine.store.service.sommelier.RecommendationCache;
+import com.wine.store.service.sommelier.RecommendationKey;
+import com.wine.store.service.sommelier.RecommendationMode;
+import com.wine.store.service.sommelier.SommelierCandidate;
+import com.wine.store.service.sommelier.SommelierCandidateSelector;
+import com.wine.store.service.sommelier.SommelierPromptBuilder;
+import com.wine.store.service.sommelier.SommelierStreamEvent;
+import com.wine.store.service.sommelier.StreamedRecommendationParser;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * НАЗНАЧЕНИЕ: Реализация логики "Умного сомелье" с помощью Spring AI.
+ * ОСОБЕННОСТИ: Размер промпта ограничен: LLM видит только отобранных кандидатов (app.sommelier.*).
+ * Если LLM недоступна, перегружена (LlmLane) или ничего не вернула, отвечает локальный PairingEngine.
  */
 @Service
 @Slf4j
 public class AiSommelierService {
 
     private final WineRepository wineRepository;
-    private final WineMapper wineMapper;
+    private final WineDtoAssembler wineDtoAssembler;
+    private final SommelierCandidateSelector candidateSelector;
+    private final SommelierPromptBuilder promptBuilder;
+    private final RecommendationCache recommendationCache;
+    private final PairingEngine pairingEngine;
+    private final PlatformTransactionManager transactionManager;
+    private final LlmLane llmLane;
     private final ChatClient chatClient;
 
-    public AiSommelierService(WineRepository wineRepository, WineMapper wineMapper,
+    public AiSommelierService(WineRepository wineRepository, WineDtoAssembler wineDtoAssembler,
+            SommelierCandidateSelector candidateSelector, SommelierPromptBuilder promptBuilder,
+            RecommendationCache recommendationCache, PairingEngine pairingEngine,
+            PlatformTransactionManager transactionManager, @Qualifier("sommelierLlmLane") LlmLane llmLane,
             ChatClient.Builder chatClientBuilder) {
         this.wineRepository = wineRepository;
-        this.wineMapper = wineMapper;
+        this.wineDtoAssembler = wineDtoAssembler;
+        this.candidateSelector = candidateSelector;
+        this.promptBuilder = promptBuilder;
+        this.recommendationCache = recommendationCache;
+        this.pairingEngine = pairingEngine;
+        this.transactionManager = transactionManager;
+        this.llmLane = llmLane;
         this.chatClient = chatClientBuilder.build();
     }
 
+    // Столько же, сколько просим у LLM в промпте
+    private static final int RECOMMENDATION_COUNT = 3;
+
     private record AiRecommendation(Long wineId, int matchScore, String matchReasoning) {
     }
 
-    @Transactional(readOnly = true)
+    // Источник итогового ответа в событии done потоковой выдачи
+    private static final String SOURCE_AI = "ai";
+    private static final String SOURCE_CACHE = "cache";
+    private static final String SOURCE_LOCAL = "local";
+
+    private static final String PROMPT = """
+            You are an expert sommelier. Recommend the top 3 best matching wines from the catalog below based on the user's request.
+            Provide a score (0-100) and a very convincing, human-friendly reasoning for why this wine matches their request perfectly.
+
+            USER REQUEST:
+            Dish: {dish}
+            Occasion: {occasion}
+            Budget: {budget}
+            Mood: {mood}
+
+            AVAILABLE WINES:
+            {wines}
+            """;
+
+    // Для потоковой выдачи: по объекту на строку, чтобы каждую рекомендацию можно было отдать сразу.
+    // Фигурные скобки в тексте промпта недопустимы — это разметка параметров шаблона
+    private static final String STREAM_PROMPT = PROMPT + """
+
+            Respond with exactly 3 JSON objects, best match first, one object per line, without an enclosing array
+            or markdown. Each object has the fields "wineId" (the ID from the list), "matchScore" and "matchReasoning".
+            """;
+
+    /**
+     * Кандидаты отбираются до обращения к LLM (SommelierCandidateSelector), в промпт уходят только они.
+     * Транзакция не держится на время запроса к LLM: отбор и загрузка выбранных вин идут отдельно.
+     * Ответы кэшируются по нормализованному запросу (RecommendationCache).
+     */
     public List<SommelierResponse> recommendWines(SommelierRequest request) {
+        return recommendWines(request, RecommendationMode.AI);
+    }
+
+    /**
+     * @param mode LOCAL — мгновенный ответ локального движка (PairingEngine) без LLM
+     */
+    public List<SommelierResponse> recommendWines(SommelierRequest request, RecommendationMode mode) {
+        if (mode == RecommendationMode.LOCAL) {
+            log.info("Calculating local pairings for request: {}", request);
+            return pairingEngine.recommend(request, RECOMMENDATION_COUNT);
+        }
         log.info("Calculating AI recommendations for request: {}", request);
 
-        // 1. Извлекаем данные (лучше фильтровать в БД по бюджету и наличию, но пока
-        // берем все)
-        List<Wine> availableWines = wineRepository.findAll();
+        // 0. Повторяющиеся запросы отвечаются из кэша без обращения к LLM
+        RecommendationKey cacheKey = RecommendationKey.of(request);
+        long catalogVersion = recommendationCache.catalogVersion();
+        Optional<List<SommelierResponse>> cached = recommendationCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.debug("Sommelier cache hit: {}", cacheKey);
+            return cached.get();
+        }
+
+        // 1. Отбираем кандидатов: бюджет и наличие — в БД, соответствие блюду и настроению — локально
+        List<SommelierCandidate> candidates = candidateSelector.select(request);
 
-        if (availableWines.isEmpty()) {
+        if (candidates.isEmpty()) {
             return List.of();
         }
 
-        // 2. Формируем контекст вин (Prompt Context)
-        String winesContext = availableWines.stream()
-                .map(w -> String.format(
-                        "ID: %d, Name: %s, Type: %s, Price: %s, Features: [Acidity: %s, Sugar: %s, Flavor: %s], Dishes: %s",
-                        w.getId(), w.getName(), w.getType(), w.getPrice(),
-                        w.getAcidity(), w.getSugar(), w.getFlavor(),
-                        w.getRecommendedDishes().stream().map(Dish::getName).toList()))
-                .collect(Collectors.joining("\n"));
-
-        // 3. Формируем Запрос к AI
-        String prompt = """
-                You are an expert sommelier. Recommend the top 3 best matching wines from the catalog below based on the user's request.
-                Provide a score (0-100) and a very convincing, human-friendly reasoning for why this wine matches their request perfectly.
-
-                USER REQUEST:
-                Dish: {dish}
-                Occasion: {occasion}
-                Budget: {budget}
-                Mood: {mood}
-
-                AVAILABLE WINES:
-                {wines}
-                """;
-
-        // 4. Обращение к LLM и парсинг структурированного ответа (JSON ->
-        // List<AiRecommendation>)
+        // 2. Формируем контекст вин (Prompt Context) в пределах бюджета токенов
+        String winesContext = promptBuilder.winesContext(candidates);
+
+        // 3-4. Обращение к LLM и парсинг структурированного ответа (JSON -> List<AiRecommendation>)
         try {
-            List<AiRecommendation> recommendations = chatClient.prompt()
-                    .user(u -> u.text(prompt)
-                            .param("dish", request.dish() != null ? request.dish() : "Any")
-                            .param("occasion", request.occasion() != null ? request.occasion() : "Any")
-                            .param("budget", request.priceRange() != null ? request.priceRange() : "Any")
-                            .param("mood", request.mood() != null ? request.mood() : "Any")
-                            .param("wines", winesContext))
+            Map<String, Object> params = promptParams(request, winesContext);
+            // Полоса ограничивает число одновременных вызовов и срок ожидания; при перегрузке — локальный ответ
+            List<AiRecommendation> recommendations = llmLane.call(() -> chatClient.prompt()
+                    .user(u -> {
+                        u.text(PROMPT);
+                        params.forEach(u::param);
+                    })
                     .call()
                     .entity(new ParameterizedTypeReference<List<AiRecommendation>>() {
-                    });
+                    }));
 
             if (recommendations == null || recommendations.isEmpty()) {
-                return List.of();
+                return pairingEngine.recommend(request, RECOMMENDATION_COUNT);
             }
 
-            // 5. Обогащаем результат до SommelierResponse
-            return recommendations.stream()
+            // 5. Обогащаем результат до SommelierResponse: id → вино, только из отобранных кандидатов
+            Set<Long> candidateIds = candidates.stream()
+                    .map(candidate -> candidate.wine().id())
+                    .collect(Collectors.toSet());
+            Map<Long, WineDTO> winesById = loadWines(recommendations.stream()
+                    .map(AiRecommendation::wineId)
+                    .filter(candidateIds::contains)
+                    .collect(Collectors.toSet()));
+
+            List<SommelierResponse> result = recommendations.stream()
                     .map(rec -> {
-                        Wine wine = availableWines.stream().filter(w -> w.getId().equals(rec.wineId())).findFirst()
-                                .orElse(null);
+                        WineDTO wine = winesById.get(rec.wineId());
                         if (wine == null)
                             return null;
 
                         return SommelierResponse.builder()
-                                .wine(wineMapper.toDto(wine))
+                                .wine(wine)
                                 .matchScore(rec.matchScore())
                                 .matchReasoning(rec.matchReasoning())
                                 .build();
@@ -108,10 +185,160 @@ public class AiSommelierService {
                     .filter(java.util.Objects::nonNull)
                     .sorted(Comparator.comparingInt(SommelierResponse::matchScore).reversed())
                     .collect(Collectors.toList());
+            if (result.isEmpty()) {
+                // LLM вернула только вина вне списка кандидатов
+                return pairingEngine.recommend(request, RECOMMENDATION_COUNT);
+            }
+            recommendationCache.put(cacheKey, catalogVersion, result);
+            return result;
 
         } catch (Exception e) {
-            log.error("Failed to get AI recommendations: {}", e.getMessage());
-            return List.of();
+            // LLM недоступна — отвечаем локальным подбором (в кэш он не попадает)
+            log.error("Failed to get AI recommendations, falling back to local pairing: {}", e.getMessage());
+            return pairingEngine.recommend(request, RECOMMENDATION_COUNT);
+        }
+    }
+
+    /**
+     * Потоковая выдача: сразу отдает результат локального движка, затем рекомендации LLM по мере разбора
+     * ответа модели. Генерация останавливается, как только получено RECOMMENDATION_COUNT рекомендаций.
+     * Блокирует вызывающий поток до конца генерации, поэтому вызывается из виртуального потока.
+     * Исключение из sink (клиент отключился) прерывает чтение ответа LLM и пробрасывается вызывающему.
+     */
+    public void streamRecommendations(SommelierRequest request, Consumer<SommelierStreamEvent> sink) {
+        log.info("Streaming AI recommendations for request: {}", request);
+
+        RecommendationKey cacheKey = RecommendationKey.of(request);
+        long catalogVersion = recommendationCache.catalogVersion();
+        Optional<List<SommelierResponse>> cached = recommendationCache.get(cacheKey);
+        if (cached.isPresent()) {
+            cached.get().forEach(recommendation -> sink.accept(SommelierStreamEvent.recommendation(recommendation)));
+            sink.accept(SommelierStreamEvent.done(SOURCE_CACHE));
+            return;
+        }
+
+        // Локальный подбор занимает микросекунды — клиент видит его, пока LLM только начинает генерацию
+        pairingEngine.recommend(request, RECOMMENDATION_COUNT)
+                .forEach(recommendation -> sink.accept(SommelierStreamEvent.local(recommendation)));
+
+        List<SommelierCandidate> candidates = candidateSelector.select(request);
+        if (candidates.isEmpty()) {
+            sink.accept(SommelierStreamEvent.done(SOURCE_LOCAL));
+            return;
+        }
+        // Все кандидаты загружаются заранее: каждая разобранная рекомендация отдается без обращения к БД
+        Map<Long, WineDTO> winesById = loadWines(candidates.stream()
+                .map(candidate -> candidate.wine().id())
+                .collect(Collectors.toSet()));
+        Map<String, Object> params = promptParams(request, promptBuilder.winesContext(candidates));
+
+        LlmLane.Permit permit;
+        try {
+            permit = llmLane.acquire();
+        } catch (AppException e) {
+            // Полоса перегружена — клиент уже получил локальный подбор
+            sink.accept(SommelierStreamEvent.done(SOURCE_LOCAL));
+            return;
+        }
+
+        StreamedRecommendationParser parser = new StreamedRecommendationParser();
+        List<SommelierResponse> streamed = new ArrayList<>(RECOMMENDATION_COUNT);
+        boolean failed = false;
+        long deadline = System.nanoTime() + llmLane.callTimeout().toNanos();
+        try (permit) {
+            Stream<String> chunks;
+            try {
+                chunks = chatClient.prompt()
+                        .user(u -> {
+                            u.text(STREAM_PROMPT);
+                            params.forEach(u::param);
+                        })
+                        .stream()
+                        .content()
+                        // Крайний срок всей генерации: после него поток просто завершается
+                        .take(llmLane.callTimeout())
+                        .toStream();
+            } catch (Exception e) {
+                log.error("Failed to start AI recommendation stream, keeping local pairing: {}", e.getMessage());
+                permit.markFailed();
+                sink.accept(SommelierStreamEvent.done(SOURCE_LOCAL));
+                return;
+            }
+
+            // Закрытие Stream отменяет подписку — генерация на стороне LLM прекращается
+            try (chunks) {
+                Iterator<String> iterator = chunks.iterator();
+                while (streamed.size() < RECOMMENDATION_COUNT) {
+                    String chunk;
+                    try {
+                        if (!iterator.hasNext()) {
+                            break;
+                        }
+                        chunk = iterator.next();
+                    } catch (Exception e) {
+                        log.error("AI recommendation stream failed after {} recommendation(s): {}", streamed.size(),
+                                e.getMessage());
+                        permit.markFailed();
+                        failed = true;
+                        break;
+                    }
+                    for (StreamedRecommendationParser.ParsedRecommendation parsed : parser.feed(chunk)) {
+                        WineDTO wine = winesById.get(parsed.wineId());
+                        boolean duplicate = streamed.stream().anyMatch(r -> r.wine().getId().equals(parsed.wineId()));
+                        if (wine == null || duplicate || streamed.size() >= RECOMMENDATION_COUNT) {
+                            continue;
+                        }
+                        SommelierResponse recommendation = SommelierResponse.builder()
+                                .wine(wine)
+                                .matchScore(parsed.matchScore() != null ? parsed.matchScore() : 0)
+                                .matchReasoning(parsed.matchReasoning())
+                                .build();
+                        streamed.add(recommendation);
+                        sink.accept(SommelierStreamEvent.recommendation(recommendation));
+                    }
+                }
+            }
+            if (!failed && streamed.size() < RECOMMENDATION_COUNT && System.nanoTime() >= deadline) {
+                log.warn("AI recommendation stream hit its deadline after {} recommendation(s)", streamed.size());
+                permit.markTimedOut();
+                failed = true;
+            }
+        }
+
+        if (streamed.isEmpty()) {
+            sink.accept(SommelierStreamEvent.done(SOURCE_LOCAL));
+            return;
+        }
+        if (!failed) {
+            // В кэше ответ хранится в том же порядке, что отдает /recommend
+            recommendationCache.put(cacheKey, catalogVersion, streamed.stream()
+                    .sorted(Comparator.comparingInt(SommelierResponse::matchScore).reversed())
+                    .toList());
+        }
+        sink.accept(SommelierStreamEvent.done(SOURCE_AI));
+    }
+
+    public CacheStatsDTO recommendationCacheStats() {
+        return recommendationCache.stats();
+    }
+
+    private static Map<String, Object> promptParams(SommelierRequest request, String winesContext) {
+        return Map.of(
+                "dish", request.dish() != null ? request.dish() : "Any",
+                "occasion", request.occasion() != null ? request.occasion() : "Any",
+                "budget", request.priceRange() != null ? request.priceRange() : "Any",
+                "mood", request.mood() != null ? request.mood() : "Any",
+                "wines", winesContext);
+    }
+
+    private Map<Long, WineDTO> loadWines(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
         }
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        return Objects.requireNonNull(readOnlyTx.execute(status -> wineDtoAssembler.toDtos(wineRepository.findAllById(ids))
+                .stream()
+                .collect(Collectors.toMap(WineDTO::getId, Function.identity()))));
     }
 }
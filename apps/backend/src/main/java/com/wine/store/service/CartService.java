@@ -2,40 +2,61 @@ package com.wine.store.service;
 
 import com.wine.store.dto.CartCalculationRequest;
 import com.wine.store.dto.CartCalculationResponse;
+import com.wine.store.dto.CartItemDTO;
 import com.wine.store.dto.CartItemResponseDTO;
 import com.wine.store.model.StockStatus;
-import com.wine.store.model.Wine;
-import com.wine.store.repository.WineRepository;
-import java.util.Objects;
-import lombok.RequiredArgsConstructor;
+import com.wine.store.repository.projection.WinePriceView;
+import com.wine.store.service.pricing.WinePriceCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * НАЗНАЧЕНИЕ: Бизнес-логика корзины (расчет стоимости, проверка наличия).
+ * ОСОБЕННОСТИ: Цены и наличие берутся из WinePriceCache — обычно без обращения к БД,
+ * при промахе все недостающие товары загружаются одним запросом.
  */
 @Service
-@RequiredArgsConstructor
 public class CartService {
 
-    private final WineRepository wineRepository;
+    private final WinePriceCache priceCache;
+    private final DistributionSummary cartLines;
+
+    public CartService(WinePriceCache priceCache, MeterRegistry meterRegistry) {
+        this.priceCache = priceCache;
+        this.cartLines = DistributionSummary.builder("cart.lines")
+                .description("Line items per cart calculation")
+                .register(meterRegistry);
+    }
 
-    @Transactional(readOnly = true)
     public CartCalculationResponse calculateCart(CartCalculationRequest request) {
+        List<CartItemDTO> items = request.items();
+        cartLines.record(items.size());
+        Set<Long> productIds = new HashSet<>(items.size() * 2);
+        for (CartItemDTO item : items) {
+            if (item.productId() != null) {
+                productIds.add(item.productId());
+            }
+        }
+        Map<Long, WinePriceView> prices = priceCache.getAll(productIds);
+
         BigDecimal totalAmount = BigDecimal.ZERO;
-        List<CartItemResponseDTO> responseItems = new ArrayList<>();
+        List<CartItemResponseDTO> responseItems = new ArrayList<>(items.size());
         boolean allAvailable = true;
 
-        for (var itemReq : request.items()) {
+        for (CartItemDTO itemReq : items) {
             if (itemReq.productId() == null) {
                 allAvailable = false;
                 continue;
             }
-            Wine wine = wineRepository.findById(Objects.requireNonNull(itemReq.productId())).orElse(null);
+            WinePriceView wine = prices.get(itemReq.productId());
 
             if (wine == null) {
                 // Если товар не найден, он недоступен
@@ -46,33 +67,23 @@ public class CartService {
                 continue;
             }
 
-            BigDecimal price = (wine.isSale() && wine.getSalePrice() != null
-                    && wine.getSalePrice().compareTo(BigDecimal.ZERO) > 0)
-                            ? wine.getSalePrice()
-                            : wine.getPrice();
-
-            if (price == null) {
-                price = BigDecimal.ZERO;
-            }
-
+            BigDecimal price = wine.effectivePrice();
             BigDecimal subtotal = price.multiply(BigDecimal.valueOf(itemReq.quantity()));
             totalAmount = totalAmount.add(subtotal);
 
-            boolean isAvailable = wine.getStockStatus() == StockStatus.IN_STOCK
-                    && (wine.getStockQuantity() != null && wine.getStockQuantity() >= itemReq.quantity());
-
+            boolean isAvailable = wine.isAvailable(itemReq.quantity());
             if (!isAvailable)
                 allAvailable = false;
 
             responseItems.add(new CartItemResponseDTO(
-                    wine.getId(),
-                    wine.getName(),
+                    wine.id(),
+                    wine.name(),
                     price,
                     itemReq.quantity(),
                     subtotal,
-                    wine.getStockStatus(),
+                    wine.stockStatus(),
                     isAvailable,
-                    wine.getImageUrl()));
+                    wine.imageUrl()));
         }
 
         return new CartCalculationResponse(totalAmount, responseItems, allAvailable);
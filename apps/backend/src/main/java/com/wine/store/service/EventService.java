@@ -1,29 +1,35 @@
 package com.wine.store.service;
 
 import com.wine.store.dto.BookingRequest;
+import com.wine.store.dto.BookingStatusDTO;
 import com.wine.store.dto.EventDTO;
+import com.wine.store.dto.HoldConfirmationRequest;
+import com.wine.store.dto.SeatHoldDTO;
 import com.wine.store.mapper.EventMapper;
 import com.wine.store.model.Booking;
-import com.wine.store.model.BookingStatus;
 import com.wine.store.model.Event;
 import com.wine.store.repository.BookingRepository;
 import com.wine.store.repository.EventRepository;
 import com.wine.store.exception.AppException;
 import com.wine.store.exception.ResourceNotFoundException;
+import com.wine.store.service.booking.EventSeatInventory;
+import com.wine.store.service.catalog.EventsChangedEvent;
 import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * НАЗНАЧЕНИЕ: Бизнес-логика событий и бронирования.
+ * ОСОБЕННОСТИ: Бронирование идет через EventSeatInventory — без блокировки строки мероприятия.
  */
 @Service
 @RequiredArgsConstructor
@@ -32,7 +38,9 @@ public class EventService {
 
     private final EventRepository eventRepository;
     private final BookingRepository bookingRepository;
+    private final EventSeatInventory seatInventory;
     private final EventMapper eventMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<EventDTO> getUpcomingEvents() {
@@ -40,6 +48,7 @@ public class EventService {
         return eventRepository.findByDateAfterOrderByDateAsc(LocalDate.now().minusDays(1))
                 .stream()
                 .map(eventMapper::toDto)
+                .map(this::withLiveSeats)
                 .collect(Collectors.toList());
     }
 
@@ -48,39 +57,45 @@ public class EventService {
         log.info("Fetching event by slug: {}", slug);
         return eventRepository.findBySlug(slug)
                 .map(eventMapper::toDto)
+                .map(this::withLiveSeats)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found: " + slug));
     }
 
-    @Transactional
-    public void createBooking(BookingRequest request) {
+    /**
+     * Места захватываются в памяти (EventSeatInventory), запись в БД идет асинхронно пакетами —
+     * возвращается принятое бронирование (PENDING), итог проверяется по его номеру (getBooking).
+     */
+    public BookingStatusDTO createBooking(BookingRequest request) {
         log.info("Creating booking for event ID: {} for guests: {}", request.eventId(), request.guests());
-        int updatedRows = eventRepository.incrementBookedSpots(request.eventId(), request.guests());
-
-        if (updatedRows == 0) {
-            log.warn("Failed to create booking - not enough spots for event ID: {}", request.eventId());
-            throw new AppException("Not enough spots available or event not found", HttpStatus.CONFLICT);
-        }
+        BookingStatusDTO booking = seatInventory.book(Objects.requireNonNull(request.eventId()), guests(request.guests()),
+                request.name(), request.email(), request.phone());
+        // todo: send email confirmation
+        return booking;
+    }
 
-        Event event = eventRepository.findById(Objects.requireNonNull(request.eventId()))
-                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+    public SeatHoldDTO holdSeats(Long eventId, Integer seats) {
+        log.info("Holding {} seat(s) for event ID: {}", seats, eventId);
+        return seatInventory.reserve(eventId, guests(seats));
+    }
 
-        BigDecimal totalPrice = event.getPricePerPerson().multiply(BigDecimal.valueOf(request.guests()));
+    public BookingStatusDTO confirmHold(UUID holdId, HoldConfirmationRequest request) {
+        log.info("Confirming seat hold: {}", holdId);
+        return seatInventory.confirm(holdId, request.name(), request.email(), request.phone());
+    }
 
-        Booking booking = Booking.builder()
-                .event(event)
-                .customerName(request.name())
-                .customerEmail(request.email())
-                .customerPhone(request.phone())
-                .guestsCount(request.guests())
-                .totalPrice(totalPrice)
-                .status(BookingStatus.CONFIRMED)
-                .build();
+    /**
+     * Сначала очередь записи этого узла, затем таблица bookings.
+     */
+    @Transactional(readOnly = true)
+    public BookingStatusDTO getBooking(UUID reference) {
+        return seatInventory.pendingStatus(reference)
+                .or(() -> bookingRepository.findByReference(reference).map(EventService::toStatusDto))
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found: " + reference));
+    }
 
-        if (booking == null) {
-            throw new AppException("Failed to create booking", HttpStatus.INTERNAL_SERVER_ERROR);
-        }
-        bookingRepository.save(booking);
-        // todo: send email confirmation
+    public void releaseHold(UUID holdId) {
+        log.info("Releasing seat hold: {}", holdId);
+        seatInventory.release(holdId);
     }
 
     @Transactional
@@ -91,6 +106,7 @@ public class EventService {
             event.setSlug(generateSlug(event.getTitle()));
         }
         Event savedEvent = eventRepository.save(event);
+        eventPublisher.publishEvent(EventsChangedEvent.event(savedEvent.getId()));
         return eventMapper.toDto(savedEvent);
     }
 
@@ -101,7 +117,9 @@ public class EventService {
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found: " + slug));
 
         eventMapper.updateEntityFromDto(eventDTO, existingEvent);
-        return eventMapper.toDto(eventRepository.save(existingEvent));
+        Event savedEvent = eventRepository.save(existingEvent);
+        eventPublisher.publishEvent(EventsChangedEvent.event(savedEvent.getId()));
+        return eventMapper.toDto(savedEvent);
     }
 
     @Transactional
@@ -110,6 +128,31 @@ public class EventService {
         Event event = eventRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found: " + slug));
         eventRepository.delete(event);
+        seatInventory.evict(event.getId());
+        eventPublisher.publishEvent(EventsChangedEvent.event(event.getId()));
+    }
+
+    /**
+     * bookedSpots в БД отстает от очереди записи и не учитывает резервы — показываем занятость из памяти.
+     */
+    private EventDTO withLiveSeats(EventDTO dto) {
+        seatInventory.takenSeats(dto.getId()).ifPresent(taken -> {
+            dto.setBookedSpots(taken);
+            dto.setFull(dto.getTotalSpots() != null && taken >= dto.getTotalSpots());
+        });
+        return dto;
+    }
+
+    private static BookingStatusDTO toStatusDto(Booking booking) {
+        return new BookingStatusDTO(booking.getReference(), booking.getEvent().getId(), booking.getGuestsCount(),
+                booking.getTotalPrice(), booking.getStatus());
+    }
+
+    private static int guests(Integer guests) {
+        if (guests == null || guests < 1) {
+            throw new AppException("Guests count must be at least 1", HttpStatus.BAD_REQUEST);
+        }
+        return guests;
     }
 
     private String generateSlug(String title) {
@@ -0,0 +1,267 @@
+package com.wine.store.service;
+
+import com.wine.store.dto.SyncJobDTO;
+import com.wine.store.dto.SyncReport;
+import com.wine.store.exception.AppException;
+import com.wine.store.exception.ResourceNotFoundException;
+import com.wine.store.model.SyncJob;
+import com.wine.store.model.SyncJobStatus;
+import com.wine.store.model.SyncTrigger;
+import com.wine.store.repository.SyncJobRepository;
+import com.wine.store.service.metrics.QueryInspector;
+import com.wine.store.service.metrics.RequestQueryStats;
+import com.wine.store.service.sync.SyncJobLock;
+import com.wine.store.service.sync.SyncProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * НАЗНАЧЕНИЕ: Фоновые задачи синхронизации с WooCommerce.
+ * ЗАВИСИМОСТИ: WooCommerceSyncService, SyncJobRepository, SyncJobLock.
+ * ОСОБЕННОСТИ: Одновременно выполняется не более одной задачи (single-flight) — и по расписанию,
+ * и из API, на всех узлах сразу: задачу запускает узел, занявший SyncJobLock. Пока задача идет,
+ * узел раз в HEARTBEAT_INTERVAL продлевает блокировку и отмечает heartbeat в sync_jobs; задачу без
+ * heartbeat дольше STALE_AFTER любой узел считает прерванной. Узел, у которого блокировку забрали, останавливает
+ * свою задачу перед следующей страницей и завершает ее с ошибкой. Прогресс выполняющейся задачи
+ * читается из ее SyncProgress (только на ее узле), итоги сохраняются в sync_jobs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncJobService {
+
+    private final WooCommerceSyncService syncService;
+    private final SyncJobRepository syncJobRepository;
+    private final QueryInspector queryInspector;
+    private final SyncJobLock lock;
+
+    private static final long HEARTBEAT_INTERVAL_MS = 30_000;
+    private static final Duration STALE_AFTER = Duration.ofMinutes(2);
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ActiveJob activeJob;
+
+    private record ActiveJob(Long id, SyncProgress progress) {
+    }
+
+    /**
+     * Запускает синхронизацию в фоне и сразу возвращает задачу.
+     *
+     * @throws AppException 409, если синхронизация уже выполняется
+     */
+    public SyncJobDTO start(boolean fullResync, SyncTrigger trigger) {
+        if (!running.compareAndSet(false, true)) {
+            ActiveJob current = activeJob;
+            throw new AppException("Синхронизация уже выполняется" + (current != null ? " (задача " + current.id() + ")" : ""),
+                    HttpStatus.CONFLICT);
+        }
+        boolean locked = false;
+        try {
+            if (!lock.tryAcquire(STALE_AFTER)) {
+                throw new AppException("Синхронизация уже выполняется на узле " + lock.owner(), HttpStatus.CONFLICT);
+            }
+            locked = true;
+            SyncProgress progress = syncService.prepare(fullResync);
+            SyncJob job = syncJobRepository.save(SyncJob.builder()
+                    .status(SyncJobStatus.RUNNING)
+                    .triggerType(trigger)
+                    .fullResync(fullResync)
+                    .modifiedAfter(progress.getModifiedAfter())
+                    .startedAt(LocalDateTime.now())
+                    .nodeId(lock.getNodeId())
+                    .heartbeatAt(LocalDateTime.now())
+                    .build());
+            lock.attach(job.getId());
+            ActiveJob active = new ActiveJob(job.getId(), progress);
+            activeJob = active;
+            Thread.ofVirtual().name("woocommerce-sync-" + job.getId()).start(() -> execute(active));
+            log.info("WooCommerce sync job {} started ({}, full: {})", job.getId(), trigger, fullResync);
+            return toDto(job, progress.toReport());
+        } catch (RuntimeException e) {
+            activeJob = null;
+            if (locked) {
+                lock.release();
+            }
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @Scheduled(cron = "0 0 * * * *") // Every hour
+    public void scheduledSync() {
+        if (running.get()) {
+            log.info("Skipping scheduled WooCommerce sync: job {} is still running", activeJob != null ? activeJob.id() : null);
+            return;
+        }
+        try {
+            start(false, SyncTrigger.SCHEDULED);
+        } catch (AppException e) {
+            log.info("Skipping scheduled WooCommerce sync: {}", e.getMessage());
+        }
+    }
+
+    public SyncJobDTO getJob(Long id) {
+        return syncJobRepository.findById(id)
+                .map(this::toView)
+                .orElseThrow(() -> new ResourceNotFoundException("Sync job not found: " + id));
+    }
+
+    public List<SyncJobDTO> getHistory(int limit) {
+        return syncJobRepository.findAllByOrderByStartedAtDesc(PageRequest.of(0, limit)).stream()
+                .map(this::toView)
+                .toList();
+    }
+
+    /**
+     * Задачи, прерванные перезапуском узла, остаются в статусе RUNNING. При старте узел сразу завершает
+     * свои (этот id узла, а задача в памяти еще не запущена) и снимает свою блокировку, иначе новый запуск
+     * ждал бы STALE_AFTER. Чужие — только если их узел перестал присылать heartbeat: задачу, которая прямо
+     * сейчас идет на другом узле, трогать нельзя.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        if (!running.get()) {
+            lock.release();
+        }
+        List<SyncJob> interrupted = new ArrayList<>(
+                syncJobRepository.findByStatusAndNodeId(SyncJobStatus.RUNNING, lock.getNodeId()));
+        syncJobRepository.findStale(SyncJobStatus.RUNNING, LocalDateTime.now().minus(STALE_AFTER)).stream()
+                .filter(job -> interrupted.stream().noneMatch(own -> own.getId().equals(job.getId())))
+                .forEach(interrupted::add);
+        failInterrupted(interrupted);
+    }
+
+    /**
+     * Heartbeat выполняющейся задачи и уборка задач, чей узел пропал.
+     */
+    @Scheduled(fixedDelay = HEARTBEAT_INTERVAL_MS, initialDelay = HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        ActiveJob active = activeJob;
+        if (active != null) {
+            if (!lock.heartbeat()) {
+                // Синхронизацию уже ведет другой узел: два импорта одновременно перезаписывали бы друг друга
+                String owner = lock.owner();
+                log.warn("WooCommerce sync job {} lost its lock to node {}, stopping it", active.id(), owner);
+                active.progress().cancel("Блокировка синхронизации перешла к узлу " + owner);
+            }
+            syncJobRepository.touch(active.id(), LocalDateTime.now());
+        }
+        List<SyncJob> stale = syncJobRepository.findStale(SyncJobStatus.RUNNING, LocalDateTime.now().minus(STALE_AFTER));
+        failInterrupted(stale.stream()
+                .filter(job -> active == null || !active.id().equals(job.getId()))
+                .toList());
+    }
+
+    private void failInterrupted(List<SyncJob> interrupted) {
+        interrupted.forEach(job -> {
+            job.setStatus(SyncJobStatus.FAILED);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setErrorMessage("Прервана: узел " + job.getNodeId() + " перезапущен или перестал отвечать");
+        });
+        if (!interrupted.isEmpty()) {
+            syncJobRepository.saveAll(interrupted);
+            log.warn("Marked {} interrupted sync job(s) as FAILED: {}", interrupted.size(),
+                    interrupted.stream().map(SyncJob::getId).toList());
+        }
+    }
+
+    private void execute(ActiveJob active) {
+        SyncReport report = null;
+        String error = null;
+        RequestQueryStats.begin("job:woocommerce-sync");
+        try {
+            report = syncService.run(active.progress());
+            error = active.progress().getErrorMessage();
+        } catch (Exception e) {
+            log.error("WooCommerce sync job {} failed: {}", active.id(), e.getMessage(), e);
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            queryInspector.inspect(RequestQueryStats.end());
+            try {
+                finish(active, report != null ? report : active.progress().toReport(), error);
+            } catch (Exception e) {
+                log.error("Failed to save result of sync job {}: {}", active.id(), e.getMessage(), e);
+            } finally {
+                activeJob = null;
+                releaseLock(active);
+                running.set(false);
+            }
+        }
+    }
+
+    private void releaseLock(ActiveJob active) {
+        try {
+            lock.release();
+        } catch (RuntimeException e) {
+            // Не снятая блокировка освободится сама через STALE_AFTER без heartbeat
+            log.warn("Failed to release sync lock after job {}: {}", active.id(), e.getMessage());
+        }
+    }
+
+    private void finish(ActiveJob active, SyncReport report, String error) {
+        SyncJob job = syncJobRepository.findById(active.id()).orElseThrow();
+        job.setStatus(error == null ? SyncJobStatus.SUCCEEDED : SyncJobStatus.FAILED);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setErrorMessage(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        job.setPages(report.pages());
+        job.setProcessed(report.processed());
+        job.setInserted(report.inserted());
+        job.setUpdated(report.updated());
+        job.setSkipped(report.skipped());
+        job.setIgnored(report.ignored());
+        job.setFailed(report.failed());
+        job.setDurationMs(report.durationMs());
+        job.setProductsPerSecond(report.productsPerSecond());
+        job.setFetchMs(report.fetchMs());
+        job.setMapMs(report.mapMs());
+        job.setResolveMs(report.resolveMs());
+        job.setWriteMs(report.writeMs());
+        syncJobRepository.save(job);
+        log.info("WooCommerce sync job {} finished: {}", job.getId(), job.getStatus());
+    }
+
+    private SyncJobDTO toView(SyncJob job) {
+        ActiveJob active = activeJob;
+        if (active != null && active.id().equals(job.getId()) && job.getStatus() == SyncJobStatus.RUNNING) {
+            return toDto(job, active.progress().toReport());
+        }
+        return toDto(job, toReport(job));
+    }
+
+    private static SyncJobDTO toDto(SyncJob job, SyncReport report) {
+        return new SyncJobDTO(job.getId(), job.getStatus(), job.getTriggerType(), job.getStartedAt(),
+                job.getFinishedAt(), job.getErrorMessage(), report);
+    }
+
+    private static SyncReport toReport(SyncJob job) {
+        if (job.getProcessed() == null) {
+            return null;
+        }
+        int inserted = value(job.getInserted());
+        int updated = value(job.getUpdated());
+        return new SyncReport(job.isFullResync(), job.getModifiedAfter(), value(job.getPages()), job.getProcessed(),
+                inserted + updated, inserted, updated, value(job.getSkipped()), value(job.getIgnored()),
+                value(job.getFailed()), value(job.getDurationMs()), job.getProductsPerSecond() != null ? job.getProductsPerSecond() : 0.0,
+                value(job.getFetchMs()), value(job.getMapMs()), value(job.getResolveMs()), value(job.getWriteMs()));
+    }
+
+    private static int value(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static long value(Long value) {
+        return value != null ? value : 0L;
+    }
+}
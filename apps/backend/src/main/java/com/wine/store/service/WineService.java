@@ -1,24 +1,43 @@
 package com.wine.store.service;
 
+import com.wine.store.dto.CursorPage;
+import com.wine.store.dto.WineCardDTO;
 import com.wine.store.dto.WineDTO;
+import com.wine.store.dto.WineFacetsDTO;
 import com.wine.store.dto.WineSearchRequest;
 import com.wine.store.mapper.WineMapper;
 import com.wine.store.model.Wine;
 import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.index.WineCatalogIndex;
+import com.wine.store.repository.index.WineVectorIndex;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.WineDtoAssembler;
+import com.wine.store.service.catalog.WineCursor;
+import com.wine.store.service.catalog.WineKeysetOrder;
+import com.wine.store.service.catalog.TastingValues;
 import com.wine.store.service.spec.WineSpecification;
+import com.wine.store.exception.AppException;
 import com.wine.store.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * НАЗНАЧЕНИЕ: Бизнес-логика каталога вин.
@@ -29,21 +48,95 @@ import java.util.List;
 public class WineService {
     private final WineRepository wineRepository;
     private final WineMapper wineMapper;
-
-    @Transactional(readOnly = true)
-    public @NonNull Page<WineDTO> getAllWines(WineSearchRequest request, @NonNull Pageable pageable) {
+    private final WineDtoAssembler wineDtoAssembler;
+    private final WineCatalogIndex catalogIndex;
+    private final WineVectorIndex vectorIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Основной путь — in-memory индекс каталога, без обращения к БД.
+     * Запрос через Specification остается запасным путем (индекс не собран, сортировка не поддерживается).
+     * Списки отдают карточки (WineCardDTO); полное описание — только getWineBySlug.
+     */
+    public @NonNull Page<WineCardDTO> getAllWines(WineSearchRequest request, @NonNull Pageable pageable) {
         log.info("Fetching wines with filters: {} and pageable: {}", request, pageable);
 
         Sort sort = parseSort(request.sort());
-        Pageable effectivePageable = pageable;
+        Pageable effectivePageable = sort.isSorted()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : pageable;
 
-        if (sort.isSorted()) {
-            effectivePageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
-        }
+        return catalogIndex.findAll(request, effectivePageable)
+                .orElseGet(() -> findAllFromDatabase(request, effectivePageable))
+                .map(WineCardDTO::of);
+    }
 
-        Specification<Wine> spec = WineSpecification.getSpec(request);
-        Page<Wine> wines = wineRepository.findAll(spec, effectivePageable);
-        return wines.map(wineMapper::toDto);
+    private Page<WineDTO> findAllFromDatabase(WineSearchRequest request, Pageable pageable) {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        return Objects.requireNonNull(readOnlyTx.execute(status -> {
+            Specification<Wine> spec = WineSpecification.getSpec(request);
+            // Страница, count и по запросу на теги и блюда — независимо от размера страницы
+            Page<Wine> page = wineRepository.findAll(spec, pageable);
+            return new PageImpl<>(wineDtoAssembler.toDtos(page.getContent()), page.getPageable(),
+                    page.getTotalElements());
+        }));
+    }
+
+    /**
+     * Keyset-пагинация: стоимость страницы не растет с глубиной (нет OFFSET), count выполняется
+     * только при withTotal. Запасной путь через БД — запрос с условием "после курсора" и LIMIT size + 1.
+     *
+     * @param cursor курсор из nextCursor предыдущей страницы, пустой — первая страница
+     */
+    public CursorPage<WineCardDTO> getWinesAfter(WineSearchRequest request, String cursor, int size, boolean withTotal) {
+        log.info("Fetching wines with filters: {} after cursor: {} (size: {})", request, cursor, size);
+        WineKeysetOrder order = WineKeysetOrder.of(request.sort());
+        WineCursor position = StringUtils.hasText(cursor) ? WineCursor.decode(cursor, order) : null;
+        return catalogIndex.findAfter(request, order, position, size, withTotal)
+                .orElseGet(() -> findAfterFromDatabase(request, order, position, size, withTotal))
+                .map(WineCardDTO::of);
+    }
+
+    private CursorPage<WineDTO> findAfterFromDatabase(WineSearchRequest request, WineKeysetOrder order,
+                                                      WineCursor cursor, int size, boolean withTotal) {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        return Objects.requireNonNull(readOnlyTx.execute(status -> {
+            Specification<Wine> filters = WineSpecification.getSpec(request);
+            // Лишняя строка показывает, есть ли следующая страница, без count
+            List<WineDTO> rows = wineDtoAssembler.toDtos(wineRepository.findBy(
+                    filters.and(WineSpecification.keyset(order, cursor)), query -> query.limit(size + 1).all()));
+            boolean hasMore = rows.size() > size;
+            List<WineDTO> content = hasMore ? rows.subList(0, size) : rows;
+            String nextCursor = hasMore ? WineCursor.after(order, content.get(size - 1)).encode() : null;
+            Long total = withTotal ? wineRepository.count(filters) : null;
+            return new CursorPage<>(content, nextCursor, total);
+        }));
+    }
+
+    /**
+     * Фасеты считаются по снимку индекса. Снимок собирается в фоне, и пока его нет (старт приложения,
+     * ошибка обновления), фасеты считаются по снимку, собранному из БД для этого запроса.
+     */
+    public WineFacetsDTO getFacets(WineSearchRequest request) {
+        log.info("Fetching wine facets with filters: {}", request);
+        return catalogIndex.facets(request)
+                .orElseGet(() -> catalogIndex.facetsFromDatabase(request));
+    }
+
+    public List<String> suggest(String query, int limit) {
+        return catalogIndex.suggest(query, limit);
+    }
+
+    /**
+     * Похожие вина по свободному описанию — локальный векторный индекс, без LLM и без сети.
+     */
+    public List<WineDTO> searchSimilar(String query, int limit) {
+        log.info("Vector search for: {}", query);
+        return vectorIndex.search(query, limit)
+                .orElseThrow(() -> new AppException("Vector index is not available", HttpStatus.SERVICE_UNAVAILABLE));
     }
 
     private Sort parseSort(String sortStr) {
@@ -74,16 +167,16 @@ public class WineService {
     }
 
     @Transactional(readOnly = true)
-    public List<WineDTO> getFeaturedWines() {
-        return wineRepository.findByFeaturedTrue().stream()
-                .map(wineMapper::toDto)
+    public List<WineCardDTO> getFeaturedWines() {
+        return wineDtoAssembler.toDtos(wineRepository.findByFeaturedTrue()).stream()
+                .map(WineCardDTO::of)
                 .toList();
     }
 
     @Transactional(readOnly = true)
-    public List<WineDTO> getTopRatedWines() {
-        return wineRepository.findTop10ByOrderByRatingDesc().stream()
-                .map(wineMapper::toDto)
+    public List<WineCardDTO> getTopRatedWines() {
+        return wineDtoAssembler.toDtos(wineRepository.findTopRated(Limit.of(10))).stream()
+                .map(WineCardDTO::of)
                 .toList();
     }
 
@@ -95,7 +188,9 @@ public class WineService {
         if (wine.getSlug() == null || wine.getSlug().isEmpty()) {
             wine.setSlug(generateSlug(wine.getName()));
         }
+        TastingValues.apply(wine);
         Wine savedWine = wineRepository.save(wine);
+        eventPublisher.publishEvent(CatalogChangedEvent.wine(savedWine.getId()));
         return wineMapper.toDto(savedWine);
     }
 
@@ -106,7 +201,10 @@ public class WineService {
                 .orElseThrow(() -> new ResourceNotFoundException("Wine not found: " + slug));
 
         wineMapper.updateEntityFromDto(wineDTO, existingWine);
-        return wineMapper.toDto(wineRepository.save(existingWine));
+        TastingValues.apply(existingWine);
+        Wine savedWine = wineRepository.save(existingWine);
+        eventPublisher.publishEvent(CatalogChangedEvent.wine(savedWine.getId()));
+        return wineMapper.toDto(savedWine);
     }
 
     @Transactional
@@ -115,6 +213,7 @@ public class WineService {
         Wine wine = wineRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Wine not found: " + slug));
         wineRepository.delete(wine);
+        eventPublisher.publishEvent(CatalogChangedEvent.wine(wine.getId()));
     }
 
     private String generateSlug(String name) {
@@ -0,0 +1,305 @@
+package com.wine.store.service.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wine.store.config.BookingProperties;
+import com.wine.store.dto.BookingStatusDTO;
+import com.wine.store.model.BookingStatus;
+import com.wine.store.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Асинхронная пакетная запись бронирований.
+ * ЗАВИСИМОСТИ: EventRepository (условный UPDATE), JdbcTemplate (batch INSERT), BookingProperties.
+ * ОСОБЕННОСТИ: Один виртуальный поток забирает из очереди до batchSize бронирований и пишет их одной
+ * транзакцией: по мероприятию выполняется один incrementBookedSpots на сумму мест. Если БД его отклоняет,
+ * бронирования проверяются по одному; отклоненные сохраняются со статусом CANCELLED, их места
+ * возвращаются, а счетчик мероприятия перечитывает booked_spots. Пакет, который не удалось записать,
+ * не теряется: каждое бронирование возвращается в очередь повторов с нарастающей паузой и пишется
+ * отдельной транзакцией; после maxAttempts попыток места возвращаются, статус — FAILED.
+ * Пока бронирование не записано, status() отвечает PENDING по его номеру (reference).
+ * Записанные места публикуются в SeatsBookedEvent (для счетчиков других узлов).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingWriter {
+
+    private static final String INSERT_BOOKING = """
+            INSERT INTO bookings (reference, event_id, customer_name, customer_email, customer_phone, guests_count,
+                                  total_price, status, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // UUID передается без типа: драйверы PostgreSQL и H2 сами отображают java.util.UUID
+    private static final int[] BOOKING_TYPES = {
+            SqlTypeValue.TYPE_UNKNOWN, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+            Types.DECIMAL, Types.VARCHAR, Types.TIMESTAMP };
+
+    private static final String BOOKED_SPOTS = "SELECT booked_spots FROM events WHERE id = ?";
+
+    private static final long IDLE_POLL_MILLIS = 500;
+
+    private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final BookingProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlockingQueue<PendingBooking> queue = new LinkedBlockingQueue<>();
+    private final DelayQueue<Retry> retries = new DelayQueue<>();
+    // Принятые, но еще не записанные бронирования (статус PENDING)
+    private final Map<UUID, PendingBooking> pending = new ConcurrentHashMap<>();
+    // Итоги, которых нет в таблице bookings: FAILED и отклоненные бронирования удаленных мероприятий
+    private final Cache<UUID, BookingStatusDTO> outcomes = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    private volatile boolean running;
+    private Thread worker;
+
+    private record Retry(PendingBooking booking, long dueNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((Retry) other).dueNanos);
+        }
+    }
+
+    /**
+     * Итог одной транзакции пакета; счетчики мест меняются только после коммита.
+     */
+    private record BatchResult(List<PendingBooking> confirmed, List<PendingBooking> rejected,
+                               List<PendingBooking> orphaned, Map<Long, Integer> bookedSpots) {
+    }
+
+    public void enqueue(PendingBooking booking) {
+        pending.put(booking.reference(), booking);
+        queue.add(booking);
+    }
+
+    /**
+     * Статус бронирования, которого нет в таблице bookings: еще не записано или не будет записано.
+     * Записанное бронирование отсюда убирается только после коммита — между этим вызовом и поиском
+     * в БД оно не пропадет.
+     */
+    public Optional<BookingStatusDTO> status(UUID reference) {
+        PendingBooking booking = pending.get(reference);
+        if (booking != null) {
+            return Optional.of(toDto(booking, BookingStatus.PENDING));
+        }
+        return Optional.ofNullable(outcomes.getIfPresent(reference));
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("booking-writer").start(this::drainLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Без interrupt: прерывание потока посреди JDBC-вызова может закрыть соединение
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        // Остаток очереди и повторов пишем в вызывающем потоке, без новых повторов
+        List<PendingBooking> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        retries.forEach(retry -> rest.add(retry.booking()));
+        retries.clear();
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingBooking> batch = new ArrayList<>(properties.getBatchSize());
+        while (running) {
+            try {
+                retryDue();
+                PendingBooking first = queue.poll(idleWaitNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Короткое ожидание собирает всплеск бронирований в один пакет
+                long deadline = System.nanoTime() + properties.getFlushInterval().toNanos();
+                while (batch.size() < properties.getBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingBooking next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.addAll(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Повторы пишутся по одному: бронирование, из-за которого падает запись, не задерживает остальные.
+     */
+    private void retryDue() {
+        Retry retry;
+        while (running && (retry = retries.poll()) != null) {
+            write(List.of(retry.booking()));
+        }
+    }
+
+    /**
+     * Ожидание новых бронирований не задерживает ближайший повтор.
+     */
+    private long idleWaitNanos() {
+        long idle = TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS);
+        Retry next = retries.peek();
+        return next != null ? Math.max(0, Math.min(idle, next.getDelay(TimeUnit.NANOSECONDS))) : idle;
+    }
+
+    private void write(List<PendingBooking> batch) {
+        BatchResult result;
+        try {
+            result = new TransactionTemplate(transactionManager).execute(status -> writeBatch(batch));
+        } catch (Exception e) {
+            log.error("Failed to persist {} booking(s): {}", batch.size(), e.getMessage(), e);
+            batch.forEach(this::retryLater);
+            return;
+        }
+        if (result == null) {
+            return;
+        }
+        for (PendingBooking booking : result.confirmed()) {
+            booking.owner().committed(booking.guests(), result.bookedSpots().get(booking.eventId()));
+            pending.remove(booking.reference());
+        }
+        for (PendingBooking booking : result.orphaned()) {
+            outcomes.put(booking.reference(), toDto(booking, BookingStatus.CANCELLED));
+        }
+        if (!result.rejected().isEmpty()) {
+            result.rejected().forEach(booking -> {
+                booking.owner().release(booking.guests());
+                booking.owner().markStale();
+                pending.remove(booking.reference());
+            });
+            log.warn("Database rejected {} booking(s) accepted by the seat inventory (events: {})",
+                    result.rejected().size(), result.rejected().stream().map(PendingBooking::eventId).distinct().toList());
+        }
+    }
+
+    private void retryLater(PendingBooking booking) {
+        PendingBooking failed = booking.failedAttempt();
+        if (!running || failed.attempts() >= properties.getMaxAttempts()) {
+            giveUp(failed);
+            return;
+        }
+        long backoff = Math.min(properties.getRetryBackoff().toNanos() << Math.min(failed.attempts() - 1, 20),
+                properties.getRetryBackoffMax().toNanos());
+        retries.add(new Retry(failed, System.nanoTime() + backoff));
+    }
+
+    /**
+     * Бронирование так и не записано — места возвращаются, чтобы счетчик не разошелся с БД.
+     * Клиент видит FAILED по номеру бронирования; данные гостя остаются в логе для ручного разбора.
+     */
+    private void giveUp(PendingBooking booking) {
+        // Сначала места: клиент, увидевший FAILED, уже может занять их снова
+        booking.owner().release(booking.guests());
+        outcomes.put(booking.reference(), toDto(booking, BookingStatus.FAILED));
+        pending.remove(booking.reference());
+        log.error("Giving up on booking {} after {} attempt(s): event {}, {} guest(s), {} <{}> {}, created {}",
+                booking.reference(), booking.attempts(), booking.eventId(), booking.guests(), booking.customerName(),
+                booking.customerEmail(), booking.customerPhone(), booking.createdAt());
+    }
+
+    private BatchResult writeBatch(List<PendingBooking> batch) {
+        Map<Long, List<PendingBooking>> byEvent = new LinkedHashMap<>();
+        batch.forEach(booking -> byEvent.computeIfAbsent(booking.eventId(), k -> new ArrayList<>()).add(booking));
+
+        List<PendingBooking> confirmed = new ArrayList<>(batch.size());
+        List<PendingBooking> rejected = new ArrayList<>();
+        Map<Long, Integer> bookedSpots = new HashMap<>();
+        byEvent.forEach((eventId, bookings) -> {
+            int seats = bookings.stream().mapToInt(PendingBooking::guests).sum();
+            int confirmedBefore = confirmed.size();
+            if (eventRepository.incrementBookedSpots(eventId, seats) > 0) {
+                confirmed.addAll(bookings);
+            } else {
+                // Пакет целиком не поместился — проверяем по одному, чтобы отклонить только лишние
+                for (PendingBooking booking : bookings) {
+                    if (eventRepository.incrementBookedSpots(eventId, booking.guests()) > 0) {
+                        confirmed.add(booking);
+                    } else {
+                        rejected.add(booking);
+                    }
+                }
+            }
+            if (confirmed.size() > confirmedBefore) {
+                // Строка заблокирована нашим UPDATE до коммита — значение точное
+                bookedSpots.put(eventId, jdbcTemplate.queryForObject(BOOKED_SPOTS, Integer.class, eventId));
+            }
+        });
+
+        insert(confirmed, BookingStatus.CONFIRMED);
+        if (!confirmed.isEmpty()) {
+            eventPublisher.publishEvent(new SeatsBookedEvent(Map.copyOf(bookedSpots)));
+        }
+        List<PendingBooking> orphaned = List.of();
+        if (!rejected.isEmpty()) {
+            Map<Boolean, List<PendingBooking>> byEventExists = rejected.stream()
+                    .collect(Collectors.partitioningBy(booking -> eventRepository.existsById(booking.eventId())));
+            insert(byEventExists.get(true), BookingStatus.CANCELLED);
+            orphaned = byEventExists.get(false);
+        }
+        return new BatchResult(confirmed, rejected, orphaned, bookedSpots);
+    }
+
+    private void insert(List<PendingBooking> bookings, BookingStatus status) {
+        if (bookings.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_BOOKING, bookings.stream()
+                .map(b -> new Object[] { b.reference(), b.eventId(), b.customerName(), b.customerEmail(),
+                        b.customerPhone(), b.guests(), b.totalPrice(), status.name(), Timestamp.valueOf(b.createdAt()) })
+                .toList(), BOOKING_TYPES);
+    }
+
+    private static BookingStatusDTO toDto(PendingBooking booking, BookingStatus status) {
+        return new BookingStatusDTO(booking.reference(), booking.eventId(), booking.guests(), booking.totalPrice(), status);
+    }
+}
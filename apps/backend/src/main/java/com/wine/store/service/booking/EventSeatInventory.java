@@ -0,0 +1,232 @@
+package com.wine.store.service.booking;
+
+import com.wine.store.config.BookingProperties;
+import com.wine.store.dto.BookingStatusDTO;
+import com.wine.store.dto.SeatHoldDTO;
+import com.wine.store.exception.AppException;
+import com.wine.store.exception.ResourceNotFoundException;
+import com.wine.store.model.BookingStatus;
+import com.wine.store.repository.EventRepository;
+import com.wine.store.repository.projection.EventSeatsView;
+import com.wine.store.service.catalog.EventsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * НАЗНАЧЕНИЕ: Учет мест на мероприятиях в памяти.
+ * ЗАВИСИМОСТИ: EventRepository (начальное состояние), BookingWriter (асинхронная запись).
+ * ОСОБЕННОСТИ: Счетчики мест засеваются из БД при первом обращении и меняются атомарно, без блокировки
+ * строки events. Резерв живет app.booking.hold-ttl, затем места возвращаются. Условный UPDATE
+ * в BookingWriter остается последней проверкой — он защищает от перепродажи и при нескольких узлах.
+ * Устаревший счетчик не пересоздается, а перечитывает лимит, цену и booked_spots: резервы и бронирования
+ * в очереди записи этого узла (reserved) при этом сохраняются. Изменения мероприятий применяются только
+ * после коммита (EventsChangedEvent) — откаченная правка не меняет ни лимит, ни цену.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventSeatInventory {
+
+    private final EventRepository eventRepository;
+    private final BookingWriter bookingWriter;
+    private final BookingProperties properties;
+
+    private final Map<Long, EventSeats> seatsByEvent = new ConcurrentHashMap<>();
+    private final Map<UUID, SeatHold> holds = new ConcurrentHashMap<>();
+
+    /**
+     * Резервирует места на время hold-ttl.
+     *
+     * @throws AppException 409, если свободных мест недостаточно
+     */
+    public SeatHoldDTO reserve(Long eventId, int seats) {
+        EventSeats eventSeats = seats(eventId);
+        if (!eventSeats.tryTake(seats)) {
+            throw new AppException("Not enough spots available", HttpStatus.CONFLICT);
+        }
+        SeatHold hold = new SeatHold(UUID.randomUUID(), eventId, seats, totalPrice(eventSeats, seats),
+                Instant.now().plus(properties.getHoldTtl()), eventSeats);
+        holds.put(hold.id(), hold);
+        return toDto(hold);
+    }
+
+    /**
+     * Подтверждает резерв: места остаются занятыми, бронирование уходит в очередь записи.
+     *
+     * @return принятое бронирование (PENDING) с номером для проверки статуса
+     * @throws ResourceNotFoundException если резерв не найден или уже истек
+     */
+    public BookingStatusDTO confirm(UUID holdId, String name, String email, String phone) {
+        SeatHold hold = holds.remove(holdId);
+        if (hold == null || hold.isExpired(Instant.now())) {
+            if (hold != null) {
+                hold.owner().release(hold.seats());
+            }
+            throw new ResourceNotFoundException("Seat hold not found or expired: " + holdId);
+        }
+        return enqueue(new PendingBooking(hold.eventId(), name, email, phone, hold.seats(), hold.totalPrice(),
+                hold.owner()));
+    }
+
+    /**
+     * Резерв и подтверждение одним шагом (POST /api/events/bookings).
+     *
+     * @return принятое бронирование (PENDING) с номером для проверки статуса
+     */
+    public BookingStatusDTO book(Long eventId, int seats, String name, String email, String phone) {
+        EventSeats eventSeats = seats(eventId);
+        if (!eventSeats.tryTake(seats)) {
+            throw new AppException("Not enough spots available or event not found", HttpStatus.CONFLICT);
+        }
+        return enqueue(new PendingBooking(eventId, name, email, phone, seats, totalPrice(eventSeats, seats),
+                eventSeats));
+    }
+
+    /**
+     * Статус бронирования, которое этот узел еще не записал в БД или не смог записать.
+     */
+    public Optional<BookingStatusDTO> pendingStatus(UUID reference) {
+        return bookingWriter.status(reference);
+    }
+
+    public void release(UUID holdId) {
+        SeatHold hold = holds.remove(holdId);
+        if (hold == null) {
+            throw new ResourceNotFoundException("Seat hold not found or expired: " + holdId);
+        }
+        hold.owner().release(hold.seats());
+    }
+
+    /**
+     * @return занятые места (забронированные, в очереди записи и в резервах) или empty, если счетчик еще не засеян
+     */
+    public Optional<Integer> takenSeats(Long eventId) {
+        EventSeats eventSeats = seatsByEvent.get(eventId);
+        return eventSeats != null ? Optional.of(eventSeats.taken()) : Optional.empty();
+    }
+
+    /**
+     * Мероприятие удалено или счетчик разошелся с БД — следующий запрос засеет его заново.
+     */
+    public void evict(Long eventId) {
+        seatsByEvent.remove(eventId);
+    }
+
+    /**
+     * Другой узел записал бронирования — засеянный счетчик учитывает их сразу, не дожидаясь пересева.
+     * Повторное или запоздавшее уведомление ничего не меняет.
+     *
+     * @param bookedSpots booked_spots мероприятия после коммита на другом узле
+     */
+    public void onBookedElsewhere(Long eventId, int bookedSpots) {
+        EventSeats eventSeats = seatsByEvent.get(eventId);
+        if (eventSeats != null) {
+            eventSeats.syncBooked(bookedSpots);
+        }
+    }
+
+    /**
+     * Мероприятия изменены администратором, импортом или на другом узле — засеянные счетчики перечитывают
+     * лимит, цену и booked_spots без сброса занятых мест.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventsChanged(EventsChangedEvent event) {
+        if (event.eventIds().isEmpty()) {
+            markAllStale();
+        } else {
+            event.eventIds().forEach(this::refresh);
+        }
+    }
+
+    /**
+     * Перечитывает лимит, цену и booked_spots мероприятия из БД; удаленное мероприятие забывается.
+     */
+    public void refresh(Long eventId) {
+        EventSeats eventSeats = seatsByEvent.get(eventId);
+        if (eventSeats != null) {
+            eventRepository.findSeatsView(eventId).ifPresentOrElse(view -> apply(eventSeats, view), () -> evict(eventId));
+        }
+    }
+
+    /**
+     * Изменено неизвестно что или уведомления других узлов могли потеряться — все счетчики перечитают лимит,
+     * цену и booked_spots при следующем обращении. Резервы и бронирования в очереди записи остаются:
+     * reserved при пересеве не сбрасывается.
+     */
+    public void markAllStale() {
+        seatsByEvent.values().forEach(EventSeats::markStale);
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void expireHolds() {
+        Instant now = Instant.now();
+        int expired = 0;
+        for (SeatHold hold : holds.values()) {
+            // remove(key, value): резерв, подтвержденный параллельно, не освобождается повторно
+            if (hold.isExpired(now) && holds.remove(hold.id(), hold)) {
+                hold.owner().release(hold.seats());
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Released {} expired seat hold(s)", expired);
+        }
+    }
+
+    private EventSeats seats(Long eventId) {
+        EventSeats cached = seatsByEvent.get(eventId);
+        if (cached != null) {
+            if (cached.clearStale()) {
+                EventSeatsView view = eventRepository.findSeatsView(eventId).orElseThrow(() -> {
+                    evict(eventId);
+                    return new AppException("Not enough spots available or event not found", HttpStatus.CONFLICT);
+                });
+                apply(cached, view);
+            }
+            return cached;
+        }
+        return seatsByEvent.computeIfAbsent(eventId, id -> eventRepository.findSeatsView(id)
+                .map(view -> new EventSeats(id, spots(view.totalSpots()), spots(view.bookedSpots()),
+                        price(view.pricePerPerson())))
+                .orElseThrow(() -> new AppException("Not enough spots available or event not found", HttpStatus.CONFLICT)));
+    }
+
+    private BookingStatusDTO enqueue(PendingBooking booking) {
+        bookingWriter.enqueue(booking);
+        return new BookingStatusDTO(booking.reference(), booking.eventId(), booking.guests(), booking.totalPrice(),
+                BookingStatus.PENDING);
+    }
+
+    private static void apply(EventSeats eventSeats, EventSeatsView view) {
+        eventSeats.update(spots(view.totalSpots()), price(view.pricePerPerson()));
+        eventSeats.syncBooked(spots(view.bookedSpots()));
+    }
+
+    private static BigDecimal totalPrice(EventSeats eventSeats, int seats) {
+        return eventSeats.pricePerPerson().multiply(BigDecimal.valueOf(seats));
+    }
+
+    private static SeatHoldDTO toDto(SeatHold hold) {
+        return new SeatHoldDTO(hold.id(), hold.eventId(), hold.seats(), hold.totalPrice(), hold.expiresAt());
+    }
+
+    private static int spots(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static BigDecimal price(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,138 @@
+package com.wine.store.service.booking;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * НАЗНАЧЕНИЕ: Счетчик мест одного мероприятия.
+ * ОСОБЕННОСТИ: taken = booked + reserved. booked — events.booked_spots, каким его последний раз видел узел;
+ * reserved — места этого узла, которых в БД еще нет (активные резервы и бронирования в очереди записи).
+ * Обе части лежат в одном AtomicLong, поэтому захват мест — CAS-цикл без блокировок, и перепродажа
+ * в памяти невозможна. booked_spots в БД только растет (incrementBookedSpots), поэтому новое значение из БД
+ * применяется как максимум: повторное или запоздавшее значение ничего не портит, а резервы и очередь
+ * при пересеве не теряются.
+ */
+final class EventSeats {
+
+    final Long eventId;
+    // Старшие 32 бита — booked, младшие — reserved
+    private final AtomicLong state;
+    private volatile int totalSpots;
+    private volatile BigDecimal pricePerPerson;
+    private volatile boolean stale;
+
+    EventSeats(Long eventId, int totalSpots, int bookedSpots, BigDecimal pricePerPerson) {
+        this.eventId = eventId;
+        this.totalSpots = totalSpots;
+        this.state = new AtomicLong(pack(bookedSpots, 0));
+        this.pricePerPerson = pricePerPerson;
+    }
+
+    boolean tryTake(int seats) {
+        while (true) {
+            long current = state.get();
+            int booked = booked(current);
+            int reserved = reserved(current);
+            if (booked + reserved + seats > totalSpots) {
+                return false;
+            }
+            if (state.compareAndSet(current, pack(booked, reserved + seats))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Резерв отменен или истек, бронирование отклонено БД или не записано.
+     */
+    void release(int seats) {
+        apply(0, -seats);
+    }
+
+    /**
+     * Бронирование записано: места переходят из reserved в booked одним шагом.
+     *
+     * @param bookedInDb booked_spots мероприятия сразу после записи (в той же транзакции)
+     */
+    void committed(int seats, int bookedInDb) {
+        apply(bookedInDb, -seats);
+    }
+
+    /**
+     * Значение booked_spots из БД: пересев или запись на другом узле.
+     */
+    void syncBooked(int bookedInDb) {
+        apply(bookedInDb, 0);
+    }
+
+    int taken() {
+        long current = state.get();
+        return booked(current) + reserved(current);
+    }
+
+    int booked() {
+        return booked(state.get());
+    }
+
+    int reserved() {
+        return reserved(state.get());
+    }
+
+    int totalSpots() {
+        return totalSpots;
+    }
+
+    BigDecimal pricePerPerson() {
+        return pricePerPerson;
+    }
+
+    /**
+     * БД отклонила бронирование, которое счетчик пропустил (другой узел, ручная правка) —
+     * при следующем обращении booked перечитывается из БД.
+     */
+    void markStale() {
+        stale = true;
+    }
+
+    /**
+     * @return true, если счетчик был помечен устаревшим; флаг снимается до чтения БД,
+     * чтобы пометка, сделанная во время пересева, не потерялась
+     */
+    boolean clearStale() {
+        if (!stale) {
+            return false;
+        }
+        stale = false;
+        return true;
+    }
+
+    /**
+     * Изменение мероприятия администратором: новые лимит и цена действуют для следующих резервов.
+     */
+    void update(int totalSpots, BigDecimal pricePerPerson) {
+        this.totalSpots = totalSpots;
+        this.pricePerPerson = pricePerPerson;
+    }
+
+    private void apply(int bookedInDb, int reservedDelta) {
+        while (true) {
+            long current = state.get();
+            long next = pack(Math.max(booked(current), bookedInDb), reserved(current) + reservedDelta);
+            if (state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long pack(int booked, int reserved) {
+        return ((long) booked << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int booked(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int reserved(long state) {
+        return (int) state;
+    }
+}
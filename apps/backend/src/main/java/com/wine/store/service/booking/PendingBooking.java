@@ -0,0 +1,34 @@
+package com.wine.store.service.booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * НАЗНАЧЕНИЕ: Подтвержденное в памяти бронирование, ожидающее записи в БД.
+ * ОСОБЕННОСТИ: reference — номер бронирования, который клиент получает сразу и по которому узнает статус;
+ * attempts — сколько раз запись уже не удалась.
+ */
+record PendingBooking(
+        UUID reference,
+        Long eventId,
+        String customerName,
+        String customerEmail,
+        String customerPhone,
+        int guests,
+        BigDecimal totalPrice,
+        LocalDateTime createdAt,
+        EventSeats owner,
+        int attempts) {
+
+    PendingBooking(Long eventId, String customerName, String customerEmail, String customerPhone, int guests,
+                   BigDecimal totalPrice, EventSeats owner) {
+        this(UUID.randomUUID(), eventId, customerName, customerEmail, customerPhone, guests, totalPrice,
+                LocalDateTime.now(), owner, 0);
+    }
+
+    PendingBooking failedAttempt() {
+        return new PendingBooking(reference, eventId, customerName, customerEmail, customerPhone, guests, totalPrice,
+                createdAt, owner, attempts + 1);
+    }
+}
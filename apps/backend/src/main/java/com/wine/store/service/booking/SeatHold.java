@@ -0,0 +1,16 @@
+package com.wine.store.service.booking;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * НАЗНАЧЕНИЕ: Временный резерв мест на мероприятие (reserve → confirm/expire).
+ * ОСОБЕННОСТИ: Цена фиксируется в момент резерва.
+ */
+record SeatHold(UUID id, Long eventId, int seats, BigDecimal totalPrice, Instant expiresAt, EventSeats owner) {
+
+    boolean isExpired(Instant now) {
+        return now.isAfter(expiresAt);
+    }
+}
@@ -0,0 +1,12 @@
+package com.wine.store.service.booking;
+
+import java.util.Map;
+
+/**
+ * НАЗНАЧЕНИЕ: Событие записи бронирований в БД.
+ * ОСОБЕННОСТИ: Публикуется BookingWriter внутри транзакции пакета: мероприятие -> booked_spots после записи
+ * (прочитано под блокировкой строки). Нужно другим узлам — их счетчики мест не видят чужих бронирований.
+ * Абсолютное значение, а не прирост: узел, засеявший счетчик уже после коммита, не учтет места дважды.
+ */
+public record SeatsBookedEvent(Map<Long, Integer> bookedSpots) {
+}
@@ -0,0 +1,10 @@
+package com.wine.store.service.cache;
+
+/**
+ * НАЗНАЧЕНИЕ: Области кэша ответов — единица инвалидации.
+ * WINES сбрасывается при изменении вин, EVENTS — при изменении мероприятий и по TTL.
+ */
+public enum CacheRegion {
+    WINES,
+    EVENTS
+}
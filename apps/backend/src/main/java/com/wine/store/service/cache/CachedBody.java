@@ -0,0 +1,7 @@
+package com.wine.store.service.cache;
+
+/**
+ * НАЗНАЧЕНИЕ: Сериализованный ответ с сильным ETag.
+ */
+public record CachedBody(byte[] body, String contentType, String etag) {
+}
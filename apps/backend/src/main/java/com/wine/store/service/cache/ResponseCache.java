@@ -0,0 +1,118 @@
+package com.wine.store.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wine.store.config.ResponseCacheProperties;
+import com.wine.store.dto.CacheStatsDTO;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.EventsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * НАЗНАЧЕНИЕ: Кэш готовых JSON-ответов горячих эндпоинтов каталога.
+ * ЗАВИСИМОСТИ: ResponseCacheProperties.
+ * ОСОБЕННОСТИ: Хранит байты ответа и сильный ETag (SHA-256 тела) по области и ключу запроса
+ * (ResponseCacheInterceptor: путь и только те параметры, которые читает эндпоинт). Каждая область —
+ * Caffeine с вытеснением давно не использованных записей сверх maxEntries; EVENTS живет eventsTtl.
+ * Область целиком сбрасывается после коммита изменений (CatalogChangedEvent, EventsChangedEvent).
+ * Ответ, сформированный во время сброса, не сохраняется — поколение области сверяется при записи.
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    private final ResponseCacheProperties properties;
+
+    private final Map<CacheRegion, Cache<String, CachedBody>> regions = new EnumMap<>(CacheRegion.class);
+    private final Map<CacheRegion, AtomicLong> generations = new EnumMap<>(CacheRegion.class);
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.properties = properties;
+        for (CacheRegion region : CacheRegion.values()) {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    .maximumSize(Math.max(1, properties.getMaxEntries()))
+                    .recordStats();
+            if (region == CacheRegion.EVENTS && properties.getEventsTtl().isPositive()) {
+                builder.expireAfterWrite(properties.getEventsTtl());
+            }
+            regions.put(region, builder.build());
+            generations.put(region, new AtomicLong());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public CachedBody get(CacheRegion region, String key) {
+        return regions.get(region).getIfPresent(key);
+    }
+
+    public CacheStatsDTO stats(CacheRegion region) {
+        Cache<String, CachedBody> entries = regions.get(region);
+        CacheStats stats = entries.stats();
+        return CacheStatsDTO.of(stats.hitCount(), stats.missCount(), (int) entries.estimatedSize(),
+                properties.getMaxEntries(), stats.evictionCount());
+    }
+
+    /**
+     * Поколение области на момент начала обработки запроса — передается в put().
+     */
+    public long generation(CacheRegion region) {
+        return generations.get(region).get();
+    }
+
+    /**
+     * @return сохраненный ответ с ETag (даже если в кэш он не попал)
+     */
+    public CachedBody put(CacheRegion region, String key, long generation, byte[] body, String contentType) {
+        CachedBody cached = new CachedBody(body, contentType, etag(body));
+        if (generations.get(region).get() != generation) {
+            return cached;
+        }
+        Cache<String, CachedBody> entries = regions.get(region);
+        entries.put(key, cached);
+        // Сброс мог произойти между проверкой и записью
+        if (generations.get(region).get() != generation) {
+            entries.asMap().remove(key, cached);
+        }
+        return cached;
+    }
+
+    public void invalidate(CacheRegion region) {
+        generations.get(region).incrementAndGet();
+        regions.get(region).invalidateAll();
+        log.debug("Response cache region {} invalidated", region);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Любое изменение вина может затронуть featured, top-rated, список сортов и карточку
+        invalidate(CacheRegion.WINES);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventsChanged(EventsChangedEvent event) {
+        invalidate(CacheRegion.EVENTS);
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
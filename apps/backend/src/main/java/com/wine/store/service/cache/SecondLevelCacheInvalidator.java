@@ -0,0 +1,83 @@
+package com.wine.store.service.cache;
+
+import com.wine.store.model.Event;
+import com.wine.store.model.Wine;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.EventsChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+
+/**
+ * НАЗНАЧЕНИЕ: Сброс второго уровня кэша Hibernate после записей в обход Hibernate.
+ * ЗАВИСИМОСТИ: EntityManagerFactory.
+ * ОСОБЕННОСТИ: Импорт WooCommerce пишет вина и мероприятия через JdbcTemplate, и Hibernate об этом не знает.
+ * После коммита из кэша убираются измененные вина с их коллекциями, поиск по slug (slug могли переименовать)
+ * и кэш запросов (новые вина меняют featured и top-rated). Изменения через JPA Hibernate обновляет в кэше сам,
+ * лишний сброс для них безвреден. Мероприятия импорт сообщает без id — область "event" сбрасывается целиком.
+ * Срабатывает раньше остальных слушателей, чтобы индексы перечитывали уже не кэшированные данные.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SecondLevelCacheInvalidator {
+
+    private static final String WINE_TAGS = Wine.class.getName() + ".tags";
+    private static final String WINE_DISHES = Wine.class.getName() + ".recommendedDishes";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Cache cache = cache();
+        if (event.fullRefresh()) {
+            cache.evictEntityData(Wine.class);
+            cache.evictCollectionData(WINE_TAGS);
+            cache.evictCollectionData(WINE_DISHES);
+        } else {
+            for (Long wineId : event.wineIds()) {
+                cache.evictEntityData(Wine.class, wineId);
+                cache.evictCollectionData(WINE_TAGS, wineId);
+                cache.evictCollectionData(WINE_DISHES, wineId);
+            }
+        }
+        cache.evictNaturalIdData(Wine.class);
+        cache.evictQueryRegions();
+        log.debug("Second-level cache evicted for wines: {}", event.fullRefresh() ? "all" : event.wineIds());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventsChanged(EventsChangedEvent event) {
+        Cache cache = cache();
+        if (event.eventIds().isEmpty()) {
+            cache.evictEntityData(Event.class);
+        } else {
+            event.eventIds().forEach(eventId -> cache.evictEntityData(Event.class, eventId));
+        }
+        cache.evictNaturalIdData(Event.class);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Места мероприятий изменены на другом узле: его массовый UPDATE сбрасывает кэш только у себя.
+     */
+    public void evictEvents(Collection<Long> eventIds) {
+        Cache cache = cache();
+        eventIds.forEach(eventId -> cache.evictEntityData(Event.class, eventId));
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,24 @@
+package com.wine.store.service.catalog;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Событие изменения каталога вин.
+ * ОСОБЕННОСТИ: Публикуется WineService и WooCommerceSyncService внутри транзакции записи.
+ * Слушатели (индексы, кэши) обрабатывают его после коммита.
+ */
+public record CatalogChangedEvent(Set<Long> wineIds, boolean fullRefresh) {
+
+    public static CatalogChangedEvent wine(Long wineId) {
+        return new CatalogChangedEvent(Set.of(wineId), false);
+    }
+
+    public static CatalogChangedEvent wines(Collection<Long> wineIds) {
+        return new CatalogChangedEvent(Set.copyOf(wineIds), false);
+    }
+
+    public static CatalogChangedEvent full() {
+        return new CatalogChangedEvent(Set.of(), true);
+    }
+}
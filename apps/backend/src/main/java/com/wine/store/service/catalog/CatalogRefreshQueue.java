@@ -0,0 +1,104 @@
+package com.wine.store.service.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * НАЗНАЧЕНИЕ: Очередь обновления снимка каталога в фоновом потоке с объединением изменений.
+ * ОСОБЕННОСТИ: CatalogChangedEvent только копит id (или флаг полной пересборки) и планирует обработку
+ * через delay; все, что накопилось к ее началу, применяется одним вызовом. Пока идет одна обработка,
+ * следующие события копятся для следующей — импорт из многих страниц дает несколько пересборок, а не одну
+ * на страницу. Запрос полной пересборки после ошибки принимается не раньше retryDelay, чтобы недоступная БД
+ * не получала пересборку на каждый запрос.
+ */
+@Slf4j
+public final class CatalogRefreshQueue implements AutoCloseable {
+
+    /**
+     * Применение накопленных изменений; выполняется только в потоке очереди.
+     */
+    @FunctionalInterface
+    public interface Refresh {
+        void apply(boolean full, Set<Long> wineIds) throws Exception;
+    }
+
+    private final String name;
+    private final Duration delay;
+    private final Duration retryDelay;
+    private final Refresh refresh;
+    private final ScheduledExecutorService executor;
+
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingFull = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long retryAtNanos;
+
+    public CatalogRefreshQueue(String name, Duration delay, Duration retryDelay, Refresh refresh) {
+        this.name = name;
+        this.delay = delay;
+        this.retryDelay = retryDelay;
+        this.refresh = refresh;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name(name).daemon().factory());
+    }
+
+    public void submit(CatalogChangedEvent event) {
+        if (event.fullRefresh()) {
+            pendingFull.set(true);
+        } else {
+            pendingIds.addAll(event.wineIds());
+        }
+        schedule();
+    }
+
+    /**
+     * Полная пересборка без ожидания результата; после недавней ошибки игнорируется до retryDelay.
+     */
+    public void requestFull() {
+        if (System.nanoTime() - retryAtNanos < 0) {
+            return;
+        }
+        pendingFull.set(true);
+        schedule();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::drain, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        // Сбрасываем флаг до чтения: событие, пришедшее во время обработки, запланирует следующую
+        scheduled.set(false);
+        boolean full = pendingFull.getAndSet(false);
+        Set<Long> wineIds = new HashSet<>();
+        for (Iterator<Long> it = pendingIds.iterator(); it.hasNext(); ) {
+            wineIds.add(it.next());
+            it.remove();
+        }
+        if (!full && wineIds.isEmpty()) {
+            return;
+        }
+        try {
+            refresh.apply(full, wineIds);
+        } catch (Exception e) {
+            retryAtNanos = System.nanoTime() + retryDelay.toNanos();
+            log.error("{}: failed to apply catalog changes (full: {}, wines: {}): {}", name, full, wineIds.size(),
+                    e.getMessage(), e);
+        }
+    }
+}
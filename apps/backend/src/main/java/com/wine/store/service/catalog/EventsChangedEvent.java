@@ -0,0 +1,24 @@
+package com.wine.store.service.catalog;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Событие изменения мероприятий.
+ * ОСОБЕННОСТИ: Публикуется EventService и WooCommerceSyncService внутри транзакции записи.
+ * Пустой eventIds означает "изменено неизвестно что" — слушатели сбрасывают все.
+ */
+public record EventsChangedEvent(Set<Long> eventIds) {
+
+    public static EventsChangedEvent event(Long eventId) {
+        return new EventsChangedEvent(Set.of(eventId));
+    }
+
+    public static EventsChangedEvent events(Collection<Long> eventIds) {
+        return new EventsChangedEvent(Set.copyOf(eventIds));
+    }
+
+    public static EventsChangedEvent all() {
+        return new EventsChangedEvent(Set.of());
+    }
+}
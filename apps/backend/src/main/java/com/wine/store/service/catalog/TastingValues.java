@@ -0,0 +1,60 @@
+package com.wine.store.service.catalog;
+
+import com.wine.store.model.Wine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * НАЗНАЧЕНИЕ: Разбор строковых аналитических данных вина ("13,5 %", "5.6 g/l") в числа при записи.
+ * ОСОБЕННОСТИ: Берется первое число строки, запятая считается десятичным разделителем. Значения вне
+ * правдоподобного диапазона (алкоголь до 25 % об., кислотность до 20 г/л, сахар до 500 г/л) — мусор
+ * в данных, они дают null. Те же правила применяет к существующим строкам миграция 007-tasting-values.
+ */
+public final class TastingValues {
+
+    private static final Pattern NUMBER = Pattern.compile("(\\d+(?:[.,]\\d+)?)");
+    private static final int SCALE = 2;
+
+    private static final BigDecimal MAX_ALCOHOL = BigDecimal.valueOf(25);
+    private static final BigDecimal MAX_ACIDITY = BigDecimal.valueOf(20);
+    private static final BigDecimal MAX_SUGAR = BigDecimal.valueOf(500);
+
+    private TastingValues() {
+    }
+
+    /**
+     * Пересчитывает числовые колонки вина из строковых. Вызывается перед каждым сохранением через JPA.
+     */
+    public static void apply(Wine wine) {
+        wine.setAlcoholPercent(alcohol(wine.getAlcohol()));
+        wine.setAcidityGrams(acidity(wine.getAcidity()));
+        wine.setSugarGrams(sugar(wine.getSugar()));
+    }
+
+    public static BigDecimal alcohol(String value) {
+        return parse(value, MAX_ALCOHOL);
+    }
+
+    public static BigDecimal acidity(String value) {
+        return parse(value, MAX_ACIDITY);
+    }
+
+    public static BigDecimal sugar(String value) {
+        return parse(value, MAX_SUGAR);
+    }
+
+    private static BigDecimal parse(String value, BigDecimal max) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(value);
+        if (!matcher.find()) {
+            return null;
+        }
+        BigDecimal number = new BigDecimal(matcher.group(1).replace(',', '.')).setScale(SCALE, RoundingMode.HALF_UP);
+        return number.compareTo(max) <= 0 ? number : null;
+    }
+}
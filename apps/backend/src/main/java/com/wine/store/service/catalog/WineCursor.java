@@ -0,0 +1,58 @@
+package com.wine.store.service.catalog;
+
+import com.wine.store.dto.WineDTO;
+import com.wine.store.exception.AppException;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * НАЗНАЧЕНИЕ: Позиция в каталоге для keyset-пагинации — ключ сортировки и id последней отданной строки.
+ * ОСОБЕННОСТИ: Для клиента непрозрачная строка (base64url). value — цена или рейтинг,
+ * null для сортировки по id и для вин без рейтинга.
+ */
+public record WineCursor(WineKeysetOrder order, BigDecimal value, long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public static WineCursor after(WineKeysetOrder order, WineDTO last) {
+        BigDecimal value = switch (order) {
+            case PRICE_ASC, PRICE_DESC -> last.getPrice();
+            case RATING_DESC -> last.getRating() != null ? BigDecimal.valueOf(last.getRating()) : null;
+            case ID_ASC, ID_DESC -> null;
+        };
+        return new WineCursor(order, value, last.getId());
+    }
+
+    /**
+     * @throws AppException 400, если курсор поврежден или получен для другой сортировки
+     */
+    public static WineCursor decode(String encoded, WineKeysetOrder expectedOrder) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            WineCursor cursor = new WineCursor(WineKeysetOrder.valueOf(parts[0]),
+                    parts[1].isEmpty() ? null : new BigDecimal(parts[1]), Long.parseLong(parts[2]));
+            boolean byPrice = cursor.order() == WineKeysetOrder.PRICE_ASC || cursor.order() == WineKeysetOrder.PRICE_DESC;
+            if (byPrice && cursor.value() == null) {
+                throw new IllegalArgumentException("Price cursor without value");
+            }
+            if (cursor.order() != expectedOrder) {
+                throw new AppException("Cursor does not match the requested sort", HttpStatus.BAD_REQUEST);
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new AppException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public String encode() {
+        String raw = order.name() + SEPARATOR + (value != null ? value.toPlainString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
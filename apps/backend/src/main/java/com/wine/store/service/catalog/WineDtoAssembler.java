@@ -0,0 +1,63 @@
+package com.wine.store.service.catalog;
+
+import com.wine.store.dto.DishDTO;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.mapper.WineMapper;
+import com.wine.store.model.Wine;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.projection.WineDishView;
+import com.wine.store.repository.projection.WineTagView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * НАЗНАЧЕНИЕ: WineDTO для набора вин с фиксированным числом запросов.
+ * ЗАВИСИМОСТИ: WineRepository, WineMapper.
+ * ОСОБЕННОСТИ: wineMapper.toDto трогает ленивые recommendedDishes и tags и дает два SELECT на каждое вино.
+ * Здесь коллекции всего набора загружаются одним запросом на коллекцию (частями по BATCH_SIZE id,
+ * чтобы список IN оставался коротким и при полной пересборке индекса). Вызывать в транзакции,
+ * в которой загружены сущности.
+ */
+@Component
+@RequiredArgsConstructor
+public class WineDtoAssembler {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final WineRepository wineRepository;
+    private final WineMapper wineMapper;
+
+    public List<WineDTO> toDtos(List<Wine> wines) {
+        if (wines.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<String>> tags = new HashMap<>(wines.size() * 2);
+        Map<Long, List<DishDTO>> dishes = new HashMap<>(wines.size() * 2);
+        for (int from = 0; from < wines.size(); from += BATCH_SIZE) {
+            List<Long> ids = wines.subList(from, Math.min(from + BATCH_SIZE, wines.size())).stream()
+                    .map(Wine::getId)
+                    .toList();
+            for (WineTagView row : wineRepository.findTagsByWineIdIn(ids)) {
+                tags.computeIfAbsent(row.wineId(), id -> new ArrayList<>()).add(row.tag());
+            }
+            for (WineDishView row : wineRepository.findDishesByWineIdIn(ids)) {
+                dishes.computeIfAbsent(row.wineId(), id -> new ArrayList<>())
+                        .add(new DishDTO(row.dishId(), row.dishName(), row.dishCategory()));
+            }
+        }
+
+        List<WineDTO> result = new ArrayList<>(wines.size());
+        for (Wine wine : wines) {
+            WineDTO dto = wineMapper.toDtoWithoutCollections(wine);
+            dto.setTags(tags.getOrDefault(wine.getId(), new ArrayList<>()));
+            dto.setRecommendedDishes(dishes.getOrDefault(wine.getId(), new ArrayList<>()));
+            result.add(dto);
+        }
+        return result;
+    }
+}
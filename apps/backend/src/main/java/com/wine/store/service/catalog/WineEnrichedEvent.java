@@ -0,0 +1,16 @@
+package com.wine.store.service.catalog;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Событие сохранения офлайн-обогащения вин (профиль, теги сочетаний, описание).
+ * ОСОБЕННОСТИ: Публикуется WineEnrichmentJob внутри транзакции записи пакета; сами вина не менялись,
+ * поэтому кэши каталога не сбрасываются — переиндексируются только зависящие от обогащения индексы.
+ */
+public record WineEnrichedEvent(Set<Long> wineIds) {
+
+    public static WineEnrichedEvent wines(Collection<Long> wineIds) {
+        return new WineEnrichedEvent(Set.copyOf(wineIds));
+    }
+}
@@ -0,0 +1,27 @@
+package com.wine.store.service.catalog;
+
+/**
+ * НАЗНАЧЕНИЕ: Порядок обхода каталога при keyset-пагинации (GET /api/wines?cursor=).
+ * ОСОБЕННОСТИ: Каждый порядок — ключ сортировки плюс id как tiebreaker, поэтому позиция
+ * однозначно задается последней отданной строкой. Значения sort те же, что у WineService.parseSort.
+ */
+public enum WineKeysetOrder {
+    ID_ASC,      // по умолчанию
+    ID_DESC,     // newest
+    PRICE_ASC,   // price_asc, затем id по возрастанию
+    PRICE_DESC,  // price_desc, затем id по убыванию
+    RATING_DESC; // rating (без рейтинга — в конце), затем id по возрастанию
+
+    public static WineKeysetOrder of(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ID_ASC;
+        }
+        return switch (sort.toLowerCase()) {
+            case "price_asc" -> PRICE_ASC;
+            case "price_desc" -> PRICE_DESC;
+            case "newest" -> ID_DESC;
+            case "rating" -> RATING_DESC;
+            default -> ID_ASC;
+        };
+    }
+}
@@ -0,0 +1,282 @@
+package com.wine.store.service.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wine.store.config.ChangeBusProperties;
+import com.wine.store.service.booking.EventSeatInventory;
+import com.wine.store.service.booking.SeatsBookedEvent;
+import com.wine.store.service.cache.SecondLevelCacheInvalidator;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.EventsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * НАЗНАЧЕНИЕ: Шина изменений между узлами через PostgreSQL LISTEN/NOTIFY.
+ * ЗАВИСИМОСТИ: DataSource (соединение слушателя), JdbcTemplate (NOTIFY), EventSeatInventory,
+ * SecondLevelCacheInvalidator.
+ * ОСОБЕННОСТИ: Кэши узла сбрасываются по CatalogChangedEvent / EventsChangedEvent, но только на том узле,
+ * где прошла запись. Шина собирает эти события и SeatsBookedEvent за транзакцию и перед коммитом отправляет
+ * один pg_notify: PostgreSQL доставляет его только после коммита и в порядке коммитов. Другие узлы
+ * публикуют у себя те же события (без транзакции — слушатели с fallbackExecution срабатывают сразу),
+ * а booked_spots применяют к счетчикам мест как максимум — счетчик, засеянный из БД уже после чужого коммита,
+ * не учитывает те же места второй раз. Свои уведомления отбрасываются по id узла.
+ * Слушатель держит одно соединение пула. Пока соединения нет, уведомления теряются, поэтому после
+ * переподключения узел сбрасывает каталог и мероприятия, а счетчики мест перечитывают booked_spots
+ * (резервы и очередь записи узла при этом сохраняются).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.change-bus", name = "enabled", havingValue = "true")
+@Slf4j
+public class ChangeBus {
+
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    // Лимит полезной нагрузки NOTIFY — 8000 байт
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final ChangeBusProperties properties;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventSeatInventory seatInventory;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+    private final Counter sent;
+    private final Counter received;
+    private final Counter reconnects;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private Thread listener;
+
+    public ChangeBus(ChangeBusProperties properties, DataSource dataSource, JdbcTemplate jdbcTemplate,
+                     ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                     EventSeatInventory seatInventory, SecondLevelCacheInvalidator secondLevelCacheInvalidator,
+                     MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.seatInventory = seatInventory;
+        this.secondLevelCacheInvalidator = secondLevelCacheInvalidator;
+        this.sent = notifications(meterRegistry, "sent");
+        this.received = notifications(meterRegistry, "received");
+        this.reconnects = Counter.builder("change.bus.reconnects")
+                .description("Change bus listener connection failures")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!CHANNEL.matcher(properties.getChannel()).matches()) {
+            throw new IllegalStateException("app.change-bus.channel must be a lowercase SQL identifier: "
+                    + properties.getChannel());
+        }
+        running = true;
+        listener = Thread.ofVirtual().name("change-bus-listener").start(this::listenLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listener.join(properties.getHeartbeat().plusSeconds(1).toMillis());
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        collect(changes -> changes.add(event));
+    }
+
+    @EventListener
+    public void onEventsChanged(EventsChangedEvent event) {
+        collect(changes -> changes.add(event));
+    }
+
+    @EventListener
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        collect(changes -> changes.add(event));
+    }
+
+    /**
+     * В транзакции изменения копятся до beforeCommit, без транзакции отправляются сразу.
+     * События, которые шина сама публикует из потока слушателя, обратно не рассылаются.
+     */
+    private void collect(Consumer<PendingChanges> change) {
+        if (Thread.currentThread() == listener) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges changes = new PendingChanges();
+            change.accept(changes);
+            send(changes);
+            return;
+        }
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            PendingChanges pending = new PendingChanges();
+            changes = pending;
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeBus.this);
+                }
+            });
+        }
+        change.accept(changes);
+    }
+
+    /**
+     * Выполняется в соединении текущей транзакции: откат транзакции отменяет и уведомление.
+     */
+    private void send(PendingChanges changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        ChangeNotification notification = changes.toNotification(nodeId, properties.getMaxIds());
+        String payload = toJson(notification);
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            payload = toJson(notification.coarse());
+        }
+        String body = payload;
+        jdbcTemplate.execute(NOTIFY, (PreparedStatementCallback<Boolean>) statement -> {
+            statement.setString(1, properties.getChannel());
+            statement.setString(2, body);
+            return statement.execute();
+        });
+        sent.increment();
+    }
+
+    private void listenLoop() {
+        boolean listenedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (listenedBefore) {
+                    log.warn("Change bus reconnected, notifications may have been missed: refreshing all caches");
+                    refreshAll();
+                }
+                listenedBefore = true;
+                log.info("Change bus listening on channel {} as node {}", properties.getChannel(), nodeId);
+
+                int timeoutMillis = (int) properties.getHeartbeat().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+                    if (notifications == null || notifications.length == 0) {
+                        // Оборванное TCP-соединение без трафика не дает ошибки — проверяем его сами
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                reconnects.increment();
+                log.warn("Change bus listener lost its connection, retrying in {}: {}", properties.getReconnectDelay(),
+                        e.getMessage());
+                try {
+                    Thread.sleep(properties.getReconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        ChangeNotification notification;
+        try {
+            notification = objectMapper.readValue(payload, ChangeNotification.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed change notification: {}", payload);
+            return;
+        }
+        if (nodeId.equals(notification.node())) {
+            return;
+        }
+        received.increment();
+        try {
+            apply(notification);
+        } catch (RuntimeException e) {
+            // Ошибка одного слушателя не должна останавливать прием уведомлений
+            log.error("Failed to apply change notification {}: {}", payload, e.getMessage(), e);
+        }
+    }
+
+    private void apply(ChangeNotification notification) {
+        if (notification.allWines()) {
+            eventPublisher.publishEvent(CatalogChangedEvent.full());
+        } else if (!notification.wines().isEmpty()) {
+            eventPublisher.publishEvent(CatalogChangedEvent.wines(notification.wines()));
+        }
+
+        if (notification.allEvents()) {
+            eventPublisher.publishEvent(EventsChangedEvent.all());
+        } else if (!notification.events().isEmpty()) {
+            eventPublisher.publishEvent(EventsChangedEvent.events(notification.events()));
+        }
+        if (!notification.seats().isEmpty()) {
+            secondLevelCacheInvalidator.evictEvents(notification.seats().keySet());
+            notification.seats().forEach(seatInventory::onBookedElsewhere);
+        }
+    }
+
+    private void refreshAll() {
+        eventPublisher.publishEvent(CatalogChangedEvent.full());
+        eventPublisher.publishEvent(EventsChangedEvent.all());
+    }
+
+    private String toJson(ChangeNotification notification) {
+        try {
+            return objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change notification", e);
+        }
+    }
+
+    private static Counter notifications(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("change.bus.notifications")
+                .description("Cross-node change notifications")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.wine.store.service.cluster;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Изменения одной транзакции — полезная нагрузка NOTIFY для других узлов.
+ * ОСОБЕННОСТИ: JSON без значений по умолчанию, например {"node":"...","wines":[12,15],"seats":{"7":2}}.
+ * allWines / allEvents — "изменено неизвестно что" (импорт мероприятий, слишком много id).
+ * seats — booked_spots мероприятия после коммита (абсолютное значение, повтор не меняет счетчик).
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ChangeNotification(
+        String node,
+        Set<Long> wines,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean allWines,
+        Set<Long> events,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean allEvents,
+        Map<Long, Integer> seats) {
+
+    public ChangeNotification {
+        wines = wines != null ? wines : Set.of();
+        events = events != null ? events : Set.of();
+        seats = seats != null ? seats : Map.of();
+    }
+
+    /**
+     * То же изменение без списков id — для полезной нагрузки, не помещающейся в лимит NOTIFY.
+     */
+    public ChangeNotification coarse() {
+        boolean eventsChanged = allEvents || !events.isEmpty() || !seats.isEmpty();
+        return new ChangeNotification(node, Set.of(), allWines || !wines.isEmpty(), Set.of(), eventsChanged, Map.of());
+    }
+}
@@ -0,0 +1,60 @@
+package com.wine.store.service.cluster;
+
+import com.wine.store.service.booking.SeatsBookedEvent;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.EventsChangedEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Изменения, накопленные за одну транзакцию, до отправки одним NOTIFY.
+ * ОСОБЕННОСТИ: Принадлежит одной транзакции (одному потоку), поэтому без синхронизации.
+ */
+final class PendingChanges {
+
+    private final Set<Long> wines = new HashSet<>();
+    private boolean allWines;
+    private final Set<Long> events = new HashSet<>();
+    private boolean allEvents;
+    private final Map<Long, Integer> seats = new HashMap<>();
+
+    void add(CatalogChangedEvent event) {
+        if (event.fullRefresh()) {
+            allWines = true;
+        } else {
+            wines.addAll(event.wineIds());
+        }
+    }
+
+    void add(EventsChangedEvent event) {
+        if (event.eventIds().isEmpty()) {
+            allEvents = true;
+        } else {
+            events.addAll(event.eventIds());
+        }
+    }
+
+    void add(SeatsBookedEvent event) {
+        // booked_spots только растет: последнее значение в транзакции — наибольшее
+        event.bookedSpots().forEach((eventId, booked) -> seats.merge(eventId, booked, Math::max));
+    }
+
+    boolean isEmpty() {
+        return !allWines && wines.isEmpty() && !allEvents && events.isEmpty() && seats.isEmpty();
+    }
+
+    /**
+     * Больше maxIds id одной сущности заменяются флагом "изменено все" (для мероприятий — вместе с местами).
+     */
+    ChangeNotification toNotification(String node, int maxIds) {
+        boolean everyWine = allWines || wines.size() > maxIds;
+        boolean everyEvent = allEvents || events.size() > maxIds || seats.size() > maxIds;
+        return new ChangeNotification(node,
+                everyWine ? Set.of() : Set.copyOf(wines), everyWine,
+                everyEvent ? Set.of() : Set.copyOf(events), everyEvent,
+                everyEvent ? Map.of() : Map.copyOf(seats));
+    }
+}
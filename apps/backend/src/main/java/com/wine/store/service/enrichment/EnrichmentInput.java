@@ -0,0 +1,15 @@
+package com.wine.store.service.enrichment;
+
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Данные вина, которые видит модель обогащения.
+ * ОСОБЕННОСТИ: Из них же считается sourceHash — изменение любого поля ведет к повторному обогащению.
+ */
+public record EnrichmentInput(Long wineId, String name, WineType type, WineFlavor flavor, String grapeVariety,
+                              String alcohol, String acidity, String sugar, String description, List<String> tags,
+                              List<String> dishes) {
+}
@@ -0,0 +1,12 @@
+package com.wine.store.service.enrichment;
+
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Ответ модели обогащения по одному вину.
+ * ОСОБЕННОСТИ: Профиль — по шкале 1-5; значения вне шкалы и пустые списки допускаются и нормализуются
+ * при сохранении (WineEnrichmentJob).
+ */
+public record EnrichmentResult(Long wineId, Integer body, Integer acidity, Integer sweetness, Integer tannin,
+                               List<String> aromas, List<String> pairingTags, String blurb) {
+}
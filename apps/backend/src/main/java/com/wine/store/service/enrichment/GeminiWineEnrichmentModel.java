@@ -0,0 +1,86 @@
+package com.wine.store.service.enrichment;
+
+import com.wine.store.service.llm.LlmLane;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Обогащение вин через LLM (Spring AI ChatClient).
+ * ЗАВИСИМОСТИ: ChatClient, LlmLane "enrichment" (отдельная от запросов пользователей полоса).
+ * ОСОБЕННОСТИ: Один запрос — пакет вин, ответ разбирается в List<EnrichmentResult>.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.enrichment", name = "model", havingValue = "gemini", matchIfMissing = true)
+@Slf4j
+public class GeminiWineEnrichmentModel implements WineEnrichmentModel {
+
+    private static final String PROMPT = """
+            You are an expert sommelier preparing catalog data for a wine shop in Germany.
+            For every wine below produce:
+            - body, acidity, sweetness and tannin on a scale from 1 (lowest) to 5 (highest)
+            - up to 5 aromas (short English words)
+            - up to 8 pairing tags: short lowercase English dish or ingredient names that pair well
+            - a blurb of at most 2 sentences (max 250 characters) a sommelier would say to a customer
+            Use the wineId exactly as given. Do not invent wines.
+
+            WINES:
+            {wines}
+            """;
+
+    private final LlmLane llmLane;
+    private final ChatClient chatClient;
+
+    public GeminiWineEnrichmentModel(@Qualifier("enrichmentLlmLane") LlmLane llmLane,
+            ChatClient.Builder chatClientBuilder) {
+        this.llmLane = llmLane;
+        this.chatClient = chatClientBuilder.build();
+    }
+
+    @Override
+    public String name() {
+        return "gemini";
+    }
+
+    @Override
+    public List<EnrichmentResult> enrich(List<EnrichmentInput> wines) {
+        String context = String.join("\n", wines.stream().map(GeminiWineEnrichmentModel::line).toList());
+        List<EnrichmentResult> results = llmLane.call(() -> chatClient.prompt()
+                .user(u -> u.text(PROMPT).param("wines", context))
+                .call()
+                .entity(new ParameterizedTypeReference<List<EnrichmentResult>>() {
+                }));
+        return results != null ? results : List.of();
+    }
+
+    private static String line(EnrichmentInput wine) {
+        StringBuilder line = new StringBuilder(256)
+                .append("wineId: ").append(wine.wineId())
+                .append(", Name: ").append(wine.name())
+                .append(", Type: ").append(wine.type());
+        append(line, "Flavor", wine.flavor());
+        append(line, "Grape", wine.grapeVariety());
+        append(line, "Alcohol", wine.alcohol());
+        append(line, "Acidity", wine.acidity());
+        append(line, "Sugar", wine.sugar());
+        if (!wine.tags().isEmpty()) {
+            line.append(", Tags: ").append(wine.tags());
+        }
+        if (!wine.dishes().isEmpty()) {
+            line.append(", Known pairings: ").append(wine.dishes());
+        }
+        append(line, "Description", wine.description());
+        return line.toString();
+    }
+
+    private static void append(StringBuilder line, String label, Object value) {
+        if (value != null && !value.toString().isBlank()) {
+            line.append(", ").append(label).append(": ").append(value);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.wine.store.service.enrichment;
+
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * НАЗНАЧЕНИЕ: Детерминированная заглушка модели обогащения — без сети и без LLM.
+ * ОСОБЕННОСТИ: Профиль выводится из типа, вкуса и аналитики (алкоголь, кислотность, сахар), ароматы —
+ * из ключевых слов описания, теги — из рекомендованных блюд и классических сочетаний типа вина.
+ * Один и тот же вход всегда дает один и тот же результат, поэтому заглушка подходит для тестов и бенчмарков
+ * конвейера обогащения. Включается app.enrichment.model=local.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.enrichment", name = "model", havingValue = "local")
+public class LocalWineEnrichmentModel implements WineEnrichmentModel {
+
+    private static final Pattern NUMBER = Pattern.compile("(\\d+(?:[.,]\\d+)?)");
+    private static final int MAX_AROMAS = 5;
+    private static final int MAX_TAGS = 8;
+
+    // Корень слова в описании (немецкий или английский) → аромат
+    private static final Map<String, String> AROMA_KEYWORDS = new LinkedHashMap<>();
+
+    static {
+        AROMA_KEYWORDS.put("kirsch", "cherry");
+        AROMA_KEYWORDS.put("cherry", "cherry");
+        AROMA_KEYWORDS.put("brombeer", "blackberry");
+        AROMA_KEYWORDS.put("himbeer", "raspberry");
+        AROMA_KEYWORDS.put("erdbeer", "strawberry");
+        AROMA_KEYWORDS.put("johannisbeer", "currant");
+        AROMA_KEYWORDS.put("pflaume", "plum");
+        AROMA_KEYWORDS.put("zitr", "citrus");
+        AROMA_KEYWORDS.put("citrus", "citrus");
+        AROMA_KEYWORDS.put("grapefruit", "grapefruit");
+        AROMA_KEYWORDS.put("apfel", "apple");
+        AROMA_KEYWORDS.put("apple", "apple");
+        AROMA_KEYWORDS.put("birne", "pear");
+        AROMA_KEYWORDS.put("pfirsich", "peach");
+        AROMA_KEYWORDS.put("aprikose", "apricot");
+        AROMA_KEYWORDS.put("honig", "honey");
+        AROMA_KEYWORDS.put("vanill", "vanilla");
+        AROMA_KEYWORDS.put("pfeffer", "pepper");
+        AROMA_KEYWORDS.put("barrique", "oak");
+        AROMA_KEYWORDS.put("holz", "oak");
+        AROMA_KEYWORDS.put("mineral", "mineral");
+        AROMA_KEYWORDS.put("blüte", "floral");
+        AROMA_KEYWORDS.put("blumig", "floral");
+        AROMA_KEYWORDS.put("kräuter", "herbs");
+    }
+
+    private static final Map<WineType, List<String>> TYPE_PAIRINGS = Map.of(
+            WineType.RED, List.of("steak", "lamb", "game", "hard cheese"),
+            WineType.WHITE, List.of("fish", "poultry", "asparagus", "salad"),
+            WineType.ROSE, List.of("antipasti", "grilled vegetables", "salad"),
+            WineType.SPARKLING, List.of("aperitif", "oysters", "canapes"),
+            WineType.ALCOHOL_FREE, List.of("salad", "light snacks"));
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public List<EnrichmentResult> enrich(List<EnrichmentInput> wines) {
+        return wines.stream().map(LocalWineEnrichmentModel::enrich).toList();
+    }
+
+    private static EnrichmentResult enrich(EnrichmentInput wine) {
+        int body = body(wine);
+        int acidity = acidity(wine);
+        int sweetness = sweetness(wine);
+        int tannin = wine.type() == WineType.RED ? Math.min(5, body) : 1;
+        List<String> aromas = aromas(wine.description());
+        List<String> tags = pairingTags(wine, sweetness);
+        return new EnrichmentResult(wine.wineId(), body, acidity, sweetness, tannin, aromas, tags,
+                blurb(wine, body, aromas, tags));
+    }
+
+    private static int body(EnrichmentInput wine) {
+        int body = wine.type() == WineType.RED ? 4 : wine.type() == WineType.ALCOHOL_FREE ? 1 : 2;
+        Double alcohol = number(wine.alcohol());
+        if (alcohol != null && alcohol >= 13.5) {
+            body++;
+        } else if (alcohol != null && alcohol < 11.5) {
+            body--;
+        }
+        return clamp(body);
+    }
+
+    private static int acidity(EnrichmentInput wine) {
+        Double grams = number(wine.acidity());
+        if (grams == null) {
+            return wine.type() == WineType.WHITE || wine.type() == WineType.SPARKLING ? 4 : 3;
+        }
+        return grams < 5 ? 2 : grams < 6.5 ? 3 : grams < 8 ? 4 : 5;
+    }
+
+    private static int sweetness(EnrichmentInput wine) {
+        Double sugar = number(wine.sugar());
+        if (sugar != null) {
+            return sugar < 4 ? 1 : sugar < 12 ? 2 : sugar < 25 ? 3 : sugar < 45 ? 4 : 5;
+        }
+        WineFlavor flavor = wine.flavor();
+        if (flavor == null) {
+            return 1;
+        }
+        return switch (flavor) {
+            case TROCKEN, BRUT -> 1;
+            case HALBTROCKEN -> 2;
+            case FEINHERB, FRUCHTIG -> 3;
+            case LIEBLICH, MILD -> 4;
+        };
+    }
+
+    private static List<String> aromas(String description) {
+        if (description == null) {
+            return List.of();
+        }
+        String text = description.toLowerCase(Locale.ROOT);
+        Set<String> aromas = new LinkedHashSet<>();
+        AROMA_KEYWORDS.forEach((stem, aroma) -> {
+            if (aromas.size() < MAX_AROMAS && text.contains(stem)) {
+                aromas.add(aroma);
+            }
+        });
+        return List.copyOf(aromas);
+    }
+
+    private static List<String> pairingTags(EnrichmentInput wine, int sweetness) {
+        Set<String> tags = new LinkedHashSet<>();
+        wine.dishes().forEach(dish -> tags.add(dish.toLowerCase(Locale.ROOT)));
+        if (sweetness >= 4) {
+            tags.add("dessert");
+            tags.add("blue cheese");
+        }
+        tags.addAll(TYPE_PAIRINGS.getOrDefault(wine.type(), List.of()));
+        return new ArrayList<>(tags).subList(0, Math.min(MAX_TAGS, tags.size()));
+    }
+
+    private static String blurb(EnrichmentInput wine, int body, List<String> aromas, List<String> tags) {
+        StringBuilder blurb = new StringBuilder(200)
+                .append(body >= 4 ? "Full-bodied" : body >= 3 ? "Medium-bodied" : "Light")
+                .append(' ').append(wine.type() != null ? wine.type().name().toLowerCase(Locale.ROOT).replace('_', ' ') : "wine");
+        if (wine.grapeVariety() != null) {
+            blurb.append(" from ").append(wine.grapeVariety());
+        }
+        if (!aromas.isEmpty()) {
+            blurb.append(" with notes of ").append(String.join(", ", aromas));
+        }
+        blurb.append('.');
+        if (!tags.isEmpty()) {
+            blurb.append(" Great with ").append(String.join(" or ", tags.subList(0, Math.min(2, tags.size())))).append('.');
+        }
+        return blurb.toString();
+    }
+
+    private static Double number(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(value);
+        return matcher.find() ? Double.parseDouble(matcher.group(1).replace(',', '.')) : null;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(1, Math.min(5, value));
+    }
+}
@@ -0,0 +1,363 @@
+package com.wine.store.service.enrichment;
+
+import com.wine.store.config.EnrichmentProperties;
+import com.wine.store.dto.EnrichmentJobDTO;
+import com.wine.store.exception.AppException;
+import com.wine.store.exception.ResourceNotFoundException;
+import com.wine.store.model.SyncJobStatus;
+import com.wine.store.model.SyncTrigger;
+import com.wine.store.model.Wine;
+import com.wine.store.model.WineEnrichment;
+import com.wine.store.repository.WineEnrichmentRepository;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.projection.EnrichmentHashView;
+import com.wine.store.repository.projection.WineDishView;
+import com.wine.store.repository.projection.WineTagView;
+import com.wine.store.service.catalog.WineEnrichedEvent;
+import com.wine.store.service.metrics.QueryInspector;
+import com.wine.store.service.metrics.RequestQueryStats;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Фоновое офлайн-обогащение каталога моделью (WineEnrichmentModel).
+ * ЗАВИСИМОСТИ: WineRepository, WineEnrichmentRepository, WineEnrichmentModel, EnrichmentProperties.
+ * ОСОБЕННОСТИ: Вина читаются страницами по id; обогащаются только те, у которых хеш входных данных
+ * (sourceHash) не совпадает с сохраненным. Каждый пакет сохраняется своей транзакцией, поэтому прерванный
+ * прогон продолжается со следующего запуска без повторной работы. Запросы к модели ограничены по частоте
+ * (requestsPerMinute) и идут через полосу LLM "enrichment"; несколько неудачных пакетов подряд прерывают прогон.
+ * Одновременно выполняется не более одного прогона.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WineEnrichmentJob {
+
+    // Увеличивается при изменении промпта или формата результата — все вина обогащаются заново
+    private static final int ENRICHMENT_VERSION = 1;
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_TEXT = 500;
+
+    private final WineRepository wineRepository;
+    private final WineEnrichmentRepository enrichmentRepository;
+    private final WineEnrichmentModel model;
+    private final EnrichmentProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QueryInspector queryInspector;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+    private volatile Progress progress;
+
+    /**
+     * Счетчики текущего (или последнего) прогона; пишет только поток прогона.
+     */
+    private static final class Progress {
+        final SyncTrigger trigger;
+        final String model;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile LocalDateTime finishedAt;
+        volatile SyncJobStatus status = SyncJobStatus.RUNNING;
+        volatile int scanned;
+        volatile int unchanged;
+        volatile int enriched;
+        volatile int failed;
+        volatile int modelCalls;
+        volatile String errorMessage;
+        volatile long lastScannedId;
+
+        Progress(SyncTrigger trigger, String model) {
+            this.trigger = trigger;
+            this.model = model;
+        }
+
+        EnrichmentJobDTO toDto() {
+            return new EnrichmentJobDTO(status, trigger, model, startedAt, finishedAt, scanned, unchanged, enriched,
+                    failed, modelCalls, errorMessage);
+        }
+    }
+
+    private record PendingWine(EnrichmentInput input, String sourceHash) {
+    }
+
+    /**
+     * Запускает прогон в фоне и сразу возвращает его состояние.
+     *
+     * @throws AppException 409, если прогон уже выполняется
+     */
+    public EnrichmentJobDTO start(SyncTrigger trigger) {
+        if (!running.compareAndSet(false, true)) {
+            throw new AppException("Обогащение каталога уже выполняется", HttpStatus.CONFLICT);
+        }
+        Progress started = new Progress(trigger, model.name());
+        progress = started;
+        try {
+            Thread.ofVirtual().name("wine-enrichment").start(() -> execute(started));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        log.info("Wine enrichment started ({}, model: {})", trigger, model.name());
+        return started.toDto();
+    }
+
+    /**
+     * @throws ResourceNotFoundException если обогащение не запускалось после старта приложения
+     */
+    public EnrichmentJobDTO status() {
+        Progress current = progress;
+        if (current == null) {
+            throw new ResourceNotFoundException("Wine enrichment has not run since startup");
+        }
+        return current.toDto();
+    }
+
+    @Scheduled(cron = "${app.enrichment.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!properties.isScheduled()) {
+            return;
+        }
+        try {
+            start(SyncTrigger.SCHEDULED);
+        } catch (AppException e) {
+            log.info("Skipping scheduled wine enrichment: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        // Текущий пакет дописывается, следующий не начинается; остаток подхватит следующий прогон
+        stopping = true;
+    }
+
+    private void execute(Progress current) {
+        RequestQueryStats.begin("job:wine-enrichment");
+        try {
+            run(current);
+            current.status = stopping ? SyncJobStatus.FAILED : SyncJobStatus.SUCCEEDED;
+            if (stopping) {
+                current.errorMessage = "Прервано остановкой приложения";
+            }
+        } catch (Exception e) {
+            log.error("Wine enrichment failed: {}", e.getMessage(), e);
+            current.status = SyncJobStatus.FAILED;
+            current.errorMessage = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            queryInspector.inspect(RequestQueryStats.end());
+            current.finishedAt = LocalDateTime.now();
+            running.set(false);
+            log.info("Wine enrichment finished: {} (scanned {}, unchanged {}, enriched {}, failed {}, model calls {})",
+                    current.status, current.scanned, current.unchanged, current.enriched, current.failed,
+                    current.modelCalls);
+        }
+    }
+
+    private void run(Progress current) throws InterruptedException {
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, properties.getRequestsPerMinute());
+        long nextCallAt = System.nanoTime();
+        int consecutiveFailures = 0;
+        long lastId = 0;
+
+        while (!stopping) {
+            long afterId = lastId;
+            List<PendingWine> page = readOnly(() -> pendingAfter(afterId, current));
+            if (page == null) {
+                break;
+            }
+            lastId = current.lastScannedId;
+            int batchSize = Math.max(1, properties.getBatchSize());
+            for (int from = 0; from < page.size() && !stopping; from += batchSize) {
+                List<PendingWine> batch = page.subList(from, Math.min(page.size(), from + batchSize));
+
+                long wait = nextCallAt - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                nextCallAt = System.nanoTime() + intervalNanos;
+
+                List<EnrichmentResult> results;
+                try {
+                    current.modelCalls++;
+                    results = model.enrich(batch.stream().map(PendingWine::input).toList());
+                } catch (Exception e) {
+                    current.failed += batch.size();
+                    log.warn("Enrichment batch of {} wine(s) failed: {}", batch.size(), e.getMessage());
+                    if (++consecutiveFailures >= properties.getMaxConsecutiveFailures()) {
+                        throw new IllegalStateException("Enrichment aborted after " + consecutiveFailures
+                                + " failed batches in a row: " + e.getMessage(), e);
+                    }
+                    continue;
+                }
+                consecutiveFailures = 0;
+                int saved = save(batch, results);
+                current.enriched += saved;
+                current.failed += batch.size() - saved;
+            }
+        }
+    }
+
+    /**
+     * Следующая страница вин после afterId, которым нужно обогащение.
+     *
+     * @return null, если вина закончились
+     */
+    private List<PendingWine> pendingAfter(long afterId, Progress current) {
+        Specification<Wine> afterLastId = (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+        List<Wine> wines = wineRepository.findBy(afterLastId, q -> q.sortBy(Sort.by("id")).limit(PAGE_SIZE).all());
+        if (wines.isEmpty()) {
+            return null;
+        }
+        current.lastScannedId = wines.get(wines.size() - 1).getId();
+        current.scanned += wines.size();
+
+        List<Long> ids = wines.stream().map(Wine::getId).toList();
+        Map<Long, String> stored = enrichmentRepository.findSourceHashes(ids)
+                .stream()
+                .collect(Collectors.toMap(EnrichmentHashView::getWineId, EnrichmentHashView::getSourceHash));
+        // Теги и блюда страницы — двумя запросами, а не ленивой загрузкой у каждого вина
+        Map<Long, List<String>> tags = wineRepository.findTagsByWineIdIn(ids).stream()
+                .filter(row -> row.tag() != null)
+                .collect(Collectors.groupingBy(WineTagView::wineId,
+                        Collectors.mapping(WineTagView::tag, Collectors.toList())));
+        Map<Long, List<String>> dishes = wineRepository.findDishesByWineIdIn(ids).stream()
+                .filter(row -> row.dishName() != null)
+                .collect(Collectors.groupingBy(WineDishView::wineId,
+                        Collectors.mapping(WineDishView::dishName, Collectors.toList())));
+        List<PendingWine> pending = new ArrayList<>();
+        for (Wine wine : wines) {
+            EnrichmentInput input = input(wine, tags.getOrDefault(wine.getId(), List.of()),
+                    dishes.getOrDefault(wine.getId(), List.of()));
+            String hash = sourceHash(input);
+            if (hash.equals(stored.get(wine.getId()))) {
+                current.unchanged++;
+            } else {
+                pending.add(new PendingWine(input, hash));
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * @return сколько вин пакета сохранено (модель могла вернуть не все)
+     */
+    private int save(List<PendingWine> batch, List<EnrichmentResult> results) {
+        Map<Long, EnrichmentResult> byWine = results.stream()
+                .filter(result -> result != null && result.wineId() != null)
+                .collect(Collectors.toMap(EnrichmentResult::wineId, Function.identity(), (first, second) -> first));
+        LocalDateTime now = LocalDateTime.now();
+        List<WineEnrichment> enrichments = batch.stream()
+                .map(pending -> {
+                    EnrichmentResult result = byWine.get(pending.input().wineId());
+                    return result != null ? toEntity(pending, result, now) : null;
+                })
+                .filter(Objects::nonNull)
+                .toList();
+        if (enrichments.isEmpty()) {
+            return 0;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            enrichmentRepository.saveAll(enrichments);
+            eventPublisher.publishEvent(WineEnrichedEvent.wines(enrichments.stream().map(WineEnrichment::getWineId).toList()));
+        });
+        return enrichments.size();
+    }
+
+    private WineEnrichment toEntity(PendingWine pending, EnrichmentResult result, LocalDateTime now) {
+        return WineEnrichment.builder()
+                .wineId(pending.input().wineId())
+                .sourceHash(pending.sourceHash())
+                .model(model.name())
+                .body(scale(result.body()))
+                .acidity(scale(result.acidity()))
+                .sweetness(scale(result.sweetness()))
+                .tannin(scale(result.tannin()))
+                .aromas(join(result.aromas()))
+                .pairingTags(join(result.pairingTags()))
+                .blurb(truncate(result.blurb()))
+                .enrichedAt(now)
+                .build();
+    }
+
+    /**
+     * Коллекции сортируются: порядок строк запроса не задан, а от него зависит sourceHash.
+     */
+    private EnrichmentInput input(Wine wine, List<String> tags, List<String> dishes) {
+        String description = wine.getDescription();
+        if (description != null && description.length() > properties.getDescriptionChars()) {
+            description = description.substring(0, properties.getDescriptionChars());
+        }
+        return new EnrichmentInput(wine.getId(), wine.getName(), wine.getType(), wine.getFlavor(),
+                wine.getGrapeVariety(), wine.getAlcohol(), wine.getAcidity(), wine.getSugar(), description,
+                tags.stream().sorted().toList(), dishes.stream().sorted().toList());
+    }
+
+    private String sourceHash(EnrichmentInput input) {
+        String source = String.join("\u001f", model.name(), String.valueOf(ENRICHMENT_VERSION),
+                String.valueOf(input.name()), String.valueOf(input.type()), String.valueOf(input.flavor()),
+                String.valueOf(input.grapeVariety()), String.valueOf(input.alcohol()), String.valueOf(input.acidity()),
+                String.valueOf(input.sugar()), String.valueOf(input.description()), String.join(",", input.tags()),
+                String.join(",", input.dishes()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private <T> T readOnly(Supplier<T> action) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> action.get());
+    }
+
+    private static Integer scale(Integer value) {
+        return value != null ? Math.max(1, Math.min(5, value)) : null;
+    }
+
+    private static String join(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        // Запятая — разделитель в хранении, внутри значения она недопустима
+        return truncate(values.stream()
+                .filter(Objects::nonNull)
+                .map(value -> value.replace(',', ' ').trim())
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .collect(Collectors.joining(", ")));
+    }
+
+    private static String truncate(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.length() > MAX_TEXT ? trimmed.substring(0, MAX_TEXT) : trimmed;
+    }
+}
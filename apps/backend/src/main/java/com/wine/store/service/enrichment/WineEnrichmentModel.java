@@ -0,0 +1,21 @@
+package com.wine.store.service.enrichment;
+
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Модель, которая обогащает вина профилем, тегами сочетаний и описанием сомелье.
+ * ОСОБЕННОСТИ: Реализация выбирается свойством app.enrichment.model: gemini (LLM) или local
+ * (детерминированная заглушка без сети — для тестов и бенчмарков).
+ */
+public interface WineEnrichmentModel {
+
+    /**
+     * Имя модели, сохраняется вместе с результатом и входит в sourceHash.
+     */
+    String name();
+
+    /**
+     * @return результаты по винам пакета; вина, для которых модель ничего не вернула, в списке отсутствуют
+     */
+    List<EnrichmentResult> enrich(List<EnrichmentInput> wines);
+}
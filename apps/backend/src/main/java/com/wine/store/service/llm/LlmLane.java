@@ -0,0 +1,266 @@
+package com.wine.store.service.llm;
+
+import com.wine.store.config.LlmProperties;
+import com.wine.store.dto.LlmLaneStatsDTO;
+import com.wine.store.exception.AppException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * НАЗНАЧЕНИЕ: Изолированная полоса выполнения вызовов LLM (bulkhead) с адаптивным лимитом.
+ * ЗАВИСИМОСТИ: LlmProperties.Lane.
+ * ОСОБЕННОСТИ: Одновременно выполняется не больше limit вызовов, еще maxQueue ждут не дольше queueTimeout;
+ * остальные сразу получают отказ (503), и вызывающий отвечает упрощенно, не занимая поток Tomcat.
+ * Вызов выполняется в виртуальном потоке: вызывающий ждет не дольше callTimeout (504), а слот освобождается,
+ * только когда вызов действительно завершился — зависшие запросы к провайдеру тоже считаются в лимите.
+ * Лимит адаптируется по AIMD: быстрый успешный вызов увеличивает его на 1/limit, медленный — уменьшает
+ * на 10%, тайм-аут или ошибка — на 25%. Задержка каждого вызова (без ожидания в очереди) пишется
+ * в таймер llm.requests с тегами lane и outcome.
+ */
+@Slf4j
+public final class LlmLane implements AutoCloseable {
+
+    private static final double SLOW_DECREASE = 0.9;
+    private static final double FAILURE_DECREASE = 0.75;
+    // Вес нового замера в скользящем среднем задержки
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    /**
+     * Итог вызова для адаптации лимита.
+     */
+    public enum Outcome {
+        SUCCESS, TIMEOUT, FAILURE
+    }
+
+    private final String name;
+    private final LlmProperties.Lane settings;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double averageLatencyMs;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+    private final Map<Outcome, Timer> latency = new EnumMap<>(Outcome.class);
+
+    public LlmLane(String name, LlmProperties.Lane settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.limit = Math.clamp(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit());
+        for (Outcome outcome : Outcome.values()) {
+            latency.put(outcome, Timer.builder("llm.requests")
+                    .description("LLM call latency per lane, excluding time queued for a slot")
+                    .tag("lane", name)
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Duration callTimeout() {
+        return settings.getCallTimeout();
+    }
+
+    /**
+     * Выполняет блокирующий вызов LLM в полосе с крайним сроком callTimeout.
+     *
+     * @throws AppException 503, если полоса перегружена; 504, если вызов не уложился в срок
+     */
+    public <T> T call(Supplier<T> call) {
+        Permit permit = acquire();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    T result = call.get();
+                    permit.release(Outcome.SUCCESS);
+                    return result;
+                } catch (RuntimeException | Error e) {
+                    permit.release(Outcome.FAILURE);
+                    throw e;
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.release(Outcome.FAILURE);
+            throw e;
+        }
+        try {
+            return future.get(settings.getCallTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            permit.markTimedOut();
+            // Прерывание обрывает HTTP-запрос к провайдеру; слот освободит сама задача, когда завершится
+            future.cancel(true);
+            throw new AppException("AI call exceeded its deadline in lane " + name, HttpStatus.GATEWAY_TIMEOUT);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new AppException("Interrupted while waiting for AI call", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Занимает слот для вызова, который выполняется в потоке вызывающего (потоковая выдача).
+     * Слот освобождается через close() у Permit.
+     *
+     * @throws AppException 503, если очередь полна или слот не освободился за queueTimeout
+     */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (queued == 0 && inFlight < currentLimit()) {
+                inFlight++;
+                return new Permit();
+            }
+            if (queued >= settings.getMaxQueue()) {
+                throw reject("queue is full");
+            }
+            queued++;
+            try {
+                long nanos = settings.getQueueTimeout().toNanos();
+                while (inFlight >= currentLimit()) {
+                    if (nanos <= 0) {
+                        throw reject("no slot within " + settings.getQueueTimeout().toMillis() + " ms");
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                inFlight++;
+                return new Permit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("interrupted while queued");
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public LlmLaneStatsDTO stats() {
+        lock.lock();
+        try {
+            return new LlmLaneStatsDTO(name, currentLimit(), inFlight, queued, settings.getMaxQueue(),
+                    completed.sum(), rejected.sum(), timedOut.sum(), failed.sum(), Math.round(averageLatencyMs),
+                    maxLatencyMs.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private AppException reject(String reason) {
+        rejected.increment();
+        log.warn("LLM lane '{}' rejected a call: {} (limit {}, in flight {}, queued {})", name, reason,
+                currentLimit(), inFlight, queued);
+        return new AppException("AI service is busy, please retry later", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private void onRelease(Outcome outcome, long latencyMs) {
+        lock.lock();
+        try {
+            inFlight--;
+            averageLatencyMs = averageLatencyMs == 0
+                    ? latencyMs
+                    : averageLatencyMs + LATENCY_SMOOTHING * (latencyMs - averageLatencyMs);
+            double adjusted = switch (outcome) {
+                case SUCCESS -> latencyMs <= settings.getLatencyTarget().toMillis()
+                        ? limit + 1.0 / limit
+                        : limit * SLOW_DECREASE;
+                case TIMEOUT, FAILURE -> limit * FAILURE_DECREASE;
+            };
+            int before = currentLimit();
+            limit = Math.clamp(adjusted, settings.getMinLimit(), settings.getMaxLimit());
+            if (currentLimit() != before) {
+                log.info("LLM lane '{}' limit {} -> {} (average latency {} ms)", name, before, currentLimit(),
+                        Math.round(averageLatencyMs));
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        maxLatencyMs.accumulateAndGet(latencyMs, Math::max);
+        latency.get(outcome).record(latencyMs, TimeUnit.MILLISECONDS);
+        switch (outcome) {
+            case SUCCESS -> completed.increment();
+            case TIMEOUT -> timedOut.increment();
+            case FAILURE -> failed.increment();
+        }
+    }
+
+    /**
+     * Занятый слот полосы. Освобождается один раз; итог по умолчанию — успех.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+        private volatile Outcome outcome = Outcome.SUCCESS;
+
+        private Permit() {
+        }
+
+        public void markTimedOut() {
+            outcome = Outcome.TIMEOUT;
+        }
+
+        public void markFailed() {
+            outcome = Outcome.FAILURE;
+        }
+
+        @Override
+        public void close() {
+            release(outcome);
+        }
+
+        private synchronized void release(Outcome result) {
+            if (released) {
+                return;
+            }
+            released = true;
+            // Тайм-аут, отмеченный вызывающим, важнее того, как потом завершился сам вызов
+            Outcome effective = outcome == Outcome.TIMEOUT ? Outcome.TIMEOUT : result;
+            onRelease(effective, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+}
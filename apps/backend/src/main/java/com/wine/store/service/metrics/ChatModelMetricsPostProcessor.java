@@ -0,0 +1,89 @@
+package com.wine.store.service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * НАЗНАЧЕНИЕ: Счетчик токенов LLM — оборачивает бин ChatModel и пишет usage каждого ответа в метрику llm.tokens.
+ * ЗАВИСИМОСТИ: MeterRegistry (берется лениво — постпроцессор создается раньше остальных бинов).
+ * ОСОБЕННОСТИ: Обычный вызов учитывается по ответу, потоковый — по последнему куску с usage
+ * (провайдер присылает итог в конце потока). Задержку вызовов меряет LlmLane (llm.requests),
+ * здесь только токены с тегом type: prompt или completion.
+ */
+public class ChatModelMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, DistributionSummary> tokens = new ConcurrentHashMap<>();
+
+    public ChatModelMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (!(bean instanceof ChatModel)) {
+            return bean;
+        }
+        ProxyFactory proxy = new ProxyFactory(bean);
+        proxy.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (result instanceof ChatResponse response) {
+                record(response);
+            } else if (result instanceof Flux<?> flux && "stream".equals(invocation.getMethod().getName())) {
+                AtomicReference<ChatResponse> last = new AtomicReference<>();
+                return flux.doOnNext(chunk -> {
+                    if (chunk instanceof ChatResponse response && hasUsage(response)) {
+                        last.set(response);
+                    }
+                }).doOnComplete(() -> {
+                    if (last.get() != null) {
+                        record(last.get());
+                    }
+                });
+            }
+            return result;
+        });
+        return proxy.getProxy();
+    }
+
+    private static boolean hasUsage(ChatResponse response) {
+        return response.getMetadata() != null && response.getMetadata().getUsage() != null;
+    }
+
+    private void record(ChatResponse response) {
+        if (!hasUsage(response)) {
+            return;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        Number prompt = usage.getPromptTokens();
+        Number total = usage.getTotalTokens();
+        long promptTokens = prompt != null ? prompt.longValue() : 0;
+        long totalTokens = total != null ? total.longValue() : 0;
+        if (totalTokens == 0) {
+            return;
+        }
+        tokens("prompt").record(promptTokens);
+        tokens("completion").record(Math.max(0, totalTokens - promptTokens));
+    }
+
+    private DistributionSummary tokens(String type) {
+        return tokens.computeIfAbsent(type, key -> DistributionSummary.builder("llm.tokens")
+                .description("LLM tokens per response")
+                .baseUnit("tokens")
+                .tag("type", key)
+                .register(meterRegistry.getObject()));
+    }
+}
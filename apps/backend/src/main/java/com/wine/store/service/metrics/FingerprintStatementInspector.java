@@ -0,0 +1,17 @@
+package com.wine.store.service.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * НАЗНАЧЕНИЕ: Передает в RequestQueryStats SQL каждого оператора, который готовит Hibernate.
+ * ОСОБЕННОСТИ: Подключается через hibernate.session_factory.statement_inspector. SQL не меняется.
+ * Значения параметров сюда не попадают (PreparedStatement), поэтому образец запроса — его текст.
+ */
+public class FingerprintStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryStats.prepared(sql);
+        return sql;
+    }
+}
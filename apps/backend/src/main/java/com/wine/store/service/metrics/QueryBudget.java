@@ -0,0 +1,70 @@
+package com.wine.store.service.metrics;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Проверка бюджета SQL-запросов для тестов: сколько операторов выполнил кусок кода.
+ * ОСОБЕННОСТИ: Работает на том же учете, что и метрики запросов (нужны hibernate.session_factory.statement_inspector
+ * и hibernate.session.events.auto из application.properties). Вызывается в потоке, где выполняется код;
+ * при превышении бросает AssertionError со списком форм запросов — повторяющаяся форма сразу показывает N+1.
+ * Пример: QueryBudget.assertAtMost(3, () -> wineService.getAllWines(request, pageable)).
+ */
+public final class QueryBudget {
+
+    private static final String LABEL = "query-budget";
+
+    private QueryBudget() {
+    }
+
+    /**
+     * @return результат кода
+     * @throws AssertionError если выполнено больше maxStatements операторов
+     */
+    public static <T> T assertAtMost(int maxStatements, Supplier<T> work) {
+        RequestQueryStats.begin(LABEL);
+        T result;
+        RequestQueryStats stats;
+        try {
+            result = work.get();
+        } finally {
+            stats = RequestQueryStats.end();
+        }
+        if (stats.statements() > maxStatements) {
+            throw new AssertionError("Expected at most " + maxStatements + " SQL statements but "
+                    + stats.statements() + " were executed:\n" + describe(stats));
+        }
+        return result;
+    }
+
+    public static void assertAtMost(int maxStatements, Runnable work) {
+        assertAtMost(maxStatements, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return статистика запросов кода — для собственных проверок (например, что нет повторов одной формы)
+     */
+    public static RequestQueryStats capture(Runnable work) {
+        RequestQueryStats.begin(LABEL);
+        RequestQueryStats stats;
+        try {
+            work.run();
+        } finally {
+            stats = RequestQueryStats.end();
+        }
+        return stats;
+    }
+
+    private static String describe(RequestQueryStats stats) {
+        return stats.fingerprints().entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, RequestQueryStats.Fingerprint> e) -> e.getValue().executions())
+                        .reversed())
+                .map(e -> "  " + e.getValue().executions() + " x " + e.getKey())
+                .collect(Collectors.joining("\n"));
+    }
+}
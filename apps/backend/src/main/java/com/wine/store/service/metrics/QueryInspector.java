@@ -0,0 +1,140 @@
+package com.wine.store.service.metrics;
+
+import com.wine.store.config.QueryInspectorProperties;
+import com.wine.store.dto.QueryFingerprintDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * НАЗНАЧЕНИЕ: Детектор N+1 и медленных запросов — разбирает RequestQueryStats каждого HTTP-запроса и фоновой задачи.
+ * ЗАВИСИМОСТИ: QueryInspectorProperties, MeterRegistry.
+ * ОСОБЕННОСТИ: Форма запроса, выполненная не меньше repeatThreshold раз за один запрос, считается N+1:
+ * первый случай для пары (эндпоинт, форма) пишется в лог WARN, все — в счетчик db.queries.n_plus_one.
+ * Выполнения дольше slowQuery пишутся в лог. Превышение бюджета эндпоинта (budgets) — WARN и счетчик
+ * db.queries.budget.exceeded. Накопленный отчет по формам — GET /api/admin/queries; число форм ограничено.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryInspector {
+
+    private final QueryInspectorProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, FingerprintReport> report = new ConcurrentHashMap<>();
+    private final Set<String> reportedRepeats = ConcurrentHashMap.newKeySet();
+    // Счетчики по источникам: источников немного (шаблоны эндпоинтов и задачи), счетчик регистрируется один раз
+    private final Map<String, Counter> repeatCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> budgetCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Накопленная статистика одной формы. Обновляется под собственным монитором — формы не блокируют друг друга.
+     */
+    private static final class FingerprintReport {
+
+        private final String sampleSql;
+        private String sampleSource;
+        private long executions;
+        private long scopes;
+        private int maxPerScope;
+        private long repeatScopes;
+        private long nanos;
+        private long maxNanos;
+
+        private FingerprintReport(String sampleSql) {
+            this.sampleSql = sampleSql;
+        }
+
+        private synchronized void add(String source, RequestQueryStats.Fingerprint fingerprint, boolean repeated) {
+            executions += fingerprint.executions();
+            scopes++;
+            maxPerScope = Math.max(maxPerScope, fingerprint.executions());
+            if (repeated) {
+                repeatScopes++;
+            }
+            nanos += fingerprint.nanos();
+            if (sampleSource == null || fingerprint.maxNanos() > maxNanos) {
+                maxNanos = fingerprint.maxNanos();
+                sampleSource = source;
+            }
+        }
+
+        private synchronized QueryFingerprintDTO toDto(String fingerprint) {
+            return new QueryFingerprintDTO(fingerprint, sampleSql, sampleSource, executions, scopes, maxPerScope,
+                    repeatScopes, TimeUnit.NANOSECONDS.toMillis(nanos), TimeUnit.NANOSECONDS.toMillis(maxNanos));
+        }
+    }
+
+    /**
+     * Разбирает статистику завершенного запроса или задачи. null (учет не начинался) игнорируется.
+     */
+    public void inspect(RequestQueryStats stats) {
+        if (stats == null || stats.statements() == 0) {
+            return;
+        }
+        String source = stats.label();
+        long slowNanos = properties.getSlowQuery().toNanos();
+        stats.fingerprints().forEach((fingerprint, executed) -> {
+            if (executed.executions() == 0) {
+                return;
+            }
+            boolean repeated = executed.executions() >= properties.getRepeatThreshold();
+            if (repeated) {
+                repeatCounters.computeIfAbsent(source, key -> Counter.builder("db.queries.n_plus_one")
+                        .description("Requests that repeated one query shape at least repeat-threshold times")
+                        .tag("source", key)
+                        .register(meterRegistry)).increment();
+                if (reportedRepeats.add(source + '\n' + fingerprint)) {
+                    log.warn("Possible N+1 in {}: {} executions of {}", source, executed.executions(), fingerprint);
+                }
+            }
+            if (executed.maxNanos() >= slowNanos) {
+                log.warn("Slow query in {}: {} ms for {}", source, TimeUnit.NANOSECONDS.toMillis(executed.maxNanos()),
+                        executed.sampleSql());
+            }
+            FingerprintReport entry = report.get(fingerprint);
+            if (entry == null) {
+                if (report.size() >= properties.getMaxFingerprints()) {
+                    return;
+                }
+                entry = report.computeIfAbsent(fingerprint, key -> new FingerprintReport(executed.sampleSql()));
+            }
+            entry.add(source, executed, repeated);
+        });
+
+        Integer budget = properties.getBudgets().get(source);
+        if (budget != null && stats.statements() > budget) {
+            budgetCounters.computeIfAbsent(source, key -> Counter.builder("db.queries.budget.exceeded")
+                    .description("Requests that executed more SQL statements than the endpoint budget")
+                    .tag("source", key)
+                    .register(meterRegistry)).increment();
+            log.warn("Query budget exceeded in {}: {} statements (budget {})", source, stats.statements(), budget);
+        }
+    }
+
+    /**
+     * @return формы запросов, самые дорогие по суммарному времени — первыми
+     */
+    public List<QueryFingerprintDTO> report() {
+        return report.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingLong(QueryFingerprintDTO::totalMs).reversed()
+                        .thenComparing(Comparator.comparingLong(QueryFingerprintDTO::executions).reversed()))
+                .toList();
+    }
+
+    public void reset() {
+        report.clear();
+        reportedRepeats.clear();
+    }
+}
@@ -0,0 +1,35 @@
+package com.wine.store.service.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * НАЗНАЧЕНИЕ: Замер выполнения JDBC-операторов Hibernate для RequestQueryStats.
+ * ОСОБЕННОСТИ: Hibernate создает экземпляр на каждую сессию (hibernate.session.events.auto),
+ * поэтому поле старта не разделяется между потоками. Пакет операторов считается одним запросом.
+ * Запись через JdbcTemplate (импорт WooCommerce) идет мимо Hibernate и здесь не видна.
+ */
+public class QueryStatsSessionListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestQueryStats.record(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestQueryStats.record(System.nanoTime() - batchStart);
+    }
+}
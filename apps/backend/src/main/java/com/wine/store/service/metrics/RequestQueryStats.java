@@ -0,0 +1,127 @@
+package com.wine.store.service.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * НАЗНАЧЕНИЕ: Счетчик SQL-запросов и их времени в рамках одного HTTP-запроса или фоновой задачи.
+ * ОСОБЕННОСТИ: Хранится в ThreadLocal потока: begin() — перед работой, end() — после. Области вкладываются
+ * (QueryBudget внутри HTTP-запроса): запрос учитывается во всех открытых областях потока.
+ * SQL приходит от FingerprintStatementInspector при подготовке оператора, время — от QueryStatsSessionListener
+ * при выполнении; время относится к последнему подготовленному оператору. Запросы вне begin()/end()
+ * (слушатели после коммита в других потоках) не учитываются. Синхронизация не нужна — поток один.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Выполнения запросов одной формы.
+     */
+    public static final class Fingerprint {
+
+        private final String sampleSql;
+        private int executions;
+        private long nanos;
+        private long maxNanos;
+
+        private Fingerprint(String sampleSql) {
+            this.sampleSql = sampleSql;
+        }
+
+        public String sampleSql() {
+            return sampleSql;
+        }
+
+        public int executions() {
+            return executions;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public long maxNanos() {
+            return maxNanos;
+        }
+    }
+
+    private final String label;
+    private final RequestQueryStats parent;
+    private final Map<String, Fingerprint> fingerprints = new HashMap<>();
+    private Fingerprint pending;
+    private int statements;
+    private long nanos;
+
+    private RequestQueryStats(String label, RequestQueryStats parent) {
+        this.label = label;
+        this.parent = parent;
+    }
+
+    /**
+     * @param label эндпоинт ("GET /api/wines") или задача ("job:woocommerce-sync") — для отчета
+     */
+    public static void begin(String label) {
+        CURRENT.set(new RequestQueryStats(label, CURRENT.get()));
+    }
+
+    /**
+     * @return накопленная статистика или null, если begin() в этом потоке не вызывался
+     */
+    public static RequestQueryStats end() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return null;
+        }
+        if (stats.parent != null) {
+            CURRENT.set(stats.parent);
+        } else {
+            CURRENT.remove();
+        }
+        return stats;
+    }
+
+    static void prepared(String sql) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        for (RequestQueryStats scope = stats; scope != null; scope = scope.parent) {
+            scope.pending = scope.fingerprints.computeIfAbsent(fingerprint, key -> new Fingerprint(sql));
+        }
+    }
+
+    static void record(long statementNanos) {
+        for (RequestQueryStats scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.nanos += statementNanos;
+            Fingerprint fingerprint = scope.pending;
+            if (fingerprint != null) {
+                fingerprint.executions++;
+                fingerprint.nanos += statementNanos;
+                fingerprint.maxNanos = Math.max(fingerprint.maxNanos, statementNanos);
+            }
+        }
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    /**
+     * @return нормализованный SQL → выполнения запросов этой формы
+     */
+    public Map<String, Fingerprint> fingerprints() {
+        return Collections.unmodifiableMap(fingerprints);
+    }
+}
@@ -0,0 +1,27 @@
+package com.wine.store.service.metrics;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * НАЗНАЧЕНИЕ: Форма SQL-запроса — текст без значений, одинаковый для запросов, различающихся только параметрами.
+ * ОСОБЕННОСТИ: Строковые и числовые литералы заменяются на ?, списки IN (?, ?, ...) любой длины сворачиваются
+ * в IN (...), пробелы схлопываются. Алиасы Hibernate (w1_0) стабильны между запросами и не трогаются.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        return IN_LIST.matcher(normalized).replaceAll("in (...)");
+    }
+}
@@ -0,0 +1,101 @@
+package com.wine.store.service.pricing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wine.store.config.PricingProperties;
+import com.wine.store.dto.CacheStatsDTO;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.projection.WinePriceView;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * НАЗНАЧЕНИЕ: Кэш цен и наличия вин для расчета корзины.
+ * ЗАВИСИМОСТИ: PricingProperties, WineRepository (только при промахе).
+ * ОСОБЕННОСТИ: Caffeine с ограничением размера и TTL после записи. Промахи догружаются одним запросом id IN (...) через проекцию WinePriceView.
+ * Записи удаляются после коммита изменений вин (WineService, синхронизация WooCommerce).
+ * Загрузка, пересекшаяся с инвалидацией, в кэш не попадает — устаревшая цена не закэшируется.
+ */
+@Component
+@Slf4j
+public class WinePriceCache {
+
+    private final WineRepository wineRepository;
+    private final int maxEntries;
+
+    private final Cache<Long, WinePriceView> prices;
+    private final AtomicLong generation = new AtomicLong();
+
+    public WinePriceCache(WineRepository wineRepository, PricingProperties properties) {
+        this.wineRepository = wineRepository;
+        this.maxEntries = Math.max(1, properties.getCacheMaxEntries());
+        this.prices = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return цены найденных вин; отсутствующих в каталоге id в результате нет
+     */
+    public Map<Long, WinePriceView> getAll(Collection<Long> ids) {
+        Map<Long, WinePriceView> result = new HashMap<>(ids.size() * 2);
+        result.putAll(prices.getAllPresent(ids));
+        if (result.size() == ids.size()) {
+            return result;
+        }
+        List<Long> misses = new ArrayList<>(ids.size() - result.size());
+        for (Long id : ids) {
+            if (!result.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result; // повторы id в запросе
+        }
+
+        long loadedAt = generation.get();
+        List<WinePriceView> loaded = wineRepository.findPriceViewsByIdIn(misses);
+        for (WinePriceView view : loaded) {
+            result.put(view.id(), view);
+            prices.put(view.id(), view);
+        }
+        // Инвалидация во время загрузки: прочитанные значения могли устареть
+        if (generation.get() != loadedAt) {
+            prices.invalidateAll(loaded.stream().map(WinePriceView::id).toList());
+        }
+        return result;
+    }
+
+    /**
+     * Попадания и промахи считаются по товарам, не по вызовам.
+     */
+    public CacheStatsDTO stats() {
+        CacheStats stats = prices.stats();
+        return CacheStatsDTO.of(stats.hitCount(), stats.missCount(), (int) prices.estimatedSize(), maxEntries,
+                stats.evictionCount());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.fullRefresh()) {
+            prices.invalidateAll();
+        } else {
+            prices.invalidateAll(event.wineIds());
+        }
+        log.debug("Price cache invalidated ({} wine(s), full: {})", event.wineIds().size(), event.fullRefresh());
+    }
+}
@@ -0,0 +1,70 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.model.DishCategory;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Разбор текста запроса к сомелье: токены и категории блюда по ключевым словам (en/de).
+ * ИСПОЛЬЗУЕТСЯ В: SommelierCandidateSelector, PairingEngine.
+ */
+final class DishKeywords {
+
+    // Ключевые слова блюда → категория блюда
+    private static final Map<String, DishCategory> CATEGORY_KEYWORDS = Map.ofEntries(
+            Map.entry("steak", DishCategory.MEAT), Map.entry("beef", DishCategory.MEAT),
+            Map.entry("rind", DishCategory.MEAT), Map.entry("lamb", DishCategory.MEAT),
+            Map.entry("lamm", DishCategory.MEAT), Map.entry("pork", DishCategory.MEAT),
+            Map.entry("schwein", DishCategory.MEAT), Map.entry("wild", DishCategory.MEAT),
+            Map.entry("burger", DishCategory.MEAT), Map.entry("meat", DishCategory.MEAT),
+            Map.entry("fleisch", DishCategory.MEAT), Map.entry("bbq", DishCategory.MEAT),
+            Map.entry("fish", DishCategory.FISH), Map.entry("fisch", DishCategory.FISH),
+            Map.entry("salmon", DishCategory.FISH), Map.entry("lachs", DishCategory.FISH),
+            Map.entry("seafood", DishCategory.FISH), Map.entry("sushi", DishCategory.FISH),
+            Map.entry("forelle", DishCategory.FISH), Map.entry("shrimp", DishCategory.FISH),
+            Map.entry("chicken", DishCategory.POULTRY), Map.entry("huhn", DishCategory.POULTRY),
+            Map.entry("hähnchen", DishCategory.POULTRY), Map.entry("turkey", DishCategory.POULTRY),
+            Map.entry("pute", DishCategory.POULTRY), Map.entry("duck", DishCategory.POULTRY),
+            Map.entry("ente", DishCategory.POULTRY), Map.entry("gans", DishCategory.POULTRY),
+            Map.entry("cheese", DishCategory.CHEESE), Map.entry("käse", DishCategory.CHEESE),
+            Map.entry("dessert", DishCategory.DESSERT), Map.entry("cake", DishCategory.DESSERT),
+            Map.entry("kuchen", DishCategory.DESSERT), Map.entry("chocolate", DishCategory.DESSERT),
+            Map.entry("schokolade", DishCategory.DESSERT), Map.entry("obst", DishCategory.DESSERT),
+            Map.entry("vegetable", DishCategory.VEGETABLE), Map.entry("gemüse", DishCategory.VEGETABLE),
+            Map.entry("salad", DishCategory.VEGETABLE), Map.entry("salat", DishCategory.VEGETABLE),
+            Map.entry("spargel", DishCategory.VEGETABLE), Map.entry("vegan", DishCategory.VEGETABLE),
+            Map.entry("pasta", DishCategory.PASTA), Map.entry("spaghetti", DishCategory.PASTA),
+            Map.entry("risotto", DishCategory.PASTA), Map.entry("pizza", DishCategory.PIZZA),
+            Map.entry("flammkuchen", DishCategory.PIZZA), Map.entry("tapas", DishCategory.APPETIZER),
+            Map.entry("appetizer", DishCategory.APPETIZER), Map.entry("vorspeise", DishCategory.APPETIZER));
+
+    static final Set<String> FESTIVE = Set.of("celebration", "party", "birthday", "feier", "feiern",
+            "geburtstag", "hochzeit", "wedding", "anniversary", "festive", "festlich");
+
+    private DishKeywords() {
+    }
+
+    static Set<String> tokens(String text) {
+        if (text == null) {
+            return Set.of();
+        }
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> token.length() > 2)
+                .collect(Collectors.toSet());
+    }
+
+    static Set<DishCategory> categories(Set<String> tokens) {
+        Set<DishCategory> categories = EnumSet.noneOf(DishCategory.class);
+        tokens.forEach(token -> {
+            DishCategory category = CATEGORY_KEYWORDS.get(token);
+            if (category != null) {
+                categories.add(category);
+            }
+        });
+        return categories;
+    }
+}
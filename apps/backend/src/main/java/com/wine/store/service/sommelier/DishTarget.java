@@ -0,0 +1,128 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.model.Dish;
+import com.wine.store.model.DishCategory;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Желаемый профиль вина для блюда из запроса — вход PairingEngine.
+ * ОСОБЕННОСТИ: Базовые тело/кислотность/сладость задаются категорией блюда, затем правятся
+ * доминирующим вкусом и способом приготовления (из справочника dishes или из текста запроса).
+ * Все величины нормированы в [0, 1].
+ */
+record DishTarget(float body, float acidity, float sweetness, Set<DishCategory> categories, Dish dish,
+                  boolean festive) {
+
+    // Категория блюда → {тело, кислотность, сладость}
+    private static final Map<DishCategory, float[]> BASE = Map.of(
+            DishCategory.MEAT, new float[] { 0.9f, 0.5f, 0.1f },
+            DishCategory.FISH, new float[] { 0.3f, 0.75f, 0.1f },
+            DishCategory.POULTRY, new float[] { 0.5f, 0.6f, 0.2f },
+            DishCategory.CHEESE, new float[] { 0.6f, 0.6f, 0.3f },
+            DishCategory.DESSERT, new float[] { 0.3f, 0.5f, 0.9f },
+            DishCategory.VEGETABLE, new float[] { 0.3f, 0.7f, 0.15f },
+            DishCategory.PASTA, new float[] { 0.6f, 0.6f, 0.15f },
+            DishCategory.PIZZA, new float[] { 0.7f, 0.6f, 0.1f },
+            DishCategory.APPETIZER, new float[] { 0.2f, 0.7f, 0.2f });
+
+    private static final float[] NEUTRAL = { 0.5f, 0.6f, 0.2f };
+
+    static DishTarget of(String dishText, String occasion, String mood, List<Dish> dishes) {
+        Set<String> tokens = DishKeywords.tokens(dishText);
+        Dish dish = bestMatch(tokens, dishes);
+        Set<DishCategory> categories = EnumSet.noneOf(DishCategory.class);
+        categories.addAll(DishKeywords.categories(tokens));
+        if (dish != null && dish.getCategory() != null) {
+            categories.add(dish.getCategory());
+        }
+
+        float body = 0;
+        float acidity = 0;
+        float sweetness = 0;
+        if (categories.isEmpty()) {
+            body = NEUTRAL[0];
+            acidity = NEUTRAL[1];
+            sweetness = NEUTRAL[2];
+        } else {
+            for (DishCategory category : categories) {
+                float[] base = BASE.getOrDefault(category, NEUTRAL);
+                body += base[0];
+                acidity += base[1];
+                sweetness += base[2];
+            }
+            body /= categories.size();
+            acidity /= categories.size();
+            sweetness /= categories.size();
+        }
+
+        // Поправки по вкусу и способу приготовления: из справочника, иначе из текста запроса
+        String taste = dish != null && dish.getDominantTaste() != null ? dish.getDominantTaste().toLowerCase() : "";
+        String method = dish != null && dish.getCookingMethod() != null ? dish.getCookingMethod().toLowerCase() : "";
+        String text = dishText != null ? dishText.toLowerCase() : "";
+        if (matches(taste, text, "sweet", "süß")) sweetness += 0.3f;
+        if (matches(taste, text, "spicy", "scharf")) {
+            sweetness += 0.2f;
+            body -= 0.2f;
+        }
+        if (matches(taste, text, "salty", "salzig")) acidity += 0.1f;
+        if (matches(taste, text, "sour", "sauer")) acidity += 0.2f;
+        if (matches(taste, text, "fatty", "fett", "rich", "cream", "sahne")) {
+            acidity += 0.2f;
+            body += 0.1f;
+        }
+        if (matches(taste, text, "umami")) body += 0.1f;
+        if (matches(method, text, "grill", "bbq", "roast", "gebraten", "braten", "smoked", "geräuchert")) body += 0.15f;
+        if (matches(method, text, "steam", "gedünstet", "raw", "roh", "poach", "pochiert")) body -= 0.15f;
+        if (matches(method, text, "fried", "frittiert")) acidity += 0.1f;
+
+        Set<String> context = DishKeywords.tokens((occasion != null ? occasion : "") + " " + (mood != null ? mood : ""));
+        boolean festive = context.stream().anyMatch(DishKeywords.FESTIVE::contains);
+        return new DishTarget(clamp(body), clamp(acidity), clamp(sweetness), categories, dish, festive);
+    }
+
+    int categoryMask() {
+        int mask = 0;
+        for (DishCategory category : categories) {
+            mask |= 1 << category.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Блюдо справочника с наибольшим пересечением токенов названия с запросом.
+     */
+    private static Dish bestMatch(Set<String> tokens, List<Dish> dishes) {
+        Dish best = null;
+        int bestOverlap = 0;
+        for (Dish dish : dishes) {
+            int overlap = 0;
+            for (String token : DishKeywords.tokens(dish.getName())) {
+                if (tokens.contains(token)) {
+                    overlap++;
+                }
+            }
+            if (overlap > bestOverlap) {
+                best = dish;
+                bestOverlap = overlap;
+            }
+        }
+        return best;
+    }
+
+    private static boolean matches(String attribute, String text, String... keywords) {
+        for (String keyword : keywords) {
+            if (attribute.contains(keyword) || text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+}
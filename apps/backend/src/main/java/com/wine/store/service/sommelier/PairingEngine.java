@@ -0,0 +1,152 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.dto.SommelierRequest;
+import com.wine.store.dto.SommelierResponse;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.model.Dish;
+import com.wine.store.repository.DishRepository;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.index.WineCatalogIndex;
+import com.wine.store.repository.projection.DishPairingView;
+import com.wine.store.repository.projection.SommelierCandidateView;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.CatalogRefreshQueue;
+import com.wine.store.service.catalog.WineDtoAssembler;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Детерминированный локальный подбор вина к блюду — без LLM.
+ * ЗАВИСИМОСТИ: WineRepository и DishRepository (построение снимка), WineCatalogIndex (карточки вин).
+ * ОСОБЕННОСТИ: Векторы признаков вин (PairingSnapshot) считаются заранее и пересобираются в фоне
+ * после коммита изменений каталога (CatalogRefreshQueue объединяет события — одна сборка на серию);
+ * запрос — это разбор блюда (DishTarget) и один проход по массивам. Пока снимка нет, подбор пуст.
+ * Используется как быстрый режим (mode=local) и как ответ, когда LLM недоступна.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PairingEngine {
+
+    private final WineRepository wineRepository;
+    private final DishRepository dishRepository;
+    private final WineCatalogIndex catalogIndex;
+    private final WineDtoAssembler wineDtoAssembler;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final Duration COALESCE_DELAY = Duration.ofMillis(500);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final CatalogRefreshQueue refreshQueue =
+            new CatalogRefreshQueue("pairing-snapshot", COALESCE_DELAY, RETRY_DELAY, (full, wineIds) -> rebuild());
+    private volatile PairingSnapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshQueue.requestFull();
+    }
+
+    @PreDestroy
+    void stop() {
+        refreshQueue.close();
+    }
+
+    /**
+     * @return до limit рекомендаций, лучшие первыми; пустой список, если в бюджете нет вин
+     */
+    public List<SommelierResponse> recommend(SommelierRequest request, int limit) {
+        PairingSnapshot current = loadSnapshot();
+        if (current == null) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        DishTarget target = DishTarget.of(request.dish(), request.occasion(), request.mood(), current.dishes);
+        List<PairingSnapshot.Match> matches = current.top(target, PriceBand.of(request.priceRange()), limit);
+        log.debug("Local pairing scored {} wines in {} µs (target: {})", current.size,
+                (System.nanoTime() - start) / 1_000, target);
+
+        Map<Long, WineDTO> wines = wines(matches.stream().map(m -> current.ids[m.row()]).collect(Collectors.toSet()));
+        List<SommelierResponse> responses = new ArrayList<>(matches.size());
+        for (PairingSnapshot.Match match : matches) {
+            WineDTO wine = wines.get(current.ids[match.row()]);
+            if (wine != null) {
+                responses.add(SommelierResponse.builder()
+                        .wine(wine)
+                        .matchScore(match.score())
+                        .matchReasoning(current.reasoning(match, target))
+                        .build());
+            }
+        }
+        return responses;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Векторы зависят от набора блюд и цен всего каталога — любое изменение пересобирает снимок целиком
+        refreshQueue.submit(CatalogChangedEvent.full());
+    }
+
+    private PairingSnapshot loadSnapshot() {
+        PairingSnapshot current = snapshot;
+        if (current == null) {
+            refreshQueue.requestFull();
+        }
+        return current;
+    }
+
+    /**
+     * Выполняется в потоке CatalogRefreshQueue. При ошибке сохраняется предыдущий снимок: подбор по чуть
+     * устаревшим векторам лучше пустого, карточки вин все равно берутся актуальными.
+     */
+    private void rebuild() {
+        long start = System.nanoTime();
+        PriceBand any = PriceBand.ANY;
+        PairingSnapshot built = inReadTransaction(() -> {
+            List<SommelierCandidateView> wines = wineRepository.findSommelierCandidates(any.min(), any.max(),
+                    SommelierCandidateSelector.AVAILABLE);
+            List<DishPairingView> pairings = wineRepository.findSommelierDishPairings(any.min(), any.max(),
+                    SommelierCandidateSelector.AVAILABLE);
+            List<Dish> dishes = dishRepository.findAll();
+            return PairingSnapshot.of(wines, pairings, dishes);
+        });
+        snapshot = built;
+        log.info("Pairing snapshot built: {} wines in {} ms", built.size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Map<Long, WineDTO> wines(Set<Long> ids) {
+        Map<Long, WineDTO> wines = new HashMap<>(catalogIndex.findByIds(ids));
+        if (wines.size() < ids.size()) {
+            // Индекс каталога недоступен или еще не видит новые вина
+            List<Long> missing = ids.stream().filter(id -> !wines.containsKey(id)).toList();
+            inReadTransaction(() -> wineDtoAssembler.toDtos(wineRepository.findAllById(missing)))
+                    .forEach(wine -> wines.put(wine.getId(), wine));
+        }
+        return wines;
+    }
+
+    private <T> T inReadTransaction(Supplier<T> action) {
+        // Слушатель работает после коммита чужой транзакции, поэтому нужна собственная
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template.execute(status -> action.get());
+    }
+}
@@ -0,0 +1,218 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.model.Dish;
+import com.wine.store.model.DishCategory;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import com.wine.store.repository.projection.DishPairingView;
+import com.wine.store.repository.projection.SommelierCandidateView;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * НАЗНАЧЕНИЕ: Неизменяемый набор векторов признаков вин для PairingEngine.
+ * ОСОБЕННОСТИ: Признаки (тело, кислотность, сладость, маска категорий рекомендованных блюд)
+ * считаются один раз при построении и лежат в примитивных массивах — оценка запроса — это один
+ * проход по массивам без аллокаций на строку и без разбора строк "5.6 g/l".
+ */
+final class PairingSnapshot {
+
+    // Веса близости профиля: тело важнее кислотности, кислотность — сладости
+    private static final float BODY_WEIGHT = 0.45f;
+    private static final float ACIDITY_WEIGHT = 0.35f;
+    private static final float SWEETNESS_WEIGHT = 0.20f;
+
+    final int size;
+    final long[] ids;
+    final String[] names;
+    final WineType[] types;
+    final WineFlavor[] flavors;
+    final long[] priceCents;
+    final float[] body;
+    final float[] acidity;
+    final float[] sweetness;
+    final float[] rating;
+    final int[] categoryMask;
+    final Set<String>[] pairedDishes;
+    final List<Dish> dishes;
+
+    /**
+     * Вино-результат оценки.
+     */
+    record Match(int row, int score, boolean pairedWithDish, boolean categoryMatch) {
+    }
+
+    @SuppressWarnings("unchecked")
+    private PairingSnapshot(List<SommelierCandidateView> wines, Map<Long, List<DishPairingView>> pairings,
+                            List<Dish> dishes) {
+        this.size = wines.size();
+        this.ids = new long[size];
+        this.names = new String[size];
+        this.types = new WineType[size];
+        this.flavors = new WineFlavor[size];
+        this.priceCents = new long[size];
+        this.body = new float[size];
+        this.acidity = new float[size];
+        this.sweetness = new float[size];
+        this.rating = new float[size];
+        this.categoryMask = new int[size];
+        this.pairedDishes = new Set[size];
+        this.dishes = List.copyOf(dishes);
+
+        for (int i = 0; i < size; i++) {
+            SommelierCandidateView wine = wines.get(i);
+            ids[i] = wine.id();
+            names[i] = wine.name();
+            types[i] = wine.type();
+            flavors[i] = wine.flavor();
+            priceCents[i] = cents(wine.price());
+            body[i] = body(wine.type(), wine.grapeVariety());
+            acidity[i] = acidity(wine.acidityGrams(), wine.type());
+            sweetness[i] = sweetness(wine.sugarGrams(), wine.flavor());
+            rating[i] = wine.rating() != null ? wine.rating().floatValue() : 0f;
+
+            Set<String> paired = new HashSet<>();
+            for (DishPairingView pairing : pairings.getOrDefault(wine.id(), List.of())) {
+                paired.add(pairing.dishName().toLowerCase());
+                if (pairing.dishCategory() != null) {
+                    categoryMask[i] |= 1 << pairing.dishCategory().ordinal();
+                }
+            }
+            pairedDishes[i] = paired;
+        }
+    }
+
+    static PairingSnapshot of(List<SommelierCandidateView> wines, List<DishPairingView> pairings, List<Dish> dishes) {
+        Map<Long, List<DishPairingView>> byWine = new HashMap<>();
+        pairings.forEach(p -> byWine.computeIfAbsent(p.wineId(), k -> new ArrayList<>()).add(p));
+        return new PairingSnapshot(wines, byWine, dishes);
+    }
+
+    /**
+     * Лучшие limit вин в бюджете: близость профиля (до 60 баллов), рекомендованное блюдо (25),
+     * совпадение категории блюда (10), рейтинг (до 5), праздничный повод для игристого (+5).
+     */
+    List<Match> top(DishTarget target, PriceBand band, int limit) {
+        long min = cents(band.min());
+        long max = cents(band.max());
+        int targetMask = target.categoryMask();
+        String dishName = target.dish() != null ? target.dish().getName().toLowerCase() : null;
+
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1,
+                Comparator.comparingInt(Match::score).thenComparing(m -> -ids[m.row()]));
+        for (int i = 0; i < size; i++) {
+            if (priceCents[i] < min || priceCents[i] > max) {
+                continue;
+            }
+            float distance = BODY_WEIGHT * Math.abs(body[i] - target.body())
+                    + ACIDITY_WEIGHT * Math.abs(acidity[i] - target.acidity())
+                    + SWEETNESS_WEIGHT * Math.abs(sweetness[i] - target.sweetness());
+            boolean paired = dishName != null && pairedDishes[i].contains(dishName);
+            boolean categoryMatch = (categoryMask[i] & targetMask) != 0;
+            float score = 60f * (1f - distance)
+                    + (paired ? 25f : 0f)
+                    + (categoryMatch ? 10f : 0f)
+                    + rating[i]
+                    + (target.festive() && types[i] == WineType.SPARKLING ? 5f : 0f);
+            best.add(new Match(i, Math.min(100, Math.round(score)), paired, categoryMatch));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Match> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingInt(Match::score).reversed().thenComparingLong(m -> ids[m.row()]));
+        return result;
+    }
+
+    /**
+     * Объяснение оценки теми же признаками, по которым она посчитана.
+     */
+    String reasoning(Match match, DishTarget target) {
+        int row = match.row();
+        StringBuilder text = new StringBuilder(160);
+        text.append(names[row]).append(" is a ").append(describeBody(body[row])).append(' ')
+                .append(types[row] != null ? types[row].name().toLowerCase().replace('_', ' ') : "wine");
+        if (flavors[row] != null) {
+            text.append(" (").append(flavors[row].name().toLowerCase()).append(')');
+        }
+        text.append(" with ").append(describeLevel(acidity[row])).append(" acidity");
+        if (match.pairedWithDish()) {
+            text.append(". The winery recommends it with ").append(target.dish().getName());
+        } else if (match.categoryMatch()) {
+            text.append(". It is recommended with ").append(describeCategories(target.categories())).append(" dishes");
+        }
+        text.append(". Its profile matches the ").append(describeBody(target.body())).append(", ")
+                .append(describeLevel(target.acidity())).append("-acidity style this dish calls for.");
+        return text.toString();
+    }
+
+    private static String describeCategories(Set<DishCategory> categories) {
+        return String.join("/", categories.stream().map(c -> c.name().toLowerCase()).toList());
+    }
+
+    private static String describeBody(float value) {
+        return value >= 0.7f ? "full-bodied" : value >= 0.4f ? "medium-bodied" : "light";
+    }
+
+    private static String describeLevel(float value) {
+        return value >= 0.7f ? "high" : value >= 0.4f ? "balanced" : "soft";
+    }
+
+    private static float body(WineType type, String grape) {
+        float base = switch (type != null ? type : WineType.OTHER) {
+            case RED -> 0.8f;
+            case ROSE -> 0.45f;
+            case WHITE -> 0.35f;
+            case SPARKLING -> 0.2f;
+            default -> 0.5f;
+        };
+        // Несколько сортов, заметно меняющих тело внутри типа
+        if (grape != null) {
+            String g = grape.toLowerCase();
+            if (g.contains("lemberger") || g.contains("cabernet") || g.contains("merlot") || g.contains("dornfelder")) {
+                base += 0.1f;
+            } else if (g.contains("trollinger") || g.contains("müller") || g.contains("riesling")) {
+                base -= 0.1f;
+            }
+        }
+        return Math.max(0f, Math.min(1f, base));
+    }
+
+    private static float acidity(BigDecimal value, WineType type) {
+        if (value != null) {
+            return Math.max(0f, Math.min(1f, (value.floatValue() - 4f) / 5f)); // 4..9 г/л
+        }
+        return type == WineType.RED ? 0.45f : 0.6f;
+    }
+
+    private static float sweetness(BigDecimal value, WineFlavor flavor) {
+        if (value != null) {
+            return Math.max(0f, Math.min(1f, value.floatValue() / 45f)); // 0..45 г/л остаточного сахара
+        }
+        if (flavor == null) {
+            return 0.2f;
+        }
+        return switch (flavor) {
+            case TROCKEN, BRUT -> 0.05f;
+            case HALBTROCKEN -> 0.35f;
+            case FEINHERB -> 0.4f;
+            case FRUCHTIG -> 0.6f;
+            case LIEBLICH -> 0.75f;
+            case MILD -> 0.85f;
+        };
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0L;
+    }
+}
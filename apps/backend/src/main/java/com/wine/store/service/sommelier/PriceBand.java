@@ -0,0 +1,42 @@
+package com.wine.store.service.sommelier;
+
+import java.math.BigDecimal;
+
+/**
+ * НАЗНАЧЕНИЕ: Бюджет из SommelierRequest.priceRange как диапазон цен для отбора в БД.
+ * ОСОБЕННОСТИ: Неизвестное или пустое значение — без ограничения по цене.
+ */
+public enum PriceBand {
+    UNDER_20(BigDecimal.ZERO, new BigDecimal("19.99")),
+    FROM_20_TO_50(new BigDecimal("20.00"), new BigDecimal("50.00")),
+    FROM_50(new BigDecimal("50.00"), new BigDecimal("999999.99")),
+    ANY(BigDecimal.ZERO, new BigDecimal("999999.99"));
+
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    PriceBand(BigDecimal min, BigDecimal max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public BigDecimal min() {
+        return min;
+    }
+
+    public BigDecimal max() {
+        return max;
+    }
+
+    public static PriceBand of(String priceRange) {
+        if (priceRange == null) {
+            return ANY;
+        }
+        return switch (priceRange.trim().toLowerCase()) {
+            case "under-20" -> UNDER_20;
+            case "20-50" -> FROM_20_TO_50;
+            case "50-plus" -> FROM_50;
+            default -> ANY;
+        };
+    }
+}
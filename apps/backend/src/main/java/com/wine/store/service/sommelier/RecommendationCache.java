@@ -0,0 +1,283 @@
+package com.wine.store.service.sommelier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wine.store.config.SommelierProperties;
+import com.wine.store.dto.CacheStatsDTO;
+import com.wine.store.dto.SommelierResponse;
+import com.wine.store.dto.WineDTO;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.WineDtoAssembler;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Кэш готовых рекомендаций AI-сомелье по нормализованному запросу (RecommendationKey).
+ * ЗАВИСИМОСТИ: SommelierProperties, WineRepository (отпечаток каталога и вина при загрузке с диска).
+ * ОСОБЕННОСТИ: LRU с ограничением размера и TTL. Сбрасывается целиком после коммита изменений каталога;
+ * ответ, полученный от LLM во время сброса, не сохраняется (версия каталога сверяется при записи).
+ * Раз в минуту и при остановке кэш пишется на диск (id вин, оценка, обоснование) вместе с отпечатком
+ * каталога; при старте загружается, только если отпечаток совпал.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationCache {
+
+    private final SommelierProperties properties;
+    private final WineRepository wineRepository;
+    private final WineDtoAssembler wineDtoAssembler;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper fileMapper = new ObjectMapper();
+
+    // accessOrder = true: порядок обхода — от давно не использованных записей; доступ под synchronized (entries)
+    private final Map<RecommendationKey, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile boolean dirty;
+
+    private record Entry(List<SommelierResponse> recommendations, long expiresAtMillis) {
+    }
+
+    // Формат файла на диске: WineDTO не сохраняется, вина загружаются заново при старте
+    record PersistedRecommendation(Long wineId, int matchScore, String matchReasoning) {
+    }
+
+    record PersistedEntry(RecommendationKey key, long expiresAtMillis, List<PersistedRecommendation> recommendations) {
+    }
+
+    record PersistedCache(String catalogFingerprint, List<PersistedEntry> entries) {
+    }
+
+    /**
+     * Версия каталога на момент начала запроса — передается в put().
+     */
+    public long catalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public Optional<List<SommelierResponse>> get(RecommendationKey key) {
+        if (!properties.isCacheEnabled()) {
+            return Optional.empty();
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.recommendations());
+    }
+
+    /**
+     * Пустые ответы (ошибка LLM) не кэшируются.
+     */
+    public void put(RecommendationKey key, long version, List<SommelierResponse> recommendations) {
+        if (!properties.isCacheEnabled() || recommendations.isEmpty()) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + properties.getCacheTtl().toMillis();
+        synchronized (entries) {
+            if (catalogVersion.get() != version) {
+                return;
+            }
+            entries.put(key, new Entry(List.copyOf(recommendations), expiresAt));
+            evictOverflow();
+            dirty = true;
+        }
+    }
+
+    public CacheStatsDTO stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return CacheStatsDTO.of(hits.sum(), misses.sum(), size, properties.getCacheMaxEntries(), evictions.sum());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Рекомендация ссылается на цены, наличие и описания вин — любое изменение делает ее сомнительной
+        synchronized (entries) {
+            catalogVersion.incrementAndGet();
+            entries.clear();
+            dirty = true;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Path file = cacheFile();
+        if (file == null || !properties.isCacheEnabled() || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            long version = catalogVersion.get();
+            PersistedCache persisted = fileMapper.readValue(file.toFile(), PersistedCache.class);
+            if (!Objects.equals(persisted.catalogFingerprint(), catalogFingerprint())) {
+                log.info("Catalog changed since the sommelier cache was saved, starting with an empty cache");
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            List<PersistedEntry> live = persisted.entries().stream()
+                    .filter(entry -> entry.expiresAtMillis() > now)
+                    .toList();
+            Set<Long> wineIds = live.stream()
+                    .flatMap(entry -> entry.recommendations().stream())
+                    .map(PersistedRecommendation::wineId)
+                    .collect(Collectors.toSet());
+            Map<Long, WineDTO> wines = loadWines(wineIds);
+
+            int restored = 0;
+            synchronized (entries) {
+                if (catalogVersion.get() != version) {
+                    return;
+                }
+                for (PersistedEntry entry : live) {
+                    List<SommelierResponse> recommendations = restore(entry, wines);
+                    if (recommendations != null) {
+                        entries.put(entry.key(), new Entry(recommendations, entry.expiresAtMillis()));
+                        restored++;
+                    }
+                }
+                evictOverflow();
+            }
+            log.info("Restored {} sommelier recommendation(s) from {}", restored, file);
+        } catch (Exception e) {
+            log.warn("Failed to load sommelier cache from {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void flush() {
+        if (dirty) {
+            save();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (dirty) {
+            save();
+        }
+    }
+
+    private void save() {
+        Path file = cacheFile();
+        if (file == null) {
+            return;
+        }
+        dirty = false;
+        List<PersistedEntry> snapshot = new ArrayList<>();
+        synchronized (entries) {
+            entries.forEach((key, entry) -> snapshot.add(new PersistedEntry(key, entry.expiresAtMillis(),
+                    entry.recommendations().stream()
+                            .map(rec -> new PersistedRecommendation(rec.wine().getId(), rec.matchScore(), rec.matchReasoning()))
+                            .toList())));
+        }
+        try {
+            PersistedCache persisted = new PersistedCache(catalogFingerprint(), snapshot);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            // Запись во временный файл и атомарная замена: прерванная запись не портит прежний кэш
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            fileMapper.writeValue(tmp.toFile(), persisted);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Saved {} sommelier recommendation(s) to {}", snapshot.size(), file);
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            log.warn("Failed to save sommelier cache to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private List<SommelierResponse> restore(PersistedEntry entry, Map<Long, WineDTO> wines) {
+        List<SommelierResponse> recommendations = new ArrayList<>(entry.recommendations().size());
+        for (PersistedRecommendation rec : entry.recommendations()) {
+            WineDTO wine = wines.get(rec.wineId());
+            if (wine == null) {
+                return null; // Вино удалено — запись неполная, пусть пересчитается
+            }
+            recommendations.add(SommelierResponse.builder()
+                    .wine(wine)
+                    .matchScore(rec.matchScore())
+                    .matchReasoning(rec.matchReasoning())
+                    .build());
+        }
+        return recommendations.isEmpty() ? null : List.copyOf(recommendations);
+    }
+
+    private void evictOverflow() {
+        Iterator<RecommendationKey> eldest = entries.keySet().iterator();
+        while (entries.size() > Math.max(1, properties.getCacheMaxEntries()) && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private Map<Long, WineDTO> loadWines(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return Objects.requireNonNull(readOnly().execute(status -> wineDtoAssembler.toDtos(wineRepository.findAllById(ids))
+                .stream()
+                .collect(Collectors.toMap(WineDTO::getId, Function.identity(), (a, b) -> a, HashMap::new))));
+    }
+
+    private String catalogFingerprint() {
+        List<Object[]> rows = readOnly().execute(status -> wineRepository.catalogFingerprint());
+        return rows == null || rows.isEmpty() ? "" : Arrays.toString(rows.get(0));
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private Path cacheFile() {
+        return StringUtils.hasText(properties.getCacheFile()) ? Path.of(properties.getCacheFile()) : null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.dto.SommelierRequest;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Нормализованный запрос к AI-сомелье — ключ кэша рекомендаций.
+ * ОСОБЕННОСТИ: Блюдо приводится к нижнему регистру без пунктуации и лишних пробелов, бюджет — к PriceBand,
+ * повод и настроение — к каноническому значению по словарю синонимов (en/de).
+ */
+public record RecommendationKey(String dish, PriceBand priceBand, String occasion, String mood) {
+
+    private static final String ANY = "any";
+
+    // Синоним (слово или фраза после нормализации) → каноническое значение
+    private static final Map<String, String> SYNONYMS = Map.ofEntries(
+            Map.entry("dinner with friends", "friends"), Map.entry("friends", "friends"),
+            Map.entry("mit freunden", "friends"), Map.entry("freunde", "friends"),
+            Map.entry("abendessen mit freunden", "friends"),
+            Map.entry("date", "romantic"), Map.entry("romantic", "romantic"), Map.entry("romantic dinner", "romantic"),
+            Map.entry("romantisch", "romantic"), Map.entry("date night", "romantic"),
+            Map.entry("party", "celebration"), Map.entry("celebration", "celebration"),
+            Map.entry("birthday", "celebration"), Map.entry("geburtstag", "celebration"),
+            Map.entry("feier", "celebration"), Map.entry("wedding", "celebration"), Map.entry("hochzeit", "celebration"),
+            Map.entry("family", "family"), Map.entry("family dinner", "family"), Map.entry("familie", "family"),
+            Map.entry("business", "business"), Map.entry("business dinner", "business"),
+            Map.entry("geschäftsessen", "business"),
+            Map.entry("relaxed", "relaxed"), Map.entry("relaxing", "relaxed"), Map.entry("chill", "relaxed"),
+            Map.entry("cozy", "relaxed"), Map.entry("entspannt", "relaxed"), Map.entry("gemütlich", "relaxed"),
+            Map.entry("happy", "happy"), Map.entry("cheerful", "happy"), Map.entry("fröhlich", "happy"),
+            Map.entry("festive", "festive"), Map.entry("festlich", "festive"), Map.entry("elegant", "festive"),
+            Map.entry("adventurous", "adventurous"), Map.entry("experimental", "adventurous"),
+            Map.entry("abenteuerlustig", "adventurous"));
+
+    public static RecommendationKey of(SommelierRequest request) {
+        return new RecommendationKey(
+                normalize(request.dish()),
+                PriceBand.of(request.priceRange()),
+                canonical(request.occasion()),
+                canonical(request.mood()));
+    }
+
+    private static String canonical(String value) {
+        String normalized = normalize(value);
+        return SYNONYMS.getOrDefault(normalized, normalized);
+    }
+
+    static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return ANY;
+        }
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFC).toLowerCase();
+        String normalized = Arrays.stream(folded.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.joining(" "));
+        return normalized.isEmpty() || normalized.equals(ANY) ? ANY : normalized;
+    }
+}
@@ -0,0 +1,14 @@
+package com.wine.store.service.sommelier;
+
+/**
+ * НАЗНАЧЕНИЕ: Режим POST /api/ai/recommend.
+ * AI — рекомендации LLM (при ошибке или пустом ответе — локальный движок), LOCAL — только PairingEngine.
+ */
+public enum RecommendationMode {
+    AI,
+    LOCAL;
+
+    public static RecommendationMode of(String mode) {
+        return mode != null && mode.trim().equalsIgnoreCase("local") ? LOCAL : AI;
+    }
+}
@@ -0,0 +1,19 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.model.WineEnrichment;
+import com.wine.store.repository.projection.DishPairingView;
+import com.wine.store.repository.projection.SommelierCandidateView;
+
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Вино-кандидат для промпта AI-сомелье с локальной оценкой соответствия запросу.
+ * ОСОБЕННОСТИ: enrichment — результат офлайн-обогащения или null, если вино еще не обогащено.
+ */
+public record SommelierCandidate(SommelierCandidateView wine, List<DishPairingView> dishes, double score,
+                                 WineEnrichment enrichment) {
+
+    SommelierCandidate withEnrichment(WineEnrichment enrichment, double score) {
+        return new SommelierCandidate(wine, dishes, score, enrichment);
+    }
+}
@@ -0,0 +1,165 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.config.SommelierProperties;
+import com.wine.store.dto.SommelierRequest;
+import com.wine.store.model.DishCategory;
+import com.wine.store.model.StockStatus;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import com.wine.store.model.WineEnrichment;
+import com.wine.store.repository.WineEnrichmentRepository;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.projection.DishPairingView;
+import com.wine.store.repository.projection.SommelierCandidateView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * НАЗНАЧЕНИЕ: Отбор вин-кандидатов для AI-сомелье до обращения к LLM.
+ * ЗАВИСИМОСТИ: WineRepository (проекции), WineEnrichmentRepository (офлайн-обогащение), SommelierProperties.
+ * ОСОБЕННОСТИ: БД отсекает вина вне бюджета и не в наличии, остальные оцениваются локально по блюду,
+ * поводу и настроению: совпадение с рекомендованными блюдами вина, категория блюда → тип и вкус вина,
+ * рейтинг. В промпт уходят только candidateLimit лучших, после досортировки по тегам офлайн-обогащения.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SommelierCandidateSelector {
+
+    static final Set<StockStatus> AVAILABLE = EnumSet.of(StockStatus.IN_STOCK, StockStatus.ON_DEMAND);
+
+    // Классические сочетания: категория блюда → баллы за тип вина
+    private static final Map<DishCategory, Map<WineType, Double>> TYPE_AFFINITY = Map.of(
+            DishCategory.MEAT, Map.of(WineType.RED, 3.0, WineType.ROSE, 1.0),
+            DishCategory.FISH, Map.of(WineType.WHITE, 3.0, WineType.SPARKLING, 1.5, WineType.ROSE, 1.0),
+            DishCategory.POULTRY, Map.of(WineType.WHITE, 2.0, WineType.ROSE, 2.0, WineType.RED, 1.0),
+            DishCategory.CHEESE, Map.of(WineType.RED, 2.0, WineType.WHITE, 2.0),
+            DishCategory.DESSERT, Map.of(WineType.SPARKLING, 1.5, WineType.WHITE, 1.0),
+            DishCategory.VEGETABLE, Map.of(WineType.WHITE, 3.0, WineType.ROSE, 1.5),
+            DishCategory.PASTA, Map.of(WineType.RED, 2.0, WineType.WHITE, 1.5),
+            DishCategory.PIZZA, Map.of(WineType.RED, 2.0, WineType.ROSE, 1.5),
+            DishCategory.APPETIZER, Map.of(WineType.SPARKLING, 3.0, WineType.WHITE, 1.5, WineType.ROSE, 1.5));
+
+    private static final Set<WineFlavor> SWEET = EnumSet.of(WineFlavor.LIEBLICH, WineFlavor.MILD, WineFlavor.FRUCHTIG);
+
+    private static final Comparator<SommelierCandidate> BY_SCORE = Comparator
+            .comparingDouble(SommelierCandidate::score).reversed()
+            .thenComparing(candidate -> candidate.wine().id());
+
+    private final WineRepository wineRepository;
+    private final WineEnrichmentRepository enrichmentRepository;
+    private final SommelierProperties properties;
+
+    /**
+     * @return не более candidateLimit кандидатов, лучшие первыми
+     */
+    @Transactional(readOnly = true)
+    public List<SommelierCandidate> select(SommelierRequest request) {
+        PriceBand band = PriceBand.of(request.priceRange());
+        List<SommelierCandidateView> wines = wineRepository.findSommelierCandidates(band.min(), band.max(), AVAILABLE);
+        if (wines.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<DishPairingView>> dishesByWine = wineRepository
+                .findSommelierDishPairings(band.min(), band.max(), AVAILABLE).stream()
+                .collect(Collectors.groupingBy(DishPairingView::wineId));
+
+        Set<String> dishTokens = DishKeywords.tokens(request.dish());
+        Set<String> contextTokens = new HashSet<>(DishKeywords.tokens(request.occasion()));
+        contextTokens.addAll(DishKeywords.tokens(request.mood()));
+        Set<DishCategory> categories = DishKeywords.categories(dishTokens);
+        boolean festive = contextTokens.stream().anyMatch(DishKeywords.FESTIVE::contains);
+
+        List<SommelierCandidate> ranked = wines.stream()
+                .map(wine -> {
+                    List<DishPairingView> dishes = dishesByWine.getOrDefault(wine.id(), List.of());
+                    return new SommelierCandidate(wine, dishes, score(wine, dishes, dishTokens, categories, festive), null);
+                })
+                .sorted(BY_SCORE)
+                .limit(Math.max(1, properties.getCandidateLimit()))
+                .toList();
+        List<SommelierCandidate> candidates = rerank(ranked, dishTokens, categories);
+        log.debug("Selected {} of {} sommelier candidates (budget: {}, dish categories: {})",
+                candidates.size(), wines.size(), band, categories);
+        return candidates;
+    }
+
+    /**
+     * Досортировка по офлайн-обогащению: теги сочетаний, совпавшие с блюдом, и сладость для десертов.
+     * Если лучшие кандидаты обогащены, в промпт уходит только enrichedCandidateLimit — профиль и теги
+     * модели уже известны, и длинный список ей не нужен.
+     */
+    private List<SommelierCandidate> rerank(List<SommelierCandidate> ranked, Set<String> dishTokens,
+                                            Set<DishCategory> categories) {
+        Map<Long, WineEnrichment> enrichments = enrichmentRepository.findAllById(ranked.stream()
+                        .map(candidate -> candidate.wine().id())
+                        .toList()).stream()
+                .collect(Collectors.toMap(WineEnrichment::getWineId, Function.identity()));
+        if (enrichments.isEmpty()) {
+            return ranked;
+        }
+        List<SommelierCandidate> reranked = ranked.stream()
+                .map(candidate -> {
+                    WineEnrichment enrichment = enrichments.get(candidate.wine().id());
+                    return enrichment == null ? candidate : candidate.withEnrichment(enrichment,
+                            candidate.score() + enrichmentScore(enrichment, dishTokens, categories));
+                })
+                .sorted(BY_SCORE)
+                .toList();
+        int enrichedLimit = Math.max(1, properties.getEnrichedCandidateLimit());
+        boolean topEnriched = reranked.stream().limit(enrichedLimit).allMatch(candidate -> candidate.enrichment() != null);
+        return topEnriched && reranked.size() > enrichedLimit ? reranked.subList(0, enrichedLimit) : reranked;
+    }
+
+    private static double enrichmentScore(WineEnrichment enrichment, Set<String> dishTokens, Set<DishCategory> categories) {
+        double score = 0;
+        for (String tag : enrichment.pairingTagList()) {
+            if (DishKeywords.tokens(tag).stream().anyMatch(dishTokens::contains)) {
+                score += 4;
+            }
+        }
+        if (categories.contains(DishCategory.DESSERT) && enrichment.getSweetness() != null && enrichment.getSweetness() >= 4) {
+            score += 2;
+        }
+        return Math.min(score, 10);
+    }
+
+    private static double score(SommelierCandidateView wine, List<DishPairingView> dishes, Set<String> dishTokens,
+                                Set<DishCategory> categories, boolean festive) {
+        double score = 0;
+        for (DishPairingView dish : dishes) {
+            // Блюдо из запроса прямо указано в рекомендациях вина — сильнейший сигнал
+            if (DishKeywords.tokens(dish.dishName()).stream().anyMatch(dishTokens::contains)) {
+                score += 5;
+            } else if (dish.dishCategory() != null && categories.contains(dish.dishCategory())) {
+                score += 2;
+            }
+        }
+        for (DishCategory category : categories) {
+            if (wine.type() != null) {
+                score += TYPE_AFFINITY.getOrDefault(category, Map.of()).getOrDefault(wine.type(), 0.0);
+            }
+            if (category == DishCategory.DESSERT && SWEET.contains(wine.flavor())) {
+                score += 3;
+            }
+        }
+        if (festive && wine.type() == WineType.SPARKLING) {
+            score += 2;
+        }
+        if (wine.rating() != null) {
+            score += wine.rating() * 0.5;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,81 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.config.SommelierProperties;
+import com.wine.store.model.WineEnrichment;
+import com.wine.store.repository.projection.DishPairingView;
+import com.wine.store.repository.projection.SommelierCandidateView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Контекст вин для промпта AI-сомелье в пределах бюджета токенов.
+ * ОСОБЕННОСТИ: Кандидаты добавляются по убыванию оценки, пока оценка длины (~4 символа на токен)
+ * не превысит promptTokenBudget. Первый кандидат попадает всегда. Для обогащенных вин вместо сырой
+ * аналитики и списка блюд идет компактный профиль (шкалы 1–5), теги сочетаний и короткая заметка.
+ */
+@Component
+@RequiredArgsConstructor
+public class SommelierPromptBuilder {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final SommelierProperties properties;
+
+    public String winesContext(List<SommelierCandidate> candidates) {
+        int budgetChars = properties.getPromptTokenBudget() * CHARS_PER_TOKEN;
+        StringBuilder context = new StringBuilder(Math.min(budgetChars, 16_384));
+        for (SommelierCandidate candidate : candidates) {
+            String line = line(candidate);
+            if (!context.isEmpty() && context.length() + line.length() + 1 > budgetChars) {
+                break;
+            }
+            if (!context.isEmpty()) {
+                context.append('\n');
+            }
+            context.append(line);
+        }
+        return context.toString();
+    }
+
+    private String line(SommelierCandidate candidate) {
+        SommelierCandidateView wine = candidate.wine();
+        StringBuilder line = new StringBuilder(160)
+                .append("ID: ").append(wine.id())
+                .append(", Name: ").append(wine.name())
+                .append(", Type: ").append(wine.type())
+                .append(", Price: ").append(wine.price());
+        if (wine.grapeVariety() != null) {
+            line.append(", Grape: ").append(wine.grapeVariety());
+        }
+        if (candidate.enrichment() != null) {
+            return appendEnrichment(line, candidate.enrichment()).toString();
+        }
+        line.append(", Features: [Acidity: ").append(wine.acidity())
+                .append(", Sugar: ").append(wine.sugar())
+                .append(", Flavor: ").append(wine.flavor()).append(']');
+        List<String> dishes = candidate.dishes().stream()
+                .map(DishPairingView::dishName)
+                .limit(Math.max(0, properties.getMaxDishesPerWine()))
+                .toList();
+        if (!dishes.isEmpty()) {
+            line.append(", Dishes: ").append(dishes);
+        }
+        return line.toString();
+    }
+
+    private static StringBuilder appendEnrichment(StringBuilder line, WineEnrichment enrichment) {
+        line.append(", Profile: [Body ").append(enrichment.getBody())
+                .append(", Acid ").append(enrichment.getAcidity())
+                .append(", Sweet ").append(enrichment.getSweetness())
+                .append(", Tannin ").append(enrichment.getTannin()).append(']');
+        if (enrichment.getPairingTags() != null) {
+            line.append(", Pairs: ").append(enrichment.getPairingTags());
+        }
+        if (enrichment.getBlurb() != null) {
+            line.append(", Note: ").append(enrichment.getBlurb());
+        }
+        return line;
+    }
+}
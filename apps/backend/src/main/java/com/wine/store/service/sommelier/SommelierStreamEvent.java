@@ -0,0 +1,27 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.dto.SommelierResponse;
+
+/**
+ * НАЗНАЧЕНИЕ: Событие потоковой выдачи сомелье (POST /api/ai/recommend/stream).
+ * ОСОБЕННОСТИ: LOCAL — мгновенный результат локального движка, RECOMMENDATION — рекомендация LLM
+ * (или из кэша), DONE — конец потока с источником итогового ответа.
+ */
+public record SommelierStreamEvent(Type type, SommelierResponse recommendation, String source) {
+
+    public enum Type {
+        LOCAL, RECOMMENDATION, DONE
+    }
+
+    public static SommelierStreamEvent local(SommelierResponse recommendation) {
+        return new SommelierStreamEvent(Type.LOCAL, recommendation, null);
+    }
+
+    public static SommelierStreamEvent recommendation(SommelierResponse recommendation) {
+        return new SommelierStreamEvent(Type.RECOMMENDATION, recommendation, null);
+    }
+
+    public static SommelierStreamEvent done(String source) {
+        return new SommelierStreamEvent(Type.DONE, null, source);
+    }
+}
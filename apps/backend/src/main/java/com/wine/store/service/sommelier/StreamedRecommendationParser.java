@@ -0,0 +1,84 @@
+package com.wine.store.service.sommelier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Разбор потокового ответа LLM на рекомендации по мере поступления.
+ * ОСОБЕННОСТИ: Ответ приходит произвольными кусками текста; парсер отслеживает вложенность фигурных скобок
+ * (без учета скобок внутри строк) и отдает каждый JSON-объект верхнего уровня, как только он закрыт.
+ * Поэтому не важно, прислала модель JSON Lines, массив или обернула ответ в markdown.
+ * Объект, который не удалось разобрать, пропускается. Экземпляр — на один ответ, не потокобезопасен.
+ */
+@Slf4j
+public final class StreamedRecommendationParser {
+
+    // Собственный ObjectMapper: ключи задает промпт (camelCase), а не глобальная SNAKE_CASE-настройка API
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Рекомендация в том виде, в каком ее прислала модель.
+     */
+    public record ParsedRecommendation(Long wineId, Integer matchScore, String matchReasoning) {
+    }
+
+    private final StringBuilder object = new StringBuilder();
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+
+    /**
+     * @return рекомендации, завершенные этим куском текста
+     */
+    public List<ParsedRecommendation> feed(String chunk) {
+        List<ParsedRecommendation> completed = new ArrayList<>(1);
+        if (chunk == null) {
+            return completed;
+        }
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (depth == 0) {
+                if (c == '{') {
+                    depth = 1;
+                    object.setLength(0);
+                    object.append(c);
+                }
+                continue;
+            }
+            object.append(c);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                parse(object.toString(), completed);
+            }
+        }
+        return completed;
+    }
+
+    private static void parse(String json, List<ParsedRecommendation> completed) {
+        try {
+            ParsedRecommendation parsed = MAPPER.readValue(json, ParsedRecommendation.class);
+            if (parsed.wineId() != null) {
+                completed.add(parsed);
+            }
+        } catch (JsonProcessingException e) {
+            log.debug("Skipping malformed recommendation in LLM stream: {}", e.getOriginalMessage());
+        }
+    }
+}
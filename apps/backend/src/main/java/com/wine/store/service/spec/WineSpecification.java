@@ -4,10 +4,16 @@ import com.wine.store.dto.WineSearchRequest;
 import com.wine.store.model.Wine;
 import com.wine.store.model.WineFlavor;
 import com.wine.store.model.WineType;
+import com.wine.store.service.catalog.WineCursor;
+import com.wine.store.service.catalog.WineKeysetOrder;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,7 +36,10 @@ public class WineSpecification {
                 String pattern = "%" + request.search().toLowerCase() + "%";
                 predicates.add(cb.or(
                         cb.like(cb.lower(root.get("name")), pattern),
-                        cb.like(cb.lower(root.get("description")), pattern),
+                        // description — @Lob (CLOB): Hibernate 6 принимает в lower() только строковый тип, без CAST
+                        // запрос не строится. В PostgreSQL колонка TEXT, и cast(description as varchar) — пустое
+                        // приведение: планировщик сводит выражение к lower(description) из idx_wines_description_trgm
+                        cb.like(cb.lower(root.get("description").as(String.class)), pattern),
                         cb.like(cb.lower(root.get("grapeVariety")), pattern),
                         cb.like(cb.lower(root.join("tags", jakarta.persistence.criteria.JoinType.LEFT)), pattern)));
                 if (query != null) {
@@ -86,7 +95,67 @@ public class WineSpecification {
                 predicates.add(cb.lessThanOrEqualTo(root.get("price"), request.maxPrice()));
             }
 
+            // 8. Аналитика по диапазону (числовые колонки с индексами); вина без значения не проходят фильтр
+            addRange(predicates, cb, root.get("alcoholPercent"), request.minAlcohol(), request.maxAlcohol());
+            addRange(predicates, cb, root.get("acidityGrams"), request.minAcidity(), request.maxAcidity());
+            addRange(predicates, cb, root.get("sugarGrams"), request.minSugar(), request.maxSugar());
+
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    private static void addRange(List<Predicate> predicates, CriteriaBuilder cb, Path<BigDecimal> path,
+                                 BigDecimal min, BigDecimal max) {
+        if (min != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, min));
+        }
+        if (max != null) {
+            predicates.add(cb.lessThanOrEqualTo(path, max));
+        }
+    }
+
+    /**
+     * Keyset-пагинация: строки строго после курсора и порядок "ключ, затем id".
+     * Сортировка задается здесь, а не через Pageable: нужен NULLS LAST для рейтинга.
+     * Порядок совпадает с обходом WineCatalogIndex.findAfter.
+     *
+     * @param cursor null — первая страница
+     */
+    public static Specification<Wine> keyset(WineKeysetOrder order, WineCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            Path<BigDecimal> price = root.get("price");
+            Path<Double> rating = root.get("rating");
+            if (query != null) {
+                HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+                query.orderBy(switch (order) {
+                    case ID_ASC -> List.of(cb.asc(id));
+                    case ID_DESC -> List.of(cb.desc(id));
+                    case PRICE_ASC -> List.of(cb.asc(price), cb.asc(id));
+                    case PRICE_DESC -> List.of(cb.desc(price), cb.desc(id));
+                    case RATING_DESC -> List.of(hcb.desc(rating, false), cb.asc(id));
+                });
+            }
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+
+            return switch (order) {
+                case ID_ASC -> cb.greaterThan(id, cursor.id());
+                case ID_DESC -> cb.lessThan(id, cursor.id());
+                case PRICE_ASC -> cb.or(
+                        cb.greaterThan(price, cursor.value()),
+                        cb.and(cb.equal(price, cursor.value()), cb.greaterThan(id, cursor.id())));
+                case PRICE_DESC -> cb.or(
+                        cb.lessThan(price, cursor.value()),
+                        cb.and(cb.equal(price, cursor.value()), cb.lessThan(id, cursor.id())));
+                case RATING_DESC -> cursor.value() == null
+                        ? cb.and(cb.isNull(rating), cb.greaterThan(id, cursor.id()))
+                        : cb.or(
+                                cb.lessThan(rating, cursor.value().doubleValue()),
+                                cb.and(cb.equal(rating, cursor.value().doubleValue()), cb.greaterThan(id, cursor.id())),
+                                cb.isNull(rating));
+            };
+        };
+    }
 }
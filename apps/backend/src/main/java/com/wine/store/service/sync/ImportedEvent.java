@@ -0,0 +1,18 @@
+package com.wine.store.service.sync;
+
+import java.math.BigDecimal;
+
+/**
+ * НАЗНАЧЕНИЕ: Мероприятие, подготовленное к записи из товара WooCommerce.
+ * ОСОБЕННОСТИ: null в imageUrl означает "не менять"; totalSpots применяется только к новым мероприятиям
+ * или если количество мест еще не задано. contentHash — хеш всех остальных полей.
+ */
+public record ImportedEvent(
+        String slug,
+        String title,
+        String description,
+        String imageUrl,
+        BigDecimal pricePerPerson,
+        Integer totalSpots,
+        String contentHash) {
+}
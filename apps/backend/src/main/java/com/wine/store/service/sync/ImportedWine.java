@@ -0,0 +1,38 @@
+package com.wine.store.service.sync;
+
+import com.wine.store.model.StockStatus;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+
+import java.math.BigDecimal;
+
+/**
+ * НАЗНАЧЕНИЕ: Вино, подготовленное к записи из товара WooCommerce.
+ * ОСОБЕННОСТИ: null в imageUrl, grapeVariety, releaseYear, flavor, edition, alcohol, acidity, sugar означает
+ * "не менять" существующее значение. Числовые alcoholPercent, acidityGrams, sugarGrams разобраны из строк
+ * при сопоставлении (TastingValues) и записываются вместе с ними.
+ * contentHash — хеш всех остальных полей, по нему пропускаются неизмененные товары.
+ */
+public record ImportedWine(
+        String slug,
+        String name,
+        String description,
+        String imageUrl,
+        BigDecimal price,
+        BigDecimal salePrice,
+        boolean sale,
+        StockStatus stockStatus,
+        Integer stockQuantity,
+        WineType type,
+        String grapeVariety,
+        Integer releaseYear,
+        WineFlavor flavor,
+        String edition,
+        String alcohol,
+        BigDecimal alcoholPercent,
+        String acidity,
+        BigDecimal acidityGrams,
+        String sugar,
+        BigDecimal sugarGrams,
+        String contentHash) {
+}
@@ -0,0 +1,72 @@
+package com.wine.store.service.sync;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * НАЗНАЧЕНИЕ: Блокировка синхронизации WooCommerce, общая для всех узлов.
+ * ЗАВИСИМОСТИ: JdbcTemplate (таблица job_locks).
+ * ОСОБЕННОСТИ: Блокировка — строка job_locks, которую узел занимает условным UPDATE: строка свободна
+ * или ее владелец давно не присылал heartbeat (узел упал, не сняв блокировку). Одновременно UPDATE
+ * выигрывает только один узел — вторая транзакция ждет строку и уже не проходит условие.
+ * Работает одинаково в PostgreSQL и H2, в отличие от pg_try_advisory_lock, которая к тому же
+ * привязана к соединению, а не к задаче в виртуальном потоке.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncJobLock {
+
+    private static final String NAME = "woocommerce-sync";
+
+    private static final String ACQUIRE = "UPDATE job_locks SET owner_node = ?, job_id = NULL, heartbeat_at = ? "
+            + "WHERE name = ? AND (owner_node IS NULL OR heartbeat_at < ?)";
+    private static final String ATTACH = "UPDATE job_locks SET job_id = ? WHERE name = ? AND owner_node = ?";
+    private static final String HEARTBEAT = "UPDATE job_locks SET heartbeat_at = ? WHERE name = ? AND owner_node = ?";
+    private static final String RELEASE = "UPDATE job_locks SET owner_node = NULL, job_id = NULL, heartbeat_at = NULL "
+            + "WHERE name = ? AND owner_node = ?";
+    private static final String OWNER = "SELECT owner_node FROM job_locks WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // pid@host: после перезапуска на том же хосте id обычно совпадает, и незавершенные задачи
+    // прошлого запуска узнаются как свои
+    @Getter
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * @param staleAfter через сколько без heartbeat чужая блокировка считается брошенной
+     * @return true, если блокировка теперь принадлежит этому узлу
+     */
+    public boolean tryAcquire(Duration staleAfter) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(ACQUIRE, nodeId, now, NAME, now.minus(staleAfter)) == 1;
+    }
+
+    public void attach(Long jobId) {
+        jdbcTemplate.update(ATTACH, jobId, NAME, nodeId);
+    }
+
+    /**
+     * @return false, если блокировку уже забрал другой узел (heartbeat надолго задержался)
+     */
+    public boolean heartbeat() {
+        return jdbcTemplate.update(HEARTBEAT, LocalDateTime.now(), NAME, nodeId) == 1;
+    }
+
+    /**
+     * Снимает блокировку, только если она все еще принадлежит этому узлу.
+     */
+    public void release() {
+        jdbcTemplate.update(RELEASE, NAME, nodeId);
+    }
+
+    public String owner() {
+        return jdbcTemplate.queryForObject(OWNER, String.class, NAME);
+    }
+}
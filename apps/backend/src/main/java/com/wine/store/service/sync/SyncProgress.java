@@ -0,0 +1,163 @@
+package com.wine.store.service.sync;
+
+import com.wine.store.dto.SyncReport;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * НАЗНАЧЕНИЕ: Счетчики одного прогона импорта WooCommerce.
+ * ОСОБЕННОСТИ: Потокобезопасны — этапы загрузки и сопоставления выполняются в виртуальных потоках,
+ * запись — в потоке синхронизации, а toReport() вызывается и во время прогона (прогресс задачи).
+ */
+public class SyncProgress {
+
+    private final long startedAt = System.nanoTime();
+    private final boolean fullResync;
+    private final LocalDateTime modifiedAfter;
+
+    private final AtomicInteger pages = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final AtomicInteger updated = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger ignored = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicReference<LocalDateTime> maxModified = new AtomicReference<>();
+    // X-WP-Total первой страницы; другое значение на следующих — выборка изменилась во время прогона
+    private final AtomicInteger listingTotal = new AtomicInteger(-1);
+    private volatile boolean listingChanged;
+    private volatile String errorMessage;
+    private volatile String cancelReason;
+
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAdder mapNanos = new LongAdder();
+    private final LongAdder resolveNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    public SyncProgress(boolean fullResync, LocalDateTime modifiedAfter) {
+        this.fullResync = fullResync;
+        this.modifiedAfter = modifiedAfter;
+    }
+
+    public void pageFetched(int products, long nanos) {
+        pages.incrementAndGet();
+        processed.addAndGet(products);
+        fetchNanos.add(nanos);
+    }
+
+    public void listingTotal(int total) {
+        if (total < 0) {
+            return;
+        }
+        int first = listingTotal.compareAndExchange(-1, total);
+        if (first >= 0 && first != total) {
+            listingChanged = true;
+        }
+    }
+
+    /**
+     * @return true, если товары добавлялись или удалялись во время прогона — страницы могли сдвинуться
+     */
+    public boolean listingChanged() {
+        return listingChanged;
+    }
+
+    public void mapped(int ignoredProducts, LocalDateTime pageMaxModified, long nanos) {
+        ignored.addAndGet(ignoredProducts);
+        if (pageMaxModified != null) {
+            maxModified.accumulateAndGet(pageMaxModified, (a, b) -> a == null || b.isAfter(a) ? b : a);
+        }
+        mapNanos.add(nanos);
+    }
+
+    public void resolved(long nanos) {
+        resolveNanos.add(nanos);
+    }
+
+    public void written(int insertedRows, int updatedRows, int unchangedRows, long nanos) {
+        inserted.addAndGet(insertedRows);
+        updated.addAndGet(updatedRows);
+        skipped.addAndGet(unchangedRows);
+        writeNanos.add(nanos);
+    }
+
+    public void failed(int products) {
+        failed.addAndGet(products);
+    }
+
+    public void aborted(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        errorMessage = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Останавливает прогон перед записью следующей страницы; уже записанные страницы остаются.
+     */
+    public void cancel(String reason) {
+        cancelReason = reason;
+    }
+
+    /**
+     * @throws CancellationException если прогон остановлен через cancel()
+     */
+    public void throwIfCancelled() {
+        String reason = cancelReason;
+        if (reason != null) {
+            throw new CancellationException(reason);
+        }
+    }
+
+    public boolean isFullResync() {
+        return fullResync;
+    }
+
+    public LocalDateTime getModifiedAfter() {
+        return modifiedAfter;
+    }
+
+    /**
+     * @return причина прерывания прогона или null, если прогон дошел до конца
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public int failedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return максимальный date_modified_gmt среди загруженных товаров — следующий курсор
+     */
+    public LocalDateTime maxModified() {
+        return maxModified.get();
+    }
+
+    public SyncReport toReport() {
+        long durationNanos = System.nanoTime() - startedAt;
+        double seconds = durationNanos / 1_000_000_000.0;
+        double throughput = seconds > 0 ? Math.round(processed.get() / seconds * 10) / 10.0 : 0.0;
+        return new SyncReport(
+                fullResync,
+                modifiedAfter,
+                pages.get(),
+                processed.get(),
+                inserted.get() + updated.get(),
+                inserted.get(),
+                updated.get(),
+                skipped.get(),
+                ignored.get(),
+                failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                throughput,
+                TimeUnit.NANOSECONDS.toMillis(fetchNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(mapNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(resolveNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(writeNanos.sum()));
+    }
+}
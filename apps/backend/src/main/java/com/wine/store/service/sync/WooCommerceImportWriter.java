@@ -0,0 +1,137 @@
+package com.wine.store.service.sync;
+
+import com.wine.store.model.EventCategory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Пакетная запись импортированных вин и мероприятий через JDBC batch.
+ * ОСОБЕННОСТИ: Новые и существующие записи (по slug) разделяются заранее, поэтому upsert — это
+ * один batch INSERT и один batch UPDATE на чанк, без SELECT на каждый товар и без dirty checking.
+ * Вызывается внутри транзакции чанка.
+ */
+@Component
+@RequiredArgsConstructor
+public class WooCommerceImportWriter {
+
+    private static final String INSERT_WINE = """
+            INSERT INTO wines (slug, name, description, image_url, price, sale_price, is_sale, stock_status,
+                               stock_quantity, type, grape_variety, release_year, flavor, edition, alcohol,
+                               alcohol_percent, acidity, acidity_grams, sugar, sugar_grams, content_hash)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // null в необязательных атрибутах сохраняет текущее значение (как и прежняя синхронизация через JPA);
+    // числовая аналитика меняется только вместе со своей строкой, даже если новую строку не удалось разобрать
+    private static final String UPDATE_WINE = """
+            UPDATE wines SET name = ?, description = ?, image_url = COALESCE(?, image_url), price = ?,
+                             sale_price = ?, is_sale = ?, stock_status = ?, stock_quantity = ?, type = ?,
+                             grape_variety = COALESCE(?, grape_variety), release_year = COALESCE(?, release_year),
+                             flavor = COALESCE(?, flavor), edition = COALESCE(?, edition),
+                             alcohol_percent = CASE WHEN ? IS NULL THEN alcohol_percent ELSE ? END,
+                             alcohol = COALESCE(?, alcohol),
+                             acidity_grams = CASE WHEN ? IS NULL THEN acidity_grams ELSE ? END,
+                             acidity = COALESCE(?, acidity),
+                             sugar_grams = CASE WHEN ? IS NULL THEN sugar_grams ELSE ? END,
+                             sugar = COALESCE(?, sugar), content_hash = ?
+            WHERE slug = ?
+            """;
+
+    private static final int[] INSERT_WINE_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.DECIMAL,
+            Types.BOOLEAN, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR, Types.DECIMAL,
+            Types.VARCHAR, Types.DECIMAL, Types.VARCHAR };
+
+    private static final int[] UPDATE_WINE_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.DECIMAL, Types.BOOLEAN,
+            Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR,
+            Types.VARCHAR,
+            Types.VARCHAR, Types.DECIMAL, Types.VARCHAR,
+            Types.VARCHAR, Types.DECIMAL, Types.VARCHAR,
+            Types.VARCHAR, Types.DECIMAL, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR };
+
+    private static final String INSERT_EVENT = """
+            INSERT INTO events (slug, title, description, image_url, price_per_person, total_spots, booked_spots,
+                                date, time, location, category, content_hash)
+            VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?)
+            """;
+
+    // Дата, время, место и категория задаются в админке; из WooCommerce заполняются только пустые значения
+    private static final String UPDATE_EVENT = """
+            UPDATE events SET title = ?, description = ?, image_url = COALESCE(?, image_url), price_per_person = ?,
+                              total_spots = COALESCE(total_spots, ?), date = COALESCE(date, ?),
+                              time = COALESCE(time, ?), location = COALESCE(location, ?),
+                              category = COALESCE(category, ?), content_hash = ?
+            WHERE slug = ?
+            """;
+
+    private static final int[] INSERT_EVENT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.INTEGER,
+            Types.DATE, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR };
+
+    private static final int[] UPDATE_EVENT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.INTEGER, Types.DATE,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR };
+
+    // Значения по умолчанию для упрощенной модели мероприятия
+    private static final int DEFAULT_DAYS_AHEAD = 14;
+    private static final String DEFAULT_TIME = "18:00";
+    private static final String DEFAULT_LOCATION = "Fellbacher Weingärtner eG";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertWines(List<ImportedWine> wines) {
+        if (wines.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_WINE, wines.stream()
+                .map(w -> new Object[] { w.slug(), w.name(), w.description(), w.imageUrl(), w.price(),
+                        w.salePrice(), w.sale(), name(w.stockStatus()), w.stockQuantity(), name(w.type()),
+                        w.grapeVariety(), w.releaseYear(), name(w.flavor()), w.edition(), w.alcohol(),
+                        w.alcoholPercent(), w.acidity(), w.acidityGrams(), w.sugar(), w.sugarGrams(),
+                        w.contentHash() })
+                .toList(), INSERT_WINE_TYPES);
+    }
+
+    public void updateWines(List<ImportedWine> wines) {
+        if (wines.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPDATE_WINE, wines.stream()
+                .map(w -> new Object[] { w.name(), w.description(), w.imageUrl(), w.price(), w.salePrice(),
+                        w.sale(), name(w.stockStatus()), w.stockQuantity(), name(w.type()), w.grapeVariety(),
+                        w.releaseYear(), name(w.flavor()), w.edition(),
+                        w.alcohol(), w.alcoholPercent(), w.alcohol(),
+                        w.acidity(), w.acidityGrams(), w.acidity(),
+                        w.sugar(), w.sugarGrams(), w.sugar(), w.contentHash(), w.slug() })
+                .toList(), UPDATE_WINE_TYPES);
+    }
+
+    public void insertEvents(List<ImportedEvent> events) {
+        if (events.isEmpty()) return;
+        Date defaultDate = Date.valueOf(LocalDate.now().plusDays(DEFAULT_DAYS_AHEAD));
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events.stream()
+                .map(e -> new Object[] { e.slug(), e.title(), e.description(), e.imageUrl(), e.pricePerPerson(),
+                        e.totalSpots(), defaultDate, DEFAULT_TIME, DEFAULT_LOCATION, EventCategory.WEINPROBE.name(),
+                        e.contentHash() })
+                .toList(), INSERT_EVENT_TYPES);
+    }
+
+    public void updateEvents(List<ImportedEvent> events) {
+        if (events.isEmpty()) return;
+        Date defaultDate = Date.valueOf(LocalDate.now().plusDays(DEFAULT_DAYS_AHEAD));
+        jdbcTemplate.batchUpdate(UPDATE_EVENT, events.stream()
+                .map(e -> new Object[] { e.title(), e.description(), e.imageUrl(), e.pricePerPerson(),
+                        e.totalSpots(), defaultDate, DEFAULT_TIME, DEFAULT_LOCATION,
+                        EventCategory.WEINPROBE.name(), e.contentHash(), e.slug() })
+                .toList(), UPDATE_EVENT_TYPES);
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
@@ -0,0 +1,187 @@
+package com.wine.store.service.sync;
+
+import com.wine.store.config.WooCommerceProperties;
+import com.wine.store.integration.woocommerce.dto.WcCategoryDTO;
+import com.wine.store.integration.woocommerce.dto.WcProductDTO;
+import com.wine.store.model.StockStatus;
+import com.wine.store.model.WineFlavor;
+import com.wine.store.model.WineType;
+import com.wine.store.service.catalog.TastingValues;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * НАЗНАЧЕНИЕ: Преобразование товаров WooCommerce в вина и мероприятия.
+ * ОСОБЕННОСТИ: Чистые функции без обращения к БД — безопасно вызывать параллельно из конвейера импорта.
+ */
+@Component
+@RequiredArgsConstructor
+public class WooCommerceProductMapper {
+
+    private final WooCommerceProperties properties;
+
+    public boolean isEvent(WcProductDTO product) {
+        if (product.getCategories() == null) return false;
+        String evSlug = properties.getEventsCategorySlug() != null ? properties.getEventsCategorySlug().toLowerCase() : "veranstaltungen";
+        return product.getCategories().stream()
+                .anyMatch(cat -> cat.getSlug() != null && evSlug.equals(cat.getSlug().toLowerCase()));
+    }
+
+    /**
+     * @return вино или null, если товар не относится ни к одной винной категории
+     */
+    public ImportedWine toWine(WcProductDTO dto) {
+        // Map Type from categories — skip non-wine products
+        WineType wineType = mapWineType(dto.getCategories());
+        if (wineType == null) {
+            return null;
+        }
+
+        boolean sale = dto.getSalePrice() != null && !dto.getSalePrice().isEmpty();
+        String imageUrl = dto.getImages() != null && !dto.getImages().isEmpty() ? dto.getImages().get(0).getSrc() : null;
+
+        Integer releaseYear = null;
+        String grapeVariety = null;
+        WineFlavor flavor = null;
+        String edition = null;
+        String alcohol = null;
+        String acidity = null;
+        String sugar = null;
+
+        // Map Attributes
+        if (dto.getAttributes() != null) {
+            for (var attr : dto.getAttributes()) {
+                String attrSlug = attr.getSlug() != null ? attr.getSlug().toLowerCase() : "";
+                String value = (attr.getOptions() != null && !attr.getOptions().isEmpty()) ? attr.getOptions().get(0) : null;
+
+                if (value == null) continue;
+
+                if ("pa_jahrgang".equals(attrSlug)) {
+                    try { releaseYear = Integer.parseInt(value); } catch (NumberFormatException ignored) {}
+                } else if ("pa_rebsorte".equals(attrSlug)) {
+                    grapeVariety = value;
+                } else if ("pa_geschmack".equals(attrSlug)) {
+                    flavor = mapWineFlavor(value);
+                } else if ("pa_qualitaetsstufe".equals(attrSlug)) {
+                    edition = value;
+                } else if ("pa_alkohol".equals(attrSlug)) {
+                    alcohol = value;
+                } else if ("pa_saeure".equals(attrSlug)) {
+                    acidity = value;
+                } else if ("pa_restzucker".equals(attrSlug)) {
+                    sugar = value;
+                }
+            }
+        }
+
+        String slug = validateSlug(dto);
+        String description = description(dto);
+        BigDecimal price = parsePrice(dto.getRegularPrice(), dto.getPrice());
+        BigDecimal salePrice = sale ? parsePrice(dto.getSalePrice(), "0") : null;
+        StockStatus stockStatus = "instock".equals(dto.getStockStatus()) ? StockStatus.IN_STOCK : StockStatus.OUT_OF_STOCK;
+
+        return new ImportedWine(slug, dto.getName(), description, imageUrl, price, salePrice, sale, stockStatus,
+                dto.getStockQuantity(), wineType, grapeVariety, releaseYear, flavor, edition,
+                alcohol, TastingValues.alcohol(alcohol), acidity, TastingValues.acidity(acidity),
+                sugar, TastingValues.sugar(sugar),
+                contentHash(slug, dto.getName(), description, imageUrl, price, salePrice, sale, stockStatus,
+                        dto.getStockQuantity(), wineType, grapeVariety, releaseYear, flavor, edition,
+                        alcohol, acidity, sugar));
+    }
+
+    public ImportedEvent toEvent(WcProductDTO dto) {
+        String slug = validateSlug(dto);
+        String description = description(dto);
+        String imageUrl = dto.getImages() != null && !dto.getImages().isEmpty() ? dto.getImages().get(0).getSrc() : null;
+        BigDecimal price = parsePrice(dto.getPrice(), "0");
+        Integer totalSpots = dto.getStockQuantity() != null ? dto.getStockQuantity() : 50;
+
+        return new ImportedEvent(slug, dto.getName(), description, imageUrl, price, totalSpots,
+                contentHash(slug, dto.getName(), description, imageUrl, price, totalSpots));
+    }
+
+    /**
+     * @return date_modified_gmt товара или null, если WooCommerce его не прислал
+     */
+    public LocalDateTime modifiedAt(WcProductDTO dto) {
+        if (dto.getDateModifiedGmt() == null || dto.getDateModifiedGmt().isEmpty()) return null;
+        try {
+            return LocalDateTime.parse(dto.getDateModifiedGmt());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public WineType mapWineType(List<WcCategoryDTO> categories) {
+        if (categories == null || categories.isEmpty()) return null;
+        for (var cat : categories) {
+            String slug = cat.getSlug() != null ? cat.getSlug().toLowerCase().trim() : "";
+            switch (slug) {
+                case "rot", "rotwein", "rotweine" -> { return WineType.RED; }
+                case "weiss", "weisswein", "weissweine" -> { return WineType.WHITE; }
+                case "rose", "ros\u00e9", "rosewein", "ros\u00e9wein" -> { return WineType.ROSE; }
+                case "sekt", "cremant", "cr\u00e9mant", "perlwein", "secco", "schaumwein" -> { return WineType.SPARKLING; }
+            }
+        }
+        return null; // Not a wine — caller skips it
+    }
+
+    public WineFlavor mapWineFlavor(String value) {
+        if (value == null) return WineFlavor.TROCKEN;
+        String v = value.toLowerCase();
+        if (v.contains("trocken")) return WineFlavor.TROCKEN;
+        if (v.contains("feinherb")) return WineFlavor.FEINHERB;
+        if (v.contains("halbtrocken")) return WineFlavor.HALBTROCKEN;
+        if (v.contains("lieblich") || v.contains("mild")) return WineFlavor.LIEBLICH;
+        return WineFlavor.TROCKEN;
+    }
+
+    public static BigDecimal parsePrice(String priceStr, String fallback) {
+        try {
+            if (priceStr == null || priceStr.isEmpty()) {
+                return new BigDecimal(fallback != null && !fallback.isEmpty() ? fallback : "0.0");
+            }
+            return new BigDecimal(priceStr);
+        } catch (Exception e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * SHA-256 от значений полей в фиксированном порядке. BigDecimal нормализуется (19.90 = 19.9),
+     * чтобы формат цены в ответе WooCommerce не менял хеш.
+     */
+    static String contentHash(Object... values) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object value : values) {
+            Object normalized = value instanceof BigDecimal decimal ? decimal.stripTrailingZeros().toPlainString() : value;
+            canonical.append(normalized).append('\u001F');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String description(WcProductDTO dto) {
+        return dto.getDescription() != null && !dto.getDescription().isEmpty()
+                ? dto.getDescription() : dto.getShortDescription();
+    }
+
+    private static String validateSlug(WcProductDTO dto) {
+        if (dto.getSlug() != null && !dto.getSlug().isEmpty()) return dto.getSlug();
+        // Стабильный slug по id товара: параллельное сопоставление не должно порождать коллизии по времени
+        return "item-" + (dto.getId() != null ? dto.getId() : System.nanoTime());
+    }
+}
@@ -0,0 +1,89 @@
+package com.wine.store.controller.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheInterceptorTest {
+
+    record Filters(String grape, String sort) {
+    }
+
+    static class Endpoints {
+        public void suggest(@RequestParam String q, @RequestParam(defaultValue = "8") int limit) {
+        }
+
+        public void facets(Filters filters) {
+        }
+
+        public void wine(@PathVariable String slug) {
+        }
+    }
+
+    @Test
+    void keyIgnoresUnknownParamsAndOrder() {
+        Map<String, String> params = params("suggest", String.class, int.class);
+
+        String plain = key("/api/wines/suggest", params, "q", "ries", "limit", "5");
+        String reordered = key("/api/wines/suggest", params, "utm_source", "mail", "limit", "5", "q", "ries", "_", "1712");
+
+        assertThat(plain).isEqualTo("/api/wines/suggest?limit=5&q=ries");
+        assertThat(reordered).isEqualTo(plain);
+    }
+
+    @Test
+    void missingParamTakesItsDefault() {
+        Map<String, String> params = params("suggest", String.class, int.class);
+
+        assertThat(key("/api/wines/suggest", params, "q", "ries"))
+                .isEqualTo(key("/api/wines/suggest", params, "q", "ries", "limit", "8"));
+    }
+
+    @Test
+    void recordComponentsAreKeyParamsAndBlankValuesAreDropped() {
+        Map<String, String> params = params("facets", Filters.class);
+
+        assertThat(params).containsOnlyKeys("grape", "sort");
+        assertThat(key("/api/wines/facets", params, "sort", "", "grape", "Riesling", "page", "3"))
+                .isEqualTo("/api/wines/facets?grape=Riesling");
+    }
+
+    @Test
+    void valuesAreEncoded() {
+        Map<String, String> params = params("suggest", String.class, int.class);
+
+        assertThat(key("/api/wines/suggest", params, "q", "a&limit=1", "limit", "5"))
+                .isEqualTo("/api/wines/suggest?limit=5&q=a%26limit%3D1");
+    }
+
+    @Test
+    void pathVariablesStayInPath() {
+        Map<String, String> params = params("wine", String.class);
+
+        assertThat(params).isEmpty();
+        assertThat(key("/api/wines/riesling", params, "ref", "x")).isEqualTo("/api/wines/riesling");
+    }
+
+    private static Map<String, String> params(String method, Class<?>... types) {
+        try {
+            return ResponseCacheInterceptor.keyParams(
+                    new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(method, types)));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String key(String uri, Map<String, String> params, String... query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        for (int i = 0; i < query.length; i += 2) {
+            request.addParameter(query[i], query[i + 1]);
+        }
+        return ResponseCacheInterceptor.key(request, params);
+    }
+}
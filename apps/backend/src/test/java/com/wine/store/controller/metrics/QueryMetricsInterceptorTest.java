@@ -0,0 +1,87 @@
+package com.wine.store.controller.metrics;
+
+import com.wine.store.config.QueryInspectorProperties;
+import com.wine.store.service.metrics.QueryInspector;
+import com.wine.store.service.metrics.RequestQueryStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final Object handler = new Object();
+    private QueryMetricsInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new QueryMetricsInterceptor(meterRegistry,
+                new QueryInspector(new QueryInspectorProperties(), meterRegistry));
+    }
+
+    @AfterEach
+    void clearThread() {
+        while (RequestQueryStats.end() != null) {
+            // Тест не должен оставлять области в потоке следующим тестам
+        }
+    }
+
+    @Test
+    void synchronousRequestClosesItsScope() {
+        MockHttpServletRequest request = request("GET", "/api/wines");
+
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(RequestQueryStats.end()).isNull();
+        assertThat(queriesRecorded("/api/wines")).isEqualTo(1);
+    }
+
+    @Test
+    void asyncRequestClosesScopeWhenThreadIsReleased() {
+        MockHttpServletRequest request = request("POST", "/api/ai/recommend/stream");
+
+        interceptor.preHandle(request, response, handler);
+        // SseEmitter: поток Tomcat возвращается в пул, afterCompletion для этой диспетчеризации не будет
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        assertThat(RequestQueryStats.end()).isNull();
+        assertThat(queriesRecorded("/api/ai/recommend/stream")).isEqualTo(1);
+    }
+
+    @Test
+    void asyncDispatchNeitherOpensNorClosesScopes() {
+        MockHttpServletRequest request = request("POST", "/api/ai/recommend/stream");
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        // Другой поток: чужая область (например, фоновая задача) не должна закрываться чужим afterCompletion
+        RequestQueryStats.begin("job:outer");
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        RequestQueryStats outer = RequestQueryStats.end();
+        assertThat(outer).isNotNull();
+        assertThat(outer.label()).isEqualTo("job:outer");
+        assertThat(queriesRecorded("/api/ai/recommend/stream")).isEqualTo(1);
+    }
+
+    private long queriesRecorded(String uri) {
+        return meterRegistry.get("http.server.requests.db.queries").tag("uri", uri).summary().count();
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
@@ -0,0 +1,259 @@
+package com.wine.store.repository;
+
+import com.wine.store.dto.WineSearchRequest;
+import com.wine.store.service.catalog.WineCursor;
+import com.wine.store.service.catalog.WineKeysetOrder;
+import com.wine.store.service.spec.WineSpecification;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Регрессия планов для индексов 008-catalog-indexes: на синтетическом каталоге в PostgreSQL каждый запрос,
+ * под который заведен индекс, должен планироваться через него. Проверяется SQL, который Hibernate
+ * сгенерировал для вызова репозитория или спецификации (CapturingInspector), с теми же параметрами. Поиск WineSpecification целиком (OR по вину
+ * и LEFT JOIN тегов) индекс не использует, поэтому триграммные индексы проверяются на выражениях, которые
+ * генерирует Hibernate: если текст выражения разойдется с индексом (например, CAST у description),
+ * тест это покажет.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.wine.store.repository.CatalogIndexPlanTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class CatalogIndexPlanTest {
+
+    private static final int WINES = 20_000;
+    private static final int EVENTS = 5_000;
+    // Нет ни в одной строке каталога: селективность как у поиска редкого слова
+    private static final String NEEDLE = "kabinettxq";
+    private static final int PAGE_LIMIT = 13;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WineRepository wineRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    /**
+     * Каталог заполняется в транзакции теста и откатывается вместе с ней; ANALYZE допустим в транзакции.
+     */
+    @BeforeEach
+    void seedCatalog() {
+        jdbcTemplate.update("""
+                INSERT INTO wines (name, slug, price, type, flavor, grape_variety, edition, description, rating, featured)
+                SELECT 'Wein ' || i || ' ' || md5('name' || i),
+                       'synthetic-' || i,
+                       5 + (i % 9000) / 100.0,
+                       (ARRAY['RED', 'WHITE', 'ROSE', 'SPARKLING'])[1 + i % 4],
+                       CASE WHEN i % 100 = 0 THEN 'SUESS' ELSE (ARRAY['TROCKEN', 'HALBTROCKEN', 'FEINHERB'])[1 + i % 3] END,
+                       'Rebsorte ' || (i % 400),
+                       'Edition ' || md5('edition' || i),
+                       'Beschreibung ' || md5('description' || i) || ' ' || md5('more' || i),
+                       CASE WHEN i % 10 = 0 THEN NULL ELSE (i % 50) / 10.0 END,
+                       i % 1000 = 0
+                FROM generate_series(1, ?) AS i""", WINES);
+        jdbcTemplate.update("""
+                INSERT INTO wine_tags (wine_id, tag)
+                SELECT id, 'Tag ' || (id % 300) FROM wines WHERE slug LIKE 'synthetic-%'""");
+        jdbcTemplate.update("""
+                INSERT INTO events (title, slug, date, total_spots, booked_spots, price_per_person)
+                SELECT 'Verkostung ' || i, 'synthetic-event-' || i, CURRENT_DATE - 4000 + i, 20, 0, 25
+                FROM generate_series(1, ?) AS i""", EVENTS);
+        jdbcTemplate.execute("ANALYZE wines");
+        jdbcTemplate.execute("ANALYZE wine_tags");
+        jdbcTemplate.execute("ANALYZE events");
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void typeFilterWithPriceRangeUsesTypePriceIndex() {
+        String plan = planOf("wines",
+                () -> wineRepository.findAll(WineSpecification.getSpec(filter("RED", null, null, null, "10", "10.5")),
+                        Sort.by("price")),
+                "RED", new BigDecimal("10"), new BigDecimal("10.5"));
+
+        assertThat(plan).contains("idx_wines_type_price");
+    }
+
+    @Test
+    void priceKeysetPageUsesPriceIdIndex() {
+        WineCursor cursor = new WineCursor(WineKeysetOrder.PRICE_ASC, new BigDecimal("50"), 100);
+
+        String plan = planOf("wines", () -> keysetPage(WineKeysetOrder.PRICE_ASC, cursor),
+                cursor.value(), cursor.value(), cursor.id(), PAGE_LIMIT);
+
+        assertThat(plan).contains("idx_wines_price_id");
+    }
+
+    @Test
+    void ratingKeysetPageUsesRatingIdIndex() {
+        String plan = planOf("wines", () -> keysetPage(WineKeysetOrder.RATING_DESC, null), PAGE_LIMIT);
+
+        assertThat(plan).contains("idx_wines_rating_id");
+    }
+
+    @Test
+    void topRatedWinesUseRatingIdIndex() {
+        String plan = planOf("wines", () -> wineRepository.findTopRated(Limit.of(10)), 10);
+
+        assertThat(plan).contains("idx_wines_rating_id");
+    }
+
+    @Test
+    void featuredWinesUsePartialIndex() {
+        assertThat(planOf("wines", () -> wineRepository.findByFeaturedTrue())).contains("idx_wines_featured");
+    }
+
+    @Test
+    void grapeAndFlavorFiltersUseTheirIndexes() {
+        assertThat(planOf("wines",
+                () -> wineRepository.findAll(WineSpecification.getSpec(filter(null, "Rebsorte 7", null, null, null, null))),
+                "Rebsorte 7"))
+                .contains("idx_wines_grape_variety");
+        assertThat(planOf("wines",
+                () -> wineRepository.findAll(WineSpecification.getSpec(filter(null, null, "SUESS", null, null, null))),
+                "SUESS"))
+                .contains("idx_wines_flavor");
+    }
+
+    @Test
+    void tagLookupsUseTagIndexes() {
+        // Фильтр по тегу — коррелированный подзапрос, который выполняется для каждого вина
+        assertThat(planOf("wines",
+                () -> wineRepository.findAll(WineSpecification.getSpec(filter(null, null, null, "Tag 42", null, null))),
+                "Tag 42"))
+                .contains("idx_wine_tags_")
+                .doesNotContain("Seq Scan on wine_tags");
+        // Теги страницы вин (WineDtoAssembler)
+        assertThat(planOf("wines", () -> wineRepository.findTagsByWineIdIn(List.of(4242L)), 4242L))
+                .contains("idx_wine_tags_wine");
+    }
+
+    @Test
+    void upcomingEventsUseDateIndex() {
+        // Последние 100 из 5000 мероприятий
+        LocalDate after = LocalDate.now().plusDays(900);
+
+        assertThat(planOf("events", () -> eventRepository.findByDateAfterOrderByDateAsc(after), after))
+                .contains("idx_events_date");
+    }
+
+    @Test
+    void searchExpressionsGeneratedByHibernateMatchTrigramIndexes() {
+        String sql = captured("wines", () -> wineRepository.findAll(WineSpecification.getSpec(search(NEEDLE))));
+        String alias = find("from wines (\\w+)", sql);
+        String tagAlias = find("join wine_tags (\\w+)", sql);
+
+        assertTrigramIndex("wines", alias, find("(lower\\(" + alias + "\\.name\\))", sql), "idx_wines_name_trgm");
+        assertTrigramIndex("wines", alias,
+                find("(lower\\((?:cast\\()?" + alias + "\\.description(?: as [a-z ]+\\))?\\))", sql),
+                "idx_wines_description_trgm");
+        assertTrigramIndex("wines", alias, find("(lower\\(" + alias + "\\.grape_variety\\))", sql),
+                "idx_wines_grape_variety_trgm");
+        assertTrigramIndex("wines", alias, find("(lower\\(" + alias + "\\.edition\\))", sql), "idx_wines_edition_trgm");
+        assertTrigramIndex("wine_tags", tagAlias, find("(lower\\(" + tagAlias + "\\.tag\\))", sql),
+                "idx_wine_tags_tag_trgm");
+    }
+
+    private void assertTrigramIndex(String table, String alias, String expression, String index) {
+        assertThat(plan("SELECT 1 FROM " + table + " " + alias + " WHERE " + expression + " LIKE '%" + NEEDLE + "%'"))
+                .as("%s must be served by %s", expression, index)
+                .contains(index);
+    }
+
+    private void keysetPage(WineKeysetOrder order, WineCursor cursor) {
+        // Как WineService.findAfterFromDatabase: лишняя строка показывает, есть ли следующая страница
+        wineRepository.findBy(WineSpecification.keyset(order, cursor), query -> query.limit(PAGE_LIMIT).all());
+    }
+
+    /**
+     * План запроса, который Hibernate отправил в БД при вызове call. Параметры передаются в порядке "?"
+     * в тексте запроса, включая LIMIT.
+     */
+    private String planOf(String table, Runnable call, Object... parameters) {
+        String sql = captured(table, call);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as("parameters of %s", sql).isEqualTo(parameters.length);
+        return plan(sql, parameters);
+    }
+
+    private static String captured(String table, Runnable call) {
+        CapturingInspector.STATEMENTS.clear();
+        call.run();
+        return CapturingInspector.STATEMENTS.stream()
+                .filter(statement -> statement.contains(" from " + table + " "))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No query on " + table + " was captured"));
+    }
+
+    private String plan(String sql, Object... parameters) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters);
+        return String.join("\n", lines);
+    }
+
+    private static String find(String regex, String sql) {
+        Matcher matcher = Pattern.compile(regex).matcher(sql);
+        assertThat(matcher.find()).as("%s in %s", regex, sql).isTrue();
+        return matcher.group(1);
+    }
+
+    private static WineSearchRequest filter(String type, String grape, String flavor, String tag,
+                                            String minPrice, String maxPrice) {
+        return new WineSearchRequest(null, null, type, grape, flavor, null, tag,
+                minPrice != null ? new BigDecimal(minPrice) : null, maxPrice != null ? new BigDecimal(maxPrice) : null,
+                null, null, null, null, null, null, null);
+    }
+
+    // Поиск и качество: оба дают LIKE по триграммным колонкам
+    private static WineSearchRequest search(String search) {
+        return new WineSearchRequest(search, null, null, null, null, search, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Запоминает SQL, который Hibernate отправляет в БД, чтобы проверять план именно сгенерированных выражений.
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.wine.store.repository.index;
+
+import com.wine.store.dto.WineDTO;
+import com.wine.store.dto.WineFacetsDTO;
+import com.wine.store.dto.WineSearchRequest;
+import com.wine.store.model.WineType;
+import com.wine.store.service.catalog.WineCursor;
+import com.wine.store.service.catalog.WineKeysetOrder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CatalogSnapshotTest {
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+            wine(5, WineType.ROSE, "Spätburgunder", "40.00", 3.0, "Bio"),
+            wine(1, WineType.RED, "Spätburgunder", "12.00", 4.5, "Bio"),
+            wine(2, WineType.RED, "Dornfelder", "8.00", null, "Bio", "Vegan"),
+            wine(3, WineType.WHITE, "Riesling", "12.00", 4.5, "Vegan"),
+            wine(4, WineType.WHITE, "Riesling", "25.00", 4.0)));
+
+    @Test
+    void filtersMatchSqlSemantics() {
+        assertThat(ids(snapshot.filter(request("RED", null, null), null))).containsExactly(1L, 2L);
+        assertThat(ids(snapshot.filter(request(null, null, new BigDecimal("12")), null))).containsExactly(1L, 3L, 4L, 5L);
+        assertThat(ids(snapshot.filter(request(null, null, new BigDecimal("12.01")), null))).containsExactly(4L, 5L);
+        assertThat(ids(snapshot.filter(request(null, "Unbekannt", null), null))).isEmpty();
+    }
+
+    @Test
+    void facetValuesIgnoreOnlyTheirOwnFilter() {
+        WineFacetsDTO facets = snapshot.facets(request("RED", "Vegan", null), null);
+
+        assertThat(facets.total()).isEqualTo(1);
+        // Типы — без фильтра по типу, но с фильтром по тегу: вина 2 и 3
+        assertThat(facets.types()).extracting(WineFacetsDTO.FacetValue::value, WineFacetsDTO.FacetValue::count)
+                .containsExactly(tuple("RED", 1), tuple("WHITE", 1));
+        // Теги — без фильтра по тегу, но с фильтром по типу: вина 1 и 2
+        assertThat(facets.tags()).extracting(WineFacetsDTO.FacetValue::value, WineFacetsDTO.FacetValue::count)
+                .containsExactly(tuple("Bio", 2), tuple("Vegan", 1));
+        assertThat(facets.grapes()).extracting(WineFacetsDTO.FacetValue::value).containsExactly("Dornfelder");
+    }
+
+    @Test
+    void facetsWithoutFiltersCountEveryWineAndSortByCount() {
+        WineFacetsDTO facets = snapshot.facets(request(null, null, null), null);
+
+        assertThat(facets.total()).isEqualTo(5);
+        assertThat(facets.types()).extracting(WineFacetsDTO.FacetValue::value, WineFacetsDTO.FacetValue::count)
+                .containsExactly(tuple("RED", 2), tuple("WHITE", 2), tuple("ROSE", 1));
+        assertThat(facets.priceRanges()).extracting(WineFacetsDTO.PriceRange::count).containsExactly(1, 2, 1, 1, 0);
+        assertThat(facets.priceRanges().getLast().max()).isNull();
+    }
+
+    @Test
+    void facetsRespectTextMatches() {
+        WineTextIndex.TextMatches riesling = snapshot.text.search("riesling");
+
+        WineFacetsDTO facets = snapshot.facets(request(null, null, null), riesling);
+
+        assertThat(facets.total()).isEqualTo(2);
+        assertThat(facets.types()).extracting(WineFacetsDTO.FacetValue::value).containsExactly("WHITE");
+    }
+
+    @Test
+    void keysetOrdersBreakTiesById() {
+        assertThat(order(WineKeysetOrder.PRICE_ASC)).containsExactly(2L, 1L, 3L, 4L, 5L);
+        // Равные цены — по убыванию id
+        assertThat(order(WineKeysetOrder.PRICE_DESC)).containsExactly(5L, 4L, 3L, 1L, 2L);
+        // Вино без рейтинга — в конце
+        assertThat(order(WineKeysetOrder.RATING_DESC)).containsExactly(1L, 3L, 4L, 5L, 2L);
+        assertThat(order(WineKeysetOrder.ID_DESC)).containsExactly(5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void seekStartsStrictlyAfterTheCursorWithinEqualKeys() {
+        WineCursor afterFirstTwelve = new WineCursor(WineKeysetOrder.PRICE_ASC, new BigDecimal("12.00"), 1);
+        int position = snapshot.seek(WineKeysetOrder.PRICE_ASC, afterFirstTwelve);
+        assertThat(snapshot.ids[snapshot.keysetRow(WineKeysetOrder.PRICE_ASC, position)]).isEqualTo(3L);
+
+        WineCursor rating = new WineCursor(WineKeysetOrder.RATING_DESC, new BigDecimal("4.5"), 3);
+        position = snapshot.seek(WineKeysetOrder.RATING_DESC, rating);
+        assertThat(snapshot.ids[snapshot.keysetRow(WineKeysetOrder.RATING_DESC, position)]).isEqualTo(4L);
+
+        // Курсор на вине без рейтинга: дальше только вина без рейтинга с большим id
+        WineCursor noRating = new WineCursor(WineKeysetOrder.RATING_DESC, null, 2);
+        assertThat(snapshot.seek(WineKeysetOrder.RATING_DESC, noRating)).isEqualTo(snapshot.size);
+    }
+
+    @Test
+    void pagingThroughCursorsVisitsEveryWineOnce() {
+        // Цена в БД NOT NULL, рейтинг — нет; равные ключи на границах страниц
+        CatalogSnapshot catalog = CatalogSnapshot.of(List.of(
+                wine(1, WineType.RED, null, "12.00", 4.5),
+                wine(2, WineType.RED, null, "8.00", null),
+                wine(3, WineType.RED, null, "12.00", 4.5),
+                wine(4, WineType.RED, null, "12.00", null),
+                wine(5, WineType.RED, null, "30.00", 4.5),
+                wine(6, WineType.RED, null, "8.00", 3.0)));
+
+        for (WineKeysetOrder order : WineKeysetOrder.values()) {
+            List<Long> visited = new ArrayList<>();
+            WineCursor cursor = null;
+            do {
+                List<Integer> page = new ArrayList<>();
+                for (int k = catalog.seek(order, cursor); k < catalog.size && page.size() < 2; k++) {
+                    page.add(catalog.keysetRow(order, k));
+                }
+                page.forEach(row -> visited.add(catalog.ids[row]));
+                cursor = page.isEmpty() ? null : WineCursor.after(order, catalog.rows[page.getLast()]);
+            } while (cursor != null);
+
+            List<Long> expected = new ArrayList<>();
+            for (int k = 0; k < catalog.size; k++) {
+                expected.add(catalog.ids[catalog.keysetRow(order, k)]);
+            }
+            assertThat(visited).as(order.name()).isEqualTo(expected).doesNotHaveDuplicates().hasSize(6);
+        }
+    }
+
+    @Test
+    void patchedSnapshotMatchesAFreshOne() {
+        WineDTO cheaper = wine(4, WineType.WHITE, "Riesling", "9.00", 4.0);
+        WineDTO added = wine(6, WineType.RED, "Lemberger", "12.00", 4.5, "Bio");
+
+        CatalogSnapshot patched = CatalogSnapshot.patch(snapshot, Set.of(2L, 4L, 6L), List.of(cheaper, added));
+        CatalogSnapshot fresh = CatalogSnapshot.of(List.of(snapshot.rows[0], snapshot.rows[2], cheaper,
+                snapshot.rows[4], added));
+
+        assertThat(patched.ids).containsExactly(1L, 3L, 4L, 5L, 6L);
+        assertThat(patched.byPriceAsc).containsExactly(fresh.byPriceAsc);
+        assertThat(patched.byRatingAsc).containsExactly(fresh.byRatingAsc);
+        assertThat(patched.byRatingDesc).containsExactly(fresh.byRatingDesc);
+        assertThat(patched.text.search("lemberger").docs().stream()).containsExactly(4);
+    }
+
+    private List<Long> order(WineKeysetOrder order) {
+        List<Long> ids = new ArrayList<>();
+        for (int k = 0; k < snapshot.size; k++) {
+            ids.add(snapshot.ids[snapshot.keysetRow(order, k)]);
+        }
+        return ids;
+    }
+
+    private List<Long> ids(BitSet rows) {
+        return rows.stream().mapToObj(row -> snapshot.ids[row]).toList();
+    }
+
+    private static WineSearchRequest request(String type, String tag, BigDecimal minPrice) {
+        return new WineSearchRequest(null, null, type, null, null, null, tag, minPrice, null,
+                null, null, null, null, null, null, null);
+    }
+
+    private static WineDTO wine(long id, WineType type, String grape, String price, Double rating, String... tags) {
+        return WineDTO.builder()
+                .id(id)
+                .name("Wein " + id)
+                .type(type)
+                .grapeVariety(grape)
+                .price(new BigDecimal(price))
+                .rating(rating)
+                .tags(List.of(tags))
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.wine.store.repository.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GermanTextAnalyzerTest {
+
+    @Test
+    void umlautsAndTheirDigraphsFoldToTheSameForm() {
+        assertThat(GermanTextAnalyzer.fold("Spätburgunder")).isEqualTo("spatburgunder");
+        assertThat(GermanTextAnalyzer.fold("Spaetburgunder")).isEqualTo("spatburgunder");
+        assertThat(GermanTextAnalyzer.fold("Müller-Thurgau")).isEqualTo(GermanTextAnalyzer.fold("Mueller-Thurgau"));
+        assertThat(GermanTextAnalyzer.fold("Höhe")).isEqualTo(GermanTextAnalyzer.fold("Hoehe"));
+    }
+
+    @Test
+    void sharpSAndAccentsAreFolded() {
+        assertThat(GermanTextAnalyzer.fold("Weiß")).isEqualTo("weiss");
+        assertThat(GermanTextAnalyzer.fold("Rosé")).isEqualTo("rose");
+    }
+
+    @Test
+    void quIsNotADigraph() {
+        assertThat(GermanTextAnalyzer.fold("Quelle")).isEqualTo("quelle");
+        // e после других гласных остается
+        assertThat(GermanTextAnalyzer.fold("Weine")).isEqualTo("weine");
+    }
+
+    @Test
+    void tokenizeSplitsOnNonLettersAndDropsStopWords() {
+        assertThat(GermanTextAnalyzer.tokenize("Der Riesling und die Weißweine, trocken (2021)"))
+                .containsExactly("riesling", "weissweine", "trocken", "2021");
+        // "für" и "fuer" сворачиваются в стоп-слово "fur"
+        assertThat(GermanTextAnalyzer.tokenize("Wein fuer Käse")).containsExactly("wein", "kase");
+    }
+
+    @Test
+    void emptyTextHasNoTokens() {
+        assertThat(GermanTextAnalyzer.tokenize(null)).isEmpty();
+        assertThat(GermanTextAnalyzer.tokenize("")).isEmpty();
+        assertThat(GermanTextAnalyzer.tokenize("der die das")).isEmpty();
+    }
+}
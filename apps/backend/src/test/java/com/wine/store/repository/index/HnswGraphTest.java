@@ -0,0 +1,101 @@
+package com.wine.store.repository.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswGraphTest {
+
+    private static final int DIMENSIONS = 32;
+    private static final int NODES = 2_000;
+    private static final int K = 10;
+
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final QuantizedVectorStore vectors = new QuantizedVectorStore(DIMENSIONS, NODES);
+    // Параметры по умолчанию из VectorSearchProperties
+    private final HnswGraph graph = new HnswGraph(vectors, 16, 100);
+
+    @Test
+    void recallAgainstExactSearchIsHigh() {
+        insertRandomVectors(NODES);
+
+        int found = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            QuantizedVectorStore.Quantized query = vectors.quantize(randomUnitVector());
+            Set<Integer> exact = exactNearest(query, K);
+            found += (int) graph.search(query, K, 64).stream().filter(scored -> exact.contains(scored.node())).count();
+        }
+
+        assertThat((double) found / (queries * K)).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void resultsAreOrderedBestFirst() {
+        insertRandomVectors(200);
+
+        List<HnswGraph.Scored> found = graph.search(vectors.quantize(randomUnitVector()), K, 64);
+
+        assertThat(found).hasSize(K).isSortedAccordingTo(Comparator.comparingDouble(HnswGraph.Scored::score).reversed());
+    }
+
+    @Test
+    void deletedNodesNavigateButAreNotReturned() {
+        insertRandomVectors(500);
+        Set<Integer> deleted = IntStream.range(0, 500).filter(node -> node % 3 == 0).boxed().collect(Collectors.toSet());
+        deleted.forEach(graph::delete);
+        graph.delete(0);
+
+        assertThat(graph.deletedCount()).isEqualTo(deleted.size());
+        for (int q = 0; q < 20; q++) {
+            QuantizedVectorStore.Quantized query = vectors.quantize(randomUnitVector());
+            List<HnswGraph.Scored> found = graph.search(query, K, 64);
+            assertThat(found).hasSize(K).noneMatch(scored -> deleted.contains(scored.node()));
+        }
+    }
+
+    @Test
+    void emptyOrFullyDeletedGraphFindsNothing() {
+        QuantizedVectorStore.Quantized query = vectors.quantize(randomUnitVector());
+        assertThat(graph.search(query, K, 64)).isEmpty();
+
+        insertRandomVectors(3);
+        IntStream.range(0, 3).forEach(graph::delete);
+        assertThat(graph.search(query, K, 64)).isEmpty();
+    }
+
+    private void insertRandomVectors(int count) {
+        for (int i = 0; i < count; i++) {
+            graph.insert(vectors.add(randomUnitVector()));
+        }
+    }
+
+    private Set<Integer> exactNearest(QuantizedVectorStore.Quantized query, int k) {
+        return IntStream.range(0, vectors.size())
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer node) -> vectors.similarity(query, node)).reversed())
+                .limit(k)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private float[] randomUnitVector() {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
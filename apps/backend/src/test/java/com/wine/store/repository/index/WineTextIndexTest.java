@@ -0,0 +1,102 @@
+package com.wine.store.repository.index;
+
+import com.wine.store.dto.WineDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class WineTextIndexTest {
+
+    @Test
+    void singleTermScoreFollowsBm25f() {
+        WineTextIndex index = WineTextIndex.build(new WineDTO[] {
+                wine(1, "Riesling", null), wine(2, "Silvaner", null) }, null);
+
+        WineTextIndex.TextMatches matches = index.search("riesling");
+
+        // idf = ln(1 + (N - n + 0.5) / (n + 0.5)), tf в name с весом 3 и нормой длины 1, impact = tf / (k1 + tf)
+        double idf = Math.log(1 + (2 - 1 + 0.5) / (1 + 0.5));
+        double impact = 3.0 / (1.2 + 3.0);
+        assertThat(matches.docs().stream()).containsExactly(0);
+        assertThat(matches.scores()[0]).isCloseTo((float) (idf * impact), within(1e-5f));
+    }
+
+    @Test
+    void nameOutweighsDescriptionAndShortFieldOutweighsLongOne() {
+        WineTextIndex index = WineTextIndex.build(new WineDTO[] {
+                wine(1, "Riesling Kabinett", null),
+                wine(2, "Kabinett", "Ein frischer Riesling"),
+                wine(3, "Riesling Kabinett Feinherb Mosel Alte Reben", null),
+                wine(4, "Silvaner", null) }, null);
+
+        float[] scores = index.search("riesling").scores();
+
+        assertThat(scores[0]).isGreaterThan(scores[2]);
+        assertThat(scores[2]).isGreaterThan(scores[1]);
+        assertThat(scores[3]).isZero();
+    }
+
+    @Test
+    void prefixAndInfixMatchesScoreBelowExactOnes() {
+        WineTextIndex index = WineTextIndex.build(new WineDTO[] {
+                wine(1, "Riesling", null), wine(2, "Spätburgunder", null), wine(3, "Silvaner", null) }, null);
+
+        float exact = index.search("riesling").scores()[0];
+        assertThat(index.search("ries").scores()[0]).isCloseTo(0.7f * exact, within(1e-5f));
+
+        // Часть составного слова; "Spät" сворачивается в "spat", "Spaet..." в запросе — тоже
+        WineTextIndex.TextMatches infix = index.search("burgunder");
+        assertThat(infix.docs().stream()).containsExactly(1);
+        assertThat(infix.scores()[1]).isCloseTo(0.5f * index.search("spaetburgunder").scores()[1], within(1e-5f));
+        // Слишком короткий фрагмент не ищется внутри слов
+        assertThat(index.search("urg").docs().isEmpty()).isTrue();
+    }
+
+    @Test
+    void everyQueryWordMustMatch() {
+        WineTextIndex index = WineTextIndex.build(new WineDTO[] {
+                wine(1, "Riesling trocken", null), wine(2, "Riesling feinherb", null) }, null);
+
+        assertThat(index.search("riesling trocken").docs().stream()).containsExactly(0);
+        assertThat(index.search("riesling süß").docs().isEmpty()).isTrue();
+    }
+
+    @Test
+    void tagsAreSearchable() {
+        WineDTO tagged = wine(1, "Cuvée", null);
+        tagged.setTags(List.of("Bio", "Vegan"));
+        WineTextIndex index = WineTextIndex.build(new WineDTO[] { tagged, wine(2, "Silvaner", null) }, null);
+
+        assertThat(index.search("vegan").docs().stream()).containsExactly(0);
+    }
+
+    @Test
+    void queryWithoutMeaningfulWordsMatchesEverything() {
+        WineTextIndex index = WineTextIndex.build(new WineDTO[] { wine(1, "Riesling", null), wine(2, "Silvaner", null) }, null);
+
+        WineTextIndex.TextMatches matches = index.search("der und die");
+
+        assertThat(matches.docs().cardinality()).isEqualTo(2);
+        assertThat(matches.scores()).containsOnly(0f);
+    }
+
+    @Test
+    void rebuildFromPreviousIndexScoresTheSame() {
+        WineDTO[] rows = { wine(1, "Riesling", "Mineralisch"), wine(2, "Silvaner", "Frisch und mineralisch") };
+        WineTextIndex first = WineTextIndex.build(rows, null);
+        WineDTO[] changed = { rows[0], wine(2, "Silvaner", "Kräftig") };
+
+        WineTextIndex rebuilt = WineTextIndex.build(changed, first);
+
+        assertThat(rebuilt.search("mineralisch").scores())
+                .containsExactly(WineTextIndex.build(changed, null).search("mineralisch").scores());
+        assertThat(rebuilt.search("mineralisch").docs().stream()).containsExactly(0);
+    }
+
+    private static WineDTO wine(long id, String name, String description) {
+        return WineDTO.builder().id(id).name(name).description(description).build();
+    }
+}
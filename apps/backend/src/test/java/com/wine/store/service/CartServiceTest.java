@@ -0,0 +1,70 @@
+package com.wine.store.service;
+
+import com.wine.store.dto.CartCalculationRequest;
+import com.wine.store.dto.CartCalculationResponse;
+import com.wine.store.dto.CartItemDTO;
+import com.wine.store.dto.CartItemResponseDTO;
+import com.wine.store.model.StockStatus;
+import com.wine.store.repository.projection.WinePriceView;
+import com.wine.store.service.pricing.WinePriceCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        WinePriceCache priceCache = mock(WinePriceCache.class);
+        when(priceCache.getAll(anyCollection())).thenReturn(Map.of(
+                1L, new WinePriceView(1L, "Riesling", new BigDecimal("12.00"), new BigDecimal("9.50"), true,
+                        StockStatus.IN_STOCK, 10, null),
+                2L, new WinePriceView(2L, "Spätburgunder", new BigDecimal("20.00"), null, false,
+                        StockStatus.IN_STOCK, 1, null)));
+        cartService = new CartService(priceCache, meterRegistry);
+    }
+
+    @Test
+    void totalsUseSalePriceAndFlagShortStock() {
+        CartCalculationResponse response = cartService.calculateCart(new CartCalculationRequest(List.of(
+                new CartItemDTO(1L, 2), new CartItemDTO(2L, 3))));
+
+        assertThat(response.totalAmount()).isEqualByComparingTo("79.00");
+        assertThat(response.allAvailable()).isFalse();
+        assertThat(response.items()).extracting(CartItemResponseDTO::available).containsExactly(true, false);
+    }
+
+    @Test
+    void unknownProductIsUnavailable() {
+        CartCalculationResponse response = cartService.calculateCart(new CartCalculationRequest(List.of(
+                new CartItemDTO(99L, 1))));
+
+        assertThat(response.totalAmount()).isEqualByComparingTo("0");
+        assertThat(response.allAvailable()).isFalse();
+        assertThat(response.items().getFirst().stockStatus()).isEqualTo(StockStatus.OUT_OF_STOCK);
+    }
+
+    @Test
+    void recordsLineCountsInOneSummary() {
+        cartService.calculateCart(new CartCalculationRequest(List.of(new CartItemDTO(1L, 1))));
+        cartService.calculateCart(new CartCalculationRequest(List.of(new CartItemDTO(1L, 1), new CartItemDTO(2L, 1))));
+
+        DistributionSummary lines = meterRegistry.get("cart.lines").summary();
+        assertThat(meterRegistry.find("cart.lines").summaries()).hasSize(1);
+        assertThat(lines.count()).isEqualTo(2);
+        assertThat(lines.totalAmount()).isEqualTo(3);
+    }
+}
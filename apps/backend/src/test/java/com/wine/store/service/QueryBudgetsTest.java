@@ -0,0 +1,129 @@
+package com.wine.store.service;
+
+import com.wine.store.config.PricingProperties;
+import com.wine.store.config.QueryInspectorProperties;
+import com.wine.store.dto.CartCalculationRequest;
+import com.wine.store.dto.CartItemDTO;
+import com.wine.store.dto.WineSearchRequest;
+import com.wine.store.mapper.EventMapperImpl;
+import com.wine.store.mapper.WineMapperImpl;
+import com.wine.store.repository.BookingRepository;
+import com.wine.store.repository.EventRepository;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.index.WineCatalogIndex;
+import com.wine.store.repository.index.WineVectorIndex;
+import com.wine.store.service.booking.EventSeatInventory;
+import com.wine.store.service.catalog.WineDtoAssembler;
+import com.wine.store.service.metrics.QueryBudget;
+import com.wine.store.service.pricing.WinePriceCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Бюджеты SQL-запросов из app.query-inspector.budgets на схеме из Liquibase (H2): код за каждым эндпоинтом
+ * укладывается в свой бюджет. Индекс каталога подменен пустым, поэтому списки вин идут запасным путем через БД —
+ * самым дорогим для этих эндпоинтов.
+ */
+@DataJpaTest
+@Import({WineDtoAssembler.class, WineMapperImpl.class, EventMapperImpl.class, QueryInspectorProperties.class})
+class QueryBudgetsTest {
+
+    @Autowired
+    private QueryInspectorProperties properties;
+
+    @Autowired
+    private WineRepository wineRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private WineMapperImpl wineMapper;
+
+    @Autowired
+    private EventMapperImpl eventMapper;
+
+    @Autowired
+    private WineDtoAssembler wineDtoAssembler;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WineService wineService;
+    private EventService eventService;
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        wineService = new WineService(wineRepository, wineMapper, wineDtoAssembler, mock(WineCatalogIndex.class),
+                mock(WineVectorIndex.class), publisher, transactionManager);
+        eventService = new EventService(eventRepository, bookingRepository, mock(EventSeatInventory.class),
+                eventMapper, publisher);
+        cartService = new CartService(new WinePriceCache(wineRepository, new PricingProperties()),
+                new SimpleMeterRegistry());
+
+        // Непустые выборки: пустой список не догружает теги и блюда
+        jdbcTemplate.update("UPDATE wines SET featured = true, rating = 4.5 WHERE id IN (SELECT id FROM wines ORDER BY id LIMIT 3)");
+        jdbcTemplate.update("INSERT INTO events (title, slug, date, total_spots, booked_spots, price_per_person) "
+                + "VALUES ('Budget tasting', 'budget-tasting', CURRENT_DATE + 7, 20, 0, 25)");
+    }
+
+    @Test
+    void everyConfiguredEndpointStaysWithinItsBudget() {
+        List<Long> wineIds = jdbcTemplate.queryForList("SELECT id FROM wines ORDER BY id LIMIT 2", Long.class);
+        String wineSlug = jdbcTemplate.queryForObject("SELECT slug FROM wines WHERE id = ?", String.class, wineIds.getFirst());
+        assertThat(wineIds).hasSize(2);
+
+        Map<String, Runnable> endpoints = new LinkedHashMap<>();
+        endpoints.put("GET /api/wines", () -> wineService.getAllWines(emptySearch(), PageRequest.of(0, 12)));
+        endpoints.put("GET /api/wines/{slug}", () -> wineService.getWineBySlug(wineSlug));
+        endpoints.put("GET /api/wines/featured", () -> wineService.getFeaturedWines());
+        endpoints.put("GET /api/wines/top-rated", () -> wineService.getTopRatedWines());
+        endpoints.put("GET /api/wines/filters/grapes", () -> wineService.getAllGrapes());
+        endpoints.put("GET /api/events", () -> eventService.getUpcomingEvents());
+        endpoints.put("GET /api/events/{slug}", () -> eventService.getEventBySlug("budget-tasting"));
+        endpoints.put("POST /api/cart/calculate", () -> cartService.calculateCart(new CartCalculationRequest(List.of(
+                new CartItemDTO(wineIds.get(0), 1), new CartItemDTO(wineIds.get(1), 2)))));
+
+        // Бюджет без проверки здесь — просто число в конфигурации
+        assertThat(endpoints.keySet()).containsExactlyInAnyOrderElementsOf(properties.getBudgets().keySet());
+        endpoints.forEach((endpoint, work) -> QueryBudget.assertAtMost(properties.getBudgets().get(endpoint), work));
+    }
+
+    @Test
+    void wineListFallbackDoesNotGrowWithPageSize() {
+        int small = QueryBudget.capture(() -> wineService.getAllWines(emptySearch(), PageRequest.of(0, 2))).statements();
+        int large = QueryBudget.capture(() -> wineService.getAllWines(emptySearch(), PageRequest.of(0, 50))).statements();
+
+        // Страница, count, теги и блюда — заодно видно, что учет запросов в тесте работает
+        assertThat(small).isEqualTo(4);
+        assertThat(large).isLessThanOrEqualTo(small);
+    }
+
+    private static WineSearchRequest emptySearch() {
+        return new WineSearchRequest(null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.wine.store.service;
+
+import com.wine.store.model.SyncJob;
+import com.wine.store.model.SyncJobStatus;
+import com.wine.store.model.SyncTrigger;
+import com.wine.store.repository.SyncJobRepository;
+import com.wine.store.service.metrics.QueryInspector;
+import com.wine.store.service.sync.SyncJobLock;
+import com.wine.store.service.sync.SyncProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncJobServiceTest {
+
+    private final WooCommerceSyncService syncService = mock(WooCommerceSyncService.class);
+    private final SyncJobRepository syncJobRepository = mock(SyncJobRepository.class);
+    private final SyncJobLock lock = mock(SyncJobLock.class);
+    private final SyncJob job = SyncJob.builder().id(1L).status(SyncJobStatus.RUNNING).build();
+    private SyncJobService service;
+
+    @BeforeEach
+    void setUp() {
+        when(lock.getNodeId()).thenReturn("1@this-node");
+        when(lock.tryAcquire(any())).thenReturn(true);
+        when(syncJobRepository.save(any())).thenReturn(job);
+        when(syncJobRepository.findById(anyLong())).thenReturn(Optional.of(job));
+        when(syncJobRepository.findStale(any(), any())).thenReturn(List.of());
+        when(syncService.prepare(anyBoolean())).thenAnswer(invocation -> new SyncProgress(false, null));
+        service = new SyncJobService(syncService, syncJobRepository, mock(QueryInspector.class), lock);
+    }
+
+    @Test
+    void jobThatLostItsLockStopsAndFails() {
+        // Импорт пишет страницы, пока его не остановят, — как WooCommerceSyncService.run
+        when(syncService.run(any())).thenAnswer(invocation -> {
+            SyncProgress progress = invocation.getArgument(0);
+            while (true) {
+                try {
+                    progress.throwIfCancelled();
+                } catch (CancellationException e) {
+                    progress.aborted(e);
+                    return progress.toReport();
+                }
+                Thread.sleep(10);
+            }
+        });
+        service.start(false, SyncTrigger.MANUAL);
+
+        when(lock.heartbeat()).thenReturn(false);
+        when(lock.owner()).thenReturn("2@other-node");
+        service.heartbeat();
+
+        verify(lock, timeout(5_000)).release();
+        assertThat(job.getStatus()).isEqualTo(SyncJobStatus.FAILED);
+        assertThat(job.getErrorMessage()).contains("2@other-node");
+    }
+
+    @Test
+    void restartReleasesLockLeftByThisNode() {
+        when(syncJobRepository.findByStatusAndNodeId(SyncJobStatus.RUNNING, "1@this-node")).thenReturn(List.of(job));
+
+        service.failInterruptedJobs();
+
+        verify(lock).release();
+        assertThat(job.getStatus()).isEqualTo(SyncJobStatus.FAILED);
+    }
+}
@@ -0,0 +1,164 @@
+package com.wine.store.service.booking;
+
+import com.wine.store.config.BookingProperties;
+import com.wine.store.dto.BookingStatusDTO;
+import com.wine.store.model.BookingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запись идет в собственном потоке BookingWriter, поэтому тест работает без общей транзакции.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookingWriter.class, BookingProperties.class, BookingWriterTest.SeatsBookedEvents.class})
+@TestPropertySource(properties = {
+        "app.booking.flush-interval=1ms",
+        "app.booking.max-attempts=3",
+        "app.booking.retry-backoff=10ms",
+        "app.booking.retry-backoff-max=20ms"
+})
+class BookingWriterTest {
+
+    @Autowired
+    private BookingWriter writer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SeatsBookedEvents seatsBookedEvents;
+
+    private Long eventId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM events");
+        jdbcTemplate.update("INSERT INTO events (slug, title, total_spots, booked_spots, price_per_person) "
+                + "VALUES ('tasting', 'Tasting', 4, 0, 20)");
+        eventId = jdbcTemplate.queryForObject("SELECT id FROM events WHERE slug = 'tasting'", Long.class);
+        seatsBookedEvents.published.clear();
+    }
+
+    @Test
+    void writesBookingAndMovesSeatsToBooked() {
+        EventSeats seats = new EventSeats(eventId, 4, 0, BigDecimal.TEN);
+        PendingBooking booking = take(seats, "Anna", 3);
+
+        writer.enqueue(booking);
+
+        assertThat(awaitOutcome(booking.reference())).isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(jdbcTemplate.queryForObject("SELECT booked_spots FROM events WHERE id = ?", Integer.class, eventId))
+                .isEqualTo(3);
+        assertThat(seats.booked()).isEqualTo(3);
+        assertThat(seats.reserved()).isZero();
+    }
+
+    @Test
+    void publishesBookedSpotsAfterCommitRatherThanAddedSeats() {
+        // Место, записанное другим узлом
+        jdbcTemplate.update("UPDATE events SET booked_spots = 1 WHERE id = ?", eventId);
+        EventSeats seats = new EventSeats(eventId, 4, 1, BigDecimal.TEN);
+        PendingBooking booking = take(seats, "Anna", 2);
+
+        writer.enqueue(booking);
+
+        assertThat(awaitOutcome(booking.reference())).isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(seatsBookedEvents.published).containsExactly(new SeatsBookedEvent(Map.of(eventId, 3)));
+    }
+
+    @Test
+    void bookingRejectedByDatabaseIsCancelledAndReleased() {
+        // Счетчик думает, что мест 10, а в БД их 4
+        EventSeats seats = new EventSeats(eventId, 10, 0, BigDecimal.TEN);
+        PendingBooking booking = take(seats, "Anna", 5);
+
+        writer.enqueue(booking);
+
+        assertThat(awaitOutcome(booking.reference())).isEqualTo(BookingStatus.CANCELLED);
+        assertThat(seats.reserved()).isZero();
+        assertThat(seats.clearStale()).isTrue();
+    }
+
+    @Test
+    void bookingThatCannotBeWrittenIsRetriedThenFailed() {
+        EventSeats seats = new EventSeats(eventId, 4, 0, BigDecimal.TEN);
+        // customer_name NOT NULL — запись падает при каждой попытке
+        PendingBooking booking = take(seats, null, 2);
+
+        writer.enqueue(booking);
+
+        assertThat(writer.status(booking.reference())).map(BookingStatusDTO::status).contains(BookingStatus.PENDING);
+        assertThat(awaitOutcome(booking.reference())).isEqualTo(BookingStatus.FAILED);
+        assertThat(seats.reserved()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT booked_spots FROM events WHERE id = ?", Integer.class, eventId))
+                .isZero();
+    }
+
+    @Test
+    void failedBookingDoesNotBlockOthersInItsBatch() {
+        EventSeats seats = new EventSeats(eventId, 4, 0, BigDecimal.TEN);
+        PendingBooking broken = take(seats, null, 1);
+        PendingBooking good = take(seats, "Anna", 2);
+
+        writer.enqueue(broken);
+        writer.enqueue(good);
+
+        assertThat(awaitOutcome(good.reference())).isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(awaitOutcome(broken.reference())).isEqualTo(BookingStatus.FAILED);
+        assertThat(seats.booked()).isEqualTo(2);
+        assertThat(seats.reserved()).isZero();
+    }
+
+    private PendingBooking take(EventSeats seats, String name, int guests) {
+        assertThat(seats.tryTake(guests)).isTrue();
+        return new PendingBooking(eventId, name, "anna@example.com", null, guests, BigDecimal.valueOf(20L * guests), seats);
+    }
+
+    private BookingStatus awaitOutcome(UUID reference) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            BookingStatus status = writer.status(reference).map(BookingStatusDTO::status)
+                    .orElseGet(() -> jdbcTemplate.queryForList("SELECT status FROM bookings WHERE reference = ?",
+                            String.class, reference).stream().findFirst().map(BookingStatus::valueOf).orElse(null));
+            if (status != null && status != BookingStatus.PENDING) {
+                return status;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new AssertionError("Booking " + reference + " is still pending");
+    }
+
+    static class SeatsBookedEvents {
+
+        final Queue<SeatsBookedEvent> published = new ConcurrentLinkedQueue<>();
+
+        @EventListener
+        void onSeatsBooked(SeatsBookedEvent event) {
+            published.add(event);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.wine.store.service.booking;
+
+import com.wine.store.config.BookingProperties;
+import com.wine.store.dto.SeatHoldDTO;
+import com.wine.store.exception.AppException;
+import com.wine.store.repository.EventRepository;
+import com.wine.store.repository.projection.EventSeatsView;
+import com.wine.store.service.catalog.EventsChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventSeatInventoryTest {
+
+    private static final Long EVENT_ID = 7L;
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final EventSeatInventory inventory = new EventSeatInventory(eventRepository, mock(BookingWriter.class),
+            new BookingProperties());
+
+    @Test
+    void notificationForSeatsAlreadySeededIsNotCountedTwice() {
+        // Счетчик засеян после коммита другого узла, уведомление о том же коммите приходит позже
+        bookedInDatabase(5);
+        inventory.reserve(EVENT_ID, 1);
+
+        inventory.onBookedElsewhere(EVENT_ID, 5);
+        inventory.onBookedElsewhere(EVENT_ID, 5);
+        inventory.onBookedElsewhere(EVENT_ID, 4);
+
+        assertThat(inventory.takenSeats(EVENT_ID)).contains(6);
+
+        inventory.onBookedElsewhere(EVENT_ID, 8);
+        assertThat(inventory.takenSeats(EVENT_ID)).contains(9);
+    }
+
+    @Test
+    void notificationForUnseededEventIsIgnored() {
+        inventory.onBookedElsewhere(EVENT_ID, 5);
+
+        assertThat(inventory.takenSeats(EVENT_ID)).isEmpty();
+    }
+
+    @Test
+    void staleCounterRereadsBookedSeatsAndKeepsHolds() {
+        bookedInDatabase(5);
+        SeatHoldDTO hold = inventory.reserve(EVENT_ID, 2);
+
+        bookedInDatabase(6);
+        inventory.markAllStale();
+        inventory.reserve(EVENT_ID, 1);
+
+        assertThat(inventory.takenSeats(EVENT_ID)).contains(6 + 2 + 1);
+        inventory.release(hold.holdId());
+        assertThat(inventory.takenSeats(EVENT_ID)).contains(6 + 1);
+    }
+
+    @Test
+    void committedEventChangeUpdatesPriceAndLimit() {
+        bookedInDatabase(5);
+        inventory.reserve(EVENT_ID, 2);
+
+        inDatabase(new EventSeatsView(EVENT_ID, 8, 5, new BigDecimal("15")));
+        inventory.onEventsChanged(EventsChangedEvent.event(EVENT_ID));
+
+        assertThat(inventory.reserve(EVENT_ID, 1).totalPrice()).isEqualByComparingTo("15");
+        assertThatThrownBy(() -> inventory.reserve(EVENT_ID, 1)).isInstanceOf(AppException.class);
+        assertThat(inventory.takenSeats(EVENT_ID)).contains(5 + 2 + 1);
+    }
+
+    @Test
+    void changeOfUnknownEventsRereadsPriceOnNextAccess() {
+        bookedInDatabase(5);
+        inventory.reserve(EVENT_ID, 1);
+
+        inDatabase(new EventSeatsView(EVENT_ID, 20, 5, new BigDecimal("12")));
+        inventory.onEventsChanged(EventsChangedEvent.all());
+
+        assertThat(inventory.reserve(EVENT_ID, 2).totalPrice()).isEqualByComparingTo("24");
+    }
+
+    private void bookedInDatabase(int bookedSpots) {
+        inDatabase(new EventSeatsView(EVENT_ID, 20, bookedSpots, BigDecimal.TEN));
+    }
+
+    private void inDatabase(EventSeatsView view) {
+        when(eventRepository.findSeatsView(EVENT_ID)).thenReturn(Optional.of(view));
+    }
+}
@@ -0,0 +1,156 @@
+package com.wine.store.service.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSeatsTest {
+
+    @Test
+    void takesSeatsUpToTotal() {
+        EventSeats seats = new EventSeats(1L, 10, 6, BigDecimal.TEN);
+
+        assertThat(seats.tryTake(3)).isTrue();
+        assertThat(seats.tryTake(2)).isFalse();
+        assertThat(seats.tryTake(1)).isTrue();
+
+        assertThat(seats.booked()).isEqualTo(6);
+        assertThat(seats.reserved()).isEqualTo(4);
+        assertThat(seats.taken()).isEqualTo(10);
+    }
+
+    @Test
+    void commitMovesSeatsFromReservedToBooked() {
+        EventSeats seats = new EventSeats(1L, 10, 0, BigDecimal.TEN);
+        seats.tryTake(2);
+        seats.tryTake(3);
+
+        seats.committed(2, 2);
+
+        assertThat(seats.booked()).isEqualTo(2);
+        assertThat(seats.reserved()).isEqualTo(3);
+    }
+
+    @Test
+    void syncFromDatabaseKeepsLocalHoldsAndQueue() {
+        EventSeats seats = new EventSeats(1L, 10, 2, BigDecimal.TEN);
+        seats.tryTake(3);
+
+        // Другой узел записал 4 места
+        seats.syncBooked(6);
+
+        assertThat(seats.booked()).isEqualTo(6);
+        assertThat(seats.reserved()).isEqualTo(3);
+        assertThat(seats.tryTake(2)).isFalse();
+        assertThat(seats.tryTake(1)).isTrue();
+    }
+
+    @Test
+    void olderDatabaseValueIsIgnored() {
+        EventSeats seats = new EventSeats(1L, 10, 0, BigDecimal.TEN);
+        seats.tryTake(4);
+        seats.committed(4, 4);
+
+        // Запоздавшее значение, прочитанное до коммита
+        seats.syncBooked(0);
+        seats.syncBooked(4);
+
+        assertThat(seats.booked()).isEqualTo(4);
+        assertThat(seats.taken()).isEqualTo(4);
+    }
+
+    @Test
+    void staleFlagIsClearedOnce() {
+        EventSeats seats = new EventSeats(1L, 10, 0, BigDecimal.TEN);
+        seats.markStale();
+
+        assertThat(seats.clearStale()).isTrue();
+        assertThat(seats.clearStale()).isFalse();
+    }
+
+    @Test
+    void concurrentTakesNeverOversell() throws InterruptedException {
+        EventSeats seats = new EventSeats(1L, 1_000, 0, BigDecimal.TEN);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 1_000; i++) {
+                        if (seats.tryTake(1)) {
+                            granted.incrementAndGet();
+                        }
+                        if (i % 3 == 0 && seats.tryTake(2)) {
+                            seats.release(2);
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(granted.get()).isEqualTo(1_000);
+        assertThat(seats.reserved()).isEqualTo(1_000);
+    }
+
+    @Test
+    void concurrentCommitsAndSyncsKeepBookedAndReservedConsistent() throws InterruptedException {
+        EventSeats seats = new EventSeats(1L, 500, 0, BigDecimal.TEN);
+        // booked_spots в БД: растет при каждой записи, синхронизация читает его параллельно
+        AtomicInteger bookedInDb = new AtomicInteger();
+        AtomicInteger granted = new AtomicInteger();
+        AtomicBoolean oversold = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 6; thread++) {
+                executor.execute(() -> {
+                    awaitQuietly(start);
+                    for (int i = 0; i < 200; i++) {
+                        if (seats.tryTake(1)) {
+                            granted.incrementAndGet();
+                            seats.committed(1, bookedInDb.incrementAndGet());
+                        }
+                    }
+                });
+            }
+            for (int thread = 0; thread < 2; thread++) {
+                executor.execute(() -> {
+                    awaitQuietly(start);
+                    for (int i = 0; i < 2_000; i++) {
+                        seats.syncBooked(bookedInDb.get());
+                        if (seats.taken() > 500) {
+                            oversold.set(true);
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(oversold).isFalse();
+        assertThat(granted.get()).isPositive().isLessThanOrEqualTo(500);
+        assertThat(seats.booked()).isEqualTo(granted.get()).isEqualTo(bookedInDb.get());
+        assertThat(seats.reserved()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.wine.store.service.cache;
+
+import com.wine.store.config.ResponseCacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(new ResponseCacheProperties());
+
+    @Test
+    void storesBodyWithStrongEtag() {
+        long generation = cache.generation(CacheRegion.WINES);
+        CachedBody stored = cache.put(CacheRegion.WINES, "/api/wines/featured", generation, body("[1]"), "application/json");
+
+        CachedBody cached = cache.get(CacheRegion.WINES, "/api/wines/featured");
+        assertThat(cached).isSameAs(stored);
+        assertThat(cached.etag()).startsWith("\"").endsWith("\"");
+        assertThat(cache.put(CacheRegion.WINES, "other", generation, body("[1]"), "application/json").etag())
+                .isEqualTo(cached.etag());
+    }
+
+    @Test
+    void responseBuiltBeforeInvalidationIsNotStored() {
+        long generation = cache.generation(CacheRegion.WINES);
+        cache.invalidate(CacheRegion.WINES);
+
+        CachedBody returned = cache.put(CacheRegion.WINES, "/api/wines/featured", generation, body("[1]"), "application/json");
+
+        assertThat(returned).isNotNull();
+        assertThat(cache.get(CacheRegion.WINES, "/api/wines/featured")).isNull();
+    }
+
+    @Test
+    void regionsAreInvalidatedSeparately() {
+        cache.put(CacheRegion.WINES, "w", cache.generation(CacheRegion.WINES), body("w"), "application/json");
+        cache.put(CacheRegion.EVENTS, "e", cache.generation(CacheRegion.EVENTS), body("e"), "application/json");
+
+        cache.invalidate(CacheRegion.EVENTS);
+
+        assertThat(cache.get(CacheRegion.WINES, "w")).isNotNull();
+        assertThat(cache.get(CacheRegion.EVENTS, "e")).isNull();
+        assertThat(cache.stats(CacheRegion.EVENTS).misses()).isEqualTo(1);
+    }
+
+    private static byte[] body(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+package com.wine.store.service.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Перенос из 007-tasting-values (вариант для H2) на тех же строках дает те же числа, что TastingValues.
+ */
+@JdbcTest
+class TastingValuesBackfillTest {
+
+    private static final List<String> SAMPLES = List.of(
+            "13,5 %", "12.456 % vol", "12.455", "25.004 %", "25.005 %", "1200 g/l", "0,8 g/l", "4.999 g/l",
+            "499.995 g/l", "500.01", "trocken", "ca. 6 g/l (2019)", "");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void backfillMatchesTastingValues() throws Exception {
+        for (int i = 0; i < SAMPLES.size(); i++) {
+            String sample = SAMPLES.get(i);
+            jdbcTemplate.update("INSERT INTO wines (id, name, slug, price, alcohol, acidity, sugar) "
+                    + "VALUES (?, ?, ?, 10, ?, ?, ?)", 1000L + i, "Wine " + i, "wine-" + i, sample, sample, sample);
+        }
+
+        jdbcTemplate.execute(backfillSql("h2"));
+
+        for (int i = 0; i < SAMPLES.size(); i++) {
+            String sample = SAMPLES.get(i);
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT alcohol_percent, acidity_grams, sugar_grams FROM wines WHERE id = ?", 1000L + i);
+            assertThat((BigDecimal) row.get("ALCOHOL_PERCENT")).as("alcohol %s", sample)
+                    .isEqualTo(TastingValues.alcohol(sample));
+            assertThat((BigDecimal) row.get("ACIDITY_GRAMS")).as("acidity %s", sample)
+                    .isEqualTo(TastingValues.acidity(sample));
+            assertThat((BigDecimal) row.get("SUGAR_GRAMS")).as("sugar %s", sample)
+                    .isEqualTo(TastingValues.sugar(sample));
+        }
+    }
+
+    private static String backfillSql(String dbms) throws Exception {
+        try (InputStream xml = new ClassPathResource("db/changelog/007-tasting-values.xml").getInputStream()) {
+            NodeList statements = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(xml)
+                    .getElementsByTagName("sql");
+            for (int i = 0; i < statements.getLength(); i++) {
+                Element statement = (Element) statements.item(i);
+                if (dbms.equals(statement.getAttribute("dbms"))) {
+                    return statement.getTextContent();
+                }
+            }
+        }
+        throw new IllegalStateException("No <sql dbms=\"" + dbms + "\"> in the backfill changeSet");
+    }
+}
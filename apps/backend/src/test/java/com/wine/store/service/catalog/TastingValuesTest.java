@@ -0,0 +1,50 @@
+package com.wine.store.service.catalog;
+
+import com.wine.store.model.Wine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TastingValuesTest {
+
+    @Test
+    void takesFirstNumberWithCommaOrDotAsDecimalSeparator() {
+        assertThat(TastingValues.alcohol("13,5 % vol.")).isEqualTo(new BigDecimal("13.50"));
+        assertThat(TastingValues.acidity("5.6 g/l")).isEqualTo(new BigDecimal("5.60"));
+        assertThat(TastingValues.sugar("ca. 7 g/l (6-8)")).isEqualTo(new BigDecimal("7.00"));
+    }
+
+    @Test
+    void roundsHalfUpToHundredths() {
+        assertThat(TastingValues.alcohol("12.345")).isEqualTo(new BigDecimal("12.35"));
+        assertThat(TastingValues.acidity("6,004")).isEqualTo(new BigDecimal("6.00"));
+    }
+
+    @Test
+    void implausibleOrMissingValuesAreNull() {
+        assertThat(TastingValues.alcohol("125 %")).isNull();
+        assertThat(TastingValues.acidity("20.01")).isNull();
+        assertThat(TastingValues.sugar("n/a")).isNull();
+        assertThat(TastingValues.sugar(null)).isNull();
+        // Граница диапазона допустима
+        assertThat(TastingValues.alcohol("25")).isEqualTo(new BigDecimal("25.00"));
+        assertThat(TastingValues.sugar("500 g/l")).isEqualTo(new BigDecimal("500.00"));
+    }
+
+    @Test
+    void applyRecomputesAllNumericColumns() {
+        Wine wine = new Wine();
+        wine.setAlcohol("12,5%");
+        wine.setAcidity("7 g/l");
+        wine.setSugarGrams(new BigDecimal("3.00"));
+
+        TastingValues.apply(wine);
+
+        assertThat(wine.getAlcoholPercent()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(wine.getAcidityGrams()).isEqualTo(new BigDecimal("7.00"));
+        // Строки нет — прежнее числовое значение не сохраняется
+        assertThat(wine.getSugarGrams()).isNull();
+    }
+}
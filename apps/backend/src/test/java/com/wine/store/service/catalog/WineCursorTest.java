@@ -0,0 +1,75 @@
+package com.wine.store.service.catalog;
+
+import com.wine.store.dto.WineDTO;
+import com.wine.store.exception.AppException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WineCursorTest {
+
+    @Test
+    void encodedCursorIsUrlSafeAndDecodesBack() {
+        WineCursor cursor = new WineCursor(WineKeysetOrder.PRICE_DESC, new BigDecimal("15.99"), 42);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        assertThat(WineCursor.decode(encoded, WineKeysetOrder.PRICE_DESC)).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorTakesKeyAndTiebreakerFromLastRow() {
+        WineDTO last = WineDTO.builder().id(42L).price(new BigDecimal("15.90")).rating(4.5).build();
+
+        assertThat(WineCursor.after(WineKeysetOrder.PRICE_ASC, last))
+                .isEqualTo(new WineCursor(WineKeysetOrder.PRICE_ASC, new BigDecimal("15.90"), 42));
+        assertThat(WineCursor.after(WineKeysetOrder.RATING_DESC, last).value()).isEqualByComparingTo("4.5");
+        assertThat(WineCursor.after(WineKeysetOrder.ID_DESC, last).value()).isNull();
+    }
+
+    @Test
+    void wineWithoutRatingGivesCursorWithoutValue() {
+        WineDTO unrated = WineDTO.builder().id(7L).price(BigDecimal.TEN).build();
+
+        WineCursor cursor = WineCursor.after(WineKeysetOrder.RATING_DESC, unrated);
+
+        assertThat(cursor.value()).isNull();
+        assertThat(WineCursor.decode(cursor.encode(), WineKeysetOrder.RATING_DESC)).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorForAnotherSortIsRejected() {
+        String encoded = new WineCursor(WineKeysetOrder.ID_ASC, null, 5).encode();
+
+        assertThatThrownBy(() -> WineCursor.decode(encoded, WineKeysetOrder.PRICE_ASC))
+                .isInstanceOf(AppException.class)
+                .hasMessage("Cursor does not match the requested sort")
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertInvalid("not base64!");
+        assertInvalid(encode("PRICE_ASC:12.00"));
+        assertInvalid(encode("PRICE_ASC::5"));
+        assertInvalid(encode("UNKNOWN::5"));
+        assertInvalid(encode("ID_ASC::five"));
+    }
+
+    private static void assertInvalid(String encoded) {
+        assertThatThrownBy(() -> WineCursor.decode(encoded, WineKeysetOrder.PRICE_ASC))
+                .isInstanceOf(AppException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
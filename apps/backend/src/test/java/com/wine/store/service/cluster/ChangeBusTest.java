@@ -0,0 +1,192 @@
+package com.wine.store.service.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wine.store.config.BookingProperties;
+import com.wine.store.config.ChangeBusProperties;
+import com.wine.store.dto.SeatHoldDTO;
+import com.wine.store.repository.EventRepository;
+import com.wine.store.repository.projection.EventSeatsView;
+import com.wine.store.service.booking.BookingWriter;
+import com.wine.store.service.booking.EventSeatInventory;
+import com.wine.store.service.booking.SeatsBookedEvent;
+import com.wine.store.service.cache.SecondLevelCacheInvalidator;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import com.wine.store.service.catalog.EventsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Два узла на одной базе PostgreSQL: узел A записывает бронирования и рассылает booked_spots,
+ * узел B держит резервы в своем счетчике мест. Схема не нужна — шина использует только LISTEN/NOTIFY.
+ * Уведомления одного узла обрабатываются по порядку, поэтому доставленный маркер (CatalogChangedEvent
+ * с уникальным id) значит, что все отправленные до него уведомления уже применены.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ChangeBusTest {
+
+    private static final Long EVENT_ID = 7L;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final AtomicLong markers = new AtomicLong(1_000);
+    private final BlockingQueue<Object> publishedOnB = new LinkedBlockingQueue<>();
+    private final EventRepository eventRepositoryOfB = mock(EventRepository.class);
+
+    private EventSeatInventory inventoryOfB;
+    private ChangeBus nodeA;
+    private ChangeBus nodeB;
+    private TransactionTemplate transactionOfA;
+
+    @BeforeEach
+    void startNodes() throws InterruptedException {
+        DriverManagerDataSource dataSourceA = dataSource("node-a");
+        nodeA = bus(dataSourceA, event -> { }, mock(EventSeatInventory.class));
+        transactionOfA = new TransactionTemplate(new DataSourceTransactionManager(dataSourceA));
+
+        inventoryOfB = new EventSeatInventory(eventRepositoryOfB, mock(BookingWriter.class), new BookingProperties());
+        // Как в приложении: счетчик мест узла B слушает EventsChangedEvent
+        nodeB = bus(dataSource("node-b"), event -> {
+            if (event instanceof EventsChangedEvent changed) {
+                inventoryOfB.onEventsChanged(changed);
+            }
+            publishedOnB.add(event);
+        }, inventoryOfB);
+
+        nodeA.start();
+        nodeB.start();
+        awaitDeliveredToB();
+    }
+
+    @AfterEach
+    void stopNodes() throws InterruptedException {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void counterSeededAfterRemoteCommitDoesNotCountSeatsTwice() throws InterruptedException {
+        // B засеял счетчик уже после коммита A: booked_spots = 5 включает места A
+        seatsInDatabase(5);
+        inventoryOfB.reserve(EVENT_ID, 1);
+
+        bookOnA(5);
+        awaitDeliveredToB();
+
+        assertThat(inventoryOfB.takenSeats(EVENT_ID)).contains(6);
+    }
+
+    @Test
+    void duplicateAndLateNotificationsDoNotChangeTheCounter() throws InterruptedException {
+        seatsInDatabase(2);
+        inventoryOfB.reserve(EVENT_ID, 1);
+
+        bookOnA(5);
+        bookOnA(5);
+        // Значение из транзакции, закоммиченной раньше, но доставленное позже
+        bookOnA(4);
+        awaitDeliveredToB();
+        assertThat(inventoryOfB.takenSeats(EVENT_ID)).contains(6);
+
+        bookOnA(8);
+        awaitDeliveredToB();
+        assertThat(inventoryOfB.takenSeats(EVENT_ID)).contains(9);
+    }
+
+    @Test
+    void reconnectKeepsLocalHoldsAndRereadsBookedSeats() throws InterruptedException {
+        seatsInDatabase(5);
+        SeatHoldDTO hold = inventoryOfB.reserve(EVENT_ID, 2);
+        // Пока B без соединения, другой узел записал еще одно место — уведомление B не получит
+        seatsInDatabase(6);
+
+        new JdbcTemplate(dataSource("test")).queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = 'node-b'");
+        awaitPublishedOnB(EventsChangedEvent.all());
+        awaitDeliveredToB();
+
+        inventoryOfB.reserve(EVENT_ID, 1);
+        assertThat(inventoryOfB.takenSeats(EVENT_ID)).contains(6 + 2 + 1);
+        inventoryOfB.release(hold.holdId());
+        assertThat(inventoryOfB.takenSeats(EVENT_ID)).contains(6 + 1);
+    }
+
+    private void bookOnA(int bookedSpots) {
+        transactionOfA.executeWithoutResult(status ->
+                nodeA.onSeatsBooked(new SeatsBookedEvent(Map.of(EVENT_ID, bookedSpots))));
+    }
+
+    private void seatsInDatabase(int bookedSpots) {
+        when(eventRepositoryOfB.findSeatsView(EVENT_ID))
+                .thenReturn(Optional.of(new EventSeatsView(EVENT_ID, 20, bookedSpots, BigDecimal.TEN)));
+    }
+
+    private void awaitPublishedOnB(Object expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            if (expected.equals(publishedOnB.poll(300, TimeUnit.MILLISECONDS))) {
+                return;
+            }
+        }
+        throw new AssertionError("Node B did not publish " + expected);
+    }
+
+    /**
+     * Повторяет маркер, пока B его не получит: уведомления, отправленные до LISTEN (старт, переподключение),
+     * теряются.
+     */
+    private void awaitDeliveredToB() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            CatalogChangedEvent marker = CatalogChangedEvent.wine(markers.incrementAndGet());
+            nodeA.onCatalogChanged(marker);
+            Object published;
+            while ((published = publishedOnB.poll(300, TimeUnit.MILLISECONDS)) != null) {
+                if (marker.equals(published)) {
+                    publishedOnB.clear();
+                    return;
+                }
+            }
+        }
+        throw new AssertionError("Node B did not receive change notifications");
+    }
+
+    private ChangeBus bus(DriverManagerDataSource dataSource, ApplicationEventPublisher publisher, EventSeatInventory inventory) {
+        ChangeBusProperties properties = new ChangeBusProperties();
+        properties.setChannel("change_bus_test");
+        properties.setHeartbeat(Duration.ofMillis(200));
+        properties.setReconnectDelay(Duration.ofMillis(100));
+        return new ChangeBus(properties, dataSource, new JdbcTemplate(dataSource), new ObjectMapper(), publisher,
+                inventory, mock(SecondLevelCacheInvalidator.class), new SimpleMeterRegistry());
+    }
+
+    private static DriverManagerDataSource dataSource(String node) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl() + "&ApplicationName=" + node, POSTGRES.getUsername(), POSTGRES.getPassword());
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        return dataSource;
+    }
+}
@@ -0,0 +1,37 @@
+package com.wine.store.service.cluster;
+
+import com.wine.store.service.booking.SeatsBookedEvent;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PendingChangesTest {
+
+    @Test
+    void seatsKeepTheLatestBookedSpotsOfTheTransaction() {
+        PendingChanges changes = new PendingChanges();
+        changes.add(new SeatsBookedEvent(Map.of(7L, 3, 8L, 1)));
+        changes.add(new SeatsBookedEvent(Map.of(7L, 5)));
+
+        // booked_spots, а не сумма: узел-получатель применяет значение как есть
+        assertThat(changes.toNotification("node", 10).seats()).isEqualTo(Map.of(7L, 5, 8L, 1));
+    }
+
+    @Test
+    void tooManyIdsBecomeFullRefresh() {
+        PendingChanges changes = new PendingChanges();
+        changes.add(CatalogChangedEvent.wines(Set.of(1L, 2L, 3L)));
+        changes.add(new SeatsBookedEvent(Map.of(7L, 1, 8L, 1, 9L, 1)));
+
+        ChangeNotification notification = changes.toNotification("node", 2);
+
+        assertThat(notification.allWines()).isTrue();
+        assertThat(notification.wines()).isEmpty();
+        assertThat(notification.allEvents()).isTrue();
+        assertThat(notification.seats()).isEmpty();
+    }
+}
@@ -0,0 +1,81 @@
+package com.wine.store.service.pricing;
+
+import com.wine.store.config.PricingProperties;
+import com.wine.store.model.StockStatus;
+import com.wine.store.repository.WineRepository;
+import com.wine.store.repository.projection.WinePriceView;
+import com.wine.store.service.catalog.CatalogChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WinePriceCacheTest {
+
+    private WineRepository wineRepository;
+    private WinePriceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        wineRepository = mock(WineRepository.class);
+        when(wineRepository.findPriceViewsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id > 0).map(WinePriceCacheTest::price).toList();
+        });
+        PricingProperties properties = new PricingProperties();
+        properties.setCacheMaxEntries(100);
+        cache = new WinePriceCache(wineRepository, properties);
+    }
+
+    @Test
+    void loadsOnlyMisses() {
+        cache.getAll(List.of(1L, 2L));
+        assertThat(cache.getAll(List.of(1L, 2L, 3L))).containsOnlyKeys(1L, 2L, 3L);
+
+        verify(wineRepository).findPriceViewsByIdIn(List.of(1L, 2L));
+        verify(wineRepository).findPriceViewsByIdIn(List.of(3L));
+        assertThat(cache.stats().hits()).isEqualTo(2);
+        assertThat(cache.stats().misses()).isEqualTo(3);
+    }
+
+    @Test
+    void unknownIdsAreNotCached() {
+        assertThat(cache.getAll(List.of(-1L))).isEmpty();
+        assertThat(cache.getAll(List.of(-1L))).isEmpty();
+
+        verify(wineRepository, times(2)).findPriceViewsByIdIn(List.of(-1L));
+    }
+
+    @Test
+    void changedWinesAreReloaded() {
+        cache.getAll(List.of(1L, 2L));
+
+        cache.onCatalogChanged(CatalogChangedEvent.wine(1L));
+        cache.getAll(List.of(1L, 2L));
+
+        verify(wineRepository).findPriceViewsByIdIn(List.of(1L));
+    }
+
+    @Test
+    void fullRefreshDropsEverything() {
+        cache.getAll(List.of(1L, 2L));
+
+        cache.onCatalogChanged(CatalogChangedEvent.full());
+
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.stats().maxSize()).isEqualTo(100);
+    }
+
+    private static WinePriceView price(Long id) {
+        return new WinePriceView(id, "Wine " + id, BigDecimal.TEN, StockStatus.IN_STOCK, 10, null);
+    }
+}
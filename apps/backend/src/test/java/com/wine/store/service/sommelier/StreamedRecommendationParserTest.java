@@ -0,0 +1,64 @@
+package com.wine.store.service.sommelier;
+
+import com.wine.store.service.sommelier.StreamedRecommendationParser.ParsedRecommendation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamedRecommendationParserTest {
+
+    @Test
+    void objectSplitAcrossChunksIsEmittedWhenClosed() {
+        StreamedRecommendationParser parser = new StreamedRecommendationParser();
+
+        assertThat(parser.feed("{\"wineId\": 12, \"matchSc")).isEmpty();
+        assertThat(parser.feed("ore\": 87, \"matchReasoning\": \"Passt zu Wild\"")).isEmpty();
+
+        assertThat(parser.feed("}\n{\"wineId\"")).containsExactly(new ParsedRecommendation(12L, 87, "Passt zu Wild"));
+    }
+
+    @Test
+    void bracesAndQuotesInsideStringsDoNotEndTheObject() {
+        StreamedRecommendationParser parser = new StreamedRecommendationParser();
+
+        List<ParsedRecommendation> parsed = parser.feed(
+                "{\"wineId\": 3, \"matchScore\": 70, \"matchReasoning\": \"Frucht } und \\\"Würze\\\" {\"}");
+
+        assertThat(parsed).containsExactly(new ParsedRecommendation(3L, 70, "Frucht } und \"Würze\" {"));
+    }
+
+    @Test
+    void arrayWrappedInMarkdownYieldsEveryObject() {
+        String response = """
+                Hier sind meine Empfehlungen:
+                ```json
+                [
+                  {"wineId": 1, "matchScore": 95, "matchReasoning": "Klassisch", "extra": {"note": "ignored"}},
+                  {"wineId": 2, "matchScore": 80, "matchReasoning": "Frisch"}
+                ]
+                ```""";
+
+        assertThat(feedByCharacter(response)).extracting(ParsedRecommendation::wineId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void malformedObjectsAndObjectsWithoutWineAreSkipped() {
+        StreamedRecommendationParser parser = new StreamedRecommendationParser();
+
+        List<ParsedRecommendation> parsed = parser.feed(
+                "{\"wineId\": \"abc\"} {\"matchScore\": 50} {\"wineId\": 9, \"matchScore\": 60}");
+
+        assertThat(parsed).containsExactly(new ParsedRecommendation(9L, 60, null));
+        assertThat(parser.feed(null)).isEmpty();
+    }
+
+    private static List<ParsedRecommendation> feedByCharacter(String response) {
+        StreamedRecommendationParser parser = new StreamedRecommendationParser();
+        List<ParsedRecommendation> parsed = new ArrayList<>();
+        response.chars().forEach(c -> parsed.addAll(parser.feed(String.valueOf((char) c))));
+        return parsed;
+    }
+}
@@ -0,0 +1,65 @@
+package com.wine.store.service.spec;
+
+import com.wine.store.dto.WineSearchRequest;
+import com.wine.store.model.Wine;
+import com.wine.store.repository.WineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Поиск через БД (запасной путь, когда индекс каталога в памяти недоступен) на схеме из Liquibase (H2).
+ */
+@DataJpaTest
+class WineSpecificationTest {
+
+    @Autowired
+    private WineRepository wineRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Только свои вина: демо-каталог из миграций тоже содержит бургундеры и рислинги
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM wines");
+        insert(1, "Spätburgunder Rotwein", "Pinot Noir", "Kirsche und Waldboden");
+        insert(2, "Grauburgunder", "Pinot Gris", "Birne, cremig, mit einem Hauch MINERALITÄT");
+        insert(3, "Weißwein Cuvée", "Riesling", null);
+        jdbcTemplate.update("INSERT INTO wine_tags (wine_id, tag) VALUES (3, 'Bio')");
+    }
+
+    @Test
+    void searchMatchesLobDescriptionCaseInsensitively() {
+        // lower() по @Lob без CAST падал в Hibernate 6 с FunctionArgumentException еще при построении запроса
+        assertThat(ids(search("mineralität"))).containsExactly(2L);
+    }
+
+    @Test
+    void searchMatchesNameGrapeAndTagWithoutDuplicates() {
+        assertThat(ids(search("burgunder"))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(search("riesling"))).containsExactly(3L);
+        assertThat(ids(search("bio"))).containsExactly(3L);
+    }
+
+    private List<Long> ids(WineSearchRequest request) {
+        return wineRepository.findAll(WineSpecification.getSpec(request)).stream().map(Wine::getId).toList();
+    }
+
+    private void insert(long id, String name, String grape, String description) {
+        jdbcTemplate.update("INSERT INTO wines (id, name, slug, price, grape_variety, description) VALUES (?, ?, ?, 10, ?, ?)",
+                id, name, "wine-" + id, grape, description);
+    }
+
+    private static WineSearchRequest search(String search) {
+        return new WineSearchRequest(search, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+}
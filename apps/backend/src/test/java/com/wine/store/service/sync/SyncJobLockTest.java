@@ -0,0 +1,75 @@
+package com.wine.store.service.sync;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Блокировка на схеме из Liquibase (H2). Второй узел имитируется прямой записью в job_locks.
+ */
+@JdbcTest
+@Import(SyncJobLock.class)
+class SyncJobLockTest {
+
+    private static final Duration STALE_AFTER = Duration.ofMinutes(2);
+
+    @Autowired
+    private SyncJobLock lock;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void acquiresFreeLockOnlyOnce() {
+        assertThat(lock.tryAcquire(STALE_AFTER)).isTrue();
+        assertThat(lock.owner()).isEqualTo(lock.getNodeId());
+
+        assertThat(lock.tryAcquire(STALE_AFTER)).isFalse();
+    }
+
+    @Test
+    void doesNotTakeLockWithFreshHeartbeatFromAnotherNode() {
+        takenByOtherNode(LocalDateTime.now().minusSeconds(30));
+
+        assertThat(lock.tryAcquire(STALE_AFTER)).isFalse();
+        assertThat(lock.heartbeat()).isFalse();
+        lock.release();
+        assertThat(lock.owner()).isEqualTo("other-node");
+    }
+
+    @Test
+    void takesOverLockWithStaleHeartbeat() {
+        takenByOtherNode(LocalDateTime.now().minusMinutes(5));
+
+        assertThat(lock.tryAcquire(STALE_AFTER)).isTrue();
+        assertThat(lock.owner()).isEqualTo(lock.getNodeId());
+        assertThat(lock.heartbeat()).isTrue();
+    }
+
+    @Test
+    void releaseFreesLockAndClearsJob() {
+        assertThat(lock.tryAcquire(STALE_AFTER)).isTrue();
+        lock.attach(42L);
+        assertThat(jdbcTemplate.queryForObject("SELECT job_id FROM job_locks WHERE name = 'woocommerce-sync'",
+                Long.class)).isEqualTo(42L);
+
+        lock.release();
+
+        assertThat(lock.owner()).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT job_id FROM job_locks WHERE name = 'woocommerce-sync'",
+                Long.class)).isNull();
+        assertThat(lock.tryAcquire(STALE_AFTER)).isTrue();
+    }
+
+    private void takenByOtherNode(LocalDateTime heartbeatAt) {
+        jdbcTemplate.update("UPDATE job_locks SET owner_node = 'other-node', job_id = 7, heartbeat_at = ? "
+                + "WHERE name = 'woocommerce-sync'", heartbeatAt);
+    }
+}
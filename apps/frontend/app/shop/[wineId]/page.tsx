@@ -10,13 +10,12 @@ import React from 'react';
 import { useParams } from 'next/navigation';
 import { ArrowLeft } from 'lucide-react';
 import Link from 'next/link';
-import { Wine } from '@/lib/types/wine';
 import { WineDetail } from '@/components/wine/WineDetail';
 import { useTranslation } from '@/lib/i18n';
 import { useWishlistStore } from '@/lib/store/useWishlistStore';
 import { useCartStore } from '@/lib/store/useCartStore';
 import { useAuth } from '@/lib/contexts/AuthContext';
-import { useWines } from '@/lib/hooks/useWines';
+import { useWine } from '@/lib/hooks/useWines';
 import WineDetailSkeleton from '@/components/ui/Skeletons/WineDetailSkeleton';
 
 
@@ -24,8 +23,8 @@ export default function WineDetailPage() {
     const { wineId } = useParams();
     const { t } = useTranslation();
 
-    // Стор TanStack Query
-    const { data: allProducts = [], isLoading } = useWines();
+    // Стор TanStack Query: полная карточка вина (в списке нет описания и аналитики)
+    const { data: wine, isLoading } = useWine(String(wineId));
     const addToCart = useCartStore(state => state.addToCart);
     const toggleWishlist = useWishlistStore(state => state.toggleWishlist);
 
@@ -37,34 +36,6 @@ export default function WineDetailPage() {
         setMounted(true);
     }, []);
 
-    const flattenedProducts = React.useMemo(() => {
-        if (Array.isArray(allProducts)) {
-            return allProducts;
-        } else if (allProducts && 'pages' in allProducts) {
-            // @ts-ignore
-            return allProducts.pages.flatMap((page: any) => page.data);
-        }
-        return [];
-    }, [allProducts]);
-
-    // Поиск конкретного вина по slug
-    const wine = React.useMemo(() => {
-        const item = flattenedProducts.find((p) => {
-            // Проверяем что это вино
-            if ('grapeVariety' in p) {
-                const wineItem = p as Wine;
-                // Ищем по slug (используется в URL)
-                return wineItem.slug === wineId;
-            }
-            return false;
-        });
-
-        if (item && 'grapeVariety' in item) {
-            return item as Wine;
-        }
-        return undefined;
-    }, [flattenedProducts, wineId]);
-
     // Состояние избранного (всегда вызываем хук, даже если вино не найдено)
     const isFavorite = useWishlistStore(
         React.useCallback((state) => wine ? state.wishlist.includes(wine.id) : false, [wine])
@@ -64,7 +64,7 @@ function mapWineDtoToWine(dto: WineDto): Wine {
         id: dto.id.toString(),
         name: dto.name,
         slug: dto.slug,
-        description: dto.description,
+        description: dto.description || '',
         imageUrl: dto.image_url || '',
         price: dto.price,
         salePrice: dto.sale_price,
@@ -196,6 +196,22 @@ export const fetchWines = async (params: FetchWinesParams = {}): Promise<Paginat
     }
 };
 
+/**
+ * Получение полной информации о вине по slug (описание и аналитика есть только здесь, не в списке).
+ */
+export const fetchWineBySlug = async (slug: string): Promise<Wine | null> => {
+    try {
+        const res = await fetch(`http://localhost:8080/api/wines/${encodeURIComponent(slug)}`);
+        if (!res.ok) return null;
+
+        const response: ApiResponse<WineDto> = await res.json();
+        return response.data ? mapWineDtoToWine(response.data) : null;
+    } catch (error) {
+        console.error("Fetch wine failed", error);
+        return null;
+    }
+};
+
 /**
  * Получение доступных опций фильтрации (Фасеты).
  */
@@ -5,7 +5,7 @@
  */
 
 import { useQuery, useInfiniteQuery } from "@tanstack/react-query";
-import { fetchWines, fetchWineFacets, FetchWinesParams } from "@/lib/api/products";
+import { fetchWines, fetchWineBySlug, fetchWineFacets, FetchWinesParams } from "@/lib/api/products";
 
 export const useWines = (params: FetchWinesParams = {}) => {
     return useInfiniteQuery({
@@ -18,6 +18,14 @@ export const useWines = (params: FetchWinesParams = {}) => {
     });
 };
 
+export const useWine = (slug: string) => {
+    return useQuery({
+        queryKey: ["wine", slug],
+        queryFn: () => fetchWineBySlug(slug),
+        enabled: !!slug,
+    });
+};
+
 export const useWineFacets = (params: FetchWinesParams = {}) => {
     return useQuery({
         queryKey: ["wine-facets", params.category, params.search, params.tag, params.type],
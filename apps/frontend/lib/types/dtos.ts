@@ -22,7 +22,7 @@ export interface WineDto {
     id: number;
     name: string;
     slug: string;
-    description: string;
+    description?: string; // только в GET /api/wines/{slug}, списки отдают карточки без описания
     image_url: string; // snake_case
     price: number;
     sale_price?: number;